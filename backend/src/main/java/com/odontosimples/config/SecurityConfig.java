@@ -4,6 +4,7 @@ import com.odontosimples.security.JwtAuthenticationFilter;
 import com.odontosimples.security.JwtTokenProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -62,15 +63,20 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/swagger-ui/**", "/api/api-docs/**", "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                // Feed .ics para apps de calendário: o token da URL é a autenticação (AgendaIcsService)
+                .requestMatchers(HttpMethod.GET, "/api/dentistas/ics/*/agenda.ics").permitAll()
                 
                 // Endpoints protegidos por role
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // Métricas expõem contagens de pacientes e usuários (unicidade.elementos)
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/dentistas/**").hasAnyRole("ADMIN", "DENTISTA")
                 .requestMatchers("/api/pacientes/**").hasAnyRole("ADMIN", "DENTISTA", "RECEPCIONISTA")
                 .requestMatchers("/api/consultas/**").hasAnyRole("ADMIN", "DENTISTA", "RECEPCIONISTA")
                 .requestMatchers("/api/prontuarios/**").hasAnyRole("ADMIN", "DENTISTA")
                 .requestMatchers("/api/pagamentos/**").hasAnyRole("ADMIN", "RECEPCIONISTA")
+                .requestMatchers("/api/anexos/**").hasAnyRole("ADMIN", "DENTISTA", "RECEPCIONISTA")
                 
                 // Qualquer outra requisição precisa estar autenticada
                 .anyRequest().authenticated()
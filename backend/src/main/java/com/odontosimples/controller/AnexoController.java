@@ -0,0 +1,223 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.dto.AnexoDTO;
+import com.odontosimples.entity.Anexo;
+import com.odontosimples.service.AnexoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/anexos")
+@Tag(name = "Anexos", description = "Radiografias, fotos, documentos e comprovantes de pagamento")
+public class AnexoController {
+
+    // Atributos do sendfile do Tomcat (os mesmos que o DefaultServlet usa): com eles o
+    // conector envia o trecho do arquivo direto para o socket, sem passar pela aplicação
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    private static final MediaType TIPO_DICOM = MediaType.parseMediaType("application/dicom");
+
+    @Autowired
+    private AnexoService anexoService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Anexar arquivo",
+               description = "Grava o arquivo (até app.anexos.tamanho-maximo) no armazém por SHA-256 e o anexa ao "
+                       + "paciente, prontuário ou pagamento. Categorias: RADIOGRAFIA, FOTO, DOCUMENTO, COMPROVANTE")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> anexar(@RequestParam("arquivo") MultipartFile arquivo,
+                                    @RequestParam String categoria,
+                                    @RequestParam(required = false) Long pacienteId,
+                                    @RequestParam(required = false) Long prontuarioId,
+                                    @RequestParam(required = false) Long pagamentoId) {
+        try {
+            AnexoDTO response = anexoService.anexar(arquivo, Anexo.Categoria.valueOf(categoria.toUpperCase()),
+                    pacienteId, prontuarioId, pagamentoId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao anexar arquivo: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/paciente/{pacienteId}")
+    @Operation(summary = "Anexos do paciente", description = "Lista os anexos do paciente, mais recentes primeiro")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarDoPaciente(@PathVariable Long pacienteId) {
+        List<AnexoDTO> response = anexoService.listarDoPaciente(pacienteId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/prontuario/{prontuarioId}")
+    @Operation(summary = "Anexos do prontuário", description = "Lista os anexos do prontuário")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> listarDoProntuario(@PathVariable Long prontuarioId) {
+        List<AnexoDTO> response = anexoService.listarDoProntuario(prontuarioId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/pagamento/{pagamentoId}")
+    @Operation(summary = "Comprovantes do pagamento", description = "Lista os anexos do pagamento")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarDoPagamento(@PathVariable Long pagamentoId) {
+        List<AnexoDTO> response = anexoService.listarDoPagamento(pagamentoId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}/conteudo")
+    @Operation(summary = "Baixar anexo",
+               description = "Conteúdo do anexo com ETag (SHA-256) e Range de uma faixa de bytes (If-Range aceito); "
+                       + "imagens, PDF e DICOM são exibidos, os demais tipos vão como download de octet-stream; "
+                       + "If-None-Match com o mesmo ETag devolve 304. Anexos de prontuário só para ADMIN e "
+                       + "DENTISTA; comprovantes e anexos de pagamento só para ADMIN e RECEPCIONISTA")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> baixar(@PathVariable Long id, HttpServletRequest request) {
+        AnexoService.Arquivo arquivo;
+        try {
+            arquivo = anexoService.arquivo(id);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        AnexoDTO anexo = arquivo.anexo();
+
+        // O conteúdo de um anexo nunca muda: o SHA-256 é um ETag forte e o cache pode ser longo
+        String etag = "\"" + anexo.getSha256() + "\"";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (corresponde(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        // O tipo gravado vem do cliente: só imagens, PDF e DICOM são exibidos com ele. O resto
+        // (html, svg, xml...) seria conteúdo ativo na origem da aplicação e vai como download
+        MediaType tipo = MediaType.parseMediaType(anexo.getTipoConteudo());
+        boolean exibivel = exibivel(tipo);
+        headers.setContentType(exibivel ? tipo : MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDisposition((exibivel ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(anexo.getNomeArquivo(), StandardCharsets.UTF_8).build());
+
+        long tamanho = anexo.getTamanho();
+        long inicio = 0;
+        long fim = tamanho - 1;
+        HttpStatus status = HttpStatus.OK;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // Range inválido, com várias faixas ou com If-Range de outra versão: vai o arquivo inteiro
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> faixas;
+            try {
+                faixas = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                faixas = List.of();
+            }
+            if (faixas.size() == 1) {
+                HttpRange faixa = faixas.get(0);
+                if (faixa.getRangeStart(tamanho) >= tamanho) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho)
+                            .build();
+                }
+                inicio = faixa.getRangeStart(tamanho);
+                fim = faixa.getRangeEnd(tamanho);
+                status = HttpStatus.PARTIAL_CONTENT;
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fim + "/" + tamanho);
+            }
+        }
+        headers.setContentLength(fim - inicio + 1);
+
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return ResponseEntity.status(status).headers(headers).build();
+        }
+        Path caminho = arquivo.caminho();
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))) {
+            request.setAttribute(SENDFILE_ARQUIVO, caminho.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIM, fim + 1);
+            return ResponseEntity.status(status).headers(headers).build();
+        }
+        long posicao = inicio;
+        long quantidade = fim - inicio + 1;
+        StreamingResponseBody corpo = stream -> transferir(caminho, posicao, quantidade, stream);
+        return ResponseEntity.status(status).headers(headers).body(corpo);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Remover anexo", description = "Desativa o anexo; o conteúdo continua no armazém")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> remover(@PathVariable Long id) {
+        try {
+            anexoService.remover(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao remover anexo: " + e.getMessage());
+        }
+    }
+
+    // Sem sendfile: FileChannel.transferTo em blocos, sem carregar o arquivo na memória
+    private static void transferir(Path caminho, long inicio, long quantidade, OutputStream stream) throws IOException {
+        try (FileChannel arquivo = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            WritableByteChannel saida = Channels.newChannel(stream);
+            long enviados = 0;
+            while (enviados < quantidade) {
+                long transferidos = arquivo.transferTo(inicio + enviados, quantidade - enviados, saida);
+                if (transferidos <= 0) {
+                    throw new IOException("Arquivo do anexo menor que o registrado: " + caminho);
+                }
+                enviados += transferidos;
+            }
+        }
+    }
+
+    private static boolean exibivel(MediaType tipo) {
+        if (tipo.getType().equals("image")) {
+            return !tipo.getSubtype().contains("svg");
+        }
+        return tipo.equalsTypeAndSubtype(MediaType.APPLICATION_PDF) || tipo.equalsTypeAndSubtype(TIPO_DICOM);
+    }
+
+    private static boolean corresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String valor : ifNoneMatch.split(",")) {
+            String candidato = valor.trim();
+            if (candidato.equals("*") || candidato.equals(etag) || candidato.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,9 +1,20 @@
 package com.odontosimples.controller;
 
+import com.odontosimples.dto.AtualizacaoSerieDTO;
 import com.odontosimples.dto.ConsultaDTO;
+import com.odontosimples.dto.HistoricoAgendaDTO;
+import com.odontosimples.dto.HorarioLivreDTO;
+import com.odontosimples.dto.OcupacaoMesDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
 import com.odontosimples.dto.ReagendamentoDTO;
+import com.odontosimples.dto.SerieConsultaDTO;
 import com.odontosimples.entity.Consulta;
+import com.odontosimples.service.AgendaStreamService;
 import com.odontosimples.service.ConsultaService;
+import com.odontosimples.service.ExportacaoService;
+import com.odontosimples.service.HorarioLivreService;
+import com.odontosimples.service.OcupacaoService;
+import com.odontosimples.service.SerieConsultaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -14,13 +25,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -32,6 +48,21 @@ public class ConsultaController {
     @Autowired
     private ConsultaService consultaService;
 
+    @Autowired
+    private HorarioLivreService horarioLivreService;
+
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
+    @Autowired
+    private SerieConsultaService serieConsultaService;
+
+    @Autowired
+    private AgendaStreamService agendaStreamService;
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
     @Autowired
     private ModelMapper modelMapper;
 
@@ -53,34 +84,117 @@ public class ConsultaController {
         }
     }
 
+    @PostMapping("/lote")
+    @Operation(summary = "Agendar consultas em lote", description = "Agenda várias consultas em uma única transação")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> agendarLote(@RequestBody List<@Valid ConsultaDTO> consultasDto) {
+        try {
+            List<Consulta> consultas = consultasDto.stream()
+                    .map(dto -> modelMapper.map(dto, Consulta.class))
+                    .collect(Collectors.toList());
+
+            List<ConsultaDTO> response = consultaService.agendarLote(consultas).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao agendar consultas em lote: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/serie")
+    @Operation(summary = "Agendar série de consultas", description = "Agenda consultas recorrentes (semanal ou mensal)")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> agendarSerie(@Valid @RequestBody SerieConsultaDTO serieDto) {
+        try {
+            List<ConsultaDTO> response = serieConsultaService.criarSerie(serieDto).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao agendar série de consultas: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/{id}/cancelar-seguintes")
+    @Operation(summary = "Cancelar esta e as seguintes", description = "Cancela a consulta e as próximas da mesma série")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> cancelarSeguintes(@PathVariable Long id) {
+        try {
+            int canceladas = serieConsultaService.cancelarSeguintes(id);
+            return ResponseEntity.ok(new Object() {
+                public final int consultasCanceladas = canceladas;
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao cancelar série de consultas: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/{id}/atualizar-seguintes")
+    @Operation(summary = "Atualizar esta e as seguintes", description = "Atualiza valor, tipo e observações da consulta e das próximas da mesma série")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> atualizarSeguintes(@PathVariable Long id,
+                                                @Valid @RequestBody AtualizacaoSerieDTO atualizacaoDto) {
+        try {
+            int atualizadas = serieConsultaService.atualizarSeguintes(id, atualizacaoDto);
+            return ResponseEntity.ok(new Object() {
+                public final int consultasAtualizadas = atualizadas;
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao atualizar série de consultas: " + e.getMessage());
+        }
+    }
+
     @GetMapping
     @Operation(summary = "Listar consultas", description = "Lista todas as consultas com paginação")
     @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
-    public ResponseEntity<Page<ConsultaDTO>> listarConsultas(
+    public ResponseEntity<?> listarConsultas(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "dataHora") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
         
+        if (!ConsultaService.CAMPOS_ORDENACAO.contains(sortBy)) {
+            return ResponseEntity.badRequest().body("Ordenação não permitida: " + sortBy
+                    + ". Use um de " + ConsultaService.CAMPOS_ORDENACAO);
+        }
+
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                    Sort.by(sortBy).descending() : 
                    Sort.by(sortBy).ascending();
         
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Consulta> consultas = consultaService.listarTodas(pageable);
-        
-        Page<ConsultaDTO> response = consultas.map(this::convertToDTO);
+        Pageable pageable = PageRequest.of(page, size, sort.and(Sort.by("id")));
+        Page<ConsultaDTO> response = consultaService.listarTodas(pageable);
         
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar consultas por cursor",
+               description = "Lista consultas por data/hora usando o cursor devolvido pela página anterior")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarConsultasPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        try {
+            PaginaCursorDTO<ConsultaDTO> response = consultaService.listarPorCursor(
+                    cursor, size, sortDir.equalsIgnoreCase("desc"), incluirTotal);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao listar consultas: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar consulta por ID", description = "Retorna uma consulta específica")
     @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
     public ResponseEntity<?> buscarConsulta(@PathVariable Long id) {
         try {
-            Consulta consulta = consultaService.buscarPorId(id);
-            ConsultaDTO response = convertToDTO(consulta);
+            ConsultaDTO response = consultaService.buscarDTOPorId(id);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -109,8 +223,8 @@ public class ConsultaController {
     public ResponseEntity<?> reagendarConsulta(@PathVariable Long id, 
                                              @Valid @RequestBody ReagendamentoDTO reagendamentoDto) {
         try {
-            Consulta consulta = consultaService.reagendarConsulta(id, 
-                    reagendamentoDto.getNovaDataHora(), reagendamentoDto.getMotivo());
+            Consulta consulta = consultaService.reagendarConsulta(id, reagendamentoDto.getNovaDataHora(),
+                    reagendamentoDto.getMotivo(), reagendamentoDto.getSolicitadoPor());
             
             ConsultaDTO response = convertToDTO(consulta);
             return ResponseEntity.ok(response);
@@ -145,6 +259,19 @@ public class ConsultaController {
         }
     }
 
+    @PutMapping("/{id}/faltou")
+    @Operation(summary = "Registrar falta", description = "Marca que o paciente não compareceu à consulta")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> registrarFalta(@PathVariable Long id) {
+        try {
+            Consulta consulta = consultaService.registrarFalta(id);
+            ConsultaDTO response = convertToDTO(consulta);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao registrar falta: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}/cancelar")
     @Operation(summary = "Cancelar consulta", description = "Cancela uma consulta")
     @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
@@ -164,10 +291,7 @@ public class ConsultaController {
     public ResponseEntity<List<ConsultaDTO>> consultasPorData(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
         
-        List<Consulta> consultas = consultaService.listarPorData(data);
-        List<ConsultaDTO> response = consultas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<ConsultaDTO> response = consultaService.listarPorData(data);
         
         return ResponseEntity.ok(response);
     }
@@ -179,10 +303,7 @@ public class ConsultaController {
             @PathVariable Long dentistaId,
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
         
-        List<Consulta> consultas = consultaService.listarPorDentistaEData(dentistaId, data);
-        List<ConsultaDTO> response = consultas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<ConsultaDTO> response = consultaService.listarPorDentistaEData(dentistaId, data);
         
         return ResponseEntity.ok(response);
     }
@@ -191,14 +312,34 @@ public class ConsultaController {
     @Operation(summary = "Consultas por paciente", description = "Lista consultas de um paciente")
     @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
     public ResponseEntity<List<ConsultaDTO>> consultasPorPaciente(@PathVariable Long pacienteId) {
-        List<Consulta> consultas = consultaService.listarPorPaciente(pacienteId);
-        List<ConsultaDTO> response = consultas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<ConsultaDTO> response = consultaService.listarPorPaciente(pacienteId);
         
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar agenda do dia",
+               description = "Envia por Server-Sent Events as consultas criadas, alteradas, confirmadas, canceladas e reagendadas no dia")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public SseEmitter acompanharAgenda(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestParam(required = false) Long dentistaId) {
+        return agendaStreamService.assinar(data, dentistaId);
+    }
+
+    @GetMapping("/paciente/{pacienteId}/historico")
+    @Operation(summary = "Histórico de reagendamentos e faltas",
+               description = "Lista todos os reagendamentos e faltas do paciente, mais recentes primeiro")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> historicoDoPaciente(@PathVariable Long pacienteId) {
+        try {
+            List<HistoricoAgendaDTO> response = consultaService.historicoDoPaciente(pacienteId);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar histórico do paciente: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/verificar-disponibilidade")
     @Operation(summary = "Verificar disponibilidade", description = "Verifica se um horário está disponível")
     @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
@@ -214,6 +355,61 @@ public class ConsultaController {
         });
     }
 
+    @GetMapping("/horarios-livres")
+    @Operation(summary = "Horários livres", description = "Lista os horários livres de todos os dentistas em um dia ou semana")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> horariosLivres(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestParam(required = false) String especialidade,
+            @RequestParam(required = false) Integer duracao,
+            @RequestParam(defaultValue = "DIA") String periodo) {
+        try {
+            int dias = periodo.equalsIgnoreCase("SEMANA") ? 7 : 1;
+            List<HorarioLivreDTO> response = horarioLivreService.buscarHorariosLivres(data, dias, especialidade, duracao);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar horários livres: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/ocupacao")
+    @Operation(summary = "Ocupação do mês", description = "Percentual de ocupação por dentista, por dia e por hora no mês")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> ocupacao(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes,
+            @RequestParam(required = false) String especialidade) {
+        try {
+            OcupacaoMesDTO response = ocupacaoService.calcular(mes, especialidade);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao calcular ocupação: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar consultas",
+               description = "Consultas do período (datas inclusivas) em CSV ou NDJSON, escritas em streaming")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportarConsultas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "csv") String formato) {
+        try {
+            if (fim.isBefore(inicio)) {
+                throw new RuntimeException("Data final anterior à inicial");
+            }
+            ExportacaoService.Formato saida = ExportacaoService.Formato.de(formato);
+            StreamingResponseBody corpo = stream -> exportacaoService.exportarConsultas(inicio, fim, saida, stream);
+            return ResponseEntity.ok()
+                    .contentType(saida.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + saida.nomeArquivo("consultas-" + inicio + "-" + fim) + "\"")
+                    .body(corpo);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao exportar consultas: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/buscar")
     @Operation(summary = "Buscar consultas", description = "Busca consultas por termo")
     @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
@@ -223,9 +419,7 @@ public class ConsultaController {
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("dataHora").descending());
-        Page<Consulta> consultas = consultaService.buscarPorTermo(termo, pageable);
-        
-        Page<ConsultaDTO> response = consultas.map(this::convertToDTO);
+        Page<ConsultaDTO> response = consultaService.buscarPorTermo(termo, pageable);
         
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,103 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.service.AgendaIcsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/dentistas")
+@Tag(name = "Dentistas", description = "Gerenciamento de dentistas")
+public class DentistaController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    @Autowired
+    private AgendaIcsService agendaIcsService;
+
+    @GetMapping("/{id}/agenda.ics")
+    @Operation(summary = "Agenda em iCalendar",
+               description = "Feed .ics da agenda do dentista, com o JWT do sistema")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> agendaIcs(@PathVariable Long id, WebRequest request) {
+        try {
+            return feed(id, request);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao gerar agenda: " + e.getMessage());
+        }
+    }
+
+    // Sem JWT (apps de calendário): liberado no SecurityConfig, vale só o token da URL
+    @GetMapping("/ics/{token}/agenda.ics")
+    @Operation(summary = "Agenda em iCalendar por token",
+               description = "Feed .ics para assinatura em apps de calendário; a URL vem de POST /{id}/agenda.ics/token")
+    public ResponseEntity<?> agendaIcsPorToken(@PathVariable String token, WebRequest request) {
+        Long id;
+        try {
+            id = agendaIcsService.dentistaDoToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return feed(id, request);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao gerar agenda: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/agenda.ics/token")
+    @Operation(summary = "Gerar URL de assinatura da agenda",
+               description = "Gera o token do feed .ics do dentista e devolve a URL de assinatura; a URL anterior deixa de valer")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> gerarTokenAgenda(@PathVariable Long id) {
+        try {
+            String token = agendaIcsService.gerarToken(id);
+            String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/dentistas/ics/{token}/agenda.ics")
+                    .buildAndExpand(token)
+                    .toUriString();
+            return ResponseEntity.ok(url);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao gerar URL da agenda: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}/agenda.ics/token")
+    @Operation(summary = "Revogar URL de assinatura da agenda", description = "A URL do feed .ics deixa de valer")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> revogarTokenAgenda(@PathVariable Long id) {
+        try {
+            agendaIcsService.revogarToken(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao revogar URL da agenda: " + e.getMessage());
+        }
+    }
+
+    // checkNotModified trata If-None-Match (lista, W/, *) e já responde 304 com o ETag
+    private ResponseEntity<?> feed(Long id, WebRequest request) {
+        String etag = agendaIcsService.etag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        StreamingResponseBody corpo = saida -> agendaIcsService.escrever(id, saida);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(TEXT_CALENDAR)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"agenda.ics\"")
+                .body(corpo);
+    }
+}
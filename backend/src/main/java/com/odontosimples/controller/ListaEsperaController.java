@@ -0,0 +1,72 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.dto.ListaEsperaDTO;
+import com.odontosimples.service.ListaEsperaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/lista-espera")
+@Tag(name = "Lista de Espera", description = "Pacientes aguardando um horário liberado")
+public class ListaEsperaController {
+
+    @Autowired
+    private ListaEsperaService listaEsperaService;
+
+    @PostMapping
+    @Operation(summary = "Incluir na lista de espera",
+               description = "Inclui o paciente na lista de espera de um dentista ou especialidade")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> incluir(@Valid @RequestBody ListaEsperaDTO listaEsperaDto) {
+        try {
+            ListaEsperaDTO response = listaEsperaService.incluir(listaEsperaDto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao incluir na lista de espera: " + e.getMessage());
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "Listar lista de espera", description = "Lista os pedidos aguardando, por prioridade")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarAguardando() {
+        try {
+            List<ListaEsperaDTO> response = listaEsperaService.listarAguardando();
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao listar lista de espera: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/paciente/{pacienteId}")
+    @Operation(summary = "Pedidos do paciente", description = "Lista os pedidos de lista de espera de um paciente")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarPorPaciente(@PathVariable Long pacienteId) {
+        try {
+            List<ListaEsperaDTO> response = listaEsperaService.listarPorPaciente(pacienteId);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao listar pedidos do paciente: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Retirar da lista de espera", description = "Cancela um pedido ainda aguardando")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> cancelar(@PathVariable Long id) {
+        try {
+            listaEsperaService.cancelar(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao retirar da lista de espera: " + e.getMessage());
+        }
+    }
+}
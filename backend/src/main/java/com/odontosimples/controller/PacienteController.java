@@ -1,7 +1,12 @@
 package com.odontosimples.controller;
 
+import com.odontosimples.dto.ImportacaoPacientesDTO;
 import com.odontosimples.dto.PacienteDTO;
+import com.odontosimples.dto.PacienteSugestaoDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
 import com.odontosimples.entity.Paciente;
+import com.odontosimples.service.ExportacaoService;
+import com.odontosimples.service.PacienteImportacaoService;
 import com.odontosimples.service.PacienteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,10 +17,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,6 +37,12 @@ public class PacienteController {
     @Autowired
     private PacienteService pacienteService;
 
+    @Autowired
+    private PacienteImportacaoService pacienteImportacaoService;
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
     @Autowired
     private ModelMapper modelMapper;
 
@@ -51,17 +66,22 @@ public class PacienteController {
     @GetMapping
     @Operation(summary = "Listar pacientes", description = "Lista todos os pacientes com paginação")
     @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
-    public ResponseEntity<Page<PacienteDTO>> listarPacientes(
+    public ResponseEntity<?> listarPacientes(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "nome") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir) {
         
+        if (!PacienteService.CAMPOS_ORDENACAO.contains(sortBy)) {
+            return ResponseEntity.badRequest().body("Ordenação não permitida: " + sortBy
+                    + ". Use um de " + PacienteService.CAMPOS_ORDENACAO);
+        }
+
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                    Sort.by(sortBy).descending() : 
                    Sort.by(sortBy).ascending();
         
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequest.of(page, size, sort.and(Sort.by("id")));
         Page<Paciente> pacientes = pacienteService.listarTodos(pageable);
         
         Page<PacienteDTO> response = pacientes.map(paciente -> {
@@ -73,6 +93,84 @@ public class PacienteController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar pacientes por cursor",
+               description = "Lista pacientes por nome usando o cursor devolvido pela página anterior")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarPacientesPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        try {
+            PaginaCursorDTO<PacienteDTO> response = pacienteService
+                    .listarPorCursor(cursor, size, sortDir.equalsIgnoreCase("desc"), incluirTotal)
+                    .map(paciente -> {
+                        PacienteDTO dto = modelMapper.map(paciente, PacienteDTO.class);
+                        dto.setIdade(paciente.getIdade());
+                        return dto;
+                    });
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao listar pacientes: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocompletar pacientes",
+               description = "Sugere pacientes ativos cujo nome ou alguma palavra do nome começa pelo termo")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> autocompletar(@RequestParam String q,
+                                           @RequestParam(defaultValue = "10") int limite) {
+        try {
+            List<PacienteSugestaoDTO> response = pacienteService.sugerir(q, limite);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar sugestões: " + e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importar pacientes",
+               description = "Importa pacientes de um CSV (nome, cpf, data_nascimento, telefone e opcionais) em segundo plano")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importarPacientes(@RequestParam("arquivo") MultipartFile arquivo) {
+        try {
+            ImportacaoPacientesDTO response = pacienteImportacaoService.importar(arquivo);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao importar pacientes: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/importar/{importacaoId}")
+    @Operation(summary = "Andamento da importação", description = "Progresso e linhas com erro de uma importação")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> andamentoImportacao(@PathVariable String importacaoId) {
+        try {
+            return ResponseEntity.ok(pacienteImportacaoService.situacao(importacaoId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar pacientes", description = "Todos os pacientes em CSV ou NDJSON, escritos em streaming")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportarPacientes(@RequestParam(defaultValue = "csv") String formato) {
+        try {
+            ExportacaoService.Formato saida = ExportacaoService.Formato.de(formato);
+            StreamingResponseBody corpo = stream -> exportacaoService.exportarPacientes(saida, stream);
+            return ResponseEntity.ok()
+                    .contentType(saida.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + saida.nomeArquivo("pacientes") + "\"")
+                    .body(corpo);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao exportar pacientes: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar paciente por ID", description = "Retorna um paciente específico")
     @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
@@ -137,7 +235,8 @@ public class PacienteController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("nome"));
+        // ordenados pela semelhança com o termo
+        Pageable pageable = PageRequest.of(page, size);
         Page<Paciente> pacientes = pacienteService.buscarPorTermo(termo, pageable);
         
         Page<PacienteDTO> response = pacientes.map(paciente -> {
@@ -180,6 +279,25 @@ public class PacienteController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/aniversariantes/proximos")
+    @Operation(summary = "Próximos aniversariantes",
+               description = "Lista pacientes que fazem aniversário de hoje até os próximos dias, passando pela virada do ano")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> proximosAniversariantes(@RequestParam(defaultValue = "7") int dias) {
+        try {
+            List<PacienteDTO> response = pacienteService.buscarProximosAniversariantes(dias).stream()
+                    .map(paciente -> {
+                        PacienteDTO dto = modelMapper.map(paciente, PacienteDTO.class);
+                        dto.setIdade(paciente.getIdade());
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar aniversariantes: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/aniversariantes/{mes}")
     @Operation(summary = "Aniversariantes do mês", description = "Lista pacientes que fazem aniversário no mês")
     @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
@@ -0,0 +1,71 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.dto.PagamentoDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
+import com.odontosimples.service.ExportacaoService;
+import com.odontosimples.service.PagamentoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/pagamentos")
+@Tag(name = "Pagamentos", description = "Gerenciamento de pagamentos")
+public class PagamentoController {
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @GetMapping
+    @Operation(summary = "Listar pagamentos",
+               description = "Lista pagamentos por vencimento usando o cursor devolvido pela página anterior")
+    @PreAuthorize("hasAnyRole('ADMIN', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarPagamentos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        try {
+            PaginaCursorDTO<PagamentoDTO> response = pagamentoService.listarPorCursor(
+                    cursor, size, sortDir.equalsIgnoreCase("desc"), incluirTotal);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao listar pagamentos: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar pagamentos",
+               description = "Pagamentos por vencimento no período (datas inclusivas) em CSV ou NDJSON, escritos em streaming")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportarPagamentos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "csv") String formato) {
+        try {
+            if (fim.isBefore(inicio)) {
+                throw new RuntimeException("Data final anterior à inicial");
+            }
+            ExportacaoService.Formato saida = ExportacaoService.Formato.de(formato);
+            StreamingResponseBody corpo = stream -> exportacaoService.exportarPagamentos(inicio, fim, saida, stream);
+            return ResponseEntity.ok()
+                    .contentType(saida.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + saida.nomeArquivo("pagamentos-" + inicio + "-" + fim) + "\"")
+                    .body(corpo);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao exportar pagamentos: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.dto.PacienteSugestaoDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
+import com.odontosimples.dto.ProntuarioBuscaDTO;
+import com.odontosimples.dto.ProntuarioResumoDTO;
+import com.odontosimples.dto.VerificacaoPrescricaoDTO;
+import com.odontosimples.service.ProntuarioService;
+import com.odontosimples.service.TermoClinicoIndex;
+import com.odontosimples.util.Odontograma;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/prontuarios")
+@Tag(name = "Prontuários", description = "Prontuários clínicos")
+public class ProntuarioController {
+
+    @Autowired
+    private ProntuarioService prontuarioService;
+
+    @GetMapping("/paciente/{pacienteId}")
+    @Operation(summary = "Prontuários do paciente", description = "Lista o cabeçalho dos prontuários do paciente, mais recentes primeiro")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> listarDoPaciente(@PathVariable Long pacienteId) {
+        List<ProntuarioResumoDTO> response = prontuarioService.listarDoPaciente(pacienteId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/dentista/{dentistaId}")
+    @Operation(summary = "Prontuários do dentista", description = "Lista o cabeçalho dos prontuários do dentista com paginação")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> listarDoDentista(@PathVariable Long dentistaId,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "20") int size) {
+        Page<ProntuarioResumoDTO> response = prontuarioService.listarDoDentista(dentistaId, PageRequest.of(page, size));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/atrasados")
+    @Operation(summary = "Tratamentos atrasados", description = "Tratamentos em andamento com a próxima consulta já vencida")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA', 'RECEPCIONISTA')")
+    public ResponseEntity<?> listarTratamentosAtrasados() {
+        List<ProntuarioResumoDTO> response = prontuarioService.listarTratamentosAtrasados();
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/busca")
+    @Operation(summary = "Buscar em prontuários",
+               description = "Busca textual em queixa, diagnóstico, procedimentos, plano de tratamento e anamnese, "
+                       + "por relevância, com trechos destacados. Aceita \"frase exata\", -exclusão e OR")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> buscar(@RequestParam String q,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "20") int size) {
+        try {
+            PaginaCursorDTO<ProntuarioBuscaDTO> response = prontuarioService.buscar(q, cursor, size);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar prontuários: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/termos/pacientes")
+    @Operation(summary = "Pacientes por termo clínico",
+               description = "Lista os pacientes com o medicamento, classe ou alérgeno registrado no campo "
+                       + "(ALERGIA, MEDICAMENTO ou PRESCRICAO) dos prontuários")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> pacientesPorTermo(@RequestParam(defaultValue = "ALERGIA") String campo,
+                                               @RequestParam String termo) {
+        try {
+            List<PacienteSugestaoDTO> response = prontuarioService.pacientesComTermo(
+                    TermoClinicoIndex.Campo.valueOf(campo.toUpperCase()), termo);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar pacientes por termo: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/odontograma")
+    @Operation(summary = "Odontograma do prontuário", description = "Dentes com alguma condição, por face e do dente inteiro")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> odontograma(@PathVariable Long id) {
+        try {
+            Odontograma response = prontuarioService.odontograma(id);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar odontograma: " + e.getMessage());
+        }
+    }
+
+    @PutMapping("/{id}/odontograma")
+    @Operation(summary = "Registrar odontograma", description = "Substitui o odontograma do prontuário")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> salvarOdontograma(@PathVariable Long id, @RequestBody Odontograma odontograma) {
+        try {
+            Odontograma response = prontuarioService.salvarOdontograma(id, odontograma);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao registrar odontograma: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/odontograma/alteracoes")
+    @Operation(summary = "Alterações do odontograma",
+               description = "Diferenças em relação ao prontuário anterior informado ou, sem ele, ao último "
+                       + "odontograma anterior do paciente")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> alteracoesOdontograma(@PathVariable Long id,
+                                                   @RequestParam(required = false) Long anterior) {
+        try {
+            List<Odontograma.Alteracao> response = prontuarioService.alteracoesOdontograma(id, anterior);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao comparar odontogramas: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/odontograma/pacientes")
+    @Operation(summary = "Pacientes por achado no odontograma",
+               description = "Pacientes com a condição no dente (numeração FDI) no odontograma mais recente, "
+                       + "ex.: dente=36&condicao=CARIE")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> pacientesPorAchado(@RequestParam int dente, @RequestParam String condicao) {
+        try {
+            List<PacienteSugestaoDTO> response = prontuarioService.pacientesComAchado(
+                    dente, Odontograma.Condicao.valueOf(condicao.toUpperCase()));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao buscar pacientes por achado: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/verificar-prescricao")
+    @Operation(summary = "Verificar prescrição",
+               description = "Confere os medicamentos da prescrição com as alergias registradas do paciente, "
+                       + "incluindo alergias à mesma classe")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DENTISTA')")
+    public ResponseEntity<?> verificarPrescricao(@RequestParam Long pacienteId,
+                                                 @RequestParam String prescricao) {
+        try {
+            VerificacaoPrescricaoDTO response = prontuarioService.verificarPrescricao(pacienteId, prescricao);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao verificar prescrição: " + e.getMessage());
+        }
+    }
+}
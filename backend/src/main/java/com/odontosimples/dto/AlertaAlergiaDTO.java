@@ -0,0 +1,44 @@
+package com.odontosimples.dto;
+
+// Medicamento da prescrição que coincide com uma alergia registrada do paciente, pelo
+// próprio medicamento ou por uma classe em comum (ex.: amoxicilina x penicilina)
+public class AlertaAlergiaDTO {
+
+    private String medicamento;
+    private String alergia;
+    private boolean mesmoMedicamento;
+
+    // Constructors
+    public AlertaAlergiaDTO() {}
+
+    public AlertaAlergiaDTO(String medicamento, String alergia, boolean mesmoMedicamento) {
+        this.medicamento = medicamento;
+        this.alergia = alergia;
+        this.mesmoMedicamento = mesmoMedicamento;
+    }
+
+    // Getters and Setters
+    public String getMedicamento() {
+        return medicamento;
+    }
+
+    public void setMedicamento(String medicamento) {
+        this.medicamento = medicamento;
+    }
+
+    public String getAlergia() {
+        return alergia;
+    }
+
+    public void setAlergia(String alergia) {
+        this.alergia = alergia;
+    }
+
+    public boolean isMesmoMedicamento() {
+        return mesmoMedicamento;
+    }
+
+    public void setMesmoMedicamento(boolean mesmoMedicamento) {
+        this.mesmoMedicamento = mesmoMedicamento;
+    }
+}
@@ -0,0 +1,120 @@
+package com.odontosimples.dto;
+
+import com.odontosimples.entity.Anexo;
+
+import java.time.LocalDateTime;
+
+// Metadados de um anexo; o conteúdo sai por GET /api/anexos/{id}/conteudo (projeção JPQL
+// do AnexoRepository)
+public class AnexoDTO {
+
+    private Long id;
+    private String nomeArquivo;
+    private String tipoConteudo;
+    private long tamanho;
+    private String sha256;
+    private String categoria;
+    private Long pacienteId;
+    private Long prontuarioId;
+    private Long pagamentoId;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public AnexoDTO() {}
+
+    public AnexoDTO(Long id, String nomeArquivo, String tipoConteudo, long tamanho, String sha256,
+                    Anexo.Categoria categoria, Long pacienteId, Long prontuarioId, Long pagamentoId,
+                    LocalDateTime createdAt) {
+        this.id = id;
+        this.nomeArquivo = nomeArquivo;
+        this.tipoConteudo = tipoConteudo;
+        this.tamanho = tamanho;
+        this.sha256 = sha256;
+        this.categoria = categoria != null ? categoria.name() : null;
+        this.pacienteId = pacienteId;
+        this.prontuarioId = prontuarioId;
+        this.pagamentoId = pagamentoId;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNomeArquivo() {
+        return nomeArquivo;
+    }
+
+    public void setNomeArquivo(String nomeArquivo) {
+        this.nomeArquivo = nomeArquivo;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    public void setTipoConteudo(String tipoConteudo) {
+        this.tipoConteudo = tipoConteudo;
+    }
+
+    public long getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(long tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public Long getProntuarioId() {
+        return prontuarioId;
+    }
+
+    public void setProntuarioId(Long prontuarioId) {
+        this.prontuarioId = prontuarioId;
+    }
+
+    public Long getPagamentoId() {
+        return pagamentoId;
+    }
+
+    public void setPagamentoId(Long pagamentoId) {
+        this.pagamentoId = pagamentoId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.odontosimples.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+// Campos de "esta e as seguintes" de uma série; os que não vierem ficam como estão em cada consulta
+public class AtualizacaoSerieDTO {
+
+    @Positive(message = "Valor deve ser positivo")
+    private BigDecimal valor;
+
+    @Pattern(regexp = "CONSULTA|AVALIACAO|LIMPEZA|RESTAURACAO|EXTRACAO|CANAL|ORTODONTIA|IMPLANTE|CIRURGIA|EMERGENCIA",
+             message = "Tipo de consulta inválido")
+    private String tipoConsulta;
+
+    private String observacoes;
+
+    // Constructors
+    public AtualizacaoSerieDTO() {}
+
+    // Getters and Setters
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public String getTipoConsulta() {
+        return tipoConsulta;
+    }
+
+    public void setTipoConsulta(String tipoConsulta) {
+        this.tipoConsulta = tipoConsulta;
+    }
+
+    public String getObservacoes() {
+        return observacoes;
+    }
+
+    public void setObservacoes(String observacoes) {
+        this.observacoes = observacoes;
+    }
+}
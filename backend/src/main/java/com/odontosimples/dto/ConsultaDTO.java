@@ -1,5 +1,6 @@
 package com.odontosimples.dto;
 
+import com.odontosimples.entity.Consulta;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
@@ -30,6 +31,7 @@ public class ConsultaDTO {
     private Boolean primeiraConsulta;
     private LocalDateTime dataReagendamento;
     private String motivoReagendamento;
+    private String serieId;
     private Boolean active;
 
 
@@ -42,6 +44,34 @@ public class ConsultaDTO {
   // Constructors
     public ConsultaDTO() {}
 
+    // Usado nas projeções JPQL (SELECT new ...) do ConsultaRepository, que trazem
+    // paciente e dentista no mesmo SELECT
+    public ConsultaDTO(Long id, Long pacienteId, Long dentistaId, LocalDateTime dataHora,
+                       Consulta.StatusConsulta status, String observacoes, BigDecimal valor,
+                       Integer duracaoMinutos, Consulta.TipoConsulta tipoConsulta, Boolean primeiraConsulta,
+                       LocalDateTime dataReagendamento, String motivoReagendamento, String serieId,
+                       Boolean active, String pacienteNome, String pacienteTelefone,
+                       String dentistaNome, String dentistaCro) {
+        this.id = id;
+        this.pacienteId = pacienteId;
+        this.dentistaId = dentistaId;
+        this.dataHora = dataHora;
+        this.status = status != null ? status.name() : null;
+        this.observacoes = observacoes;
+        this.valor = valor;
+        this.duracaoMinutos = duracaoMinutos;
+        this.tipoConsulta = tipoConsulta != null ? tipoConsulta.name() : null;
+        this.primeiraConsulta = primeiraConsulta;
+        this.dataReagendamento = dataReagendamento;
+        this.motivoReagendamento = motivoReagendamento;
+        this.serieId = serieId;
+        this.active = active;
+        this.pacienteNome = pacienteNome;
+        this.pacienteTelefone = pacienteTelefone;
+        this.dentistaNome = dentistaNome;
+        this.dentistaCro = dentistaCro;
+    }
+
   
   // Getters and Setters
     public Long getId() {
@@ -148,6 +178,14 @@ public class ConsultaDTO {
         this.active = active;
     }
 
+    public String getSerieId() {
+        return serieId;
+    }
+
+    public void setSerieId(String serieId) {
+        this.serieId = serieId;
+    }
+
     public String getPacienteNome() {
         return pacienteNome;
     }
@@ -180,34 +218,3 @@ public class ConsultaDTO {
         this.dentistaCro = dentistaCro;
     }
 }
-
-// DTO para reagendamento
-class ReagendamentoDTO {
-
-    @NotNull(message = "Nova data e hora são obrigatórias")
-    private LocalDateTime novaDataHora;
-
-    private String motivo;
-
-    // Constructors
-    public ReagendamentoDTO() {}
-
-    // Getters and Setters
-    public LocalDateTime getNovaDataHora() {
-        return novaDataHora;
-    }
-
-    public void setNovaDataHora(LocalDateTime novaDataHora) {
-        this.novaDataHora = novaDataHora;
-    }
-
-    public String getMotivo() {
-        return motivo;
-    }
-
-    public void setMotivo(String motivo) {
-        this.motivo = motivo;
-    }
-}
-
-
@@ -0,0 +1,43 @@
+package com.odontosimples.dto;
+
+// Linha do CSV que não foi importada
+public class ErroImportacaoDTO {
+
+    private long linha;
+    private String cpf;
+    private String mensagem;
+
+    // Constructors
+    public ErroImportacaoDTO() {}
+
+    public ErroImportacaoDTO(long linha, String cpf, String mensagem) {
+        this.linha = linha;
+        this.cpf = cpf;
+        this.mensagem = mensagem;
+    }
+
+    // Getters and Setters
+    public long getLinha() {
+        return linha;
+    }
+
+    public void setLinha(long linha) {
+        this.linha = linha;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public void setCpf(String cpf) {
+        this.cpf = cpf;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
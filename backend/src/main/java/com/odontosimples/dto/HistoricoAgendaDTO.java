@@ -0,0 +1,110 @@
+package com.odontosimples.dto;
+
+import java.time.LocalDateTime;
+
+// Ocorrência no histórico de agenda do paciente: um reagendamento ou uma falta
+public class HistoricoAgendaDTO {
+
+    private String tipo; // REAGENDAMENTO, FALTA
+    private Long consultaId;
+    private String dentistaNome;
+
+    // Horário da consulta (no reagendamento, o horário que foi desmarcado)
+    private LocalDateTime dataHora;
+
+    private LocalDateTime novaDataHora;
+    private String motivo;
+    private String solicitadoPor;
+    private String usuario;
+    private LocalDateTime registradoEm;
+
+    // Constructors
+    public HistoricoAgendaDTO() {}
+
+    public HistoricoAgendaDTO(String tipo, Long consultaId, String dentistaNome, LocalDateTime dataHora,
+                              LocalDateTime novaDataHora, String motivo, String solicitadoPor, String usuario,
+                              LocalDateTime registradoEm) {
+        this.tipo = tipo;
+        this.consultaId = consultaId;
+        this.dentistaNome = dentistaNome;
+        this.dataHora = dataHora;
+        this.novaDataHora = novaDataHora;
+        this.motivo = motivo;
+        this.solicitadoPor = solicitadoPor;
+        this.usuario = usuario;
+        this.registradoEm = registradoEm;
+    }
+
+    // Getters and Setters
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getConsultaId() {
+        return consultaId;
+    }
+
+    public void setConsultaId(Long consultaId) {
+        this.consultaId = consultaId;
+    }
+
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    public void setDentistaNome(String dentistaNome) {
+        this.dentistaNome = dentistaNome;
+    }
+
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    public void setDataHora(LocalDateTime dataHora) {
+        this.dataHora = dataHora;
+    }
+
+    public LocalDateTime getNovaDataHora() {
+        return novaDataHora;
+    }
+
+    public void setNovaDataHora(LocalDateTime novaDataHora) {
+        this.novaDataHora = novaDataHora;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public String getSolicitadoPor() {
+        return solicitadoPor;
+    }
+
+    public void setSolicitadoPor(String solicitadoPor) {
+        this.solicitadoPor = solicitadoPor;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(String usuario) {
+        this.usuario = usuario;
+    }
+
+    public LocalDateTime getRegistradoEm() {
+        return registradoEm;
+    }
+
+    public void setRegistradoEm(LocalDateTime registradoEm) {
+        this.registradoEm = registradoEm;
+    }
+}
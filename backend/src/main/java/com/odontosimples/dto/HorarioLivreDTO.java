@@ -0,0 +1,54 @@
+package com.odontosimples.dto;
+
+import java.time.LocalDateTime;
+
+public class HorarioLivreDTO {
+
+    private Long dentistaId;
+    private String dentistaNome;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+
+    // Constructors
+    public HorarioLivreDTO() {}
+
+    public HorarioLivreDTO(Long dentistaId, String dentistaNome, LocalDateTime inicio, LocalDateTime fim) {
+        this.dentistaId = dentistaId;
+        this.dentistaNome = dentistaNome;
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    // Getters and Setters
+    public Long getDentistaId() {
+        return dentistaId;
+    }
+
+    public void setDentistaId(Long dentistaId) {
+        this.dentistaId = dentistaId;
+    }
+
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    public void setDentistaNome(String dentistaNome) {
+        this.dentistaNome = dentistaNome;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(LocalDateTime inicio) {
+        this.inicio = inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public void setFim(LocalDateTime fim) {
+        this.fim = fim;
+    }
+}
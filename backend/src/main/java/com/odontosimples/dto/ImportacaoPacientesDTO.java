@@ -0,0 +1,120 @@
+package com.odontosimples.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Andamento de uma importação de pacientes por CSV
+public class ImportacaoPacientesDTO {
+
+    private String id;
+    private String status; // NA_FILA, PROCESSANDO, CONCLUIDA, FALHOU
+    private String arquivo;
+    private LocalDateTime iniciadaEm;
+    private LocalDateTime concluidaEm;
+    private long linhasLidas;
+    private long importados;
+    private long comErro;
+    private String mensagem;
+
+    // Só as primeiras linhas com erro; comErro tem o total
+    private List<ErroImportacaoDTO> erros;
+
+    // Constructors
+    public ImportacaoPacientesDTO() {}
+
+    public ImportacaoPacientesDTO(String id, String status, String arquivo, LocalDateTime iniciadaEm,
+                                  LocalDateTime concluidaEm, long linhasLidas, long importados, long comErro,
+                                  String mensagem, List<ErroImportacaoDTO> erros) {
+        this.id = id;
+        this.status = status;
+        this.arquivo = arquivo;
+        this.iniciadaEm = iniciadaEm;
+        this.concluidaEm = concluidaEm;
+        this.linhasLidas = linhasLidas;
+        this.importados = importados;
+        this.comErro = comErro;
+        this.mensagem = mensagem;
+        this.erros = erros;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getArquivo() {
+        return arquivo;
+    }
+
+    public void setArquivo(String arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    public LocalDateTime getIniciadaEm() {
+        return iniciadaEm;
+    }
+
+    public void setIniciadaEm(LocalDateTime iniciadaEm) {
+        this.iniciadaEm = iniciadaEm;
+    }
+
+    public LocalDateTime getConcluidaEm() {
+        return concluidaEm;
+    }
+
+    public void setConcluidaEm(LocalDateTime concluidaEm) {
+        this.concluidaEm = concluidaEm;
+    }
+
+    public long getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    public void setLinhasLidas(long linhasLidas) {
+        this.linhasLidas = linhasLidas;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    public void setImportados(long importados) {
+        this.importados = importados;
+    }
+
+    public long getComErro() {
+        return comErro;
+    }
+
+    public void setComErro(long comErro) {
+        this.comErro = comErro;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    public List<ErroImportacaoDTO> getErros() {
+        return erros;
+    }
+
+    public void setErros(List<ErroImportacaoDTO> erros) {
+        this.erros = erros;
+    }
+}
@@ -0,0 +1,214 @@
+package com.odontosimples.dto;
+
+import com.odontosimples.entity.ListaEspera;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public class ListaEsperaDTO {
+
+    private Long id;
+
+    @NotNull(message = "Paciente é obrigatório")
+    private Long pacienteId;
+
+    private String pacienteNome;
+
+    // Informe o dentista ou a especialidade
+    private Long dentistaId;
+    private String dentistaNome;
+    private String especialidade;
+
+    @NotNull(message = "Data inicial é obrigatória")
+    private LocalDate dataInicio;
+
+    @NotNull(message = "Data final é obrigatória")
+    private LocalDate dataFim;
+
+    @NotNull(message = "Hora inicial é obrigatória")
+    private LocalTime horaInicio;
+
+    @NotNull(message = "Hora final é obrigatória")
+    private LocalTime horaFim;
+
+    @Positive(message = "Duração deve ser positiva")
+    private Integer duracaoMinutos = 30;
+
+    @Min(value = 1, message = "Prioridade deve estar entre 1 e 5")
+    @Max(value = 5, message = "Prioridade deve estar entre 1 e 5")
+    private Integer prioridade = 3;
+
+    private String status;
+    private Long consultaId;
+    private LocalDateTime dataOferta;
+    private String observacoes;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ListaEsperaDTO() {}
+
+    // Espera paciente e dentista já carregados (fetch join)
+    public ListaEsperaDTO(ListaEspera espera) {
+        this.id = espera.getId();
+        this.pacienteId = espera.getPaciente().getId();
+        this.pacienteNome = espera.getPaciente().getNome();
+        if (espera.getDentista() != null) {
+            this.dentistaId = espera.getDentista().getId();
+            this.dentistaNome = espera.getDentista().getNome();
+        }
+        this.especialidade = espera.getEspecialidade();
+        this.dataInicio = espera.getDataInicio();
+        this.dataFim = espera.getDataFim();
+        this.horaInicio = espera.getHoraInicio();
+        this.horaFim = espera.getHoraFim();
+        this.duracaoMinutos = espera.getDuracaoMinutos();
+        this.prioridade = espera.getPrioridade();
+        this.status = espera.getStatus() != null ? espera.getStatus().name() : null;
+        this.consultaId = espera.getConsulta() != null ? espera.getConsulta().getId() : null;
+        this.dataOferta = espera.getDataOferta();
+        this.observacoes = espera.getObservacoes();
+        this.createdAt = espera.getCreatedAt();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public String getPacienteNome() {
+        return pacienteNome;
+    }
+
+    public void setPacienteNome(String pacienteNome) {
+        this.pacienteNome = pacienteNome;
+    }
+
+    public Long getDentistaId() {
+        return dentistaId;
+    }
+
+    public void setDentistaId(Long dentistaId) {
+        this.dentistaId = dentistaId;
+    }
+
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    public void setDentistaNome(String dentistaNome) {
+        this.dentistaNome = dentistaNome;
+    }
+
+    public String getEspecialidade() {
+        return especialidade;
+    }
+
+    public void setEspecialidade(String especialidade) {
+        this.especialidade = especialidade;
+    }
+
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+
+    public void setDataFim(LocalDate dataFim) {
+        this.dataFim = dataFim;
+    }
+
+    public LocalTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    public void setHoraInicio(LocalTime horaInicio) {
+        this.horaInicio = horaInicio;
+    }
+
+    public LocalTime getHoraFim() {
+        return horaFim;
+    }
+
+    public void setHoraFim(LocalTime horaFim) {
+        this.horaFim = horaFim;
+    }
+
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
+    public Integer getPrioridade() {
+        return prioridade;
+    }
+
+    public void setPrioridade(Integer prioridade) {
+        this.prioridade = prioridade;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getConsultaId() {
+        return consultaId;
+    }
+
+    public void setConsultaId(Long consultaId) {
+        this.consultaId = consultaId;
+    }
+
+    public LocalDateTime getDataOferta() {
+        return dataOferta;
+    }
+
+    public void setDataOferta(LocalDateTime dataOferta) {
+        this.dataOferta = dataOferta;
+    }
+
+    public String getObservacoes() {
+        return observacoes;
+    }
+
+    public void setObservacoes(String observacoes) {
+        this.observacoes = observacoes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
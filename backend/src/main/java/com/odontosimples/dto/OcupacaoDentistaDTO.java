@@ -0,0 +1,72 @@
+package com.odontosimples.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public class OcupacaoDentistaDTO {
+
+    private Long dentistaId;
+    private String dentistaNome;
+
+    // Percentual do expediente ocupado por consultas no mês
+    private Double percentual;
+
+    // Percentual ocupado em cada dia de atendimento
+    private Map<LocalDate, Double> dias;
+
+    // Percentual ocupado em cada hora do dia, somando o mês
+    private Map<Integer, Double> horas;
+
+    // Constructors
+    public OcupacaoDentistaDTO() {}
+
+    public OcupacaoDentistaDTO(Long dentistaId, String dentistaNome, Double percentual,
+                               Map<LocalDate, Double> dias, Map<Integer, Double> horas) {
+        this.dentistaId = dentistaId;
+        this.dentistaNome = dentistaNome;
+        this.percentual = percentual;
+        this.dias = dias;
+        this.horas = horas;
+    }
+
+    // Getters and Setters
+    public Long getDentistaId() {
+        return dentistaId;
+    }
+
+    public void setDentistaId(Long dentistaId) {
+        this.dentistaId = dentistaId;
+    }
+
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    public void setDentistaNome(String dentistaNome) {
+        this.dentistaNome = dentistaNome;
+    }
+
+    public Double getPercentual() {
+        return percentual;
+    }
+
+    public void setPercentual(Double percentual) {
+        this.percentual = percentual;
+    }
+
+    public Map<LocalDate, Double> getDias() {
+        return dias;
+    }
+
+    public void setDias(Map<LocalDate, Double> dias) {
+        this.dias = dias;
+    }
+
+    public Map<Integer, Double> getHoras() {
+        return horas;
+    }
+
+    public void setHoras(Map<Integer, Double> horas) {
+        this.horas = horas;
+    }
+}
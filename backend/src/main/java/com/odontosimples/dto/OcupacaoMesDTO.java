@@ -0,0 +1,73 @@
+package com.odontosimples.dto;
+
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+public class OcupacaoMesDTO {
+
+    private YearMonth mes;
+    private String especialidade;
+
+    // Percentual ocupado do expediente de todos os dentistas no mês
+    private Double percentual;
+
+    private List<OcupacaoDentistaDTO> dentistas;
+
+    // Mapa de calor da clínica: dia da semana -> hora -> percentual ocupado
+    private Map<DayOfWeek, Map<Integer, Double>> mapaCalor;
+
+    // Constructors
+    public OcupacaoMesDTO() {}
+
+    public OcupacaoMesDTO(YearMonth mes, String especialidade, Double percentual,
+                          List<OcupacaoDentistaDTO> dentistas, Map<DayOfWeek, Map<Integer, Double>> mapaCalor) {
+        this.mes = mes;
+        this.especialidade = especialidade;
+        this.percentual = percentual;
+        this.dentistas = dentistas;
+        this.mapaCalor = mapaCalor;
+    }
+
+    // Getters and Setters
+    public YearMonth getMes() {
+        return mes;
+    }
+
+    public void setMes(YearMonth mes) {
+        this.mes = mes;
+    }
+
+    public String getEspecialidade() {
+        return especialidade;
+    }
+
+    public void setEspecialidade(String especialidade) {
+        this.especialidade = especialidade;
+    }
+
+    public Double getPercentual() {
+        return percentual;
+    }
+
+    public void setPercentual(Double percentual) {
+        this.percentual = percentual;
+    }
+
+    public List<OcupacaoDentistaDTO> getDentistas() {
+        return dentistas;
+    }
+
+    public void setDentistas(List<OcupacaoDentistaDTO> dentistas) {
+        this.dentistas = dentistas;
+    }
+
+    public Map<DayOfWeek, Map<Integer, Double>> getMapaCalor() {
+        return mapaCalor;
+    }
+
+    public void setMapaCalor(Map<DayOfWeek, Map<Integer, Double>> mapaCalor) {
+        this.mapaCalor = mapaCalor;
+    }
+}
@@ -0,0 +1,33 @@
+package com.odontosimples.dto;
+
+// Sugestão do autocompletar de pacientes
+public class PacienteSugestaoDTO {
+
+    private Long id;
+    private String nome;
+
+    // Constructors
+    public PacienteSugestaoDTO() {}
+
+    public PacienteSugestaoDTO(Long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+}
@@ -0,0 +1,152 @@
+package com.odontosimples.dto;
+
+import com.odontosimples.entity.Pagamento;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class PagamentoDTO {
+
+    private Long id;
+    private Long consultaId;
+    private Long pacienteId;
+    private String pacienteNome;
+    private BigDecimal valor;
+    private BigDecimal valorDesconto;
+    private BigDecimal valorFinal;
+    private LocalDate dataVencimento;
+    private LocalDateTime dataPagamento;
+    private String formaPagamento;
+    private String status;
+    private Integer numeroParcelas;
+    private Integer parcelaAtual;
+
+    // Constructors
+    public PagamentoDTO() {}
+
+    // Usado nas projeções JPQL (SELECT new ...) do PagamentoRepository
+    public PagamentoDTO(Long id, Long consultaId, Long pacienteId, String pacienteNome, BigDecimal valor,
+                        BigDecimal valorDesconto, BigDecimal valorFinal, LocalDate dataVencimento,
+                        LocalDateTime dataPagamento, Pagamento.FormaPagamento formaPagamento,
+                        Pagamento.StatusPagamento status, Integer numeroParcelas, Integer parcelaAtual) {
+        this.id = id;
+        this.consultaId = consultaId;
+        this.pacienteId = pacienteId;
+        this.pacienteNome = pacienteNome;
+        this.valor = valor;
+        this.valorDesconto = valorDesconto;
+        this.valorFinal = valorFinal;
+        this.dataVencimento = dataVencimento;
+        this.dataPagamento = dataPagamento;
+        this.formaPagamento = formaPagamento != null ? formaPagamento.name() : null;
+        this.status = status != null ? status.name() : null;
+        this.numeroParcelas = numeroParcelas;
+        this.parcelaAtual = parcelaAtual;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getConsultaId() {
+        return consultaId;
+    }
+
+    public void setConsultaId(Long consultaId) {
+        this.consultaId = consultaId;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public String getPacienteNome() {
+        return pacienteNome;
+    }
+
+    public void setPacienteNome(String pacienteNome) {
+        this.pacienteNome = pacienteNome;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public BigDecimal getValorDesconto() {
+        return valorDesconto;
+    }
+
+    public void setValorDesconto(BigDecimal valorDesconto) {
+        this.valorDesconto = valorDesconto;
+    }
+
+    public BigDecimal getValorFinal() {
+        return valorFinal;
+    }
+
+    public void setValorFinal(BigDecimal valorFinal) {
+        this.valorFinal = valorFinal;
+    }
+
+    public LocalDate getDataVencimento() {
+        return dataVencimento;
+    }
+
+    public void setDataVencimento(LocalDate dataVencimento) {
+        this.dataVencimento = dataVencimento;
+    }
+
+    public LocalDateTime getDataPagamento() {
+        return dataPagamento;
+    }
+
+    public void setDataPagamento(LocalDateTime dataPagamento) {
+        this.dataPagamento = dataPagamento;
+    }
+
+    public String getFormaPagamento() {
+        return formaPagamento;
+    }
+
+    public void setFormaPagamento(String formaPagamento) {
+        this.formaPagamento = formaPagamento;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getNumeroParcelas() {
+        return numeroParcelas;
+    }
+
+    public void setNumeroParcelas(Integer numeroParcelas) {
+        this.numeroParcelas = numeroParcelas;
+    }
+
+    public Integer getParcelaAtual() {
+        return parcelaAtual;
+    }
+
+    public void setParcelaAtual(Integer parcelaAtual) {
+        this.parcelaAtual = parcelaAtual;
+    }
+}
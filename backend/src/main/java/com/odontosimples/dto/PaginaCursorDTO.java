@@ -0,0 +1,83 @@
+package com.odontosimples.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Resposta das listagens paginadas por cursor. O total só é calculado quando pedido
+// (incluirTotal=true), já que o COUNT percorre todas as linhas.
+public class PaginaCursorDTO<T> {
+
+    public static final int MAX_TAMANHO = 100;
+
+    private List<T> itens;
+    private String proximoCursor;
+    private boolean temMais;
+    private Long total;
+
+    // Constructors
+    public PaginaCursorDTO() {}
+
+    public PaginaCursorDTO(List<T> itens, String proximoCursor, Long total) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.temMais = proximoCursor != null;
+        this.total = total;
+    }
+
+    // As consultas buscam um item além do tamanho da página: se ele vier, há próxima
+    // página e o cursor aponta para o último item devolvido
+    public static <T> PaginaCursorDTO<T> de(List<T> itensMaisUm, int tamanho,
+                                            Function<T, String> cursorDoItem, Long total) {
+        if (itensMaisUm.size() <= tamanho) {
+            return new PaginaCursorDTO<>(itensMaisUm, null, total);
+        }
+        List<T> itens = new ArrayList<>(itensMaisUm.subList(0, tamanho));
+        return new PaginaCursorDTO<>(itens, cursorDoItem.apply(itens.get(tamanho - 1)), total);
+    }
+
+    public static int tamanhoValido(int tamanho) {
+        return Math.max(1, Math.min(tamanho, MAX_TAMANHO));
+    }
+
+    public <R> PaginaCursorDTO<R> map(Function<T, R> conversor) {
+        List<R> convertidos = new ArrayList<>(itens.size());
+        for (T item : itens) {
+            convertidos.add(conversor.apply(item));
+        }
+        return new PaginaCursorDTO<>(convertidos, proximoCursor, total);
+    }
+
+    // Getters and Setters
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+    public boolean isTemMais() {
+        return temMais;
+    }
+
+    public void setTemMais(boolean temMais) {
+        this.temMais = temMais;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
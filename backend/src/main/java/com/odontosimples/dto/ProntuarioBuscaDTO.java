@@ -0,0 +1,87 @@
+package com.odontosimples.dto;
+
+import java.time.LocalDate;
+
+// Resultado da busca textual nos prontuários. O trecho vem com HTML escapado e os termos
+// encontrados entre <mark> e </mark>
+public class ProntuarioBuscaDTO {
+
+    private Long id;
+    private LocalDate dataConsulta;
+    private Long pacienteId;
+    private String pacienteNome;
+    private String dentistaNome;
+    private Float relevancia;
+    private String trecho;
+
+    // Constructors
+    public ProntuarioBuscaDTO() {}
+
+    public ProntuarioBuscaDTO(Long id, LocalDate dataConsulta, Long pacienteId, String pacienteNome,
+                              String dentistaNome, Float relevancia, String trecho) {
+        this.id = id;
+        this.dataConsulta = dataConsulta;
+        this.pacienteId = pacienteId;
+        this.pacienteNome = pacienteNome;
+        this.dentistaNome = dentistaNome;
+        this.relevancia = relevancia;
+        this.trecho = trecho;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDataConsulta() {
+        return dataConsulta;
+    }
+
+    public void setDataConsulta(LocalDate dataConsulta) {
+        this.dataConsulta = dataConsulta;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public String getPacienteNome() {
+        return pacienteNome;
+    }
+
+    public void setPacienteNome(String pacienteNome) {
+        this.pacienteNome = pacienteNome;
+    }
+
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    public void setDentistaNome(String dentistaNome) {
+        this.dentistaNome = dentistaNome;
+    }
+
+    public Float getRelevancia() {
+        return relevancia;
+    }
+
+    public void setRelevancia(Float relevancia) {
+        this.relevancia = relevancia;
+    }
+
+    public String getTrecho() {
+        return trecho;
+    }
+
+    public void setTrecho(String trecho) {
+        this.trecho = trecho;
+    }
+}
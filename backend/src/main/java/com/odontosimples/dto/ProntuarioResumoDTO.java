@@ -0,0 +1,100 @@
+package com.odontosimples.dto;
+
+import com.odontosimples.entity.Prontuario;
+
+import java.time.LocalDate;
+
+// Cabeçalho do prontuário para as listagens: datas, situação do tratamento, paciente e
+// dentista, sem nenhuma das colunas de texto (projeção JPQL do ProntuarioRepository)
+public class ProntuarioResumoDTO {
+
+    private Long id;
+    private LocalDate dataConsulta;
+    private LocalDate proximaConsulta;
+    private String statusTratamento;
+    private Long pacienteId;
+    private String pacienteNome;
+    private Long dentistaId;
+    private String dentistaNome;
+
+    // Constructors
+    public ProntuarioResumoDTO() {}
+
+    public ProntuarioResumoDTO(Long id, LocalDate dataConsulta, LocalDate proximaConsulta,
+                               Prontuario.StatusTratamento statusTratamento, Long pacienteId, String pacienteNome,
+                               Long dentistaId, String dentistaNome) {
+        this.id = id;
+        this.dataConsulta = dataConsulta;
+        this.proximaConsulta = proximaConsulta;
+        this.statusTratamento = statusTratamento != null ? statusTratamento.name() : null;
+        this.pacienteId = pacienteId;
+        this.pacienteNome = pacienteNome;
+        this.dentistaId = dentistaId;
+        this.dentistaNome = dentistaNome;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDataConsulta() {
+        return dataConsulta;
+    }
+
+    public void setDataConsulta(LocalDate dataConsulta) {
+        this.dataConsulta = dataConsulta;
+    }
+
+    public LocalDate getProximaConsulta() {
+        return proximaConsulta;
+    }
+
+    public void setProximaConsulta(LocalDate proximaConsulta) {
+        this.proximaConsulta = proximaConsulta;
+    }
+
+    public String getStatusTratamento() {
+        return statusTratamento;
+    }
+
+    public void setStatusTratamento(String statusTratamento) {
+        this.statusTratamento = statusTratamento;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public String getPacienteNome() {
+        return pacienteNome;
+    }
+
+    public void setPacienteNome(String pacienteNome) {
+        this.pacienteNome = pacienteNome;
+    }
+
+    public Long getDentistaId() {
+        return dentistaId;
+    }
+
+    public void setDentistaId(Long dentistaId) {
+        this.dentistaId = dentistaId;
+    }
+
+    public String getDentistaNome() {
+        return dentistaNome;
+    }
+
+    public void setDentistaNome(String dentistaNome) {
+        this.dentistaNome = dentistaNome;
+    }
+}
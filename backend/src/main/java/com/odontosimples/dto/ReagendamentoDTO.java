@@ -10,7 +10,7 @@ public class ReagendamentoDTO {
 
     private Long id;
 
-    @NotNull(message = "ID da consulta é obrigatório")
+    // No PUT /consultas/{id}/reagendar vem do caminho
     private Long consultaId;
 
     @NotNull(message = "Nova data e hora são obrigatórias")
@@ -0,0 +1,145 @@
+package com.odontosimples.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class SerieConsultaDTO {
+
+    @NotNull(message = "Paciente é obrigatório")
+    private Long pacienteId;
+
+    @NotNull(message = "Dentista é obrigatório")
+    private Long dentistaId;
+
+    @NotNull(message = "Data e hora da primeira consulta são obrigatórias")
+    private LocalDateTime dataHoraInicio;
+
+    private Integer duracaoMinutos;
+    private String tipoConsulta = "ORTODONTIA";
+
+    @Positive(message = "Valor deve ser positivo")
+    private BigDecimal valor;
+
+    private String observacoes;
+
+    // Regra de recorrência
+    private String frequencia = "MENSAL"; // SEMANAL, MENSAL
+
+    @Min(value = 1, message = "Intervalo deve ser de pelo menos 1")
+    private Integer intervalo = 1;
+
+    @Min(value = 1, message = "Dia da semana deve estar entre 1 (segunda) e 7 (domingo)")
+    @Max(value = 7, message = "Dia da semana deve estar entre 1 (segunda) e 7 (domingo)")
+    private Integer diaSemana;
+
+    @Min(value = 1, message = "Quantidade de consultas deve ser de pelo menos 1")
+    private Integer ocorrencias;
+
+    private LocalDate ate;
+
+    // Constructors
+    public SerieConsultaDTO() {}
+
+    // Getters and Setters
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public Long getDentistaId() {
+        return dentistaId;
+    }
+
+    public void setDentistaId(Long dentistaId) {
+        this.dentistaId = dentistaId;
+    }
+
+    public LocalDateTime getDataHoraInicio() {
+        return dataHoraInicio;
+    }
+
+    public void setDataHoraInicio(LocalDateTime dataHoraInicio) {
+        this.dataHoraInicio = dataHoraInicio;
+    }
+
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
+    public String getTipoConsulta() {
+        return tipoConsulta;
+    }
+
+    public void setTipoConsulta(String tipoConsulta) {
+        this.tipoConsulta = tipoConsulta;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public String getObservacoes() {
+        return observacoes;
+    }
+
+    public void setObservacoes(String observacoes) {
+        this.observacoes = observacoes;
+    }
+
+    public String getFrequencia() {
+        return frequencia;
+    }
+
+    public void setFrequencia(String frequencia) {
+        this.frequencia = frequencia;
+    }
+
+    public Integer getIntervalo() {
+        return intervalo;
+    }
+
+    public void setIntervalo(Integer intervalo) {
+        this.intervalo = intervalo;
+    }
+
+    public Integer getDiaSemana() {
+        return diaSemana;
+    }
+
+    public void setDiaSemana(Integer diaSemana) {
+        this.diaSemana = diaSemana;
+    }
+
+    public Integer getOcorrencias() {
+        return ocorrencias;
+    }
+
+    public void setOcorrencias(Integer ocorrencias) {
+        this.ocorrencias = ocorrencias;
+    }
+
+    public LocalDate getAte() {
+        return ate;
+    }
+
+    public void setAte(LocalDate ate) {
+        this.ate = ate;
+    }
+}
@@ -0,0 +1,69 @@
+package com.odontosimples.dto;
+
+import java.util.List;
+
+// Resultado da checagem de uma prescrição contra as alergias do paciente. Medicamentos
+// fora do dicionário não aparecem em medicamentosReconhecidos e não são checados; trechos
+// das alergias registradas que o dicionário não reconhece vêm em alergiasNaoReconhecidas e,
+// como não puderam ser checados, também tiram o semAlertas
+public class VerificacaoPrescricaoDTO {
+
+    private Long pacienteId;
+    private List<String> medicamentosReconhecidos;
+    private List<AlertaAlergiaDTO> alertas;
+    private List<String> alergiasNaoReconhecidas;
+    private boolean semAlertas;
+
+    // Constructors
+    public VerificacaoPrescricaoDTO() {}
+
+    public VerificacaoPrescricaoDTO(Long pacienteId, List<String> medicamentosReconhecidos,
+                                    List<AlertaAlergiaDTO> alertas, List<String> alergiasNaoReconhecidas) {
+        this.pacienteId = pacienteId;
+        this.medicamentosReconhecidos = medicamentosReconhecidos;
+        this.alertas = alertas;
+        this.alergiasNaoReconhecidas = alergiasNaoReconhecidas;
+        this.semAlertas = alertas.isEmpty() && alergiasNaoReconhecidas.isEmpty();
+    }
+
+    // Getters and Setters
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public List<String> getMedicamentosReconhecidos() {
+        return medicamentosReconhecidos;
+    }
+
+    public void setMedicamentosReconhecidos(List<String> medicamentosReconhecidos) {
+        this.medicamentosReconhecidos = medicamentosReconhecidos;
+    }
+
+    public List<AlertaAlergiaDTO> getAlertas() {
+        return alertas;
+    }
+
+    public void setAlertas(List<AlertaAlergiaDTO> alertas) {
+        this.alertas = alertas;
+    }
+
+    public List<String> getAlergiasNaoReconhecidas() {
+        return alergiasNaoReconhecidas;
+    }
+
+    public void setAlergiasNaoReconhecidas(List<String> alergiasNaoReconhecidas) {
+        this.alergiasNaoReconhecidas = alergiasNaoReconhecidas;
+    }
+
+    public boolean isSemAlertas() {
+        return semAlertas;
+    }
+
+    public void setSemAlertas(boolean semAlertas) {
+        this.semAlertas = semAlertas;
+    }
+}
@@ -0,0 +1,117 @@
+package com.odontosimples.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+// Metadados de um arquivo anexado ao paciente (e, opcionalmente, a um prontuário ou a um
+// pagamento). O conteúdo fica no ArmazemAnexos, endereçado pelo sha256, e nunca muda:
+// um arquivo novo é um anexo novo.
+@Entity
+@Table(name = "anexos")
+public class Anexo extends BaseEntity {
+
+    @Column(name = "sha256", nullable = false, length = 64, columnDefinition = "CHAR(64)", updatable = false)
+    private String sha256;
+
+    @Column(name = "tamanho", nullable = false, updatable = false)
+    private long tamanho;
+
+    @Column(name = "tipo_conteudo", nullable = false, length = 100)
+    private String tipoConteudo;
+
+    @Column(name = "nome_arquivo", nullable = false)
+    private String nomeArquivo;
+
+    @NotNull(message = "Categoria é obrigatória")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "categoria", nullable = false, length = 20)
+    private Categoria categoria;
+
+    @NotNull(message = "Paciente é obrigatório")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paciente_id", nullable = false)
+    private Paciente paciente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "prontuario_id")
+    private Prontuario prontuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pagamento_id")
+    private Pagamento pagamento;
+
+    // Constructors
+    public Anexo() {}
+
+    public Anexo(String sha256, long tamanho, String tipoConteudo, String nomeArquivo,
+                 Categoria categoria, Paciente paciente) {
+        this.sha256 = sha256;
+        this.tamanho = tamanho;
+        this.tipoConteudo = tipoConteudo;
+        this.nomeArquivo = nomeArquivo;
+        this.categoria = categoria;
+        this.paciente = paciente;
+    }
+
+    // Getters and Setters
+    public String getSha256() {
+        return sha256;
+    }
+
+    public long getTamanho() {
+        return tamanho;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    public void setTipoConteudo(String tipoConteudo) {
+        this.tipoConteudo = tipoConteudo;
+    }
+
+    public String getNomeArquivo() {
+        return nomeArquivo;
+    }
+
+    public void setNomeArquivo(String nomeArquivo) {
+        this.nomeArquivo = nomeArquivo;
+    }
+
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+    }
+
+    public Paciente getPaciente() {
+        return paciente;
+    }
+
+    public void setPaciente(Paciente paciente) {
+        this.paciente = paciente;
+    }
+
+    public Prontuario getProntuario() {
+        return prontuario;
+    }
+
+    public void setProntuario(Prontuario prontuario) {
+        this.prontuario = prontuario;
+    }
+
+    public Pagamento getPagamento() {
+        return pagamento;
+    }
+
+    public void setPagamento(Pagamento pagamento) {
+        this.pagamento = pagamento;
+    }
+
+    // Enums
+    public enum Categoria {
+        RADIOGRAFIA, FOTO, DOCUMENTO, COMPROVANTE
+    }
+}
@@ -13,8 +13,10 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
 
+  // Uma sequência por entidade (<entidade>_seq, incremento 50) com o otimizador pooled-lo:
+  // os ids saem da memória e o Hibernate consegue mandar os INSERTs em batch
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @CreatedDate
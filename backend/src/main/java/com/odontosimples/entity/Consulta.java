@@ -52,6 +52,10 @@ public class Consulta extends BaseEntity {
     @Column(name = "motivo_reagendamento", length = 500)
     private String motivoReagendamento;
 
+    // Identifica as consultas geradas pela mesma série recorrente
+    @Column(name = "serie_id", length = 36)
+    private String serieId;
+
     // Relacionamento com prontuário (uma consulta pode gerar um prontuário)
     @OneToOne(mappedBy = "consulta", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Prontuario prontuario;
@@ -158,6 +162,14 @@ public class Consulta extends BaseEntity {
         this.motivoReagendamento = motivoReagendamento;
     }
 
+    public String getSerieId() {
+        return serieId;
+    }
+
+    public void setSerieId(String serieId) {
+        this.serieId = serieId;
+    }
+
     public Prontuario getProntuario() {
         return prontuario;
     }
@@ -194,6 +206,14 @@ public class Consulta extends BaseEntity {
         return StatusConsulta.AGENDADA.equals(status);
     }
 
+    // Consulta ainda reserva o horário na agenda do dentista
+    // (uma consulta reagendada passa a ocupar o novo horário)
+    public boolean ocupaAgenda() {
+        return isActive() && (StatusConsulta.AGENDADA.equals(status)
+                || StatusConsulta.CONFIRMADA.equals(status)
+                || StatusConsulta.REAGENDADA.equals(status));
+    }
+
     public void confirmar() {
         this.status = StatusConsulta.CONFIRMADA;
     }
@@ -206,6 +226,10 @@ public class Consulta extends BaseEntity {
         this.status = StatusConsulta.CANCELADA;
     }
 
+    public void registrarFalta() {
+        this.status = StatusConsulta.FALTOU;
+    }
+
     public void reagendar(LocalDateTime novaDataHora, String motivo) {
         this.dataReagendamento = this.dataHora;
         this.dataHora = novaDataHora;
@@ -54,6 +54,10 @@ public class Dentista extends BaseEntity {
     @Column(name = "observacoes", columnDefinition = "TEXT")
     private String observacoes;
 
+    // SHA-256 (hex) do token do feed .ics; null sem feed
+    @Column(name = "token_agenda", length = 64)
+    private String tokenAgenda;
+
     
 
 
@@ -175,6 +179,14 @@ public class Dentista extends BaseEntity {
         this.observacoes = observacoes;
     }
 
+    public String getTokenAgenda() {
+        return tokenAgenda;
+    }
+
+    public void setTokenAgenda(String tokenAgenda) {
+        this.tokenAgenda = tokenAgenda;
+    }
+
     public Usuario getUsuario() {
         return usuario;
     }
@@ -217,11 +229,28 @@ public class Dentista extends BaseEntity {
         prontuario.setDentista(this);
     }
 
+    // Aceita listas ("1,3,5") e faixas ("1 a 5", "1-5"); 1 = segunda ... 7 = domingo
     public boolean trabalhaNodia(int diaSemana) {
         if (diasTrabalho == null || diasTrabalho.trim().isEmpty()) {
             return false;
         }
-        return diasTrabalho.contains(String.valueOf(diaSemana));
+        for (String parte : diasTrabalho.replaceAll("\\s", "").split(",")) {
+            String[] faixa = parte.split("a|-");
+            if (faixa.length == 2 && !faixa[0].isEmpty() && !faixa[1].isEmpty()) {
+                try {
+                    if (diaSemana >= Integer.parseInt(faixa[0]) && diaSemana <= Integer.parseInt(faixa[1])) {
+                        return true;
+                    }
+                    continue;
+                } catch (NumberFormatException e) {
+                    // formato livre: cai na verificação simples abaixo
+                }
+            }
+            if (parte.contains(String.valueOf(diaSemana))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean isDisponivel(LocalTime horario) {
@@ -0,0 +1,209 @@
+package com.odontosimples.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "lista_espera")
+public class ListaEspera extends BaseEntity {
+
+    @NotNull(message = "Paciente é obrigatório")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paciente_id", nullable = false)
+    private Paciente paciente;
+
+    // Dentista desejado; sem dentista, vale qualquer um da especialidade
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "dentista_id")
+    private Dentista dentista;
+
+    @Column(name = "especialidade", length = 100)
+    private String especialidade;
+
+    // Janela aceitável: qualquer dia entre dataInicio e dataFim, entre horaInicio e horaFim
+    @NotNull(message = "Data inicial é obrigatória")
+    @Column(name = "data_inicio", nullable = false)
+    private LocalDate dataInicio;
+
+    @NotNull(message = "Data final é obrigatória")
+    @Column(name = "data_fim", nullable = false)
+    private LocalDate dataFim;
+
+    @NotNull(message = "Hora inicial é obrigatória")
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime horaInicio;
+
+    @NotNull(message = "Hora final é obrigatória")
+    @Column(name = "hora_fim", nullable = false)
+    private LocalTime horaFim;
+
+    @Column(name = "duracao_minutos", nullable = false)
+    private Integer duracaoMinutos = 30;
+
+    // 1 (baixa) a 5 (urgente)
+    @Min(value = 1, message = "Prioridade deve estar entre 1 e 5")
+    @Max(value = 5, message = "Prioridade deve estar entre 1 e 5")
+    @Column(name = "prioridade", nullable = false)
+    private Integer prioridade = 3;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private StatusEspera status = StatusEspera.AGUARDANDO;
+
+    // Consulta criada quando um horário liberado foi oferecido ao paciente
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "consulta_id")
+    private Consulta consulta;
+
+    @Column(name = "data_oferta")
+    private LocalDateTime dataOferta;
+
+    @Column(name = "observacoes", columnDefinition = "TEXT")
+    private String observacoes;
+
+    // Constructors
+    public ListaEspera() {}
+
+    // Getters and Setters
+    public Paciente getPaciente() {
+        return paciente;
+    }
+
+    public void setPaciente(Paciente paciente) {
+        this.paciente = paciente;
+    }
+
+    public Dentista getDentista() {
+        return dentista;
+    }
+
+    public void setDentista(Dentista dentista) {
+        this.dentista = dentista;
+    }
+
+    public String getEspecialidade() {
+        return especialidade;
+    }
+
+    public void setEspecialidade(String especialidade) {
+        this.especialidade = especialidade;
+    }
+
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+
+    public void setDataFim(LocalDate dataFim) {
+        this.dataFim = dataFim;
+    }
+
+    public LocalTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    public void setHoraInicio(LocalTime horaInicio) {
+        this.horaInicio = horaInicio;
+    }
+
+    public LocalTime getHoraFim() {
+        return horaFim;
+    }
+
+    public void setHoraFim(LocalTime horaFim) {
+        this.horaFim = horaFim;
+    }
+
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
+    public Integer getPrioridade() {
+        return prioridade;
+    }
+
+    public void setPrioridade(Integer prioridade) {
+        this.prioridade = prioridade;
+    }
+
+    public StatusEspera getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusEspera status) {
+        this.status = status;
+    }
+
+    public Consulta getConsulta() {
+        return consulta;
+    }
+
+    public void setConsulta(Consulta consulta) {
+        this.consulta = consulta;
+    }
+
+    public LocalDateTime getDataOferta() {
+        return dataOferta;
+    }
+
+    public void setDataOferta(LocalDateTime dataOferta) {
+        this.dataOferta = dataOferta;
+    }
+
+    public String getObservacoes() {
+        return observacoes;
+    }
+
+    public void setObservacoes(String observacoes) {
+        this.observacoes = observacoes;
+    }
+
+    // Business methods
+    public boolean isAguardando() {
+        return StatusEspera.AGUARDANDO.equals(status) && isActive();
+    }
+
+    public void ofertar(Consulta consulta) {
+        this.consulta = consulta;
+        this.dataOferta = LocalDateTime.now();
+        this.status = StatusEspera.OFERECIDA;
+    }
+
+    public void cancelar() {
+        this.status = StatusEspera.CANCELADA;
+    }
+
+    // Enums
+    public enum StatusEspera {
+        AGUARDANDO("Aguardando"),
+        OFERECIDA("Horário Oferecido"),
+        CANCELADA("Cancelada");
+
+        private final String descricao;
+
+        StatusEspera(String descricao) {
+            this.descricao = descricao;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.odontosimples.entity;
+
+import com.odontosimples.util.Odontograma;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+// Odontograma <-> bytea (formato binário de Odontograma.codificar). @Immutable: o valor não
+// muda depois de criado, então o Hibernate não precisa copiá-lo para a checagem de sujeira
+@Converter
+@Immutable
+public class OdontogramaConverter implements AttributeConverter<Odontograma, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(Odontograma odontograma) {
+        return odontograma == null ? null : odontograma.codificar();
+    }
+
+    @Override
+    public Odontograma convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : Odontograma.decodificar(bytes);
+    }
+}
@@ -1,5 +1,7 @@
 package com.odontosimples.entity;
 
+import com.odontosimples.util.MesDia;
+import com.odontosimples.util.TextoBusca;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
@@ -56,6 +58,14 @@ public class Paciente extends BaseEntity {
     @Column(name = "telefone_emergencia", length = 20)
     private String telefoneEmergencia;
 
+    // Nome, e-mail, CPF e telefone normalizados para a busca por trigramas (idx_pacientes_busca_trgm)
+    @Column(name = "busca", nullable = false, columnDefinition = "TEXT")
+    private String busca;
+
+    // Mês e dia do nascimento (MMDD) para as buscas de aniversariantes (idx_pacientes_mes_dia)
+    @Column(name = "mes_dia", nullable = false)
+    private Short mesDia;
+
    
 
 
@@ -200,6 +210,23 @@ public class Paciente extends BaseEntity {
 
 
 
+    public String getBusca() {
+        return busca;
+    }
+
+    public Short getMesDia() {
+        return mesDia;
+    }
+
+    // Colunas derivadas, recalculadas a cada gravação
+    @PrePersist
+    @PreUpdate
+    void atualizarColunasDerivadas() {
+        this.busca = TextoBusca.juntar(TextoBusca.texto(nome), TextoBusca.texto(email),
+                TextoBusca.digitos(cpf), TextoBusca.digitos(telefone));
+        this.mesDia = dataNascimento != null ? MesDia.de(dataNascimento) : null;
+    }
+
     public int getIdade() {
         if (dataNascimento == null) {
             return 0;
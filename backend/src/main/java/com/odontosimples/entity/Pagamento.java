@@ -53,7 +53,7 @@ public class Pagamento extends BaseEntity {
     private Integer parcelaAtual = 1;
 
     @Column(name = "comprovante", length = 500)
-    private String comprovante; // Path do arquivo de comprovante
+    private String comprovante; // Path do arquivo de comprovante (legado; os novos são anexos COMPROVANTE)
 
     @Column(name = "numero_transacao", length = 100)
     private String numeroTransacao;
@@ -1,12 +1,22 @@
 package com.odontosimples.entity;
 
+import com.odontosimples.service.ProntuarioTermosListener;
+import com.odontosimples.util.Odontograma;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.LazyGroup;
 
 import java.time.LocalDate;
 
+// Os campos de texto longo do atendimento ficam no grupo "detalhe", carregado por um
+// SELECT próprio no primeiro acesso a qualquer um deles (bytecode enhancement, ver
+// hibernate-enhance-maven-plugin no pom): a linha buscada pelas listagens traz só o
+// cabeçalho. Alergias, medicamentos em uso e prescrições continuam no cabeçalho porque
+// são lidos a cada gravação (ProntuarioTermosListener). Campos LAZY só podem ser lidos
+// pelos getters; acesso direto ao atributo (ex.: ModelMapper por campo) vê null.
 @Entity
 @Table(name = "prontuarios")
+@EntityListeners(ProntuarioTermosListener.class)
 public class Prontuario extends BaseEntity {
 
     @NotNull(message = "Paciente é obrigatório")
@@ -27,24 +37,36 @@ public class Prontuario extends BaseEntity {
     @Column(name = "data_consulta", nullable = false)
     private LocalDate dataConsulta;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "anamnese", columnDefinition = "TEXT")
     private String anamnese;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "exame_clinico", columnDefinition = "TEXT")
     private String exameClinico;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "diagnostico", columnDefinition = "TEXT")
     private String diagnostico;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "plano_tratamento", columnDefinition = "TEXT")
     private String planoTratamento;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "procedimentos_realizados", columnDefinition = "TEXT")
     private String procedimentosRealizados;
 
     @Column(name = "prescricoes", columnDefinition = "TEXT")
     private String prescricoes;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "observacoes", columnDefinition = "TEXT")
     private String observacoes;
 
@@ -56,12 +78,18 @@ public class Prontuario extends BaseEntity {
     private StatusTratamento statusTratamento = StatusTratamento.EM_ANDAMENTO;
 
     // Campos específicos para anamnese
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "queixa_principal", columnDefinition = "TEXT")
     private String queixaPrincipal;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "historia_doenca_atual", columnDefinition = "TEXT")
     private String historiaDoencaAtual;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "historia_medica", columnDefinition = "TEXT")
     private String historiaMedica;
 
@@ -71,6 +99,8 @@ public class Prontuario extends BaseEntity {
     @Column(name = "alergias", columnDefinition = "TEXT")
     private String alergias;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "habitos", columnDefinition = "TEXT")
     private String habitos;
 
@@ -81,14 +111,28 @@ public class Prontuario extends BaseEntity {
     @Column(name = "temperatura", length = 10)
     private String temperatura;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "exame_extraoral", columnDefinition = "TEXT")
     private String exameExtraoral;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
     @Column(name = "exame_intraoral", columnDefinition = "TEXT")
     private String exameIntraoral;
 
-    @Column(name = "odontograma", columnDefinition = "TEXT")
-    private String odontograma;
+    // Texto livre de antes do odontograma estruturado, no formato de cada clínica
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("detalhe")
+    @Column(name = "odontograma_texto", columnDefinition = "TEXT")
+    private String odontogramaTexto;
+
+    // Grupo próprio: comparar odontogramas de duas visitas não carrega os textos
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("odontograma")
+    @Convert(converter = OdontogramaConverter.class)
+    @Column(name = "odontograma", columnDefinition = "BYTEA")
+    private Odontograma odontograma;
 
     // Constructors
     public Prontuario() {}
@@ -284,11 +328,19 @@ public class Prontuario extends BaseEntity {
         this.exameIntraoral = exameIntraoral;
     }
 
-    public String getOdontograma() {
+    public String getOdontogramaTexto() {
+        return odontogramaTexto;
+    }
+
+    public void setOdontogramaTexto(String odontogramaTexto) {
+        this.odontogramaTexto = odontogramaTexto;
+    }
+
+    public Odontograma getOdontograma() {
         return odontograma;
     }
 
-    public void setOdontograma(String odontograma) {
+    public void setOdontograma(Odontograma odontograma) {
         this.odontograma = odontograma;
     }
 
@@ -0,0 +1,108 @@
+package com.odontosimples.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Histórico de reagendamentos: uma linha por reagendamento, gravada na mesma transação
+// e nunca alterada (por isso não estende BaseEntity, que tem updated_at e active)
+@Entity
+@Immutable
+@Table(name = "reagendamentos")
+public class Reagendamento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "consulta_id", nullable = false, updatable = false)
+    private Consulta consulta;
+
+    // Copiados da consulta para o histórico do paciente sair de um único índice
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paciente_id", nullable = false, updatable = false)
+    private Paciente paciente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "dentista_id", nullable = false, updatable = false)
+    private Dentista dentista;
+
+    @Column(name = "data_hora_anterior", nullable = false, updatable = false)
+    private LocalDateTime dataHoraAnterior;
+
+    @Column(name = "nova_data_hora", nullable = false, updatable = false)
+    private LocalDateTime novaDataHora;
+
+    @Column(name = "motivo", length = 500, updatable = false)
+    private String motivo;
+
+    // PACIENTE, DENTISTA, CLINICA
+    @Column(name = "solicitado_por", length = 20, updatable = false)
+    private String solicitadoPor;
+
+    // Login de quem registrou o reagendamento
+    @Column(name = "usuario", length = 100, updatable = false)
+    private String usuario;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public Reagendamento() {}
+
+    public Reagendamento(Consulta consulta, LocalDateTime dataHoraAnterior, String motivo,
+                         String solicitadoPor, String usuario) {
+        this.consulta = consulta;
+        this.paciente = consulta.getPaciente();
+        this.dentista = consulta.getDentista();
+        this.dataHoraAnterior = dataHoraAnterior;
+        this.novaDataHora = consulta.getDataHora();
+        this.motivo = motivo;
+        this.solicitadoPor = solicitadoPor;
+        this.usuario = usuario;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Consulta getConsulta() {
+        return consulta;
+    }
+
+    public Paciente getPaciente() {
+        return paciente;
+    }
+
+    public Dentista getDentista() {
+        return dentista;
+    }
+
+    public LocalDateTime getDataHoraAnterior() {
+        return dataHoraAnterior;
+    }
+
+    public LocalDateTime getNovaDataHora() {
+        return novaDataHora;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public String getSolicitadoPor() {
+        return solicitadoPor;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
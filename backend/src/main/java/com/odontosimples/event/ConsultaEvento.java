@@ -0,0 +1,50 @@
+package com.odontosimples.event;
+
+import com.odontosimples.entity.Consulta;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Alteração na agenda publicada pelo {@link com.odontosimples.service.ConsultaService}.
+ *
+ * É um retrato da consulta no momento da alteração (os ouvintes só o recebem depois do
+ * commit, quando a entidade já pode ter mudado de novo). Em reagendamentos e trocas de
+ * dentista leva também o horário e o dentista anteriores, para que a tela do dia antigo
+ * remova a consulta.
+ */
+public record ConsultaEvento(
+        Tipo tipo,
+        Long consultaId,
+        Long pacienteId,
+        Long dentistaId,
+        LocalDateTime dataHora,
+        Integer duracaoMinutos,
+        String status,
+        Long dentistaAnteriorId,
+        LocalDateTime dataHoraAnterior) {
+
+    public enum Tipo {
+        CRIADA, ATUALIZADA, REAGENDADA, CONFIRMADA, REALIZADA, CANCELADA, FALTOU
+    }
+
+    public static ConsultaEvento de(Tipo tipo, Consulta consulta) {
+        return de(tipo, consulta, consulta.getDentista().getId(), consulta.getDataHora());
+    }
+
+    public static ConsultaEvento de(Tipo tipo, Consulta consulta, Long dentistaAnteriorId,
+                                    LocalDateTime dataHoraAnterior) {
+        return new ConsultaEvento(tipo, consulta.getId(), consulta.getPaciente().getId(),
+                consulta.getDentista().getId(), consulta.getDataHora(), consulta.getDuracaoMinutos(),
+                consulta.getStatus() != null ? consulta.getStatus().name() : null,
+                dentistaAnteriorId, dataHoraAnterior);
+    }
+
+    public LocalDate dia() {
+        return dataHora.toLocalDate();
+    }
+
+    public LocalDate diaAnterior() {
+        return dataHoraAnterior != null ? dataHoraAnterior.toLocalDate() : dia();
+    }
+}
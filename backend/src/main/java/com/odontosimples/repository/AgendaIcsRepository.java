@@ -0,0 +1,54 @@
+package com.odontosimples.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Leitura da agenda de um dentista para o feed iCalendar via JDBC: as linhas são lidas
+// por um cursor (fetch size) e entregues uma a uma, sem montar a lista em memória.
+@Repository
+public class AgendaIcsRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String AGENDA =
+            "SELECT c.id, c.data_hora, c.duracao_minutos, c.status, c.tipo_consulta, p.nome, " +
+            "COALESCE(c.updated_at, c.created_at) " +
+            "FROM consultas c JOIN pacientes p ON p.id = c.paciente_id " +
+            "WHERE c.dentista_id = ? AND c.data_hora >= ? AND c.active = true " +
+            "ORDER BY c.data_hora";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Versão da agenda a partir de uma data: quantidade de consultas e última alteração.
+    // Muda quando uma consulta é criada, alterada, cancelada ou sai da janela.
+    public String versao(Long dentistaId, LocalDateTime desde) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), MAX(COALESCE(updated_at, created_at)) FROM consultas " +
+                "WHERE dentista_id = ? AND data_hora >= ? AND active = true",
+                (rs, i) -> {
+                    Timestamp ultima = rs.getTimestamp(2);
+                    return rs.getLong(1) + "-" + (ultima != null ? ultima.getTime() : 0);
+                },
+                dentistaId, Timestamp.valueOf(desde));
+    }
+
+    // Precisa de transação: o driver do PostgreSQL só usa cursor com autocommit desligado
+    // linha: id, data_hora, duracao_minutos, status, tipo_consulta, nome do paciente, última alteração
+    public void percorrerAgenda(Long dentistaId, LocalDateTime desde, RowCallbackHandler linha) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(AGENDA, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, dentistaId);
+            ps.setTimestamp(2, Timestamp.valueOf(desde));
+            return ps;
+        }, linha);
+    }
+}
@@ -0,0 +1,31 @@
+package com.odontosimples.repository;
+
+import com.odontosimples.dto.AnexoDTO;
+import com.odontosimples.entity.Anexo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnexoRepository extends JpaRepository<Anexo, Long> {
+
+    String SELECT_DTO = "SELECT new com.odontosimples.dto.AnexoDTO(a.id, a.nomeArquivo, a.tipoConteudo, " +
+            "a.tamanho, a.sha256, a.categoria, a.paciente.id, a.prontuario.id, a.pagamento.id, a.createdAt) " +
+            "FROM Anexo a ";
+
+    @Query(SELECT_DTO + "WHERE a.id = :id AND a.active = true")
+    Optional<AnexoDTO> findDTO(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "WHERE a.paciente.id = :pacienteId AND a.active = true ORDER BY a.createdAt DESC, a.id DESC")
+    List<AnexoDTO> findDoPaciente(@Param("pacienteId") Long pacienteId);
+
+    @Query(SELECT_DTO + "WHERE a.prontuario.id = :prontuarioId AND a.active = true ORDER BY a.createdAt, a.id")
+    List<AnexoDTO> findDoProntuario(@Param("prontuarioId") Long prontuarioId);
+
+    @Query(SELECT_DTO + "WHERE a.pagamento.id = :pagamentoId AND a.active = true ORDER BY a.createdAt, a.id")
+    List<AnexoDTO> findDoPagamento(@Param("pagamentoId") Long pagamentoId);
+}
@@ -0,0 +1,66 @@
+package com.odontosimples.repository;
+
+import com.odontosimples.entity.Consulta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+// Inserção de consultas em lote via JDBC, sem carregar as entidades no contexto de
+// persistência. Os ids são reservados de uma vez na consulta_seq, em blocos de 50 como
+// faz o otimizador pooled-lo do Hibernate, e todos os INSERTs vão num só batch.
+@Repository
+public class ConsultaLoteRepository {
+
+    private static final String INSERT =
+            "INSERT INTO consultas (id, paciente_id, dentista_id, data_hora, status, observacoes, valor, " +
+            "duracao_minutos, tipo_consulta, primeira_consulta, serie_id, created_at, updated_at, active) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // INCREMENT BY da consulta_seq (V8): cada nextval reserva [valor, valor + 50)
+    private static final int INCREMENTO_SEQUENCIA = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<Long> reservarIds(int quantidade) {
+        List<Long> blocos = jdbcTemplate.queryForList(
+                "SELECT nextval('consulta_seq') FROM generate_series(1, ?)",
+                Long.class, (quantidade + INCREMENTO_SEQUENCIA - 1) / INCREMENTO_SEQUENCIA);
+        List<Long> ids = new ArrayList<>(quantidade);
+        for (Long inicio : blocos) {
+            for (int i = 0; i < INCREMENTO_SEQUENCIA && ids.size() < quantidade; i++) {
+                ids.add(inicio + i);
+            }
+        }
+        return ids;
+    }
+
+    // As consultas já devem ter id, paciente, dentista e datas de auditoria preenchidos
+    public void inserir(List<Consulta> consultas) {
+        jdbcTemplate.batchUpdate(INSERT, consultas, 500, (ps, consulta) -> {
+            ps.setLong(1, consulta.getId());
+            ps.setLong(2, consulta.getPaciente().getId());
+            ps.setLong(3, consulta.getDentista().getId());
+            ps.setTimestamp(4, Timestamp.valueOf(consulta.getDataHora()));
+            ps.setString(5, consulta.getStatus().name());
+            ps.setString(6, consulta.getObservacoes());
+            ps.setBigDecimal(7, consulta.getValor());
+            ps.setInt(8, consulta.getDuracaoMinutos());
+            if (consulta.getTipoConsulta() != null) {
+                ps.setString(9, consulta.getTipoConsulta().name());
+            } else {
+                ps.setNull(9, Types.VARCHAR);
+            }
+            ps.setBoolean(10, Boolean.TRUE.equals(consulta.getPrimeiraConsulta()));
+            ps.setString(11, consulta.getSerieId());
+            ps.setTimestamp(12, Timestamp.valueOf(consulta.getCreatedAt()));
+            ps.setTimestamp(13, Timestamp.valueOf(consulta.getUpdatedAt()));
+            ps.setBoolean(14, true);
+        });
+    }
+}
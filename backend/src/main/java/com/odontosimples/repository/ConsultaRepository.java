@@ -1,28 +1,118 @@
 package com.odontosimples.repository;
 
+import com.odontosimples.dto.ConsultaDTO;
 import com.odontosimples.entity.Consulta;
 import com.odontosimples.entity.Dentista;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
 
+    // Constraint de exclusão que impede sobreposição de horários do mesmo dentista
+    String CONSTRAINT_SOBREPOSICAO = "consultas_sem_sobreposicao";
+
+    // Projeção das telas de agenda: monta o ConsultaDTO com nome/telefone do paciente e
+    // nome/CRO do dentista num único SELECT, sem carregar as associações LAZY linha a linha
+    String SELECT_DTO = "SELECT new com.odontosimples.dto.ConsultaDTO(" +
+            "c.id, p.id, d.id, c.dataHora, c.status, c.observacoes, c.valor, c.duracaoMinutos, " +
+            "c.tipoConsulta, c.primeiraConsulta, c.dataReagendamento, c.motivoReagendamento, c.serieId, " +
+            "c.active, p.nome, p.telefone, d.nome, CONCAT('CRO-', d.croEstado, ' ', d.cro)) " +
+            "FROM Consulta c JOIN c.paciente p JOIN c.dentista d ";
+
+    @Query(SELECT_DTO + "WHERE c.id = :id")
+    Optional<ConsultaDTO> findDTOById(@Param("id") Long id);
+
+    @Query(value = SELECT_DTO + "WHERE c.active = true",
+           countQuery = "SELECT COUNT(c) FROM Consulta c WHERE c.active = true")
+    Page<ConsultaDTO> findDTOsAtivas(Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE c.dataHora >= :inicio AND c.dataHora < :fim AND c.active = true ORDER BY c.dataHora")
+    List<ConsultaDTO> findDTOsByPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query(SELECT_DTO + "WHERE d.id = :dentistaId AND c.dataHora >= :inicio AND c.dataHora < :fim " +
+           "AND c.active = true ORDER BY c.dataHora")
+    List<ConsultaDTO> findDTOsByDentistaAndPeriodo(
+        @Param("dentistaId") Long dentistaId,
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fim") LocalDateTime fim
+    );
+
+    @Query(SELECT_DTO + "WHERE p.id = :pacienteId AND c.active = true ORDER BY c.dataHora DESC")
+    List<ConsultaDTO> findDTOsByPacienteId(@Param("pacienteId") Long pacienteId);
+
+    // Paginação por cursor sobre (data_hora, id), percorrendo o índice idx_consultas_data_hora_id
+    // a partir da última linha vista: a página N custa o mesmo que a primeira.
+    // O Pageable só limita a quantidade (sempre página 0).
+    @Query(SELECT_DTO + "WHERE c.active = true ORDER BY c.dataHora, c.id")
+    List<ConsultaDTO> findDTOsPorDataHora(Pageable limite);
+
+    @Query(SELECT_DTO + "WHERE c.active = true AND (c.dataHora, c.id) > (:dataHora, :id) ORDER BY c.dataHora, c.id")
+    List<ConsultaDTO> findDTOsPorDataHoraApos(
+        @Param("dataHora") LocalDateTime dataHora,
+        @Param("id") Long id,
+        Pageable limite
+    );
+
+    @Query(SELECT_DTO + "WHERE c.active = true ORDER BY c.dataHora DESC, c.id DESC")
+    List<ConsultaDTO> findDTOsPorDataHoraDesc(Pageable limite);
+
+    @Query(SELECT_DTO + "WHERE c.active = true AND (c.dataHora, c.id) < (:dataHora, :id) ORDER BY c.dataHora DESC, c.id DESC")
+    List<ConsultaDTO> findDTOsPorDataHoraDescAntes(
+        @Param("dataHora") LocalDateTime dataHora,
+        @Param("id") Long id,
+        Pageable limite
+    );
+
+    long countByActiveTrue();
+
+    // Busca textual por paciente, dentista ou observações
+    @Query(value = SELECT_DTO + "WHERE (p.nome LIKE %:termo% OR d.nome LIKE %:termo% OR c.observacoes LIKE %:termo%) " +
+                   "AND c.active = true",
+           countQuery = "SELECT COUNT(c) FROM Consulta c JOIN c.paciente p JOIN c.dentista d " +
+                        "WHERE (p.nome LIKE %:termo% OR d.nome LIKE %:termo% OR c.observacoes LIKE %:termo%) " +
+                        "AND c.active = true")
+    Page<ConsultaDTO> buscarDTOsPorTermo(@Param("termo") String termo, Pageable pageable);
+
+    // As buscas por dia usam o intervalo [início do dia, início do dia seguinte) em vez de
+    // DATE(c.dataHora), para que o índice em data_hora possa ser usado
+
     // Buscar consultas por data
-    @Query("SELECT c FROM Consulta c WHERE DATE(c.dataHora) = :data AND c.active = true ORDER BY c.dataHora")
-    List<Consulta> findByData(@Param("data") LocalDate data);
+    default List<Consulta> findByData(LocalDate data) {
+        return findByPeriodo(data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+    }
+
+    @Query("SELECT c FROM Consulta c WHERE c.dataHora >= :inicio AND c.dataHora < :fim AND c.active = true ORDER BY c.dataHora")
+    List<Consulta> findByPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 
     // Buscar consultas por dentista e data
-    @Query("SELECT c FROM Consulta c WHERE c.dentista = :dentista AND DATE(c.dataHora) = :data AND c.active = true ORDER BY c.dataHora")
-    List<Consulta> findByDentistaAndData(@Param("dentista") Dentista dentista, @Param("data") LocalDate data);
+    default List<Consulta> findByDentistaAndData(Dentista dentista, LocalDate data) {
+        return findByDentistaAndPeriodo(dentista, data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+    }
+
+    @Query("SELECT c FROM Consulta c WHERE c.dentista = :dentista AND c.dataHora >= :inicio AND c.dataHora < :fim " +
+           "AND c.active = true ORDER BY c.dataHora")
+    List<Consulta> findByDentistaAndPeriodo(
+        @Param("dentista") Dentista dentista,
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fim") LocalDateTime fim
+    );
 
     // Verificar conflitos de agendamento - versão simplificada
     @Query("SELECT c FROM Consulta c WHERE c.dentista = :dentista " +
@@ -45,6 +135,70 @@ public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
         @Param("fim") LocalDateTime fim
     );
 
+    // Intervalos ocupados a partir de uma data (carga do índice de agenda em memória)
+    @Query("SELECT c.id, c.dentista.id, c.dataHora, c.duracaoMinutos FROM Consulta c " +
+           "WHERE c.dataHora >= :desde AND c.status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA') " +
+           "AND c.active = true")
+    List<Object[]> findIntervalosOcupadosDesde(@Param("desde") LocalDateTime desde);
+
+    // Agenda ocupada de vários dentistas em um período (agendamento em lote)
+    @Query("SELECT c.id, c.dentista.id, c.dataHora, c.duracaoMinutos FROM Consulta c " +
+           "WHERE c.dentista.id IN :dentistaIds AND c.dataHora >= :inicio AND c.dataHora < :fim " +
+           "AND c.status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA') AND c.active = true")
+    List<Object[]> findIntervalosOcupados(
+        @Param("dentistaIds") Collection<Long> dentistaIds,
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fim") LocalDateTime fim
+    );
+
+    // Consultas que ocuparam ou ocupam a agenda de vários dentistas em um período (ocupação):
+    // além das que ainda reservam horário, as realizadas e as faltas; só as canceladas ficam de fora
+    @Query("SELECT c.id, c.dentista.id, c.dataHora, c.duracaoMinutos FROM Consulta c " +
+           "WHERE c.dentista.id IN :dentistaIds AND c.dataHora >= :inicio AND c.dataHora < :fim " +
+           "AND c.status <> 'CANCELADA' AND c.active = true")
+    List<Object[]> findIntervalosDaOcupacao(
+        @Param("dentistaIds") Collection<Long> dentistaIds,
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fim") LocalDateTime fim
+    );
+
+    // Consultas de uma série que ainda ocupam agenda a partir de uma data ("esta e as seguintes"):
+    // id, paciente, dentista, data/hora, duração e status
+    @Query("SELECT c.id, c.paciente.id, c.dentista.id, c.dataHora, c.duracaoMinutos, c.status FROM Consulta c " +
+           "WHERE c.serieId = :serieId AND c.dataHora >= :aPartirDe " +
+           "AND c.status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA') AND c.active = true")
+    List<Object[]> findAgendaDaSerieAPartirDe(
+        @Param("serieId") String serieId,
+        @Param("aPartirDe") LocalDateTime aPartirDe
+    );
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Consulta c SET c.status = :status, c.updatedAt = :agora " +
+           "WHERE c.serieId = :serieId AND c.dataHora >= :aPartirDe " +
+           "AND c.status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA') AND c.active = true")
+    int atualizarStatusDaSerie(
+        @Param("serieId") String serieId,
+        @Param("aPartirDe") LocalDateTime aPartirDe,
+        @Param("status") Consulta.StatusConsulta status,
+        @Param("agora") LocalDateTime agora
+    );
+
+    // Campos nulos mantêm o valor de cada consulta
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Consulta c SET c.valor = COALESCE(:valor, c.valor), " +
+           "c.tipoConsulta = COALESCE(:tipoConsulta, c.tipoConsulta), " +
+           "c.observacoes = COALESCE(:observacoes, c.observacoes), c.updatedAt = :agora " +
+           "WHERE c.serieId = :serieId AND c.dataHora >= :aPartirDe " +
+           "AND c.status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA') AND c.active = true")
+    int atualizarDadosDaSerie(
+        @Param("serieId") String serieId,
+        @Param("aPartirDe") LocalDateTime aPartirDe,
+        @Param("valor") BigDecimal valor,
+        @Param("tipoConsulta") Consulta.TipoConsulta tipoConsulta,
+        @Param("observacoes") String observacoes,
+        @Param("agora") LocalDateTime agora
+    );
+
     // Buscar consultas por paciente
     @Query("SELECT c FROM Consulta c WHERE c.paciente.id = :pacienteId AND c.active = true ORDER BY c.dataHora DESC")
     List<Consulta> findByPacienteId(@Param("pacienteId") Long pacienteId);
@@ -58,8 +212,17 @@ public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
     List<Consulta> findByStatus(@Param("status") Consulta.StatusConsulta status);
 
     // Buscar consultas do dia por status
-    @Query("SELECT c FROM Consulta c WHERE DATE(c.dataHora) = :data AND c.status = :status AND c.active = true ORDER BY c.dataHora")
-    List<Consulta> findByDataAndStatus(@Param("data") LocalDate data, @Param("status") Consulta.StatusConsulta status);
+    default List<Consulta> findByDataAndStatus(LocalDate data, Consulta.StatusConsulta status) {
+        return findByPeriodoAndStatus(data.atStartOfDay(), data.plusDays(1).atStartOfDay(), status);
+    }
+
+    @Query("SELECT c FROM Consulta c WHERE c.dataHora >= :inicio AND c.dataHora < :fim AND c.status = :status " +
+           "AND c.active = true ORDER BY c.dataHora")
+    List<Consulta> findByPeriodoAndStatus(
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fim") LocalDateTime fim,
+        @Param("status") Consulta.StatusConsulta status
+    );
 
     // Buscar consultas entre datas
     @Query("SELECT c FROM Consulta c WHERE c.dataHora BETWEEN :inicio AND :fim AND c.active = true ORDER BY c.dataHora")
@@ -79,8 +242,12 @@ public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
     Long countByStatus(@Param("status") Consulta.StatusConsulta status);
 
     // Contar consultas do dia
-    @Query("SELECT COUNT(c) FROM Consulta c WHERE DATE(c.dataHora) = :data AND c.active = true")
-    Long countByData(@Param("data") LocalDate data);
+    default Long countByData(LocalDate data) {
+        return countByPeriodo(data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+    }
+
+    @Query("SELECT COUNT(c) FROM Consulta c WHERE c.dataHora >= :inicio AND c.dataHora < :fim AND c.active = true")
+    Long countByPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 
     // Buscar próximas consultas do paciente
     @Query("SELECT c FROM Consulta c WHERE c.paciente.id = :pacienteId " +
@@ -88,28 +255,47 @@ public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
            "AND c.active = true ORDER BY c.dataHora")
     List<Consulta> findProximasConsultasPaciente(@Param("pacienteId") Long pacienteId);
 
-    // Buscar consultas para confirmação (próximas 24h)
-    @Query("SELECT c FROM Consulta c WHERE c.status = 'AGENDADA' " +
-           "AND c.dataHora BETWEEN CURRENT_TIMESTAMP AND :limite " +
-           "AND c.active = true ORDER BY c.dataHora")
-    List<Consulta> findConsultasParaConfirmacao(@Param("limite") LocalDateTime limite);
+    // Consultas a confirmar entre inicio e limite, paginadas por (dataHora, id):
+    // id, dataHora, nome e email do paciente, nome do dentista. Reagendadas entram pelo novo
+    // horário; a chave (consulta_id, data_hora) de lembretes_enviados evita repetir o anterior
+    String SELECT_LEMBRETE = "SELECT c.id, c.dataHora, p.nome, p.email, d.nome " +
+            "FROM Consulta c JOIN c.paciente p JOIN c.dentista d " +
+            "WHERE c.status IN ('AGENDADA', 'REAGENDADA') AND c.active = true AND p.email IS NOT NULL " +
+            "AND c.dataHora > :inicio AND c.dataHora <= :limite ";
 
-    // Relatório de consultas por período
-    @Query("SELECT c FROM Consulta c WHERE DATE(c.dataHora) BETWEEN :dataInicio AND :dataFim " +
-           "AND c.active = true ORDER BY c.dataHora")
-    List<Consulta> findRelatorioConsultas(
-        @Param("dataInicio") LocalDate dataInicio,
-        @Param("dataFim") LocalDate dataFim
-    );
+    @Query(SELECT_LEMBRETE + "ORDER BY c.dataHora, c.id")
+    List<Object[]> findConsultasParaConfirmacao(@Param("inicio") LocalDateTime inicio,
+                                                @Param("limite") LocalDateTime limite, Pageable pagina);
 
-    // Buscar consultas realizadas para faturamento
-    @Query("SELECT c FROM Consulta c WHERE c.status = 'REALIZADA' " +
-           "AND DATE(c.dataHora) BETWEEN :dataInicio AND :dataFim " +
-           "AND c.active = true ORDER BY c.dataHora")
-    List<Consulta> findConsultasRealizadas(
-        @Param("dataInicio") LocalDate dataInicio,
-        @Param("dataFim") LocalDate dataFim
-    );
+    @Query(SELECT_LEMBRETE + "AND (c.dataHora, c.id) > (:dataHora, :id) ORDER BY c.dataHora, c.id")
+    List<Object[]> findConsultasParaConfirmacaoApos(@Param("inicio") LocalDateTime inicio,
+                                                    @Param("limite") LocalDateTime limite,
+                                                    @Param("dataHora") LocalDateTime dataHora,
+                                                    @Param("id") Long id, Pageable pagina);
+
+    // Exportação em colunas (sem carregar prontuário e pagamento de cada consulta), percorrida
+    // por cursor dentro de uma transação somente leitura; o Stream precisa ser fechado
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c.id, c.dataHora, c.duracaoMinutos, c.status, c.tipoConsulta, c.valor, c.primeiraConsulta, " +
+           "c.serieId, p.id, p.nome, p.cpf, d.id, d.nome " +
+           "FROM Consulta c JOIN c.paciente p JOIN c.dentista d " +
+           "WHERE c.dataHora >= :inicio AND c.dataHora < :fim " +
+           "ORDER BY c.dataHora, c.id")
+    Stream<Object[]> streamParaExportacao(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    // Relatório de consultas por período (datas inclusivas)
+    default List<Consulta> findRelatorioConsultas(LocalDate dataInicio, LocalDate dataFim) {
+        return findByPeriodo(dataInicio.atStartOfDay(), dataFim.plusDays(1).atStartOfDay());
+    }
+
+    // Buscar consultas realizadas para faturamento (datas inclusivas)
+    default List<Consulta> findConsultasRealizadas(LocalDate dataInicio, LocalDate dataFim) {
+        return findByPeriodoAndStatus(dataInicio.atStartOfDay(), dataFim.plusDays(1).atStartOfDay(),
+                Consulta.StatusConsulta.REALIZADA);
+    }
 }
 
 
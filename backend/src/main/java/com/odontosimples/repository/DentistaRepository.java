@@ -15,6 +15,10 @@ public interface DentistaRepository extends JpaRepository<Dentista, Long> {
 
     Optional<Dentista> findByCro(String cro);
 
+    // Feed .ics: o dentista dono do token (pelo SHA-256 dele)
+    @Query("SELECT d.id FROM Dentista d WHERE d.tokenAgenda = :tokenAgenda AND d.active = true")
+    Optional<Long> findIdPorTokenAgenda(@Param("tokenAgenda") String tokenAgenda);
+
     Optional<Dentista> findByCroAndActiveTrue(String cro);
 
     boolean existsByCro(String cro);
@@ -0,0 +1,71 @@
+package com.odontosimples.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Controle de envio de lembretes (tabela lembretes_enviados) via JDBC. A reserva é um
+// INSERT ... ON CONFLICT: só quem inserir (ou retomar uma falha) a linha envia, então
+// nós concorrentes e execuções repetidas não mandam o mesmo lembrete duas vezes.
+@Repository
+public class LembreteRepository {
+
+    private static final String RESERVAR =
+            "INSERT INTO lembretes_enviados AS l (consulta_id, tipo, data_hora_consulta, status) " +
+            "SELECT r.consulta_id, ?, r.data_hora, 'ENVIANDO' FROM unnest(?::bigint[], ?::timestamp[]) " +
+            "AS r (consulta_id, data_hora) " +
+            "ON CONFLICT (consulta_id, tipo, data_hora_consulta) DO UPDATE " +
+            "SET status = 'ENVIANDO', tentativas = l.tentativas + 1, updated_at = now() " +
+            "WHERE l.status = 'FALHOU' AND l.tentativas < ? " +
+            "RETURNING consulta_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Reserva o envio do lembrete das consultas (id -> horário) e devolve as que couberam a
+    // este nó. Uma linha ENVIANDO de um nó que caiu não é retomada: perder um lembrete é
+    // preferível a mandá-lo em dobro.
+    public Set<Long> reservar(String tipo, Map<Long, LocalDateTime> consultas, int maxTentativas) {
+        Set<Long> reservadas = new HashSet<>();
+        if (consultas.isEmpty()) {
+            return reservadas;
+        }
+        Long[] ids = consultas.keySet().toArray(new Long[0]);
+        Timestamp[] horarios = new Timestamp[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            horarios[i] = Timestamp.valueOf(consultas.get(ids[i]));
+        }
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RESERVAR);
+            ps.setString(1, tipo);
+            ps.setArray(2, con.createArrayOf("bigint", ids));
+            ps.setArray(3, con.createArrayOf("timestamp", horarios));
+            ps.setInt(4, maxTentativas);
+            return ps;
+        }, rs -> {
+            reservadas.add(rs.getLong(1));
+        });
+        return reservadas;
+    }
+
+    public void marcarEnviado(String tipo, Long consultaId, LocalDateTime dataHora) {
+        jdbcTemplate.update("UPDATE lembretes_enviados SET status = 'ENVIADO', ultimo_erro = NULL, updated_at = now() " +
+                "WHERE consulta_id = ? AND tipo = ? AND data_hora_consulta = ?",
+                consultaId, tipo, Timestamp.valueOf(dataHora));
+    }
+
+    public void marcarFalha(String tipo, Long consultaId, LocalDateTime dataHora, String erro) {
+        jdbcTemplate.update("UPDATE lembretes_enviados SET status = 'FALHOU', ultimo_erro = ?, updated_at = now() " +
+                "WHERE consulta_id = ? AND tipo = ? AND data_hora_consulta = ?",
+                erro != null && erro.length() > 500 ? erro.substring(0, 500) : erro,
+                consultaId, tipo, Timestamp.valueOf(dataHora));
+    }
+}
@@ -0,0 +1,29 @@
+package com.odontosimples.repository;
+
+import com.odontosimples.entity.ListaEspera;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ListaEsperaRepository extends JpaRepository<ListaEspera, Long> {
+
+    // Pedidos ainda aguardando, para a carga do índice em memória:
+    // id, paciente, dentista, especialidade, janela, duração, prioridade e criação
+    @Query("SELECT l.id, l.paciente.id, d.id, l.especialidade, l.dataInicio, l.dataFim, l.horaInicio, l.horaFim, " +
+           "l.duracaoMinutos, l.prioridade, l.createdAt FROM ListaEspera l LEFT JOIN l.dentista d " +
+           "WHERE l.status = 'AGUARDANDO' AND l.active = true AND l.dataFim >= :hoje")
+    List<Object[]> findAguardandoDesde(@Param("hoje") LocalDate hoje);
+
+    @Query("SELECT l FROM ListaEspera l JOIN FETCH l.paciente LEFT JOIN FETCH l.dentista " +
+           "WHERE l.status = 'AGUARDANDO' AND l.active = true ORDER BY l.prioridade DESC, l.createdAt")
+    List<ListaEspera> findAguardando();
+
+    @Query("SELECT l FROM ListaEspera l JOIN FETCH l.paciente LEFT JOIN FETCH l.dentista " +
+           "WHERE l.paciente.id = :pacienteId AND l.active = true ORDER BY l.createdAt DESC")
+    List<ListaEspera> findByPacienteId(@Param("pacienteId") Long pacienteId);
+}
@@ -0,0 +1,58 @@
+package com.odontosimples.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+// Controle das mensagens de aniversário (tabela mensagens_aniversario) via JDBC, com a
+// mesma reserva por INSERT ... ON CONFLICT do LembreteRepository: só quem inserir (ou
+// retomar uma falha) a linha do paciente no ano envia a mensagem.
+@Repository
+public class MensagemAniversarioRepository {
+
+    private static final String RESERVAR =
+            "INSERT INTO mensagens_aniversario AS m (paciente_id, ano, status) " +
+            "SELECT r.paciente_id, ?, 'ENVIANDO' FROM unnest(?::bigint[]) AS r (paciente_id) " +
+            "ON CONFLICT (paciente_id, ano) DO UPDATE " +
+            "SET status = 'ENVIANDO', tentativas = m.tentativas + 1, updated_at = now() " +
+            "WHERE m.status = 'FALHOU' AND m.tentativas < ? " +
+            "RETURNING paciente_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Set<Long> reservar(int ano, Collection<Long> pacienteIds, int maxTentativas) {
+        Set<Long> reservados = new HashSet<>();
+        if (pacienteIds.isEmpty()) {
+            return reservados;
+        }
+        Long[] ids = pacienteIds.toArray(new Long[0]);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RESERVAR);
+            ps.setInt(1, ano);
+            ps.setArray(2, con.createArrayOf("bigint", ids));
+            ps.setInt(3, maxTentativas);
+            return ps;
+        }, rs -> {
+            reservados.add(rs.getLong(1));
+        });
+        return reservados;
+    }
+
+    public void marcarEnviado(int ano, Long pacienteId) {
+        jdbcTemplate.update("UPDATE mensagens_aniversario SET status = 'ENVIADO', ultimo_erro = NULL, updated_at = now() " +
+                "WHERE paciente_id = ? AND ano = ?", pacienteId, ano);
+    }
+
+    public void marcarFalha(int ano, Long pacienteId, String erro) {
+        jdbcTemplate.update("UPDATE mensagens_aniversario SET status = 'FALHOU', ultimo_erro = ?, updated_at = now() " +
+                "WHERE paciente_id = ? AND ano = ?",
+                erro != null && erro.length() > 500 ? erro.substring(0, 500) : erro, pacienteId, ano);
+    }
+}
@@ -1,20 +1,26 @@
 package com.odontosimples.repository;
 
 import com.odontosimples.entity.Paciente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PacienteRepository extends JpaRepository<Paciente, Long> {
 
+    String CONSTRAINT_CPF = "pacientes_cpf_key";
+
     Optional<Paciente> findByCpf(String cpf);
 
     Optional<Paciente> findByCpfAndActiveTrue(String cpf);
@@ -45,24 +51,69 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long> {
             @Param("dataInicio") LocalDate dataInicio,
             @Param("dataFim") LocalDate dataFim);
 
-    @Query("SELECT p FROM Paciente p WHERE " +
-           "(p.nome LIKE %:termo% OR p.cpf LIKE %:termo% OR p.telefone LIKE %:termo% OR p.email LIKE %:termo%) " +
-           "AND p.active = true")
-    List<Paciente> buscarPorTermo(@Param("termo") String termo);
-
-    @Query("SELECT p FROM Paciente p WHERE " +
-           "(p.nome LIKE %:termo% OR p.cpf LIKE %:termo% OR p.telefone LIKE %:termo% OR p.email LIKE %:termo%) " +
-           "AND p.active = true")
-    Page<Paciente> buscarPorTermo(@Param("termo") String termo, Pageable pageable);
+    // Busca por trigramas na coluna normalizada (idx_pacientes_busca_trgm): trechos exatos
+    // (LIKE, ex.: parte do CPF) ou palavras parecidas (<%, tolera erros de digitação),
+    // os mais parecidos primeiro. termo e padrao já vêm normalizados (TextoBusca.termo);
+    // padrao é o termo com % e _ escapados.
+    String WHERE_BUSCA = "WHERE p.active = true AND (p.busca LIKE '%' || :padrao || '%' OR :termo <% p.busca) ";
+
+    // No máximo os 100 mais parecidos
+    @Query(value = "SELECT p.* FROM pacientes p " + WHERE_BUSCA +
+                   "ORDER BY word_similarity(:termo, p.busca) DESC, p.nome, p.id LIMIT 100",
+           nativeQuery = true)
+    List<Paciente> buscarPorTermo(@Param("termo") String termo, @Param("padrao") String padrao);
+
+    @Query(value = "SELECT p.* FROM pacientes p " + WHERE_BUSCA +
+                   "ORDER BY word_similarity(:termo, p.busca) DESC, p.nome, p.id",
+           countQuery = "SELECT COUNT(*) FROM pacientes p " + WHERE_BUSCA,
+           nativeQuery = true)
+    Page<Paciente> buscarPorTermo(@Param("termo") String termo, @Param("padrao") String padrao, Pageable pageable);
+
+    // Todos os CPFs (inclusive de inativos, a restrição UNIQUE vale para eles): checagem
+    // de duplicados da importação em memória, sem um existsByCpf por linha
+    @Query("SELECT p.cpf FROM Paciente p")
+    List<String> findTodosCpfs();
+
+    // Exportação: percorrida por cursor (fetch size) dentro de uma transação somente leitura;
+    // o Stream precisa ser fechado
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Paciente p ORDER BY p.id")
+    Stream<Paciente> streamTodos();
+
+    // Carga do índice de autocompletar: só id e nome
+    @Query("SELECT p.id, p.nome FROM Paciente p WHERE p.active = true")
+    List<Object[]> findNomesAtivos();
 
     @Query("SELECT COUNT(p) FROM Paciente p WHERE p.active = true")
     long countByActiveTrue();
 
-    @Query("SELECT p FROM Paciente p WHERE MONTH(p.dataNascimento) = :mes AND DAY(p.dataNascimento) = :dia AND p.active = true")
-    List<Paciente> findAniversariantesDodia(@Param("mes") int mes, @Param("dia") int dia);
+    // Paginação por cursor sobre (nome, id), percorrendo o índice idx_pacientes_nome_id.
+    // O Pageable só limita a quantidade (sempre página 0).
+    @Query("SELECT p FROM Paciente p WHERE p.active = true ORDER BY p.nome, p.id")
+    List<Paciente> findPorNome(Pageable limite);
+
+    @Query("SELECT p FROM Paciente p WHERE p.active = true AND (p.nome, p.id) > (:nome, :id) ORDER BY p.nome, p.id")
+    List<Paciente> findPorNomeApos(@Param("nome") String nome, @Param("id") Long id, Pageable limite);
+
+    @Query("SELECT p FROM Paciente p WHERE p.active = true ORDER BY p.nome DESC, p.id DESC")
+    List<Paciente> findPorNomeDesc(Pageable limite);
+
+    @Query("SELECT p FROM Paciente p WHERE p.active = true AND (p.nome, p.id) < (:nome, :id) ORDER BY p.nome DESC, p.id DESC")
+    List<Paciente> findPorNomeDescAntes(@Param("nome") String nome, @Param("id") Long id, Pageable limite);
+
+    // Aniversariantes por faixa de mes_dia (MMDD, inclusiva), percorrendo idx_pacientes_mes_dia.
+    // Faixas que atravessam o fim do ano são divididas em duas pelo PacienteService.
+    @Query("SELECT p FROM Paciente p WHERE p.mesDia BETWEEN :de AND :ate AND p.active = true " +
+           "ORDER BY p.mesDia, p.nome, p.id")
+    List<Paciente> findAniversariantesEntre(@Param("de") short de, @Param("ate") short ate);
 
-    @Query("SELECT p FROM Paciente p WHERE MONTH(p.dataNascimento) = :mes AND p.active = true")
-    List<Paciente> findAniversariantesDoMes(@Param("mes") int mes);
+    // Envio das mensagens de aniversário: id, nome e e-mail dos que têm e-mail
+    @Query("SELECT p.id, p.nome, p.email FROM Paciente p " +
+           "WHERE p.mesDia BETWEEN :de AND :ate AND p.active = true AND p.email IS NOT NULL ORDER BY p.id")
+    List<Object[]> findContatosAniversariantesEntre(@Param("de") short de, @Param("ate") short ate);
 }
 
 
@@ -1,48 +1,75 @@
 package com.odontosimples.repository;
 
+import com.odontosimples.dto.PagamentoDTO;
 import com.odontosimples.entity.Pagamento;
 import com.odontosimples.entity.Consulta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
 
     Optional<Pagamento> findByConsulta(Consulta consulta);
 
+    // Exportação por vencimento, em colunas (sem carregar a consulta e seus um-para-um).
+    // Percorrida por cursor dentro de uma transação somente leitura; o Stream precisa ser fechado
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT pg.id, c.id, p.nome, p.cpf, pg.valor, pg.valorDesconto, pg.valorFinal, pg.taxaCartao, " +
+           "pg.valorLiquido, pg.dataVencimento, pg.dataPagamento, pg.formaPagamento, pg.status, " +
+           "pg.numeroParcelas, pg.parcelaAtual, pg.numeroTransacao " +
+           "FROM Pagamento pg JOIN pg.consulta c JOIN c.paciente p " +
+           "WHERE pg.dataVencimento BETWEEN :inicio AND :fim AND pg.active = true " +
+           "ORDER BY pg.dataVencimento, pg.id")
+    Stream<Object[]> streamParaExportacao(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
     Optional<Pagamento> findByConsultaAndActiveTrue(Consulta consulta);
 
     List<Pagamento> findByStatusAndActiveTrue(Pagamento.StatusPagamento status);
 
     List<Pagamento> findByFormaPagamentoAndActiveTrue(Pagamento.FormaPagamento formaPagamento);
 
-    @Query("SELECT p FROM Pagamento p WHERE DATE(p.dataVencimento) = :data AND p.active = true")
+    @Query("SELECT p FROM Pagamento p WHERE p.dataVencimento = :data AND p.active = true")
     List<Pagamento> findByDataVencimento(@Param("data") LocalDate data);
 
     @Query("SELECT p FROM Pagamento p WHERE p.dataVencimento BETWEEN :inicio AND :fim AND p.active = true")
     List<Pagamento> findByDataVencimentoBetween(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
 
-    @Query("SELECT p FROM Pagamento p WHERE DATE(p.dataPagamento) = :data AND p.active = true")
-    List<Pagamento> findByDataPagamento(@Param("data") LocalDate data);
+    // dataPagamento é LocalDateTime: os filtros por dia usam o intervalo semiaberto
+    // [início do primeiro dia, início do dia seguinte ao último) em vez de DATE(p.dataPagamento)
+    default List<Pagamento> findByDataPagamento(LocalDate data) {
+        return findByDataPagamentoBetween(data, data);
+    }
+
+    default List<Pagamento> findByDataPagamentoBetween(LocalDate inicio, LocalDate fim) {
+        return findByDataPagamentoNoPeriodo(inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay());
+    }
 
-    @Query("SELECT p FROM Pagamento p WHERE DATE(p.dataPagamento) BETWEEN :inicio AND :fim AND p.active = true")
-    List<Pagamento> findByDataPagamentoBetween(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+    @Query("SELECT p FROM Pagamento p WHERE p.dataPagamento >= :inicio AND p.dataPagamento < :fim AND p.active = true")
+    List<Pagamento> findByDataPagamentoNoPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 
     // Pagamentos vencidos
     @Query("SELECT p FROM Pagamento p WHERE p.dataVencimento < :data AND p.status = 'PENDENTE' AND p.active = true")
     List<Pagamento> findVencidos(@Param("data") LocalDate data);
 
     // Pagamentos do dia
-    @Query("SELECT p FROM Pagamento p WHERE DATE(p.dataVencimento) = :data AND p.status = 'PENDENTE' AND p.active = true")
+    @Query("SELECT p FROM Pagamento p WHERE p.dataVencimento = :data AND p.status = 'PENDENTE' AND p.active = true")
     List<Pagamento> findVencimentosDodia(@Param("data") LocalDate data);
 
     // Pagamentos por paciente
@@ -56,18 +83,29 @@ public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
     @Query("SELECT p FROM Pagamento p WHERE p.consulta.dentista.id = :dentistaId AND p.active = true")
     List<Pagamento> findByDentistaId(@Param("dentistaId") Long dentistaId);
 
-    @Query("SELECT p FROM Pagamento p WHERE p.consulta.dentista.id = :dentistaId AND DATE(p.dataPagamento) BETWEEN :inicio AND :fim AND p.active = true")
-    List<Pagamento> findByDentistaIdAndPeriodo(
+    default List<Pagamento> findByDentistaIdAndPeriodo(Long dentistaId, LocalDate inicio, LocalDate fim) {
+        return findByDentistaIdAndDataPagamento(dentistaId, inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay());
+    }
+
+    @Query("SELECT p FROM Pagamento p WHERE p.consulta.dentista.id = :dentistaId " +
+           "AND p.dataPagamento >= :inicio AND p.dataPagamento < :fim AND p.active = true")
+    List<Pagamento> findByDentistaIdAndDataPagamento(
             @Param("dentistaId") Long dentistaId,
-            @Param("inicio") LocalDate inicio,
-            @Param("fim") LocalDate fim);
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fim") LocalDateTime fim);
 
     // Relatórios financeiros
-    @Query("SELECT SUM(p.valorFinal) FROM Pagamento p WHERE p.status = 'PAGO' AND DATE(p.dataPagamento) = :data AND p.active = true")
-    BigDecimal somarReceitasDia(@Param("data") LocalDate data);
+    default BigDecimal somarReceitasDia(LocalDate data) {
+        return somarReceitasPeriodo(data, data);
+    }
+
+    default BigDecimal somarReceitasPeriodo(LocalDate inicio, LocalDate fim) {
+        return somarReceitas(inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay());
+    }
 
-    @Query("SELECT SUM(p.valorFinal) FROM Pagamento p WHERE p.status = 'PAGO' AND DATE(p.dataPagamento) BETWEEN :inicio AND :fim AND p.active = true")
-    BigDecimal somarReceitasPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+    @Query("SELECT SUM(p.valorFinal) FROM Pagamento p WHERE p.status = 'PAGO' " +
+           "AND p.dataPagamento >= :inicio AND p.dataPagamento < :fim AND p.active = true")
+    BigDecimal somarReceitas(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 
     @Query("SELECT SUM(p.valorFinal) FROM Pagamento p WHERE p.status = 'PENDENTE' AND p.active = true")
     BigDecimal somarContasReceber();
@@ -75,20 +113,29 @@ public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
     @Query("SELECT SUM(p.valorFinal) FROM Pagamento p WHERE p.status = 'PENDENTE' AND p.dataVencimento < :data AND p.active = true")
     BigDecimal somarContasVencidas(@Param("data") LocalDate data);
 
-    @Query("SELECT SUM(p.valorLiquido) FROM Pagamento p WHERE p.status = 'PAGO' AND DATE(p.dataPagamento) BETWEEN :inicio AND :fim AND p.active = true")
-    BigDecimal somarReceitasLiquidasPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+    default BigDecimal somarReceitasLiquidasPeriodo(LocalDate inicio, LocalDate fim) {
+        return somarReceitasLiquidas(inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay());
+    }
+
+    @Query("SELECT SUM(p.valorLiquido) FROM Pagamento p WHERE p.status = 'PAGO' " +
+           "AND p.dataPagamento >= :inicio AND p.dataPagamento < :fim AND p.active = true")
+    BigDecimal somarReceitasLiquidas(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 
     // Estatísticas por forma de pagamento
+    default List<Object[]> estatisticasPorFormaPagamento(LocalDate inicio, LocalDate fim) {
+        return estatisticasPorFormaPagamento(inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay());
+    }
+
     @Query("SELECT p.formaPagamento, COUNT(p), SUM(p.valorFinal) FROM Pagamento p WHERE " +
-           "p.status = 'PAGO' AND DATE(p.dataPagamento) BETWEEN :inicio AND :fim AND p.active = true " +
+           "p.status = 'PAGO' AND p.dataPagamento >= :inicio AND p.dataPagamento < :fim AND p.active = true " +
            "GROUP BY p.formaPagamento")
-    List<Object[]> estatisticasPorFormaPagamento(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+    List<Object[]> estatisticasPorFormaPagamento(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
 
     // Contadores
     @Query("SELECT COUNT(p) FROM Pagamento p WHERE p.status = :status AND p.active = true")
     long countByStatus(@Param("status") Pagamento.StatusPagamento status);
 
-    @Query("SELECT COUNT(p) FROM Pagamento p WHERE DATE(p.dataVencimento) = :data AND p.status = 'PENDENTE' AND p.active = true")
+    @Query("SELECT COUNT(p) FROM Pagamento p WHERE p.dataVencimento = :data AND p.status = 'PENDENTE' AND p.active = true")
     long countVencimentosDodia(@Param("data") LocalDate data);
 
     @Query("SELECT COUNT(p) FROM Pagamento p WHERE p.dataVencimento < :data AND p.status = 'PENDENTE' AND p.active = true")
@@ -105,6 +152,35 @@ public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
     @Query("SELECT p FROM Pagamento p WHERE p.numeroParcelas > 1 AND p.status = 'PENDENTE' AND p.active = true")
     List<Pagamento> findParceladosPendentes();
 
+    // Paginação por cursor sobre (data_vencimento, id), percorrendo o índice
+    // idx_pagamentos_vencimento_id. O Pageable só limita a quantidade (sempre página 0).
+    String SELECT_DTO = "SELECT new com.odontosimples.dto.PagamentoDTO(" +
+            "p.id, c.id, pa.id, pa.nome, p.valor, p.valorDesconto, p.valorFinal, p.dataVencimento, " +
+            "p.dataPagamento, p.formaPagamento, p.status, p.numeroParcelas, p.parcelaAtual) " +
+            "FROM Pagamento p JOIN p.consulta c JOIN c.paciente pa ";
+
+    @Query(SELECT_DTO + "WHERE p.active = true ORDER BY p.dataVencimento, p.id")
+    List<PagamentoDTO> findDTOsPorVencimento(Pageable limite);
+
+    @Query(SELECT_DTO + "WHERE p.active = true AND (p.dataVencimento, p.id) > (:dataVencimento, :id) " +
+           "ORDER BY p.dataVencimento, p.id")
+    List<PagamentoDTO> findDTOsPorVencimentoApos(
+            @Param("dataVencimento") LocalDate dataVencimento,
+            @Param("id") Long id,
+            Pageable limite);
+
+    @Query(SELECT_DTO + "WHERE p.active = true ORDER BY p.dataVencimento DESC, p.id DESC")
+    List<PagamentoDTO> findDTOsPorVencimentoDesc(Pageable limite);
+
+    @Query(SELECT_DTO + "WHERE p.active = true AND (p.dataVencimento, p.id) < (:dataVencimento, :id) " +
+           "ORDER BY p.dataVencimento DESC, p.id DESC")
+    List<PagamentoDTO> findDTOsPorVencimentoDescAntes(
+            @Param("dataVencimento") LocalDate dataVencimento,
+            @Param("id") Long id,
+            Pageable limite);
+
+    long countByActiveTrue();
+
     // Paginação
     @Query("SELECT p FROM Pagamento p WHERE p.active = true ORDER BY p.dataVencimento DESC")
     Page<Pagamento> findAllOrderByDataVencimentoDesc(Pageable pageable);
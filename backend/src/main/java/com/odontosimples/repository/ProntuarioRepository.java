@@ -1,5 +1,6 @@
 package com.odontosimples.repository;
 
+import com.odontosimples.dto.ProntuarioResumoDTO;
 import com.odontosimples.entity.Prontuario;
 import com.odontosimples.entity.Paciente;
 import com.odontosimples.entity.Dentista;
@@ -19,46 +20,71 @@ public interface ProntuarioRepository extends JpaRepository<Prontuario, Long> {
 
     List<Prontuario> findByPacienteAndActiveTrue(Paciente paciente);
 
-    List<Prontuario> findByDentistaAndActiveTrue(Dentista dentista);
-
     List<Prontuario> findByStatusTratamentoAndActiveTrue(Prontuario.StatusTratamento status);
 
+    // Cabeçalho para as listagens (ProntuarioResumoDTO): paciente e dentista no mesmo SELECT
+    // e nenhuma coluna de texto do prontuário
+    String SELECT_RESUMO = "SELECT new com.odontosimples.dto.ProntuarioResumoDTO(" +
+            "p.id, p.dataConsulta, p.proximaConsulta, p.statusTratamento, pa.id, pa.nome, d.id, d.nome) " +
+            "FROM Prontuario p JOIN p.paciente pa JOIN p.dentista d ";
+
+    @Query(SELECT_RESUMO + "WHERE pa.id = :pacienteId AND p.active = true ORDER BY p.dataConsulta DESC, p.id DESC")
+    List<ProntuarioResumoDTO> findResumosDoPaciente(@Param("pacienteId") Long pacienteId);
+
+    @Query(value = SELECT_RESUMO + "WHERE d.id = :dentistaId AND p.active = true ORDER BY p.dataConsulta DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Prontuario p WHERE p.dentista.id = :dentistaId AND p.active = true")
+    Page<ProntuarioResumoDTO> findResumosDoDentista(@Param("dentistaId") Long dentistaId, Pageable pageable);
+
+    @Query(SELECT_RESUMO + "WHERE p.proximaConsulta < :data AND p.statusTratamento = 'EM_ANDAMENTO' " +
+           "AND p.active = true ORDER BY p.proximaConsulta, p.id")
+    List<ProntuarioResumoDTO> findTratamentosAtrasados(@Param("data") LocalDate data);
+
     @Query("SELECT p FROM Prontuario p WHERE p.consulta.id = :consultaId AND p.active = true")
     Optional<Prontuario> findByConsultaId(@Param("consultaId") Long consultaId);
 
-    @Query("SELECT p FROM Prontuario p WHERE DATE(p.dataConsulta) = :data AND p.active = true")
+    @Query("SELECT p FROM Prontuario p WHERE p.dataConsulta = :data AND p.active = true")
     List<Prontuario> findByDataConsulta(@Param("data") LocalDate data);
 
     @Query("SELECT p FROM Prontuario p WHERE p.dataConsulta BETWEEN :inicio AND :fim AND p.active = true")
     List<Prontuario> findByDataConsultaBetween(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
 
-    @Query("SELECT p FROM Prontuario p WHERE p.paciente = :paciente AND p.active = true ORDER BY p.dataConsulta DESC")
-    List<Prontuario> findByPacienteOrderByDataConsultaDesc(@Param("paciente") Paciente paciente);
-
-    @Query("SELECT p FROM Prontuario p WHERE p.dentista = :dentista AND p.active = true ORDER BY p.dataConsulta DESC")
-    List<Prontuario> findByDentistaOrderByDataConsultaDesc(@Param("dentista") Dentista dentista);
-
     @Query("SELECT p FROM Prontuario p WHERE p.proximaConsulta = :data AND p.active = true")
     List<Prontuario> findByProximaConsulta(@Param("data") LocalDate data);
 
     @Query("SELECT p FROM Prontuario p WHERE p.proximaConsulta BETWEEN :inicio AND :fim AND p.active = true")
     List<Prontuario> findByProximaConsultaBetween(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
 
-    @Query("SELECT p FROM Prontuario p WHERE p.proximaConsulta < :data AND p.statusTratamento = 'EM_ANDAMENTO' AND p.active = true")
-    List<Prontuario> findTratamentosAtrasados(@Param("data") LocalDate data);
-
-    // Busca textual em campos do prontuário
-    @Query("SELECT p FROM Prontuario p WHERE " +
-           "(p.anamnese LIKE %:termo% OR p.diagnostico LIKE %:termo% OR " +
-           "p.planoTratamento LIKE %:termo% OR p.procedimentosRealizados LIKE %:termo% OR " +
-           "p.queixaPrincipal LIKE %:termo%) AND p.active = true")
-    List<Prontuario> buscarPorTermo(@Param("termo") String termo);
-
-    @Query("SELECT p FROM Prontuario p WHERE " +
-           "(p.anamnese LIKE %:termo% OR p.diagnostico LIKE %:termo% OR " +
-           "p.planoTratamento LIKE %:termo% OR p.procedimentosRealizados LIKE %:termo% OR " +
-           "p.queixaPrincipal LIKE %:termo%) AND p.active = true")
-    Page<Prontuario> buscarPorTermo(@Param("termo") String termo, Pageable pageable);
+    // Busca textual pela coluna busca (tsvector gerado, índice GIN; ver V10). Ordem por
+    // relevância e id, paginada por chave; o trecho destacado (ts_headline, caro) só é
+    // montado para as linhas da página. Colunas: id, data_consulta, paciente_id,
+    // paciente_nome, dentista_nome, relevancia (real), trecho
+    String BUSCA_TEXTUAL_INICIO =
+            "SELECT r.id, r.data_consulta, r.paciente_id, pa.nome, d.nome, r.relevancia, " +
+            "ts_headline('portugues_sem_acento', concat_ws(' ', r.queixa_principal, r.diagnostico, " +
+            "r.procedimentos_realizados, r.plano_tratamento, r.anamnese), r.consulta, " +
+            "'StartSel=\"' || chr(2) || '\", StopSel=\"' || chr(3) || '\", " +
+            "MaxFragments=3, MaxWords=25, MinWords=10, FragmentDelimiter=\" … \"') " +
+            "FROM (SELECT p.id, p.data_consulta, p.paciente_id, p.dentista_id, p.queixa_principal, " +
+            "p.diagnostico, p.procedimentos_realizados, p.plano_tratamento, p.anamnese, q AS consulta, " +
+            "ts_rank_cd(p.busca, q) AS relevancia " +
+            "FROM prontuarios p, websearch_to_tsquery('portugues_sem_acento', :termo) q " +
+            "WHERE p.busca @@ q AND p.active ";
+
+    String BUSCA_TEXTUAL_FIM =
+            "ORDER BY relevancia DESC, p.id DESC LIMIT :limite) r " +
+            "JOIN pacientes pa ON pa.id = r.paciente_id " +
+            "JOIN dentistas d ON d.id = r.dentista_id " +
+            "ORDER BY r.relevancia DESC, r.id DESC";
+
+    @Query(value = BUSCA_TEXTUAL_INICIO + BUSCA_TEXTUAL_FIM, nativeQuery = true)
+    List<Object[]> buscarPorTermo(@Param("termo") String termo, @Param("limite") int limite);
+
+    @Query(value = BUSCA_TEXTUAL_INICIO +
+                   "AND (ts_rank_cd(p.busca, q), p.id) < (CAST(:relevancia AS real), :id) " +
+                   BUSCA_TEXTUAL_FIM,
+           nativeQuery = true)
+    List<Object[]> buscarPorTermoApos(@Param("termo") String termo, @Param("relevancia") String relevancia,
+                                      @Param("id") Long id, @Param("limite") int limite);
 
     // Estatísticas
     @Query("SELECT COUNT(p) FROM Prontuario p WHERE p.paciente = :paciente AND p.active = true")
@@ -70,15 +96,32 @@ public interface ProntuarioRepository extends JpaRepository<Prontuario, Long> {
     @Query("SELECT COUNT(p) FROM Prontuario p WHERE p.statusTratamento = :status AND p.active = true")
     long countByStatusTratamento(@Param("status") Prontuario.StatusTratamento status);
 
-    @Query("SELECT COUNT(p) FROM Prontuario p WHERE DATE(p.dataConsulta) BETWEEN :inicio AND :fim AND p.active = true")
+    @Query("SELECT COUNT(p) FROM Prontuario p WHERE p.dataConsulta >= :inicio AND p.dataConsulta <= :fim AND p.active = true")
     long countByPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
 
-    // Busca por medicamentos e alergias
-    @Query("SELECT p FROM Prontuario p WHERE p.medicamentosUso LIKE %:medicamento% AND p.active = true")
-    List<Prontuario> findByMedicamento(@Param("medicamento") String medicamento);
-
-    @Query("SELECT p FROM Prontuario p WHERE p.alergias LIKE %:alergia% AND p.active = true")
-    List<Prontuario> findByAlergia(@Param("alergia") String alergia);
+    // Texto de alergias do paciente, para a checagem de prescrição enquanto o índice de
+    // termos clínicos ainda não carregou
+    @Query("SELECT p.alergias FROM Prontuario p WHERE p.paciente.id = :pacienteId AND p.alergias IS NOT NULL AND p.active = true")
+    List<String> findAlergiasDoPaciente(@Param("pacienteId") Long pacienteId);
+
+    // Odontograma anterior do paciente: o último prontuário com odontograma antes de (data, id)
+    @Query("SELECT p FROM Prontuario p WHERE p.paciente.id = :pacienteId AND p.odontograma IS NOT NULL " +
+           "AND p.active = true AND (p.dataConsulta < :data OR (p.dataConsulta = :data AND p.id < :id)) " +
+           "ORDER BY p.dataConsulta DESC, p.id DESC LIMIT 1")
+    Optional<Prontuario> findOdontogramaAnterior(@Param("pacienteId") Long pacienteId,
+                                                 @Param("data") LocalDate data, @Param("id") Long id);
+
+    // Pacientes cujo odontograma mais recente tem o achado (Odontograma.achado); o filtro
+    // usa o índice GIN de odontograma_achados (V12) e o NOT EXISTS descarta os odontogramas
+    // já substituídos por uma visita posterior
+    @Query(value = "SELECT DISTINCT p.paciente_id FROM prontuarios p " +
+                   "WHERE odontograma_achados(p.odontograma) @> ARRAY[CAST(:achado AS integer)] " +
+                   "AND p.active AND p.odontograma IS NOT NULL " +
+                   "AND NOT EXISTS (SELECT 1 FROM prontuarios r WHERE r.paciente_id = p.paciente_id " +
+                   "AND r.active AND r.odontograma IS NOT NULL " +
+                   "AND (r.data_consulta, r.id) > (p.data_consulta, p.id))",
+           nativeQuery = true)
+    List<Long> findPacientesComAchado(@Param("achado") int achado);
 
     // Último prontuário do paciente
     @Query("SELECT p FROM Prontuario p WHERE p.paciente = :paciente AND p.active = true ORDER BY p.dataConsulta DESC LIMIT 1")
@@ -87,9 +130,6 @@ public interface ProntuarioRepository extends JpaRepository<Prontuario, Long> {
     // Prontuários com prescrições
     @Query("SELECT p FROM Prontuario p WHERE p.prescricoes IS NOT NULL AND p.prescricoes != '' AND p.active = true")
     List<Prontuario> findComPrescricoes();
-
-    @Query("SELECT p FROM Prontuario p WHERE p.prescricoes LIKE %:medicamento% AND p.active = true")
-    List<Prontuario> findByPrescricao(@Param("medicamento") String medicamento);
 }
 
 
@@ -0,0 +1,33 @@
+package com.odontosimples.repository;
+
+import com.odontosimples.entity.Reagendamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReagendamentoRepository extends JpaRepository<Reagendamento, Long> {
+
+    @Query("SELECT r FROM Reagendamento r WHERE r.consulta.id = :consultaId ORDER BY r.createdAt")
+    List<Reagendamento> findByConsultaId(@Param("consultaId") Long consultaId);
+
+    // Reagendamentos e faltas do paciente, mais recentes primeiro, em uma só consulta
+    // (idx_reagendamentos_paciente_data e idx_consultas_paciente_faltas):
+    // tipo, consulta, dentista, data/hora, nova data/hora, motivo, solicitado por, usuário, registro
+    @Query(value = "SELECT 'REAGENDAMENTO' AS tipo, r.consulta_id, d.nome AS dentista_nome, " +
+                   "r.data_hora_anterior AS data_hora, r.nova_data_hora, r.motivo, r.solicitado_por, " +
+                   "r.usuario, r.created_at AS registrado_em " +
+                   "FROM reagendamentos r JOIN dentistas d ON d.id = r.dentista_id " +
+                   "WHERE r.paciente_id = :pacienteId " +
+                   "UNION ALL " +
+                   "SELECT 'FALTA', c.id, d.nome, c.data_hora, NULL, c.observacoes, NULL, NULL, " +
+                   "COALESCE(c.updated_at, c.created_at) " +
+                   "FROM consultas c JOIN dentistas d ON d.id = c.dentista_id " +
+                   "WHERE c.paciente_id = :pacienteId AND c.status = 'FALTOU' AND c.active = true " +
+                   "ORDER BY data_hora DESC",
+           nativeQuery = true)
+    List<Object[]> findHistoricoDoPaciente(@Param("pacienteId") Long pacienteId);
+}
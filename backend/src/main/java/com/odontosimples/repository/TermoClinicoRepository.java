@@ -0,0 +1,99 @@
+package com.odontosimples.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Índice invertido de termos clínicos (tabela termos_clinicos, ver V11) via JDBC: as
+// gravações acontecem dentro do flush do prontuário, onde não se usa o EntityManager.
+@Repository
+public class TermoClinicoRepository {
+
+    public record Linha(long prontuarioId, String campo, String termo, long pacienteId) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<Linha> findPorProntuario(long prontuarioId) {
+        return jdbcTemplate.query("SELECT prontuario_id, campo, termo, paciente_id FROM termos_clinicos " +
+                "WHERE prontuario_id = ?",
+                (rs, i) -> new Linha(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4)),
+                prontuarioId);
+    }
+
+    public List<Linha> findPorProntuarios(Collection<Long> prontuarioIds) {
+        if (prontuarioIds.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = prontuarioIds.toArray(new Long[0]);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT prontuario_id, campo, termo, paciente_id " +
+                    "FROM termos_clinicos WHERE prontuario_id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        }, (rs, i) -> new Linha(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4)));
+    }
+
+    public void inserir(Collection<Linha> linhas) {
+        if (linhas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO termos_clinicos (prontuario_id, campo, termo, paciente_id) " +
+                "VALUES (?, ?, ?, ?) ON CONFLICT (prontuario_id, campo, termo) " +
+                "DO UPDATE SET paciente_id = EXCLUDED.paciente_id",
+                linhas.stream().map(l -> new Object[]{l.prontuarioId(), l.campo(), l.termo(), l.pacienteId()}).toList());
+    }
+
+    public void remover(Collection<Linha> linhas) {
+        if (linhas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM termos_clinicos WHERE prontuario_id = ? AND campo = ? AND termo = ?",
+                linhas.stream().map(l -> new Object[]{l.prontuarioId(), l.campo(), l.termo()}).toList());
+    }
+
+    public void removerDosProntuarios(Collection<Long> prontuarioIds) {
+        if (prontuarioIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = prontuarioIds.toArray(new Long[0]);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM termos_clinicos WHERE prontuario_id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        });
+    }
+
+    // Reindexação: próximo lote de prontuários por id, bloqueados até o fim da transação para
+    // uma gravação concorrente não ser sobrescrita com o texto antigo. Colunas: id,
+    // paciente_id, active, alergias, medicamentos_uso, prescricoes
+    public List<Object[]> prontuariosApos(long id, int limite) {
+        return jdbcTemplate.query("SELECT id, paciente_id, active, alergias, medicamentos_uso, prescricoes " +
+                "FROM prontuarios WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getBoolean(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6)},
+                id, limite);
+    }
+
+    // Carga do índice em memória: (campo, termo, paciente_id, quantidade de prontuários)
+    public void percorrerAgrupado(RowCallbackHandler linha) {
+        jdbcTemplate.query("SELECT campo, termo, paciente_id, COUNT(*) FROM termos_clinicos " +
+                "GROUP BY campo, termo, paciente_id", linha);
+    }
+
+    public Optional<String> findVersaoDicionario() {
+        return jdbcTemplate.queryForList("SELECT versao FROM termos_clinicos_dicionario", String.class)
+                .stream().findFirst();
+    }
+
+    public void salvarVersaoDicionario(String versao) {
+        jdbcTemplate.update("INSERT INTO termos_clinicos_dicionario (id, versao) VALUES (1, ?) " +
+                "ON CONFLICT (id) DO UPDATE SET versao = EXCLUDED.versao", versao);
+    }
+}
@@ -12,12 +12,18 @@ import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    String CONSTRAINT_EMAIL = "usuarios_email_key";
+
     Optional<Usuario> findByEmail(String email);
 
     Optional<Usuario> findByEmailAndActiveTrue(String email);
 
     boolean existsByEmail(String email);
 
+    // Carga do filtro de unicidade de e-mails (inclusive de inativos)
+    @Query("SELECT u.email FROM Usuario u")
+    List<String> findTodosEmails();
+
     List<Usuario> findByActiveTrue();
 
     List<Usuario> findByRole(Usuario.Role role);
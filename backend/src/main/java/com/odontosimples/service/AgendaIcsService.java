@@ -0,0 +1,189 @@
+package com.odontosimples.service;
+
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.repository.AgendaIcsRepository;
+import com.odontosimples.repository.DentistaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Feed iCalendar (RFC 5545) da agenda de um dentista.
+ *
+ * Os apps de calendário consultam o feed a cada poucos minutos, então o ETag é a versão
+ * da agenda (quantidade de consultas e última alteração), obtida com uma consulta de
+ * agregação pelo índice do dentista; sem mudança a resposta é 304. Quando muda, os VEVENTs
+ * são escritos direto na saída enquanto as linhas chegam do cursor.
+ *
+ * Apps de calendário não mandam JWT: cada dentista pode ter um token aleatório que vai na
+ * URL do feed. O banco guarda só o SHA-256 do token; gerar outro revoga o anterior.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AgendaIcsService {
+
+  // Consultas passadas que continuam no feed
+  private static final int DIAS_PASSADOS = 30;
+
+  private static final int MAX_OCTETOS_LINHA = 75;
+  private static final DateTimeFormatter FORMATO_UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+  private static final int OCTETOS_TOKEN = 32;
+  private static final SecureRandom ALEATORIO = new SecureRandom();
+
+  @Autowired
+  private AgendaIcsRepository agendaIcsRepository;
+
+  @Autowired
+  private DentistaRepository dentistaRepository;
+
+  public String etag(Long dentistaId) {
+    if (!dentistaRepository.existsById(dentistaId)) {
+      throw new RuntimeException("Dentista não encontrado");
+    }
+    LocalDateTime desde = inicioJanela();
+    return "\"agenda-" + dentistaId + "-" + desde.toLocalDate() + "-"
+        + agendaIcsRepository.versao(dentistaId, desde) + "\"";
+  }
+
+  // Novo token do feed (o anterior deixa de valer); só é devolvido aqui
+  @Transactional
+  public String gerarToken(Long dentistaId) {
+    Dentista dentista = dentistaAtivo(dentistaId);
+    byte[] aleatorio = new byte[OCTETOS_TOKEN];
+    ALEATORIO.nextBytes(aleatorio);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(aleatorio);
+    dentista.setTokenAgenda(hash(token));
+    return token;
+  }
+
+  @Transactional
+  public void revogarToken(Long dentistaId) {
+    dentistaAtivo(dentistaId).setTokenAgenda(null);
+  }
+
+  public Long dentistaDoToken(String token) {
+    return dentistaRepository.findIdPorTokenAgenda(hash(token))
+        .orElseThrow(() -> new RuntimeException("Feed de agenda não encontrado"));
+  }
+
+  public void escrever(Long dentistaId, OutputStream saida) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+    String agora = FORMATO_UTC.format(LocalDateTime.now(ZoneOffset.UTC));
+
+    linha(writer, "BEGIN:VCALENDAR");
+    linha(writer, "VERSION:2.0");
+    linha(writer, "PRODID:-//Odonto Simples//Agenda//PT-BR");
+    linha(writer, "CALSCALE:GREGORIAN");
+    linha(writer, "METHOD:PUBLISH");
+    linha(writer, "X-WR-CALNAME:Agenda Odonto Simples");
+    try {
+      agendaIcsRepository.percorrerAgenda(dentistaId, inicioJanela(), rs -> evento(writer, rs, agora));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    linha(writer, "END:VCALENDAR");
+    writer.flush();
+  }
+
+  private Dentista dentistaAtivo(Long dentistaId) {
+    return dentistaRepository.findById(dentistaId)
+        .filter(Dentista::isActive)
+        .orElseThrow(() -> new RuntimeException("Dentista não encontrado"));
+  }
+
+  private static String hash(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static LocalDateTime inicioJanela() {
+    return LocalDate.now().minusDays(DIAS_PASSADOS).atStartOfDay();
+  }
+
+  // rs: id, data_hora, duracao_minutos, status, tipo_consulta, nome do paciente, última alteração
+  private static void evento(Writer writer, ResultSet rs, String agora) throws SQLException {
+    LocalDateTime inicio = rs.getTimestamp(2).toLocalDateTime();
+    int duracao = rs.getObject(3) != null ? rs.getInt(3) : 30;
+    String status = rs.getString(4);
+    String tipo = rs.getString(5);
+    LocalDateTime alteracao = rs.getTimestamp(7).toLocalDateTime();
+
+    try {
+      linha(writer, "BEGIN:VEVENT");
+      linha(writer, "UID:consulta-" + rs.getLong(1) + "@odontosimples");
+      linha(writer, "DTSTAMP:" + agora);
+      linha(writer, "LAST-MODIFIED:" + utc(alteracao));
+      linha(writer, "DTSTART:" + utc(inicio));
+      linha(writer, "DTEND:" + utc(inicio.plusMinutes(duracao)));
+      linha(writer, "SUMMARY:" + texto("Consulta - " + rs.getString(6)));
+      if (tipo != null) {
+        linha(writer, "DESCRIPTION:" + texto("Tipo: " + tipo));
+      }
+      linha(writer, "STATUS:" + statusIcs(status));
+      // a SEQUENCE precisa crescer a cada alteração para o app substituir o evento
+      linha(writer, "SEQUENCE:" + alteracao.toEpochSecond(ZoneOffset.UTC) / 60);
+      linha(writer, "END:VEVENT");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String statusIcs(String status) {
+    if ("CONFIRMADA".equals(status) || "REALIZADA".equals(status)) {
+      return "CONFIRMED";
+    }
+    if ("CANCELADA".equals(status) || "FALTOU".equals(status)) {
+      return "CANCELLED";
+    }
+    return "TENTATIVE";
+  }
+
+  private static String utc(LocalDateTime dataHora) {
+    return FORMATO_UTC.format(dataHora.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC));
+  }
+
+  private static String texto(String valor) {
+    return valor.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+  }
+
+  // Linhas com mais de 75 octetos continuam na seguinte, iniciada por espaço
+  private static void linha(Writer writer, String conteudo) throws IOException {
+    int octetos = 0;
+    for (int i = 0; i < conteudo.length(); i++) {
+      char c = conteudo.charAt(i);
+      int tamanho = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : Character.isLowSurrogate(c) ? 0 : 3;
+      if (octetos + tamanho > MAX_OCTETOS_LINHA) {
+        writer.write("\r\n ");
+        octetos = 1;
+      }
+      writer.write(c);
+      octetos += tamanho;
+    }
+    writer.write("\r\n");
+  }
+}
@@ -0,0 +1,213 @@
+package com.odontosimples.service;
+
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.repository.ConsultaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória da agenda de cada dentista.
+ *
+ * Guarda os intervalos [dataHora, dataHoraFim) das consultas que ocupam agenda,
+ * ordenados por início, e responde conflitos sem ir ao banco. O índice é carregado
+ * na subida da aplicação e atualizado pelo {@link ConsultaService}; alterações feitas
+ * dentro de uma transação são desfeitas se ela não for confirmada.
+ */
+@Component
+public class AgendaIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(AgendaIndex.class);
+
+  private final Map<Long, AgendaDentista> agendas = new ConcurrentHashMap<>();
+
+  // consultaId -> intervalo indexado (para cancelamento e reagendamento)
+  private final Map<Long, Intervalo> porConsulta = new ConcurrentHashMap<>();
+
+  @Autowired
+  private ConsultaRepository consultaRepository;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void carregar() {
+    LocalDateTime desde = LocalDate.now().atStartOfDay();
+    List<Object[]> linhas = consultaRepository.findIntervalosOcupadosDesde(desde);
+
+    synchronized (this) {
+      agendas.clear();
+      porConsulta.clear();
+      for (Object[] linha : linhas) {
+        Integer duracao = (Integer) linha[3];
+        LocalDateTime inicio = (LocalDateTime) linha[2];
+        inserir(new Intervalo((Long) linha[0], (Long) linha[1], inicio,
+                inicio.plusMinutes(duracao != null ? duracao : 0)));
+      }
+    }
+    log.info("Índice de agenda carregado: {} consultas em {} agendas", porConsulta.size(), agendas.size());
+  }
+
+  // Verifica se [inicio, fim) sobrepõe alguma consulta do dentista
+  public boolean temConflito(Long dentistaId, LocalDateTime inicio, LocalDateTime fim, Long ignorarConsultaId) {
+    AgendaDentista agenda = agendas.get(dentistaId);
+    return agenda != null && agenda.temConflito(inicio, fim, ignorarConsultaId);
+  }
+
+  // Intervalos do dentista que sobrepõem [inicio, fim), ordenados por início
+  public List<Intervalo> intervalos(Long dentistaId, LocalDateTime inicio, LocalDateTime fim) {
+    AgendaDentista agenda = agendas.get(dentistaId);
+    return agenda != null ? agenda.sobrepostos(inicio, fim) : List.of();
+  }
+
+  // Reflete o estado atual da consulta no índice (inclui, move ou remove)
+  public synchronized void atualizar(Consulta consulta) {
+    Intervalo anterior = porConsulta.get(consulta.getId());
+    Intervalo atual = consulta.ocupaAgenda()
+            ? new Intervalo(consulta.getId(), consulta.getDentista().getId(),
+                            consulta.getDataHora(), consulta.getDataHoraFim())
+            : null;
+
+    substituir(anterior, atual);
+    desfazerSeNaoConfirmar(atual, anterior);
+  }
+
+  public synchronized void remover(Long consultaId) {
+    Intervalo anterior = porConsulta.get(consultaId);
+    if (anterior != null) {
+      substituir(anterior, null);
+      desfazerSeNaoConfirmar(null, anterior);
+    }
+  }
+
+  private void substituir(Intervalo anterior, Intervalo atual) {
+    if (anterior != null) {
+      AgendaDentista agenda = agendas.get(anterior.dentistaId());
+      if (agenda != null) {
+        agenda.remover(anterior);
+      }
+      porConsulta.remove(anterior.consultaId());
+    }
+    if (atual != null) {
+      inserir(atual);
+    }
+  }
+
+  private void inserir(Intervalo intervalo) {
+    agendas.computeIfAbsent(intervalo.dentistaId(), id -> new AgendaDentista()).adicionar(intervalo);
+    porConsulta.put(intervalo.consultaId(), intervalo);
+  }
+
+  private void desfazerSeNaoConfirmar(Intervalo aplicado, Intervalo anterior) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public int getOrder() {
+        // Desfaz antes de liberar os bloqueios de agenda registrados na mesma transação
+        return Ordered.HIGHEST_PRECEDENCE;
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          synchronized (AgendaIndex.this) {
+            substituir(aplicado, anterior);
+          }
+        }
+      }
+    });
+  }
+
+  public record Intervalo(Long consultaId, Long dentistaId, LocalDateTime inicio, LocalDateTime fim) {
+  }
+
+  private static class AgendaDentista {
+
+    private static final Comparator<Intervalo> ORDEM = Comparator
+            .comparing(Intervalo::inicio)
+            .thenComparing(Intervalo::consultaId);
+
+    private final NavigableSet<Intervalo> intervalos = new TreeSet<>(ORDEM);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Maior duração já vista: limita a busca para trás de consultas que começam antes
+    // do intervalo consultado e avançam sobre ele
+    private long maiorDuracaoMinutos;
+
+    void adicionar(Intervalo intervalo) {
+      lock.writeLock().lock();
+      try {
+        intervalos.add(intervalo);
+        long duracao = Duration.between(intervalo.inicio(), intervalo.fim()).toMinutes();
+        maiorDuracaoMinutos = Math.max(maiorDuracaoMinutos, duracao);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void remover(Intervalo intervalo) {
+      lock.writeLock().lock();
+      try {
+        intervalos.remove(intervalo);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    boolean temConflito(LocalDateTime inicio, LocalDateTime fim, Long ignorarConsultaId) {
+      lock.readLock().lock();
+      try {
+        for (Intervalo intervalo : candidatos(inicio, fim)) {
+          if (intervalo.fim().isAfter(inicio) && !intervalo.consultaId().equals(ignorarConsultaId)) {
+            return true;
+          }
+        }
+        return false;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    List<Intervalo> sobrepostos(LocalDateTime inicio, LocalDateTime fim) {
+      lock.readLock().lock();
+      try {
+        List<Intervalo> resultado = new ArrayList<>();
+        for (Intervalo intervalo : candidatos(inicio, fim)) {
+          if (intervalo.fim().isAfter(inicio)) {
+            resultado.add(intervalo);
+          }
+        }
+        return resultado;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    // Intervalos que começam em [inicio - maiorDuracao, fim): O(log n) + vizinhos próximos
+    private NavigableSet<Intervalo> candidatos(LocalDateTime inicio, LocalDateTime fim) {
+      Intervalo de = new Intervalo(Long.MIN_VALUE, null, inicio.minusMinutes(maiorDuracaoMinutos), null);
+      Intervalo ate = new Intervalo(Long.MIN_VALUE, null, fim, null);
+      if (ORDEM.compare(de, ate) >= 0) {
+        return new TreeSet<>(ORDEM);
+      }
+      return intervalos.subSet(de, true, ate, false);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.odontosimples.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloqueios de agenda por dentista, distribuídos em listras.
+ *
+ * Agendamentos do mesmo dentista são serializados dentro do processo; dentistas em
+ * listras diferentes seguem em paralelo. O bloqueio vale até o fim da transação
+ * corrente, para que o próximo agendamento só verifique conflitos depois que o
+ * anterior foi confirmado (ou desfeito) no banco e no {@link AgendaIndex}.
+ * Entre nós diferentes a garantia vem da constraint consultas_sem_sobreposicao.
+ */
+@Component
+public class AgendaLocks {
+
+  private static final int LISTRAS = 64;
+
+  private final ReentrantLock[] listras = new ReentrantLock[LISTRAS];
+
+  public AgendaLocks() {
+    for (int i = 0; i < LISTRAS; i++) {
+      listras[i] = new ReentrantLock();
+    }
+  }
+
+  public void bloquear(Long dentistaId) {
+    bloquear(List.of(dentistaId));
+  }
+
+  // Bloqueia sempre na ordem das listras para evitar deadlock entre transações
+  public void bloquear(Collection<Long> dentistaIds) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Bloqueio de agenda exige uma transação ativa");
+    }
+
+    TreeSet<Integer> indices = new TreeSet<>();
+    for (Long dentistaId : dentistaIds) {
+      indices.add(listra(dentistaId));
+    }
+
+    for (Integer indice : indices) {
+      ReentrantLock lock = listras[indice];
+      lock.lock();
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          lock.unlock();
+        }
+      });
+    }
+  }
+
+  private int listra(Long dentistaId) {
+    return Math.floorMod(Long.hashCode(dentistaId) * 0x9E3779B9, LISTRAS);
+  }
+}
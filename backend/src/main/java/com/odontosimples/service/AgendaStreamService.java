@@ -0,0 +1,197 @@
+package com.odontosimples.service;
+
+import com.odontosimples.event.ConsultaEvento;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envia as alterações da agenda às telas abertas via Server-Sent Events.
+ *
+ * Há um canal por dia: cada alteração confirmada é entregue uma vez ao canal do dia
+ * (e ao do dia anterior, num reagendamento), que repassa aos seus assinantes. Cada
+ * assinante tem uma fila limitada; um cliente lento que a enche perde os eventos
+ * pendentes e recebe "recarregar", para buscar o dia de novo em vez de travar os demais.
+ */
+@Service
+public class AgendaStreamService {
+
+  private static final Logger log = LoggerFactory.getLogger(AgendaStreamService.class);
+
+  static final int CAPACIDADE_FILA = 256;
+  private static final long TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+  private static final long INTERVALO_PING_SEGUNDOS = 25;
+
+  private final Map<LocalDate, CanalDia> canais = new ConcurrentHashMap<>();
+
+  // Poucas threads fazem a escrita para todos os clientes; nenhuma fica presa a um cliente
+  private final ExecutorService envio = Executors.newFixedThreadPool(4);
+  private final ScheduledExecutorService ping = Executors.newSingleThreadScheduledExecutor();
+
+  public AgendaStreamService() {
+    ping.scheduleAtFixedRate(this::enviarPing, INTERVALO_PING_SEGUNDOS, INTERVALO_PING_SEGUNDOS, TimeUnit.SECONDS);
+  }
+
+  public SseEmitter assinar(LocalDate data, Long dentistaId) {
+    SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
+    Assinante assinante = new Assinante(emitter, dentistaId);
+    // Entrar e sair dentro do compute do dia: um canal que ficou vazio e saiu do mapa
+    // nunca recebe um assinante novo
+    canais.compute(data, (dia, canal) -> {
+      CanalDia atual = canal != null ? canal : new CanalDia();
+      atual.assinantes.add(assinante);
+      return atual;
+    });
+
+    Runnable sair = () -> sair(data, assinante);
+    emitter.onCompletion(sair);
+    emitter.onTimeout(sair);
+    emitter.onError(erro -> sair.run());
+    return emitter;
+  }
+
+  // Só depois do commit: o que foi desfeito não chega às telas
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void publicar(ConsultaEvento evento) {
+    entregar(evento.dia(), evento);
+    if (!evento.diaAnterior().equals(evento.dia())) {
+      entregar(evento.diaAnterior(), evento);
+    }
+  }
+
+  int assinantes(LocalDate data) {
+    CanalDia canal = canais.get(data);
+    return canal != null ? canal.assinantes.size() : 0;
+  }
+
+  @PreDestroy
+  void encerrar() {
+    ping.shutdownNow();
+    envio.shutdownNow();
+    canais.values().forEach(canal -> canal.assinantes.forEach(a -> a.emitter.complete()));
+  }
+
+  private void entregar(LocalDate dia, ConsultaEvento evento) {
+    CanalDia canal = canais.get(dia);
+    if (canal == null) {
+      return;
+    }
+    for (Assinante assinante : canal.assinantes) {
+      if (assinante.interessado(evento)) {
+        assinante.enfileirar(evento);
+      }
+    }
+  }
+
+  private void sair(LocalDate data, Assinante assinante) {
+    canais.compute(data, (dia, canal) -> {
+      if (canal == null) {
+        return null;
+      }
+      canal.assinantes.remove(assinante);
+      return canal.assinantes.isEmpty() ? null : canal;
+    });
+  }
+
+  private void enviarPing() {
+    for (CanalDia canal : canais.values()) {
+      for (Assinante assinante : canal.assinantes) {
+        assinante.pingPendente = true;
+        assinante.agendarEnvio();
+      }
+    }
+  }
+
+  private static final class CanalDia {
+
+    private final CopyOnWriteArrayList<Assinante> assinantes = new CopyOnWriteArrayList<>();
+  }
+
+  private final class Assinante {
+
+    private final SseEmitter emitter;
+    private final Long dentistaId;
+    private final Queue<ConsultaEvento> fila = new ArrayBlockingQueue<>(CAPACIDADE_FILA);
+    private final AtomicBoolean transbordou = new AtomicBoolean();
+    private final AtomicBoolean enviando = new AtomicBoolean();
+    private volatile boolean pingPendente;
+
+    private Assinante(SseEmitter emitter, Long dentistaId) {
+      this.emitter = emitter;
+      this.dentistaId = dentistaId;
+    }
+
+    private boolean interessado(ConsultaEvento evento) {
+      return dentistaId == null || dentistaId.equals(evento.dentistaId())
+          || dentistaId.equals(evento.dentistaAnteriorId());
+    }
+
+    private void enfileirar(ConsultaEvento evento) {
+      if (!fila.offer(evento)) {
+        transbordou.set(true);
+      }
+      agendarEnvio();
+    }
+
+    // No máximo uma tarefa de envio por assinante de cada vez, preservando a ordem
+    private void agendarEnvio() {
+      if (enviando.compareAndSet(false, true)) {
+        envio.execute(this::esvaziar);
+      }
+    }
+
+    private void esvaziar() {
+      try {
+        while (true) {
+          if (transbordou.getAndSet(false)) {
+            fila.clear();
+            emitter.send(SseEmitter.event().name("recarregar").data("", MediaType.TEXT_PLAIN));
+          }
+          if (pingPendente) {
+            pingPendente = false;
+            emitter.send(SseEmitter.event().comment("ping"));
+          }
+          ConsultaEvento evento = fila.poll();
+          if (evento == null) {
+            break;
+          }
+          emitter.send(SseEmitter.event()
+              .id(Objects.toString(evento.consultaId()))
+              .name(evento.tipo().name().toLowerCase())
+              .data(evento, MediaType.APPLICATION_JSON));
+        }
+      } catch (IOException | IllegalStateException e) {
+        // conexão fechada pelo cliente; os callbacks do emitter removem o assinante
+        log.debug("Falha ao enviar evento da agenda: {}", e.getMessage());
+        emitter.completeWithError(e);
+        return;
+      } finally {
+        enviando.set(false);
+      }
+      // evento enfileirado entre o último poll e a liberação do envio
+      if (!fila.isEmpty() || transbordou.get() || pingPendente) {
+        agendarEnvio();
+      }
+    }
+  }
+}
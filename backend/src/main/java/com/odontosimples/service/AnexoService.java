@@ -0,0 +1,205 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.AnexoDTO;
+import com.odontosimples.entity.Anexo;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.entity.Pagamento;
+import com.odontosimples.entity.Prontuario;
+import com.odontosimples.repository.AnexoRepository;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.repository.PagamentoRepository;
+import com.odontosimples.repository.ProntuarioRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class AnexoService {
+
+    private static final int TAMANHO_NOME_ARQUIVO = 255;
+    private static final int TAMANHO_TIPO_CONTEUDO = 100;
+    private static final String TIPO_DICOM = "application/dicom";
+
+    // As mesmas regras das listagens do AnexoController: o que é do prontuário é clínico,
+    // comprovantes e anexos de pagamento são financeiros
+    private static final Set<String> PAPEIS_PRONTUARIO = Set.of("ROLE_ADMIN", "ROLE_DENTISTA");
+    private static final Set<String> PAPEIS_PAGAMENTO = Set.of("ROLE_ADMIN", "ROLE_RECEPCIONISTA");
+
+    @Autowired
+    private AnexoRepository anexoRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private ProntuarioRepository prontuarioRepository;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    @Autowired
+    private ArmazemAnexos armazemAnexos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transacao;
+
+    @PostConstruct
+    void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    // Conteúdo de um anexo no armazém
+    public record Arquivo(AnexoDTO anexo, Path caminho) {}
+
+    // O arquivo vai para o armazém antes da transação: um upload grande não segura uma
+    // conexão do banco. Se o registro falhar, o conteúdo fica no armazém sem anexo e é
+    // reaproveitado por um próximo upload igual.
+    public AnexoDTO anexar(MultipartFile arquivo, Anexo.Categoria categoria, Long pacienteId,
+                           Long prontuarioId, Long pagamentoId) throws IOException {
+        if (arquivo == null || arquivo.isEmpty()) {
+            throw new RuntimeException("Arquivo vazio");
+        }
+        if (categoria == Anexo.Categoria.COMPROVANTE && pagamentoId == null) {
+            throw new RuntimeException("Comprovante precisa do pagamento");
+        }
+        exigirAcesso(categoria, prontuarioId, pagamentoId);
+
+        ArmazemAnexos.Gravado gravado;
+        try (InputStream conteudo = arquivo.getInputStream()) {
+            gravado = armazemAnexos.gravar(conteudo);
+        }
+
+        String nomeArquivo = nomeArquivo(arquivo.getOriginalFilename());
+        String tipoConteudo = tipoConteudo(arquivo.getContentType(), nomeArquivo);
+        return transacao.execute(status -> {
+            Prontuario prontuario = prontuarioId == null ? null : prontuarioRepository.findById(prontuarioId)
+                    .filter(Prontuario::isActive)
+                    .orElseThrow(() -> new RuntimeException("Prontuário não encontrado"));
+            Pagamento pagamento = pagamentoId == null ? null : pagamentoRepository.findById(pagamentoId)
+                    .filter(Pagamento::isActive)
+                    .orElseThrow(() -> new RuntimeException("Pagamento não encontrado"));
+
+            // o paciente pode vir do prontuário ou do pagamento, mas todos têm de ser o mesmo
+            Long doProntuario = prontuario == null ? null : prontuario.getPaciente().getId();
+            Long doPagamento = pagamento == null ? null : pagamento.getConsulta().getPaciente().getId();
+            Long paciente = Stream.of(pacienteId, doProntuario, doPagamento)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Informe o paciente, o prontuário ou o pagamento do anexo"));
+            if ((doProntuario != null && !doProntuario.equals(paciente))
+                    || (doPagamento != null && !doPagamento.equals(paciente))) {
+                throw new RuntimeException("O prontuário ou o pagamento é de outro paciente");
+            }
+
+            Anexo anexo = new Anexo(gravado.sha256(), gravado.tamanho(), tipoConteudo, nomeArquivo, categoria,
+                    pacienteRepository.findById(paciente)
+                            .filter(Paciente::isActive)
+                            .orElseThrow(() -> new RuntimeException("Paciente não encontrado")));
+            anexo.setProntuario(prontuario);
+            anexo.setPagamento(pagamento);
+            anexo = anexoRepository.save(anexo);
+            return new AnexoDTO(anexo.getId(), nomeArquivo, tipoConteudo, gravado.tamanho(), gravado.sha256(),
+                    categoria, paciente, prontuarioId, pagamentoId, anexo.getCreatedAt());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Arquivo arquivo(Long id) {
+        AnexoDTO anexo = anexoRepository.findDTO(id)
+                .orElseThrow(() -> new RuntimeException("Anexo não encontrado"));
+        exigirAcesso(Anexo.Categoria.valueOf(anexo.getCategoria()), anexo.getProntuarioId(), anexo.getPagamentoId());
+        Path caminho = armazemAnexos.caminho(anexo.getSha256());
+        if (!Files.isRegularFile(caminho)) {
+            throw new RuntimeException("Conteúdo do anexo não encontrado no armazém");
+        }
+        return new Arquivo(anexo, caminho);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AnexoDTO> listarDoPaciente(Long pacienteId) {
+        return anexoRepository.findDoPaciente(pacienteId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AnexoDTO> listarDoProntuario(Long prontuarioId) {
+        return anexoRepository.findDoProntuario(prontuarioId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AnexoDTO> listarDoPagamento(Long pagamentoId) {
+        return anexoRepository.findDoPagamento(pagamentoId);
+    }
+
+    // O conteúdo continua no armazém (pode ser de outros anexos)
+    @Transactional
+    public void remover(Long id) {
+        Anexo anexo = anexoRepository.findById(id)
+                .filter(Anexo::isActive)
+                .orElseThrow(() -> new RuntimeException("Anexo não encontrado"));
+        anexo.deactivate();
+    }
+
+    private static void exigirAcesso(Anexo.Categoria categoria, Long prontuarioId, Long pagamentoId) {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null) {
+            return;
+        }
+        Set<String> papeis = autenticacao.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        if (prontuarioId != null && papeis.stream().noneMatch(PAPEIS_PRONTUARIO::contains)) {
+            throw new AccessDeniedException("Sem acesso a anexos de prontuário");
+        }
+        if ((pagamentoId != null || categoria == Anexo.Categoria.COMPROVANTE)
+                && papeis.stream().noneMatch(PAPEIS_PAGAMENTO::contains)) {
+            throw new AccessDeniedException("Sem acesso a anexos de pagamento");
+        }
+    }
+
+    private static String nomeArquivo(String original) {
+        String nome = StringUtils.getFilename(StringUtils.cleanPath(original == null ? "" : original));
+        if (!StringUtils.hasText(nome)) {
+            return "anexo";
+        }
+        return nome.length() > TAMANHO_NOME_ARQUIVO ? nome.substring(nome.length() - TAMANHO_NOME_ARQUIVO) : nome;
+    }
+
+    // Tipo informado pelo cliente, se for válido; navegadores mandam .dcm como octet-stream
+    private static String tipoConteudo(String informado, String nomeArquivo) {
+        if (nomeArquivo.toLowerCase().endsWith(".dcm")) {
+            return TIPO_DICOM;
+        }
+        try {
+            MediaType tipo = MediaType.parseMediaType(informado);
+            if (tipo.isConcrete() && tipo.toString().length() <= TAMANHO_TIPO_CONTEUDO) {
+                return tipo.toString();
+            }
+        } catch (InvalidMediaTypeException e) {
+            // sem tipo ou tipo inválido
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+}
@@ -0,0 +1,166 @@
+package com.odontosimples.service;
+
+import com.odontosimples.repository.MensagemAniversarioRepository;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.util.MesDia;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envia, uma vez por dia, a mensagem de aniversário dos pacientes ativos com e-mail.
+ *
+ * Os aniversariantes saem de uma faixa de mes_dia (pelo índice, não por MONTH()/DAY()) e
+ * são reservados em blocos em mensagens_aniversario antes do envio; como a chave é
+ * (paciente, ano), vários nós ou uma nova execução no mesmo dia não repetem a mensagem.
+ */
+@Service
+public class AniversarioService {
+
+  private static final Logger log = LoggerFactory.getLogger(AniversarioService.class);
+
+  private static final int TAMANHO_BLOCO = 200;
+  private static final int TENTATIVAS_POR_ENVIO = 3;
+  private static final long ESPERA_ENTRE_TENTATIVAS_MS = 500;
+  // Execuções que podem retomar uma mensagem que falhou
+  private static final int MAX_EXECUCOES = 3;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @Autowired
+  private MensagemAniversarioRepository mensagemAniversarioRepository;
+
+  @Autowired
+  private JavaMailSender mailSender;
+
+  @Value("${app.aniversarios.habilitado:true}")
+  private boolean habilitado;
+
+  @Value("${app.aniversarios.remetente:nao-responda@odontosimples.com}")
+  private String remetente;
+
+  @Value("${app.aniversarios.assunto:Feliz aniversário!}")
+  private String assunto;
+
+  @Value("classpath:templates/email/aniversario.txt")
+  private Resource modelo;
+
+  private String textoModelo;
+  private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+  @PostConstruct
+  void iniciar() throws IOException {
+    textoModelo = modelo.getContentAsString(StandardCharsets.UTF_8);
+  }
+
+  @Scheduled(cron = "${app.aniversarios.cron:0 0 8 * * *}")
+  public void agendado() {
+    if (habilitado) {
+      despachar(LocalDate.now());
+    }
+  }
+
+  public Resultado despachar(LocalDate dia) {
+    if (!emExecucao.compareAndSet(false, true)) {
+      return new Resultado(0, 0, 0);
+    }
+    try {
+      int enviados = 0;
+      int falhas = 0;
+      int ignorados = 0;
+
+      List<Object[]> aniversariantes = new ArrayList<>();
+      for (MesDia.Faixa faixa : MesDia.faixas(dia, dia)) {
+        aniversariantes.addAll(pacienteRepository.findContatosAniversariantesEntre(faixa.de(), faixa.ate()));
+      }
+
+      for (int inicio = 0; inicio < aniversariantes.size(); inicio += TAMANHO_BLOCO) {
+        List<Object[]> bloco = aniversariantes.subList(inicio, Math.min(inicio + TAMANHO_BLOCO, aniversariantes.size()));
+        Set<Long> reservados = mensagemAniversarioRepository.reservar(dia.getYear(),
+            bloco.stream().map(linha -> (Long) linha[0]).toList(), MAX_EXECUCOES);
+        ignorados += bloco.size() - reservados.size();
+
+        for (Object[] linha : bloco) {
+          if (!reservados.contains((Long) linha[0])) {
+            continue;
+          }
+          if (enviar(dia.getYear(), linha)) {
+            enviados++;
+          } else {
+            falhas++;
+          }
+        }
+      }
+
+      Resultado resultado = new Resultado(enviados, falhas, ignorados);
+      log.info("Mensagens de aniversário de {}: {} enviadas, {} falhas, {} já tratadas",
+          dia, resultado.enviados(), resultado.falhas(), resultado.ignorados());
+      return resultado;
+    } finally {
+      emExecucao.set(false);
+    }
+  }
+
+  // linha: id, nome e email do paciente
+  private boolean enviar(int ano, Object[] linha) {
+    Long pacienteId = (Long) linha[0];
+
+    SimpleMailMessage mensagem = new SimpleMailMessage();
+    mensagem.setFrom(remetente);
+    mensagem.setTo((String) linha[2]);
+    mensagem.setSubject(assunto);
+    mensagem.setText(textoModelo.replace("{paciente}", primeiroNome((String) linha[1])));
+
+    MailException erro = null;
+    for (int tentativa = 1; tentativa <= TENTATIVAS_POR_ENVIO; tentativa++) {
+      try {
+        mailSender.send(mensagem);
+        mensagemAniversarioRepository.marcarEnviado(ano, pacienteId);
+        return true;
+      } catch (MailException e) {
+        erro = e;
+        if (tentativa < TENTATIVAS_POR_ENVIO && !aguardar(ESPERA_ENTRE_TENTATIVAS_MS << (tentativa - 1))) {
+          break;
+        }
+      }
+    }
+    log.warn("Falha ao enviar mensagem de aniversário ao paciente {}: {}", pacienteId, erro.getMessage());
+    mensagemAniversarioRepository.marcarFalha(ano, pacienteId, erro.getMessage());
+    return false;
+  }
+
+  private static String primeiroNome(String nome) {
+    String limpo = nome.trim();
+    int espaco = limpo.indexOf(' ');
+    return espaco > 0 ? limpo.substring(0, espaco) : limpo;
+  }
+
+  private static boolean aguardar(long ms) {
+    try {
+      Thread.sleep(ms);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public record Resultado(int enviados, int falhas, int ignorados) {}
+}
@@ -0,0 +1,106 @@
+package com.odontosimples.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Armazém dos arquivos anexados, em disco e endereçado pelo conteúdo: cada arquivo é gravado
+ * uma única vez em {@code <diretorio>/ab/cd/abcd...}, com o nome igual ao seu SHA-256.
+ *
+ * O upload é lido em blocos de tamanho fixo e cada bloco vai para o hash e para um arquivo
+ * temporário no próprio armazém, sem nunca ter o arquivo inteiro em memória. No fim o
+ * temporário é renomeado para o endereço (mesmo sistema de arquivos, rename atômico) ou
+ * descartado se o conteúdo já existia. Arquivos nunca são alterados nem apagados aqui: um
+ * anexo removido só deixa de apontar para eles.
+ */
+@Service
+public class ArmazemAnexos {
+
+    private static final int TAMANHO_BLOCO = 64 * 1024;
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${app.anexos.diretorio:anexos}")
+    private Path diretorio;
+
+    @Value("${app.anexos.tamanho-maximo:1GB}")
+    private DataSize tamanhoMaximo;
+
+    private Path temporarios;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        temporarios = diretorio.resolve("tmp");
+        Files.createDirectories(temporarios);
+    }
+
+    // Conteúdo gravado; `novo` é falso quando o armazém já tinha um arquivo igual
+    public record Gravado(String sha256, long tamanho, boolean novo) {}
+
+    // Lança RuntimeException se o conteúdo passar de app.anexos.tamanho-maximo
+    public Gravado gravar(InputStream conteudo) throws IOException {
+        MessageDigest sha256 = novoDigest();
+        Path temporario = Files.createTempFile(temporarios, "upload-", ".tmp");
+        try {
+            long tamanho = 0;
+            byte[] bloco = new byte[TAMANHO_BLOCO];
+            try (FileChannel saida = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                int lidos;
+                while ((lidos = conteudo.read(bloco)) != -1) {
+                    tamanho += lidos;
+                    if (tamanho > tamanhoMaximo.toBytes()) {
+                        throw new RuntimeException("Arquivo maior que o limite de " + tamanhoMaximo.toMegabytes() + "MB");
+                    }
+                    sha256.update(bloco, 0, lidos);
+                    ByteBuffer buffer = ByteBuffer.wrap(bloco, 0, lidos);
+                    while (buffer.hasRemaining()) {
+                        saida.write(buffer);
+                    }
+                }
+                // o anexo só é registrado depois que o conteúdo está em disco
+                saida.force(true);
+            }
+
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path destino = caminho(hash);
+            if (Files.exists(destino)) {
+                return new Gravado(hash, tamanho, false);
+            }
+            Files.createDirectories(destino.getParent());
+            // uploads simultâneos do mesmo conteúdo renomeiam arquivos idênticos para o mesmo lugar
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+            return new Gravado(hash, tamanho, true);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    public Path caminho(String sha256) {
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) {
+            throw new RuntimeException("Endereço de anexo inválido");
+        }
+        return diretorio.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private static MessageDigest novoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
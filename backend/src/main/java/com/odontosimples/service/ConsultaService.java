@@ -1,38 +1,82 @@
 package com.odontosimples.service;
 
+import com.odontosimples.dto.ConsultaDTO;
+import com.odontosimples.dto.HistoricoAgendaDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
 import com.odontosimples.entity.Consulta;
 import com.odontosimples.entity.Dentista;
 import com.odontosimples.entity.Paciente;
+import com.odontosimples.entity.Reagendamento;
+import com.odontosimples.event.ConsultaEvento;
+import com.odontosimples.repository.ConsultaLoteRepository;
 import com.odontosimples.repository.ConsultaRepository;
 import com.odontosimples.repository.DentistaRepository;
 import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.repository.ReagendamentoRepository;
+import com.odontosimples.util.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
 @Transactional
 public class ConsultaService {
 
+  public static final int MAX_LOTE = 1000;
+
+  // Campos aceitos em sortBy nas listagens: só os que têm índice
+  public static final Set<String> CAMPOS_ORDENACAO = Set.of("dataHora", "id");
+
   @Autowired
   private ConsultaRepository consultaRository;
 
+  @Autowired
+  private ConsultaLoteRepository consultaLoteRepository;
+
   @Autowired
   private PacienteRepository pacienteRepository;
 
   @Autowired
   private DentistaRepository dentistaRepository;
 
+  @Autowired
+  private ReagendamentoRepository reagendamentoRepository;
+
+  @Autowired
+  private AgendaIndex agendaIndex;
+
+  @Autowired
+  private AgendaLocks agendaLocks;
+
+  // Alterações da agenda; entregues aos ouvintes (ex.: AgendaStreamService) após o commit
+  @Autowired
+  private ApplicationEventPublisher eventos;
+
   public Consulta agendarConsulta(Consulta consulta) {
 
-    //Validar se paciente e dentista existem 
+    //Validar se paciente e dentista existem
 
     Paciente paciente = pacienteRepository.findById(consulta.getPaciente().getId())
             .orElseThrow(() -> new RuntimeException("Paciente não encontrado"));
@@ -40,21 +84,383 @@ public class ConsultaService {
     Dentista dentista =dentistaRepository.findById(consulta.getDentista().getId())
           .orElseThrow(() -> new RuntimeException("Dentista não encontrado"));
 
-    //Verificar conflitos de agendamento 
-    LocalDateTime inicio = consulta.getDataHora();
-    LocalDateTime fim = inicio.plusMinutes(consulta.getDuracaoMinutos());
+    if (consulta.getDuracaoMinutos() == null) {
+      consulta.setDuracaoMinutos(dentista.getTempoConsulta() != null ? dentista.getTempoConsulta() : 30);
+    }
+    if (consulta.getStatus() == null) {
+      consulta.setStatus(Consulta.StatusConsulta.AGENDADA);
+    }
 
-    List<Consulta> conflitos = consultaRository.findConflitosAgendamento(dentista, inicio, fim);
-    if (!conflitos.isEmpty()) {
+    //Serializa agendamentos do mesmo dentista até o fim da transação
+    agendaLocks.bloquear(dentista.getId());
+
+    //Verificar conflitos de agendamento (índice em memória, sem ida ao banco)
+    if (agendaIndex.temConflito(dentista.getId(), consulta.getDataHora(), consulta.getDataHoraFim(), null)) {
       throw new RuntimeException("Horário não disponível para este dentista");
     }
 
     consulta.setPaciente(paciente);
     consulta.setDentista(dentista);
 
-    return consultaRository.save(consulta);
+    Consulta consultaSalva = salvarNaAgenda(consulta);
+    eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.CRIADA, consultaSalva));
+    return consultaSalva;
+  }
+
+  // Agenda várias consultas em uma única transação: uma busca de pacientes, uma de dentistas,
+  // uma da agenda ocupada no período e os INSERTs em batch. Se qualquer item conflitar
+  // (com a agenda ou com outro item do lote), nada é gravado.
+  public List<Consulta> agendarLote(List<Consulta> consultas) {
+    if (consultas.isEmpty()) {
+      return consultas;
+    }
+    if (consultas.size() > MAX_LOTE) {
+      throw new RuntimeException("Lote deve ter no máximo " + MAX_LOTE + " consultas");
+    }
+
+    Set<Long> pacienteIds = new HashSet<>();
+    Set<Long> dentistaIds = new HashSet<>();
+    for (Consulta consulta : consultas) {
+      if (consulta.getPaciente() == null || consulta.getPaciente().getId() == null
+          || consulta.getDentista() == null || consulta.getDentista().getId() == null
+          || consulta.getDataHora() == null) {
+        throw new RuntimeException("Paciente, dentista e data/hora são obrigatórios em todos os itens");
+      }
+      pacienteIds.add(consulta.getPaciente().getId());
+      dentistaIds.add(consulta.getDentista().getId());
+    }
+
+    Map<Long, Paciente> pacientes = pacienteRepository.findAllById(pacienteIds).stream()
+            .collect(Collectors.toMap(Paciente::getId, Function.identity()));
+    if (pacientes.size() != pacienteIds.size()) {
+      throw new RuntimeException("Paciente não encontrado");
+    }
+    Map<Long, Dentista> dentistas = dentistaRepository.findAllById(dentistaIds).stream()
+            .collect(Collectors.toMap(Dentista::getId, Function.identity()));
+    if (dentistas.size() != dentistaIds.size()) {
+      throw new RuntimeException("Dentista não encontrado");
+    }
+
+    LocalDateTime agora = LocalDateTime.now();
+    for (Consulta consulta : consultas) {
+      Dentista dentista = dentistas.get(consulta.getDentista().getId());
+      consulta.setPaciente(pacientes.get(consulta.getPaciente().getId()));
+      consulta.setDentista(dentista);
+      if (consulta.getDuracaoMinutos() == null) {
+        consulta.setDuracaoMinutos(dentista.getTempoConsulta() != null ? dentista.getTempoConsulta() : 30);
+      }
+      if (consulta.getStatus() == null) {
+        consulta.setStatus(Consulta.StatusConsulta.AGENDADA);
+      }
+      consulta.setCreatedAt(agora);
+      consulta.setUpdatedAt(agora);
+    }
+
+    agendaLocks.bloquear(dentistaIds);
+
+    List<Integer> conflitos = conflitosDoLote(consultas, dentistaIds);
+    if (!conflitos.isEmpty()) {
+      throw new RuntimeException("Horário não disponível para os itens do lote: " + conflitos);
+    }
+
+    List<Long> ids = consultaLoteRepository.reservarIds(consultas.size());
+    for (int i = 0; i < consultas.size(); i++) {
+      consultas.get(i).setId(ids.get(i));
+    }
+
+    try {
+      consultaLoteRepository.inserir(consultas);
+    } catch (DataIntegrityViolationException e) {
+      if (violouSobreposicao(e)) {
+        throw new RuntimeException("Horário não disponível para este dentista");
+      }
+      throw e;
+    }
+
+    for (Consulta consulta : consultas) {
+      agendaIndex.atualizar(consulta);
+      eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.CRIADA, consulta));
+    }
+    return consultas;
+  }
+
+  public Consulta atualizarConsulta(Long id, Consulta consultaAtualizada) {
+    Consulta consulta = buscarPorId(id);
+    Long dentistaAnteriorId = consulta.getDentista().getId();
+    LocalDateTime dataHoraAnterior = consulta.getDataHora();
+
+    if (consultaAtualizada.getDentista() != null && consultaAtualizada.getDentista().getId() != null
+        && !consultaAtualizada.getDentista().getId().equals(consulta.getDentista().getId())) {
+      Dentista dentista = dentistaRepository.findById(consultaAtualizada.getDentista().getId())
+            .orElseThrow(() -> new RuntimeException("Dentista não encontrado"));
+      consulta.setDentista(dentista);
+    }
+    if (consultaAtualizada.getDataHora() != null) {
+      consulta.setDataHora(consultaAtualizada.getDataHora());
+    }
+    if (consultaAtualizada.getDuracaoMinutos() != null) {
+      consulta.setDuracaoMinutos(consultaAtualizada.getDuracaoMinutos());
+    }
+
+    agendaLocks.bloquear(List.of(dentistaAnteriorId, consulta.getDentista().getId()));
+
+    if (consulta.ocupaAgenda() && agendaIndex.temConflito(consulta.getDentista().getId(),
+        consulta.getDataHora(), consulta.getDataHoraFim(), consulta.getId())) {
+      throw new RuntimeException("Horário não disponível para este dentista");
+    }
+
+    consulta.setObservacoes(consultaAtualizada.getObservacoes());
+    consulta.setValor(consultaAtualizada.getValor());
+    consulta.setTipoConsulta(consultaAtualizada.getTipoConsulta());
+
+    Consulta consultaSalva = salvarNaAgenda(consulta);
+    eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.ATUALIZADA, consultaSalva,
+            dentistaAnteriorId, dataHoraAnterior));
+    return consultaSalva;
   }
 
+  public Consulta reagendarConsulta(Long id, LocalDateTime novaDataHora, String motivo) {
+    return reagendarConsulta(id, novaDataHora, motivo, null);
+  }
+
+  public Consulta reagendarConsulta(Long id, LocalDateTime novaDataHora, String motivo, String solicitadoPor) {
+    Consulta consulta = buscarPorId(id);
+
+    if (consulta.isRealizada() || consulta.isCancelada()) {
+      throw new RuntimeException("Consulta não pode ser reagendada");
+    }
+
+    agendaLocks.bloquear(consulta.getDentista().getId());
+
+    LocalDateTime novoFim = novaDataHora.plusMinutes(consulta.getDuracaoMinutos());
+    if (agendaIndex.temConflito(consulta.getDentista().getId(), novaDataHora, novoFim, consulta.getId())) {
+      throw new RuntimeException("Horário não disponível para este dentista");
+    }
+
+    LocalDateTime dataHoraAnterior = consulta.getDataHora();
+    consulta.reagendar(novaDataHora, motivo);
+
+    Consulta consultaSalva = salvarNaAgenda(consulta);
+    // a consulta só guarda o último reagendamento; o histórico fica em reagendamentos
+    reagendamentoRepository.save(new Reagendamento(consultaSalva, dataHoraAnterior, motivo,
+            solicitadoPor, usuarioAtual()));
+    eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.REAGENDADA, consultaSalva,
+            consultaSalva.getDentista().getId(), dataHoraAnterior));
+    return consultaSalva;
+  }
 
-  
+  public Consulta confirmarConsulta(Long id) {
+    Consulta consulta = buscarPorId(id);
+    // Só o que ainda ocupa a agenda (agendada ou reagendada): cancelada, realizada ou falta
+    // já liberaram o horário e confirmar voltaria a ocupá-lo sem checar conflito
+    if (!consulta.isAgendada() && consulta.getStatus() != Consulta.StatusConsulta.REAGENDADA) {
+      throw new RuntimeException("Somente consultas agendadas ou reagendadas podem ser confirmadas");
+    }
+    consulta.confirmar();
+
+    Consulta consultaSalva = consultaRository.save(consulta);
+    agendaIndex.atualizar(consultaSalva);
+    eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.CONFIRMADA, consultaSalva));
+    return consultaSalva;
+  }
+
+  public Consulta realizarConsulta(Long id) {
+    Consulta consulta = buscarPorId(id);
+    consulta.realizar();
+
+    Consulta consultaSalva = consultaRository.save(consulta);
+    agendaIndex.atualizar(consultaSalva);
+    eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.REALIZADA, consultaSalva));
+    return consultaSalva;
+  }
+
+  public Consulta cancelarConsulta(Long id) {
+    Consulta consulta = buscarPorId(id);
+    consulta.cancelar();
+
+    Consulta consultaSalva = consultaRository.save(consulta);
+    agendaIndex.atualizar(consultaSalva);
+    eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.CANCELADA, consultaSalva));
+    return consultaSalva;
+  }
+
+  public Consulta registrarFalta(Long id) {
+    Consulta consulta = buscarPorId(id);
+    // Reagendada conta pelo novo horário, que reagendar() já gravou em dataHora
+    if (consulta.isRealizada() || consulta.isCancelada()
+        || consulta.getStatus() == Consulta.StatusConsulta.FALTOU) {
+      throw new RuntimeException("Falta não pode ser registrada para esta consulta");
+    }
+    if (consulta.getDataHora().isAfter(LocalDateTime.now())) {
+      throw new RuntimeException("Falta só pode ser registrada depois do horário da consulta");
+    }
+    consulta.registrarFalta();
+
+    Consulta consultaSalva = consultaRository.save(consulta);
+    agendaIndex.atualizar(consultaSalva);
+    eventos.publishEvent(ConsultaEvento.de(ConsultaEvento.Tipo.FALTOU, consultaSalva));
+    return consultaSalva;
+  }
+
+  // Reagendamentos e faltas do paciente, mais recentes primeiro
+  @Transactional(readOnly = true)
+  public List<HistoricoAgendaDTO> historicoDoPaciente(Long pacienteId) {
+    if (!pacienteRepository.existsById(pacienteId)) {
+      throw new RuntimeException("Paciente não encontrado");
+    }
+    return reagendamentoRepository.findHistoricoDoPaciente(pacienteId).stream()
+        .map(linha -> new HistoricoAgendaDTO((String) linha[0], ((Number) linha[1]).longValue(),
+            (String) linha[2], dataHora(linha[3]), dataHora(linha[4]), (String) linha[5],
+            (String) linha[6], (String) linha[7], dataHora(linha[8])))
+        .collect(Collectors.toList());
+  }
+
+  @Transactional(readOnly = true)
+  public Consulta buscarPorId(Long id) {
+    return consultaRository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Consulta não encontrada"));
+  }
+
+  // As listagens abaixo devolvem a projeção ConsultaDTO montada pelo banco:
+  // um SELECT por chamada (mais o COUNT nas paginadas), sem carga LAZY por linha
+
+  @Transactional(readOnly = true)
+  public ConsultaDTO buscarDTOPorId(Long id) {
+    return consultaRository.findDTOById(id)
+            .orElseThrow(() -> new RuntimeException("Consulta não encontrada"));
+  }
+
+  @Transactional(readOnly = true)
+  public Page<ConsultaDTO> listarTodas(Pageable pageable) {
+    return consultaRository.findDTOsAtivas(pageable);
+  }
+
+  // Paginação por cursor em (dataHora, id); o total só é contado quando pedido
+  @Transactional(readOnly = true)
+  public PaginaCursorDTO<ConsultaDTO> listarPorCursor(String cursor, int tamanho, boolean decrescente,
+                                                      boolean incluirTotal) {
+    tamanho = PaginaCursorDTO.tamanhoValido(tamanho);
+    Pageable limite = PageRequest.of(0, tamanho + 1);
+
+    List<ConsultaDTO> itens;
+    if (cursor == null || cursor.isBlank()) {
+      itens = decrescente ? consultaRository.findDTOsPorDataHoraDesc(limite)
+                          : consultaRository.findDTOsPorDataHora(limite);
+    } else {
+      Cursor posicao = Cursor.decodificar(cursor, "dataHora", decrescente);
+      LocalDateTime dataHora = LocalDateTime.parse(posicao.getValor());
+      itens = decrescente ? consultaRository.findDTOsPorDataHoraDescAntes(dataHora, posicao.getId(), limite)
+                          : consultaRository.findDTOsPorDataHoraApos(dataHora, posicao.getId(), limite);
+    }
+
+    Long total = incluirTotal ? consultaRository.countByActiveTrue() : null;
+    return PaginaCursorDTO.de(itens, tamanho,
+            ultima -> new Cursor("dataHora", decrescente, ultima.getDataHora(), ultima.getId()).codificar(), total);
+  }
+
+  @Transactional(readOnly = true)
+  public List<ConsultaDTO> listarPorData(LocalDate data) {
+    return consultaRository.findDTOsByPeriodo(data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+  }
+
+  @Transactional(readOnly = true)
+  public List<ConsultaDTO> listarPorDentistaEData(Long dentistaId, LocalDate data) {
+    if (!dentistaRepository.existsById(dentistaId)) {
+      throw new RuntimeException("Dentista não encontrado");
+    }
+    return consultaRository.findDTOsByDentistaAndPeriodo(dentistaId,
+            data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+  }
+
+  @Transactional(readOnly = true)
+  public List<ConsultaDTO> listarPorPaciente(Long pacienteId) {
+    return consultaRository.findDTOsByPacienteId(pacienteId);
+  }
+
+  @Transactional(readOnly = true)
+  public Page<ConsultaDTO> buscarPorTermo(String termo, Pageable pageable) {
+    return consultaRository.buscarDTOsPorTermo(termo, pageable);
+  }
+
+  @Transactional(readOnly = true)
+  public boolean verificarDisponibilidade(Long dentistaId, LocalDateTime dataHora, Integer duracao) {
+    return !agendaIndex.temConflito(dentistaId, dataHora, dataHora.plusMinutes(duracao), null);
+  }
+
+  // Grava já com flush para que a constraint de sobreposição seja avaliada aqui,
+  // ainda dentro do bloqueio da agenda
+  private Consulta salvarNaAgenda(Consulta consulta) {
+    Consulta consultaSalva;
+    try {
+      consultaSalva = consultaRository.saveAndFlush(consulta);
+    } catch (DataIntegrityViolationException e) {
+      if (violouSobreposicao(e)) {
+        throw new RuntimeException("Horário não disponível para este dentista");
+      }
+      throw e;
+    }
+    agendaIndex.atualizar(consultaSalva);
+    return consultaSalva;
+  }
+
+  // Posições (a partir de 1) dos itens do lote que sobrepõem a agenda ou outro item
+  private List<Integer> conflitosDoLote(List<Consulta> consultas, Set<Long> dentistaIds) {
+    LocalDateTime inicio = consultas.stream().map(Consulta::getDataHora)
+            .min(Comparator.naturalOrder()).orElseThrow();
+    LocalDateTime fim = consultas.stream().map(Consulta::getDataHoraFim)
+            .max(Comparator.naturalOrder()).orElseThrow();
+
+    // Uma única ida ao banco; um dia de folga cobre consultas que começam antes e avançam no período
+    Map<Long, List<Reserva>> agenda = new HashMap<>();
+    for (Object[] linha : consultaRository.findIntervalosOcupados(dentistaIds, inicio.minusDays(1), fim)) {
+      LocalDateTime dataHora = (LocalDateTime) linha[2];
+      Integer duracao = (Integer) linha[3];
+      agenda.computeIfAbsent((Long) linha[1], id -> new ArrayList<>())
+            .add(new Reserva(dataHora, dataHora.plusMinutes(duracao != null ? duracao : 0), -1));
+    }
+    for (int i = 0; i < consultas.size(); i++) {
+      Consulta consulta = consultas.get(i);
+      agenda.computeIfAbsent(consulta.getDentista().getId(), id -> new ArrayList<>())
+            .add(new Reserva(consulta.getDataHora(), consulta.getDataHoraFim(), i));
+    }
+
+    TreeSet<Integer> conflitos = new TreeSet<>();
+    for (List<Reserva> reservas : agenda.values()) {
+      reservas.sort(Comparator.comparing(Reserva::inicio));
+      // varredura por início: cada reserva só precisa ser comparada com as que começam antes do seu fim
+      for (int i = 0; i < reservas.size(); i++) {
+        Reserva atual = reservas.get(i);
+        for (int j = i + 1; j < reservas.size() && reservas.get(j).inicio().isBefore(atual.fim()); j++) {
+          Reserva outra = reservas.get(j);
+          if (atual.item() >= 0) {
+            conflitos.add(atual.item() + 1);
+          }
+          if (outra.item() >= 0) {
+            conflitos.add(outra.item() + 1);
+          }
+        }
+      }
+    }
+    return new ArrayList<>(conflitos);
+  }
+
+  private boolean violouSobreposicao(DataIntegrityViolationException e) {
+    Throwable causa = e.getMostSpecificCause();
+    return causa.getMessage() != null && causa.getMessage().contains(ConsultaRepository.CONSTRAINT_SOBREPOSICAO);
+  }
+
+  private record Reserva(LocalDateTime inicio, LocalDateTime fim, int item) {
+  }
+
+  private static LocalDateTime dataHora(Object valor) {
+    if (valor instanceof Timestamp timestamp) {
+      return timestamp.toLocalDateTime();
+    }
+    return (LocalDateTime) valor;
+  }
+
+  private static String usuarioAtual() {
+    Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+    return autenticacao != null ? autenticacao.getName() : null;
+  }
 }
@@ -0,0 +1,217 @@
+package com.odontosimples.service;
+
+import com.odontosimples.util.TextoBusca;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Dicionário de medicamentos, classes e alérgenos (resources/dicionario/medicamentos.txt)
+ * usado para extrair termos normalizados dos campos livres do prontuário.
+ *
+ * O texto é reduzido a palavras sem acento e comparado com os sinônimos pela sequência
+ * mais longa primeiro ("penicilina g" antes de "penicilina"); cada termo reconhecido
+ * vem acompanhado das suas classes, com o fecho já calculado na carga.
+ */
+@Component
+public class DicionarioMedicamentos {
+
+  private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+  // Trechos de um texto livre de alergias: "penicilina, látex e dipirona"
+  private static final Pattern TRECHOS = Pattern.compile("[,;/\\n]|\\.\\s|\\s+(?:e|ou)\\s+", Pattern.CASE_INSENSITIVE);
+  // Palavras que não identificam substância; um trecho só com elas e uma negação ("nega
+  // alergias", "sem alergias conhecidas") não é alergia
+  private static final Set<String> NEGACOES = Set.of("nega", "negou", "nenhuma", "nenhum", "sem", "nao", "nada",
+      "nda", "ndn", "desconhece", "ausencia", "ausente");
+  private static final Set<String> COMPLEMENTOS = Set.of("alergia", "alergias", "alergico", "alergica", "alergicos",
+      "alergicas", "medicamentosa", "medicamentosas", "conhecida", "conhecidas", "conhecido", "conhecidos",
+      "paciente", "possui", "refere", "relata", "apresenta", "tem", "consta", "a", "ao", "aos", "as", "o", "os",
+      "de", "do", "da", "dos", "das", "que", "qualquer", "medicamento", "medicamentos");
+
+  @Value("classpath:dicionario/medicamentos.txt")
+  private Resource arquivo;
+
+  // sinônimo normalizado -> termo
+  private final Map<String, String> termos = new HashMap<>();
+  // termo -> ele mesmo e todas as classes acima dele, da mais próxima para a mais geral
+  private final Map<String, Set<String>> classes = new HashMap<>();
+  // termo -> nome como está no dicionário, para exibição
+  private final Map<String, String> nomes = new HashMap<>();
+  private int maxPalavras = 1;
+  private String versao;
+
+  @PostConstruct
+  void carregar() throws IOException {
+    byte[] conteudo = arquivo.getContentAsByteArray();
+    versao = sha256(conteudo);
+
+    Map<String, Set<String>> classesDiretas = new HashMap<>();
+    for (String linha : new String(conteudo, StandardCharsets.UTF_8).split("\n")) {
+      linha = linha.strip();
+      if (linha.isEmpty() || linha.startsWith("#")) {
+        continue;
+      }
+      String[] partes = linha.split("\\|", -1);
+      String nome = partes[0].strip();
+      String termo = chave(nome);
+      if (termo.isEmpty()) {
+        continue;
+      }
+      nomes.put(termo, nome);
+      termos.put(termo, termo);
+      for (String sinonimo : lista(partes, 1)) {
+        termos.putIfAbsent(chave(sinonimo), termo);
+      }
+      Set<String> diretas = classesDiretas.computeIfAbsent(termo, t -> new HashSet<>());
+      for (String classe : lista(partes, 2)) {
+        String chaveClasse = chave(classe);
+        diretas.add(chaveClasse);
+        // classe sem linha própria também é reconhecida pelo nome
+        termos.putIfAbsent(chaveClasse, chaveClasse);
+        nomes.putIfAbsent(chaveClasse, classe);
+      }
+    }
+
+    for (String sinonimo : termos.keySet()) {
+      maxPalavras = Math.max(maxPalavras, sinonimo.split(" ").length);
+    }
+    for (String termo : new HashSet<>(termos.values())) {
+      Set<String> fecho = new LinkedHashSet<>();
+      fechar(termo, classesDiretas, fecho);
+      classes.put(termo, Collections.unmodifiableSet(fecho));
+    }
+  }
+
+  // Termos citados no texto, sem as classes, na ordem em que aparecem
+  public Set<String> reconhecer(String texto) {
+    Set<String> encontrados = new LinkedHashSet<>();
+    List<String> palavras = palavras(texto);
+    int i = 0;
+    while (i < palavras.size()) {
+      int casadas = 0;
+      for (int n = Math.min(maxPalavras, palavras.size() - i); n >= 1 && casadas == 0; n--) {
+        String termo = termo(String.join(" ", palavras.subList(i, i + n)));
+        if (termo != null) {
+          encontrados.add(termo);
+          casadas = n;
+        }
+      }
+      i += Math.max(casadas, 1);
+    }
+    return encontrados;
+  }
+
+  // Termos citados no texto com as respectivas classes
+  public Set<String> extrair(String texto) {
+    Set<String> extraidos = new HashSet<>();
+    for (String termo : reconhecer(texto)) {
+      extraidos.addAll(expandir(termo));
+    }
+    return extraidos;
+  }
+
+  // Trechos do texto que citam alguma coisa (não são só negação nem palavras de ligação)
+  // mas nenhum termo do dicionário: erro de digitação, nome comercial ou medicamento que
+  // falta no dicionário. Devolvidos como escritos, para o dentista conferir.
+  public List<String> naoReconhecidos(String texto) {
+    List<String> trechos = new ArrayList<>();
+    if (texto == null) {
+      return trechos;
+    }
+    for (String trecho : TRECHOS.split(texto)) {
+      List<String> palavras = palavras(trecho);
+      boolean negacao = palavras.stream().anyMatch(NEGACOES::contains);
+      boolean soComplementos = palavras.stream().allMatch(p -> NEGACOES.contains(p) || COMPLEMENTOS.contains(p));
+      if (palavras.isEmpty() || (negacao && soComplementos) || !reconhecer(trecho).isEmpty()) {
+        continue;
+      }
+      trechos.add(trecho.strip());
+    }
+    return trechos;
+  }
+
+  public Set<String> expandir(String termo) {
+    return classes.getOrDefault(termo, Set.of(termo));
+  }
+
+  // Termo digitado (nome, sinônimo ou nome comercial) -> termo do dicionário, ou null
+  public String normalizar(String valor) {
+    return termo(chave(valor));
+  }
+
+  public String nome(String termo) {
+    return nomes.getOrDefault(termo, termo);
+  }
+
+  public String getVersao() {
+    return versao;
+  }
+
+  private String termo(String sinonimo) {
+    String termo = termos.get(sinonimo);
+    // plural simples que não esteja no dicionário ("dipironas", "lidocainas")
+    if (termo == null && sinonimo.length() > 3 && sinonimo.endsWith("s")) {
+      termo = termos.get(sinonimo.substring(0, sinonimo.length() - 1));
+    }
+    return termo;
+  }
+
+  private void fechar(String termo, Map<String, Set<String>> classesDiretas, Set<String> fecho) {
+    if (!fecho.add(termo)) {
+      return;
+    }
+    for (String classe : classesDiretas.getOrDefault(termo, Set.of())) {
+      fechar(classe, classesDiretas, fecho);
+    }
+  }
+
+  private static List<String> palavras(String texto) {
+    String normalizado = TextoBusca.texto(texto);
+    if (normalizado == null || normalizado.isEmpty()) {
+      return List.of();
+    }
+    List<String> palavras = new ArrayList<>();
+    for (String palavra : SEPARADORES.split(normalizado)) {
+      if (!palavra.isEmpty()) {
+        palavras.add(palavra);
+      }
+    }
+    return palavras;
+  }
+
+  private static String chave(String valor) {
+    return String.join(" ", palavras(valor));
+  }
+
+  private static List<String> lista(String[] partes, int indice) {
+    if (partes.length <= indice || partes[indice].isBlank()) {
+      return List.of();
+    }
+    return Arrays.stream(partes[indice].split(",")).map(String::strip).filter(s -> !s.isEmpty()).toList();
+  }
+
+  private static String sha256(byte[] conteudo) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.odontosimples.service;
+
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.event.ConsultaEvento;
+import com.odontosimples.repository.DentistaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Oferece à lista de espera os horários liberados na agenda.
+ *
+ * A cada cancelamento, reagendamento ou troca de horário/dentista confirmados, procura no
+ * {@link ListaEsperaIndex} o melhor pedido que caiba no horário liberado e agenda o paciente.
+ * Se o horário já tiver sido ocupado ou o pedido atendido por outro caminho, tenta o próximo.
+ */
+@Service
+public class EncaixeListaEsperaService {
+
+  private static final Logger log = LoggerFactory.getLogger(EncaixeListaEsperaService.class);
+
+  private static final int MAX_TENTATIVAS = 3;
+
+  @Autowired
+  private ListaEsperaIndex listaEsperaIndex;
+
+  @Autowired
+  private ListaEsperaService listaEsperaService;
+
+  @Autowired
+  private DentistaRepository dentistaRepository;
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void aoAlterarAgenda(ConsultaEvento evento) {
+    if (evento.dataHoraAnterior() == null || evento.duracaoMinutos() == null) {
+      return;
+    }
+    boolean liberou = switch (evento.tipo()) {
+      case CANCELADA -> true;
+      case REAGENDADA, ATUALIZADA -> !evento.dataHoraAnterior().equals(evento.dataHora())
+          || !Objects.equals(evento.dentistaAnteriorId(), evento.dentistaId());
+      default -> false;
+    };
+    if (!liberou || !evento.dataHoraAnterior().isAfter(LocalDateTime.now())) {
+      return;
+    }
+
+    try {
+      encaixar(evento.dentistaAnteriorId(), evento.dataHoraAnterior(), evento.duracaoMinutos());
+    } catch (Exception e) {
+      // a alteração da agenda já foi confirmada; o encaixe é só uma tentativa
+      log.warn("Falha ao encaixar lista de espera em {}: {}", evento.dataHoraAnterior(), e.getMessage());
+    }
+  }
+
+  Optional<Consulta> encaixar(Long dentistaId, LocalDateTime inicio, int duracaoMinutos) {
+    listaEsperaIndex.descartarAnterioresA(LocalDate.now());
+
+    List<String> especialidades = dentistaRepository.findById(dentistaId)
+        .map(Dentista::getListaEspecialidades)
+        .orElse(List.of());
+
+    Set<Long> tentados = new HashSet<>();
+    for (int tentativa = 0; tentativa < MAX_TENTATIVAS; tentativa++) {
+      Optional<ListaEsperaIndex.Pedido> candidato =
+          listaEsperaIndex.melhorCandidato(dentistaId, especialidades, inicio, duracaoMinutos, tentados);
+      if (candidato.isEmpty()) {
+        return Optional.empty();
+      }
+
+      ListaEsperaIndex.Pedido pedido = candidato.get();
+      tentados.add(pedido.id());
+      try {
+        Consulta consulta = listaEsperaService.ofertar(pedido.id(), dentistaId, inicio);
+        log.info("Horário {} oferecido ao paciente {} da lista de espera", inicio, pedido.pacienteId());
+        return Optional.of(consulta);
+      } catch (Exception e) {
+        log.debug("Pedido {} da lista de espera não encaixado: {}", pedido.id(), e.getMessage());
+      }
+    }
+    return Optional.empty();
+  }
+}
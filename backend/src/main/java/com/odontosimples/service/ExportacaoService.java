@@ -0,0 +1,217 @@
+package com.odontosimples.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.odontosimples.entity.Endereco;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.ConsultaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.repository.PagamentoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exportações completas (contabilidade e BI) em CSV ou NDJSON.
+ *
+ * As linhas são lidas por cursor (fetch size nas consultas dos repositórios) e escritas
+ * direto na saída da resposta, sem montar a lista em memória. Os pacientes vêm como
+ * entidades somente leitura e são desanexados do contexto de persistência logo depois de
+ * escritos; consultas e pagamentos vêm em colunas, porque a entidade Consulta carregaria
+ * prontuário e pagamento (um-para-um) de cada linha. Os métodos são chamados de dentro do
+ * StreamingResponseBody, com a transação aberta só durante a escrita.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportacaoService {
+
+    private static final List<String> COLUNAS_PACIENTES = List.of("id", "nome", "cpf", "rg", "data_nascimento",
+            "telefone", "email", "cidade", "estado", "profissao", "ativo", "criado_em");
+
+    private static final List<String> COLUNAS_CONSULTAS = List.of("id", "data_hora", "duracao_minutos", "status",
+            "tipo_consulta", "valor", "primeira_consulta", "serie_id", "paciente_id", "paciente_nome",
+            "paciente_cpf", "dentista_id", "dentista_nome");
+
+    private static final List<String> COLUNAS_PAGAMENTOS = List.of("id", "consulta_id", "paciente_nome",
+            "paciente_cpf", "valor", "valor_desconto", "valor_final", "taxa_cartao", "valor_liquido",
+            "data_vencimento", "data_pagamento", "forma_pagamento", "status", "numero_parcelas", "parcela_atual",
+            "numero_transacao");
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private ConsultaRepository consultaRepository;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    public enum Formato {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8), "ndjson");
+
+        private final MediaType mediaType;
+        private final String extensao;
+
+        Formato(MediaType mediaType, String extensao) {
+            this.mediaType = mediaType;
+            this.extensao = extensao;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String nomeArquivo(String base) {
+            return base + "." + extensao;
+        }
+
+        public static Formato de(String valor) {
+            for (Formato formato : values()) {
+                if (formato.name().equalsIgnoreCase(valor)) {
+                    return formato;
+                }
+            }
+            throw new RuntimeException("Formato inválido: " + valor + ". Use csv ou ndjson");
+        }
+    }
+
+    // Retorna a quantidade de linhas escritas (sem o cabeçalho)
+    public long exportarPacientes(Formato formato, OutputStream saida) throws IOException {
+        try (Stream<Paciente> pacientes = pacienteRepository.streamTodos()) {
+            return escrever(formato, saida, COLUNAS_PACIENTES, pacientes.map(paciente -> {
+                Endereco endereco = paciente.getEndereco();
+                Object[] linha = {paciente.getId(), paciente.getNome(), paciente.getCpf(), paciente.getRg(),
+                        paciente.getDataNascimento(), paciente.getTelefone(), paciente.getEmail(),
+                        endereco != null ? endereco.getCidade() : null, endereco != null ? endereco.getEstado() : null,
+                        paciente.getProfissao(), paciente.isActive(), paciente.getCreatedAt()};
+                // já escrito: sai do contexto de persistência para a memória não crescer com a exportação
+                entityManager.detach(paciente);
+                return linha;
+            }));
+        }
+    }
+
+    // Período pela data da consulta, datas inclusivas
+    public long exportarConsultas(LocalDate inicio, LocalDate fim, Formato formato, OutputStream saida) throws IOException {
+        try (Stream<Object[]> consultas = consultaRepository.streamParaExportacao(
+                inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay())) {
+            return escrever(formato, saida, COLUNAS_CONSULTAS, consultas);
+        }
+    }
+
+    // Período pela data de vencimento, datas inclusivas
+    public long exportarPagamentos(LocalDate inicio, LocalDate fim, Formato formato, OutputStream saida) throws IOException {
+        try (Stream<Object[]> pagamentos = pagamentoRepository.streamParaExportacao(inicio, fim)) {
+            return escrever(formato, saida, COLUNAS_PAGAMENTOS, pagamentos);
+        }
+    }
+
+    private static long escrever(Formato formato, OutputStream saida, List<String> colunas, Stream<Object[]> linhas)
+            throws IOException {
+        try {
+            return formato == Formato.CSV ? csv(saida, colunas, linhas) : ndjson(saida, colunas, linhas);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long csv(OutputStream saida, List<String> colunas, Stream<Object[]> linhas) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write(String.join(",", colunas));
+        writer.write("\r\n");
+        long total = linhas.mapToLong(linha -> {
+            try {
+                for (int i = 0; i < linha.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(campoCsv(linha[i]));
+                }
+                writer.write("\r\n");
+                return 1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).sum();
+        writer.flush();
+        return total;
+    }
+
+    private static long ndjson(OutputStream saida, List<String> colunas, Stream<Object[]> linhas) throws IOException {
+        JsonGenerator json = JSON.createGenerator(saida, JsonEncoding.UTF8);
+        long total = linhas.mapToLong(linha -> {
+            try {
+                json.writeStartObject();
+                for (int i = 0; i < linha.length; i++) {
+                    campoJson(json, colunas.get(i), linha[i]);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                return 1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).sum();
+        json.flush();
+        return total;
+    }
+
+    // RFC 4180: entre aspas quando tem vírgula, aspas ou quebra de linha
+    private static String campoCsv(Object valor) {
+        String texto = texto(valor);
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+
+    private static void campoJson(JsonGenerator json, String nome, Object valor) throws IOException {
+        if (valor == null) {
+            json.writeNullField(nome);
+        } else if (valor instanceof BigDecimal decimal) {
+            json.writeNumberField(nome, decimal);
+        } else if (valor instanceof Number numero) {
+            json.writeNumberField(nome, numero.longValue());
+        } else if (valor instanceof Boolean booleano) {
+            json.writeBooleanField(nome, booleano);
+        } else {
+            json.writeStringField(nome, texto(valor));
+        }
+    }
+
+    // Datas em ISO-8601, valores sem notação científica, enums pelo nome
+    private static String texto(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (valor instanceof Enum<?> constante) {
+            return constante.name();
+        }
+        return valor.toString();
+    }
+}
@@ -0,0 +1,344 @@
+package com.odontosimples.service;
+
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.repository.UsuarioRepository;
+import com.odontosimples.util.TextoBusca;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Caminho rápido para as checagens de unicidade (CPF de paciente, e-mail de usuário).
+ *
+ * Cada campo tem um filtro de Bloom com contadores, carregado na subida da aplicação com
+ * todos os valores gravados. Quando o filtro não tem o valor, ele com certeza é novo e a
+ * resposta sai da memória; quando talvez tenha, a consulta existsBy... ao banco decide. A
+ * restrição UNIQUE de cada coluna continua valendo para o que escapar daqui (gravações
+ * concorrentes, outros nós, janela de reconstrução): os services gravam com saveAndFlush e
+ * traduzem a violação (violou) para a mesma mensagem da checagem.
+ *
+ * Valores novos entram no filtro assim que gravados; o valor substituído só sai depois do
+ * commit, para um rollback não deixar o filtro dizer "novo" para algo que está no banco.
+ * As métricas unicidade.* mostram a taxa de falso positivo observada e a estimada.
+ */
+@Component
+public class FiltroUnicidade {
+
+  private static final Logger log = LoggerFactory.getLogger(FiltroUnicidade.class);
+
+  private static final double TAXA_FALSO_POSITIVO = 0.01;
+  private static final int CAPACIDADE_MINIMA = 10_000;
+  // Capacidade sobre o volume carregado; ao passar dela o filtro é reconstruído maior
+  private static final int FOLGA = 2;
+
+  public enum Campo {
+    CPF_PACIENTE("paciente.cpf", PacienteRepository.CONSTRAINT_CPF),
+    EMAIL_USUARIO("usuario.email", UsuarioRepository.CONSTRAINT_EMAIL);
+
+    private final String nome;
+    private final String constraint;
+
+    Campo(String nome, String constraint) {
+      this.nome = nome;
+      this.constraint = constraint;
+    }
+  }
+
+  private final Map<Campo, Filtro> filtros = new EnumMap<>(Campo.class);
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @Autowired
+  private UsuarioRepository usuarioRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @PostConstruct
+  void registrarMetricas() {
+    for (Campo campo : Campo.values()) {
+      Filtro filtro = new Filtro(
+          verificacoes(campo, "novo"), verificacoes(campo, "existente"), verificacoes(campo, "falso_positivo"));
+      filtros.put(campo, filtro);
+
+      // falsos positivos / valores que não estavam no banco (os que o filtro deveria ter descartado)
+      Gauge.builder("unicidade.taxa.falso.positivo", filtro, Filtro::taxaObservada)
+          .description("Fração das checagens de valor novo que precisaram ir ao banco")
+          .tag("campo", campo.nome).register(meterRegistry);
+      Gauge.builder("unicidade.taxa.falso.positivo.estimada", filtro, Filtro::taxaEstimada)
+          .description("Taxa de falso positivo esperada pela ocupação atual do filtro")
+          .tag("campo", campo.nome).register(meterRegistry);
+      Gauge.builder("unicidade.elementos", filtro, Filtro::elementos)
+          .tag("campo", campo.nome).register(meterRegistry);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void carregar() {
+    for (Campo campo : Campo.values()) {
+      reconstruir(campo);
+    }
+  }
+
+  // Se o valor já está gravado; `banco` é a consulta existsBy..., feita só quando o filtro não descarta
+  public boolean existe(Campo campo, String valor, Predicate<String> banco) {
+    String chave = chave(campo, valor);
+    Filtro filtro = filtros.get(campo);
+    ContadorBloom bloom = filtro.bloom;
+    if (chave == null || bloom == null) {
+      return banco.test(valor);
+    }
+    if (!bloom.talvezContem(chave)) {
+      filtro.novos.increment();
+      return false;
+    }
+    boolean existe = banco.test(valor);
+    (existe ? filtro.existentes : filtro.falsosPositivos).increment();
+    return existe;
+  }
+
+  // Se a falha do save foi a restrição UNIQUE do campo: o valor passou pelo filtro como novo
+  // mas já estava no banco (gravado por outro nó ou durante a reconstrução)
+  public static boolean violou(Campo campo, DataIntegrityViolationException e) {
+    Throwable causa = e.getMostSpecificCause();
+    return causa.getMessage() != null && causa.getMessage().contains(campo.constraint);
+  }
+
+  // Valor gravado (chamado logo depois do save)
+  public void registrar(Campo campo, String valor) {
+    String chave = chave(campo, valor);
+    if (chave == null) {
+      return;
+    }
+    Filtro filtro = filtros.get(campo);
+    boolean cheio;
+    synchronized (filtro) {
+      if (filtro.bloom == null) {
+        return;
+      }
+      filtro.bloom.adicionar(chave);
+      if (filtro.pendentes != null) {
+        filtro.pendentes.add(chave);
+      }
+      cheio = filtro.bloom.cheio();
+    }
+    if (cheio && filtro.reconstruindo.compareAndSet(false, true)) {
+      CompletableFuture.runAsync(() -> reconstruir(campo));
+    }
+  }
+
+  // Valor trocado por outro: o novo entra já, o anterior sai só se a transação confirmar
+  public void substituir(Campo campo, String anterior, String novo) {
+    registrar(campo, novo);
+    String chaveAnterior = chave(campo, anterior);
+    if (chaveAnterior == null || chaveAnterior.equals(chave(campo, novo))) {
+      return;
+    }
+    Runnable remover = () -> {
+      Filtro filtro = filtros.get(campo);
+      synchronized (filtro) {
+        if (filtro.bloom != null) {
+          filtro.bloom.remover(chaveAnterior);
+        }
+      }
+    };
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      remover.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        remover.run();
+      }
+    });
+  }
+
+  // Refaz o filtro a partir do banco; o que for registrado enquanto isso é reaplicado no novo
+  private void reconstruir(Campo campo) {
+    Filtro filtro = filtros.get(campo);
+    synchronized (filtro) {
+      filtro.pendentes = new ArrayList<>();
+    }
+    try {
+      List<String> valores = campo == Campo.CPF_PACIENTE
+          ? pacienteRepository.findTodosCpfs()
+          : usuarioRepository.findTodosEmails();
+      ContadorBloom novo = new ContadorBloom(Math.max(CAPACIDADE_MINIMA, valores.size() * FOLGA), TAXA_FALSO_POSITIVO);
+      for (String valor : valores) {
+        String chave = chave(campo, valor);
+        if (chave != null) {
+          novo.adicionar(chave);
+        }
+      }
+      synchronized (filtro) {
+        filtro.pendentes.forEach(novo::adicionar);
+        filtro.bloom = novo;
+      }
+      log.info("Filtro de unicidade {} carregado: {} valores, capacidade {}", campo.nome, valores.size(),
+          novo.capacidade);
+    } catch (RuntimeException e) {
+      log.error("Falha ao carregar o filtro de unicidade {}; as checagens vão direto ao banco", campo.nome, e);
+    } finally {
+      synchronized (filtro) {
+        filtro.pendentes = null;
+      }
+      filtro.reconstruindo.set(false);
+    }
+  }
+
+  private Counter verificacoes(Campo campo, String resultado) {
+    return Counter.builder("unicidade.verificacoes")
+        .description("Checagens de unicidade pelo resultado: novo (só memória), existente ou falso_positivo")
+        .tag("campo", campo.nome).tag("resultado", resultado)
+        .register(meterRegistry);
+  }
+
+  // Mesma normalização nos dois sentidos; só pode juntar valores, nunca separar iguais
+  private static String chave(Campo campo, String valor) {
+    if (valor == null || valor.isBlank()) {
+      return null;
+    }
+    return campo == Campo.CPF_PACIENTE ? TextoBusca.digitos(valor) : valor.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Filtro {
+
+    private volatile ContadorBloom bloom;
+    // Valores registrados durante uma reconstrução (null fora dela)
+    private List<String> pendentes;
+    private final AtomicBoolean reconstruindo = new AtomicBoolean();
+
+    private final Counter novos;
+    private final Counter existentes;
+    private final Counter falsosPositivos;
+
+    private Filtro(Counter novos, Counter existentes, Counter falsosPositivos) {
+      this.novos = novos;
+      this.existentes = existentes;
+      this.falsosPositivos = falsosPositivos;
+    }
+
+    private double taxaObservada() {
+      double negativos = novos.count() + falsosPositivos.count();
+      return negativos == 0 ? 0.0 : falsosPositivos.count() / negativos;
+    }
+
+    private double taxaEstimada() {
+      ContadorBloom atual = bloom;
+      return atual != null ? atual.taxaEstimada() : 0.0;
+    }
+
+    private double elementos() {
+      ContadorBloom atual = bloom;
+      return atual != null ? atual.elementos : 0;
+    }
+  }
+
+  // Filtro de Bloom com contadores de 8 bits (saturam em 255 e deixam de ser decrementados),
+  // para permitir remover um valor; posições por hash duplo sobre um hash de 64 bits
+  static final class ContadorBloom {
+
+    private final byte[] contadores;
+    private final int funcoes;
+    private final int capacidade;
+    private int elementos;
+
+    ContadorBloom(int capacidade, double taxaFalsoPositivo) {
+      this.capacidade = capacidade;
+      int posicoes = (int) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+      this.contadores = new byte[posicoes];
+      this.funcoes = Math.max(1, (int) Math.round((double) posicoes / capacidade * Math.log(2)));
+    }
+
+    synchronized void adicionar(String valor) {
+      long h1 = hash(valor);
+      long h2 = misturar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+      for (int i = 0; i < funcoes; i++) {
+        int posicao = posicao(h1, h2, i);
+        if (contadores[posicao] != (byte) 0xFF) {
+          contadores[posicao]++;
+        }
+      }
+      elementos++;
+    }
+
+    synchronized void remover(String valor) {
+      if (!talvezContem(valor)) {
+        return;
+      }
+      long h1 = hash(valor);
+      long h2 = misturar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+      for (int i = 0; i < funcoes; i++) {
+        int posicao = posicao(h1, h2, i);
+        if (contadores[posicao] != (byte) 0xFF) {
+          contadores[posicao]--;
+        }
+      }
+      elementos--;
+    }
+
+    synchronized boolean talvezContem(String valor) {
+      long h1 = hash(valor);
+      long h2 = misturar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+      for (int i = 0; i < funcoes; i++) {
+        if (contadores[posicao(h1, h2, i)] == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    synchronized boolean cheio() {
+      return elementos > capacidade;
+    }
+
+    // (1 - e^(-k·n/m))^k
+    synchronized double taxaEstimada() {
+      return Math.pow(1 - Math.exp(-(double) funcoes * elementos / contadores.length), funcoes);
+    }
+
+    private int posicao(long h1, long h2, int i) {
+      return (int) Math.floorMod(h1 + i * h2, (long) contadores.length);
+    }
+
+    // FNV-1a de 64 bits sobre os caracteres, com a mistura final do MurmurHash3
+    private static long hash(String valor) {
+      long h = 0xCBF29CE484222325L;
+      for (int i = 0; i < valor.length(); i++) {
+        h ^= valor.charAt(i);
+        h *= 0x100000001B3L;
+      }
+      return misturar(h);
+    }
+
+    private static long misturar(long h) {
+      h ^= h >>> 33;
+      h *= 0xFF51AFD7ED558CCDL;
+      h ^= h >>> 33;
+      h *= 0xC4CEB9FE1A85EC53L;
+      h ^= h >>> 33;
+      return h;
+    }
+  }
+}
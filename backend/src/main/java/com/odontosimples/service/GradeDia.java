@@ -0,0 +1,112 @@
+package com.odontosimples.service;
+
+import com.odontosimples.entity.Dentista;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Expediente de um dentista em um dia, dividido em unidades de 5 minutos.
+ * Cada bit marcado é uma unidade ocupada por consulta.
+ */
+public class GradeDia {
+
+  public static final int UNIDADE_MINUTOS = 5;
+
+  private final LocalDateTime expedienteInicio;
+  private final int unidades;
+  private final BitSet ocupado;
+
+  private GradeDia(LocalDateTime expedienteInicio, LocalDateTime expedienteFim) {
+    this.expedienteInicio = expedienteInicio;
+    this.unidades = (int) (Duration.between(expedienteInicio, expedienteFim).toMinutes() / UNIDADE_MINUTOS);
+    this.ocupado = new BitSet(unidades);
+  }
+
+  // Retorna null quando o dentista não atende no dia
+  public static GradeDia expediente(Dentista dentista, LocalDate dia) {
+    if (dentista.getHorarioInicio() == null || dentista.getHorarioFim() == null
+        || !dentista.getHorarioFim().isAfter(dentista.getHorarioInicio())
+        || !dentista.trabalhaNodia(dia.getDayOfWeek().getValue())) {
+      return null;
+    }
+    return new GradeDia(dia.atTime(dentista.getHorarioInicio()), dia.atTime(dentista.getHorarioFim()));
+  }
+
+  public LocalDateTime getExpedienteInicio() {
+    return expedienteInicio;
+  }
+
+  public LocalDateTime getExpedienteFim() {
+    return expedienteInicio.plusMinutes((long) unidades * UNIDADE_MINUTOS);
+  }
+
+  public int getUnidades() {
+    return unidades;
+  }
+
+  public int getUnidadesOcupadas() {
+    return ocupado.cardinality();
+  }
+
+  // Marca [inicio, fim) como ocupado, recortado ao expediente
+  public void ocupar(LocalDateTime inicio, LocalDateTime fim) {
+    long de = Math.floorDiv(Duration.between(expedienteInicio, inicio).toMinutes(), UNIDADE_MINUTOS);
+    long ate = -Math.floorDiv(-Duration.between(expedienteInicio, fim).toMinutes(), UNIDADE_MINUTOS);
+    int primeira = (int) Math.max(0, de);
+    int ultima = (int) Math.min(unidades, ate);
+    if (primeira < ultima) {
+      ocupado.set(primeira, ultima);
+    }
+  }
+
+  public boolean livre(int unidade, int quantidade) {
+    if (unidade < 0 || unidade + quantidade > unidades) {
+      return false;
+    }
+    int proximaOcupada = ocupado.nextSetBit(unidade);
+    return proximaOcupada < 0 || proximaOcupada >= unidade + quantidade;
+  }
+
+  public boolean ocupada(int unidade) {
+    return ocupado.get(unidade);
+  }
+
+  public int unidadeDe(LocalDateTime dataHora) {
+    return (int) Math.floorDiv(Duration.between(expedienteInicio, dataHora).toMinutes(), UNIDADE_MINUTOS);
+  }
+
+  public LocalDateTime horarioDa(int unidade) {
+    return expedienteInicio.plusMinutes((long) unidade * UNIDADE_MINUTOS);
+  }
+
+  // Inícios livres a cada passoMinutos desde o começo do expediente
+  public List<LocalDateTime> iniciosLivres(int passoMinutos, int duracaoMinutos, LocalDateTime naoAntesDe) {
+    int passo = Math.max(1, passoMinutos / UNIDADE_MINUTOS);
+    int quantidade = unidadesPara(duracaoMinutos);
+
+    List<LocalDateTime> inicios = new ArrayList<>();
+    for (int unidade = 0; unidade + quantidade <= unidades; unidade += passo) {
+      int proximaOcupada = ocupado.nextSetBit(unidade);
+      if (proximaOcupada >= 0 && proximaOcupada < unidade + quantidade) {
+        // pula direto para o primeiro passo depois do bloco ocupado
+        int fimOcupado = ocupado.nextClearBit(proximaOcupada);
+        unidade += ((fimOcupado - unidade - 1) / passo) * passo;
+        continue;
+      }
+      LocalDateTime inicio = horarioDa(unidade);
+      if (naoAntesDe == null || !inicio.isBefore(naoAntesDe)) {
+        inicios.add(inicio);
+      }
+    }
+    return inicios;
+  }
+
+  public static int unidadesPara(int minutos) {
+    return (minutos + UNIDADE_MINUTOS - 1) / UNIDADE_MINUTOS;
+  }
+}
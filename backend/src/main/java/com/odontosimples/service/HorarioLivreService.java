@@ -0,0 +1,68 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.HorarioLivreDTO;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.repository.DentistaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class HorarioLivreService {
+
+    public static final int MAX_DIAS = 7;
+
+    @Autowired
+    private DentistaRepository dentistaRepository;
+
+    @Autowired
+    private AgendaIndex agendaIndex;
+
+    // Todos os horários livres de [data, data + dias) para os dentistas ativos
+    // (opcionalmente filtrados por especialidade). A agenda vem do índice em memória,
+    // então a única consulta ao banco é a lista de dentistas.
+    public List<HorarioLivreDTO> buscarHorariosLivres(LocalDate data, int dias, String especialidade, Integer duracao) {
+        if (dias < 1 || dias > MAX_DIAS) {
+            throw new RuntimeException("Período deve ter entre 1 e " + MAX_DIAS + " dias");
+        }
+
+        List<Dentista> dentistas = especialidade == null || especialidade.isBlank()
+                ? dentistaRepository.findByActiveTrue()
+                : dentistaRepository.findByEspecialidadeAndActiveTrue(especialidade);
+
+        LocalDateTime agora = LocalDateTime.now();
+
+        return dentistas.parallelStream()
+                .flatMap(dentista -> horariosDoDentista(dentista, data, dias, duracao, agora))
+                .sorted(Comparator.comparing(HorarioLivreDTO::getInicio)
+                        .thenComparing(HorarioLivreDTO::getDentistaNome))
+                .collect(Collectors.toList());
+    }
+
+    private Stream<HorarioLivreDTO> horariosDoDentista(Dentista dentista, LocalDate data, int dias,
+                                                      Integer duracao, LocalDateTime agora) {
+        int tempoConsulta = dentista.getTempoConsulta() != null ? dentista.getTempoConsulta() : 30;
+        int duracaoMinutos = duracao != null ? duracao : tempoConsulta;
+
+        return data.datesUntil(data.plusDays(dias))
+                .map(dia -> GradeDia.expediente(dentista, dia))
+                .filter(grade -> grade != null)
+                .flatMap(grade -> {
+                    for (AgendaIndex.Intervalo intervalo : agendaIndex.intervalos(dentista.getId(),
+                            grade.getExpedienteInicio(), grade.getExpedienteFim())) {
+                        grade.ocupar(intervalo.inicio(), intervalo.fim());
+                    }
+                    return grade.iniciosLivres(tempoConsulta, duracaoMinutos, agora).stream()
+                            .map(inicio -> new HorarioLivreDTO(dentista.getId(), dentista.getNome(),
+                                    inicio, inicio.plusMinutes(duracaoMinutos)));
+                });
+    }
+}
@@ -0,0 +1,210 @@
+package com.odontosimples.service;
+
+import com.odontosimples.repository.ConsultaRepository;
+import com.odontosimples.repository.LembreteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia por e-mail o lembrete de confirmação das consultas AGENDADAS das próximas 24h.
+ *
+ * A cada execução percorre as consultas em páginas por (dataHora, id), cada página numa
+ * consulta curta ao banco, sem transação aberta durante os envios. Os lembretes de uma
+ * página são reservados de uma vez em lembretes_enviados e só os reservados por este nó
+ * são enviados, num pool limitado de threads com novas tentativas em caso de falha.
+ */
+@Service
+public class LembreteConfirmacaoService {
+
+  private static final Logger log = LoggerFactory.getLogger(LembreteConfirmacaoService.class);
+
+  static final String TIPO = "CONFIRMACAO";
+
+  private static final int TENTATIVAS_POR_ENVIO = 3;
+  private static final long ESPERA_ENTRE_TENTATIVAS_MS = 500;
+  // Execuções que podem retomar um lembrete que falhou
+  private static final int MAX_EXECUCOES = 3;
+
+  private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+  private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+  @Autowired
+  private ConsultaRepository consultaRepository;
+
+  @Autowired
+  private LembreteRepository lembreteRepository;
+
+  @Autowired
+  private JavaMailSender mailSender;
+
+  @Value("${app.lembretes.habilitado:true}")
+  private boolean habilitado;
+
+  @Value("${app.lembretes.antecedencia-horas:24}")
+  private int antecedenciaHoras;
+
+  @Value("${app.lembretes.tamanho-pagina:500}")
+  private int tamanhoPagina;
+
+  @Value("${app.lembretes.concorrencia:8}")
+  private int concorrencia;
+
+  @Value("${app.lembretes.remetente:nao-responda@odontosimples.com}")
+  private String remetente;
+
+  @Value("${app.lembretes.assunto:Lembrete de consulta}")
+  private String assunto;
+
+  @Value("classpath:templates/email/lembrete-confirmacao.txt")
+  private Resource modelo;
+
+  private String textoModelo;
+  private ExecutorService envio;
+  private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+  @PostConstruct
+  void iniciar() throws IOException {
+    textoModelo = modelo.getContentAsString(StandardCharsets.UTF_8);
+    // Fila curta e CallerRunsPolicy: se o SMTP ficar lento, a leitura das páginas espera
+    // em vez de acumular milhares de e-mails na memória
+    envio = new ThreadPoolExecutor(concorrencia, concorrencia, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(concorrencia * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  @PreDestroy
+  void encerrar() {
+    envio.shutdown();
+  }
+
+  @Scheduled(fixedDelayString = "${app.lembretes.intervalo-ms:300000}",
+             initialDelayString = "${app.lembretes.atraso-inicial-ms:60000}")
+  public void agendado() {
+    if (habilitado) {
+      despachar();
+    }
+  }
+
+  public Resultado despachar() {
+    if (!emExecucao.compareAndSet(false, true)) {
+      return new Resultado(0, 0, 0);
+    }
+    try {
+      LocalDateTime agora = LocalDateTime.now();
+      LocalDateTime limite = agora.plusHours(antecedenciaHoras);
+      AtomicInteger enviados = new AtomicInteger();
+      AtomicInteger falhas = new AtomicInteger();
+      int ignorados = 0;
+      List<CompletableFuture<Void>> pendentes = new ArrayList<>();
+
+      List<Object[]> pagina = consultaRepository.findConsultasParaConfirmacao(
+          agora, limite, PageRequest.of(0, tamanhoPagina));
+      while (!pagina.isEmpty()) {
+        Map<Long, LocalDateTime> horarios = new LinkedHashMap<>();
+        for (Object[] linha : pagina) {
+          horarios.put((Long) linha[0], (LocalDateTime) linha[1]);
+        }
+        Set<Long> reservados = lembreteRepository.reservar(TIPO, horarios, MAX_EXECUCOES);
+        ignorados += pagina.size() - reservados.size();
+
+        for (Object[] linha : pagina) {
+          if (reservados.contains((Long) linha[0])) {
+            pendentes.add(CompletableFuture.runAsync(() -> {
+              if (enviar(linha)) {
+                enviados.incrementAndGet();
+              } else {
+                falhas.incrementAndGet();
+              }
+            }, envio));
+          }
+        }
+
+        Object[] ultima = pagina.get(pagina.size() - 1);
+        pagina = consultaRepository.findConsultasParaConfirmacaoApos(agora, limite,
+            (LocalDateTime) ultima[1], (Long) ultima[0], PageRequest.of(0, tamanhoPagina));
+      }
+
+      CompletableFuture.allOf(pendentes.toArray(new CompletableFuture<?>[0])).join();
+      Resultado resultado = new Resultado(enviados.get(), falhas.get(), ignorados);
+      if (resultado.enviados() > 0 || resultado.falhas() > 0) {
+        log.info("Lembretes de confirmação: {} enviados, {} falhas, {} já tratados",
+            resultado.enviados(), resultado.falhas(), resultado.ignorados());
+      }
+      return resultado;
+    } finally {
+      emExecucao.set(false);
+    }
+  }
+
+  // linha: id, dataHora, nome e email do paciente, nome do dentista
+  private boolean enviar(Object[] linha) {
+    Long consultaId = (Long) linha[0];
+    LocalDateTime dataHora = (LocalDateTime) linha[1];
+
+    SimpleMailMessage mensagem = new SimpleMailMessage();
+    mensagem.setFrom(remetente);
+    mensagem.setTo((String) linha[3]);
+    mensagem.setSubject(assunto);
+    mensagem.setText(textoModelo
+        .replace("{paciente}", (String) linha[2])
+        .replace("{dentista}", (String) linha[4])
+        .replace("{data}", dataHora.format(FORMATO_DATA))
+        .replace("{hora}", dataHora.format(FORMATO_HORA)));
+
+    MailException erro = null;
+    for (int tentativa = 1; tentativa <= TENTATIVAS_POR_ENVIO; tentativa++) {
+      try {
+        mailSender.send(mensagem);
+        lembreteRepository.marcarEnviado(TIPO, consultaId, dataHora);
+        return true;
+      } catch (MailException e) {
+        erro = e;
+        if (tentativa < TENTATIVAS_POR_ENVIO && !aguardar(ESPERA_ENTRE_TENTATIVAS_MS << (tentativa - 1))) {
+          break;
+        }
+      }
+    }
+    log.warn("Falha ao enviar lembrete da consulta {}: {}", consultaId, erro.getMessage());
+    lembreteRepository.marcarFalha(TIPO, consultaId, dataHora, erro.getMessage());
+    return false;
+  }
+
+  private static boolean aguardar(long ms) {
+    try {
+      Thread.sleep(ms);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  public record Resultado(int enviados, int falhas, int ignorados) {}
+}
@@ -0,0 +1,244 @@
+package com.odontosimples.service;
+
+import com.odontosimples.entity.ListaEspera;
+import com.odontosimples.repository.ListaEsperaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Índice em memória da lista de espera.
+ *
+ * Há uma fila por dentista e uma por especialidade (pedidos sem dentista definido).
+ * Cada fila é indexada por dia: o pedido entra em todos os dias da sua janela, num
+ * conjunto ordenado por prioridade e antiguidade. Para um horário liberado basta olhar
+ * o dia do horário nas filas do dentista e das suas especialidades e pegar o primeiro
+ * pedido cujo período do dia e duração caibam, sem ir ao banco.
+ */
+@Component
+public class ListaEsperaIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(ListaEsperaIndex.class);
+
+  // Limite da janela de um pedido; mantém o índice por dia pequeno
+  public static final int MAX_DIAS_JANELA = 90;
+
+  private final Map<Long, Fila> porDentista = new HashMap<>();
+  private final Map<String, Fila> porEspecialidade = new HashMap<>();
+  private final Map<Long, Pedido> porId = new HashMap<>();
+  private LocalDate ultimoDescarte;
+
+  @Autowired
+  private ListaEsperaRepository listaEsperaRepository;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void carregar() {
+    List<Object[]> linhas = listaEsperaRepository.findAguardandoDesde(LocalDate.now());
+
+    synchronized (this) {
+      porDentista.clear();
+      porEspecialidade.clear();
+      porId.clear();
+      for (Object[] linha : linhas) {
+        inserir(new Pedido((Long) linha[0], (Long) linha[1], (Long) linha[2], chave((String) linha[3]),
+                (LocalDate) linha[4], (LocalDate) linha[5], (LocalTime) linha[6], (LocalTime) linha[7],
+                (Integer) linha[8], (Integer) linha[9], (LocalDateTime) linha[10]));
+      }
+    }
+    log.info("Lista de espera carregada: {} pedidos", porId.size());
+  }
+
+  public synchronized void adicionar(ListaEspera espera) {
+    Pedido pedido = new Pedido(espera.getId(), espera.getPaciente().getId(),
+            espera.getDentista() != null ? espera.getDentista().getId() : null, chave(espera.getEspecialidade()),
+            espera.getDataInicio(), espera.getDataFim(), espera.getHoraInicio(), espera.getHoraFim(),
+            espera.getDuracaoMinutos(), espera.getPrioridade(), espera.getCreatedAt());
+    inserir(pedido);
+    desfazerSeNaoConfirmar(() -> retirar(pedido.id()));
+  }
+
+  public synchronized void remover(Long esperaId) {
+    Pedido pedido = retirar(esperaId);
+    if (pedido != null) {
+      desfazerSeNaoConfirmar(() -> inserir(pedido));
+    }
+  }
+
+  // Pedido que o banco já não tem como aguardando: sai do índice quando a transação terminar,
+  // qualquer que seja o desfecho (o rollback de quem o encontrou não o torna válido de novo)
+  public synchronized void descartar(Long esperaId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      retirar(esperaId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        synchronized (ListaEsperaIndex.this) {
+          retirar(esperaId);
+        }
+      }
+    });
+  }
+
+  /**
+   * Melhor pedido para um horário liberado de {@code duracaoMinutos} a partir de {@code inicio}
+   * com o dentista informado: o de maior prioridade (e mais antigo) entre a fila do dentista e
+   * as das suas especialidades, cuja janela contenha o horário e cuja duração caiba nele.
+   */
+  public synchronized Optional<Pedido> melhorCandidato(Long dentistaId, Collection<String> especialidades,
+                                                       LocalDateTime inicio, int duracaoMinutos,
+                                                       Set<Long> ignorar) {
+    LocalDate dia = inicio.toLocalDate();
+    Pedido melhor = primeiroQueCabe(porDentista.get(dentistaId), dia, inicio, duracaoMinutos, ignorar);
+    for (String especialidade : especialidades) {
+      Pedido candidato = primeiroQueCabe(porEspecialidade.get(chave(especialidade)), dia, inicio,
+              duracaoMinutos, ignorar);
+      if (candidato != null && (melhor == null || Pedido.ORDEM.compare(candidato, melhor) < 0)) {
+        melhor = candidato;
+      }
+    }
+    return Optional.ofNullable(melhor);
+  }
+
+  public synchronized int tamanho() {
+    return porId.size();
+  }
+
+  // Descarta os dias que já passaram (e os pedidos cuja janela acabou); uma vez por dia
+  public synchronized void descartarAnterioresA(LocalDate hoje) {
+    if (hoje.equals(ultimoDescarte)) {
+      return;
+    }
+    ultimoDescarte = hoje;
+    List<Pedido> vencidos = new ArrayList<>();
+    for (Pedido pedido : porId.values()) {
+      if (pedido.dataFim().isBefore(hoje)) {
+        vencidos.add(pedido);
+      }
+    }
+    vencidos.forEach(pedido -> retirar(pedido.id()));
+    porDentista.values().forEach(fila -> fila.porDia.headMap(hoje).clear());
+    porEspecialidade.values().forEach(fila -> fila.porDia.headMap(hoje).clear());
+  }
+
+  private Pedido primeiroQueCabe(Fila fila, LocalDate dia, LocalDateTime inicio, int duracaoMinutos,
+                                 Set<Long> ignorar) {
+    if (fila == null) {
+      return null;
+    }
+    NavigableSet<Pedido> doDia = fila.porDia.get(dia);
+    if (doDia == null) {
+      return null;
+    }
+    // em ordem de prioridade: o primeiro que cabe é o melhor da fila
+    for (Pedido pedido : doDia) {
+      if (pedido.cabe(inicio, duracaoMinutos) && !ignorar.contains(pedido.id())) {
+        return pedido;
+      }
+    }
+    return null;
+  }
+
+  private void inserir(Pedido pedido) {
+    Fila fila = pedido.dentistaId() != null
+            ? porDentista.computeIfAbsent(pedido.dentistaId(), id -> new Fila())
+            : porEspecialidade.computeIfAbsent(pedido.especialidade(), e -> new Fila());
+    fila.adicionar(pedido);
+    porId.put(pedido.id(), pedido);
+  }
+
+  private Pedido retirar(Long esperaId) {
+    Pedido pedido = porId.remove(esperaId);
+    if (pedido == null) {
+      return null;
+    }
+    Fila fila = pedido.dentistaId() != null
+            ? porDentista.get(pedido.dentistaId())
+            : porEspecialidade.get(pedido.especialidade());
+    if (fila != null) {
+      fila.remover(pedido);
+    }
+    return pedido;
+  }
+
+  private void desfazerSeNaoConfirmar(Runnable desfazer) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          synchronized (ListaEsperaIndex.this) {
+            desfazer.run();
+          }
+        }
+      }
+    });
+  }
+
+  private static String chave(String especialidade) {
+    return especialidade != null ? especialidade.trim().toLowerCase(Locale.ROOT) : null;
+  }
+
+  public record Pedido(Long id, Long pacienteId, Long dentistaId, String especialidade,
+                       LocalDate dataInicio, LocalDate dataFim, LocalTime horaInicio, LocalTime horaFim,
+                       Integer duracaoMinutos, Integer prioridade, LocalDateTime criadoEm) {
+
+    // Maior prioridade primeiro; entre iguais, quem espera há mais tempo
+    static final Comparator<Pedido> ORDEM = Comparator
+            .comparing(Pedido::prioridade, Comparator.reverseOrder())
+            .thenComparing(Pedido::criadoEm, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Pedido::id);
+
+    // O pedido cabe no horário liberado se a sua duração couber nele e dentro do período do dia aceito
+    boolean cabe(LocalDateTime inicio, int duracaoLiberada) {
+      if (duracaoMinutos > duracaoLiberada) {
+        return false;
+      }
+      LocalDateTime fim = inicio.plusMinutes(duracaoMinutos);
+      return !inicio.toLocalTime().isBefore(horaInicio)
+          && fim.toLocalDate().equals(inicio.toLocalDate())
+          && !fim.toLocalTime().isAfter(horaFim);
+    }
+  }
+
+  private static class Fila {
+
+    private final TreeMap<LocalDate, NavigableSet<Pedido>> porDia = new TreeMap<>();
+
+    void adicionar(Pedido pedido) {
+      for (LocalDate dia = pedido.dataInicio(); !dia.isAfter(pedido.dataFim()); dia = dia.plusDays(1)) {
+        porDia.computeIfAbsent(dia, d -> new TreeSet<>(Pedido.ORDEM)).add(pedido);
+      }
+    }
+
+    void remover(Pedido pedido) {
+      for (NavigableSet<Pedido> doDia : porDia.subMap(pedido.dataInicio(), true, pedido.dataFim(), true).values()) {
+        doDia.remove(pedido);
+      }
+    }
+  }
+}
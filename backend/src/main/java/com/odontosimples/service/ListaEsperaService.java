@@ -0,0 +1,131 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.ListaEsperaDTO;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.ListaEspera;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.ListaEsperaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ListaEsperaService {
+
+    @Autowired
+    private ListaEsperaRepository listaEsperaRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private DentistaRepository dentistaRepository;
+
+    @Autowired
+    private ConsultaService consultaService;
+
+    @Autowired
+    private ListaEsperaIndex listaEsperaIndex;
+
+    public ListaEsperaDTO incluir(ListaEsperaDTO dados) {
+        Paciente paciente = pacienteRepository.findById(dados.getPacienteId())
+                .orElseThrow(() -> new RuntimeException("Paciente não encontrado"));
+
+        Dentista dentista = null;
+        if (dados.getDentistaId() != null) {
+            dentista = dentistaRepository.findById(dados.getDentistaId())
+                    .orElseThrow(() -> new RuntimeException("Dentista não encontrado"));
+        } else if (dados.getEspecialidade() == null || dados.getEspecialidade().isBlank()) {
+            throw new RuntimeException("Informe o dentista ou a especialidade");
+        }
+
+        if (dados.getDataFim().isBefore(dados.getDataInicio()) || dados.getDataFim().isBefore(LocalDate.now())) {
+            throw new RuntimeException("Período de espera inválido");
+        }
+        if (ChronoUnit.DAYS.between(dados.getDataInicio(), dados.getDataFim()) >= ListaEsperaIndex.MAX_DIAS_JANELA) {
+            throw new RuntimeException("Período de espera deve ter no máximo " + ListaEsperaIndex.MAX_DIAS_JANELA + " dias");
+        }
+        if (!dados.getHoraFim().isAfter(dados.getHoraInicio())) {
+            throw new RuntimeException("Horário final deve ser após o inicial");
+        }
+
+        ListaEspera espera = new ListaEspera();
+        espera.setPaciente(paciente);
+        espera.setDentista(dentista);
+        espera.setEspecialidade(dados.getEspecialidade());
+        espera.setDataInicio(dados.getDataInicio());
+        espera.setDataFim(dados.getDataFim());
+        espera.setHoraInicio(dados.getHoraInicio());
+        espera.setHoraFim(dados.getHoraFim());
+        if (dados.getDuracaoMinutos() != null) {
+            espera.setDuracaoMinutos(dados.getDuracaoMinutos());
+        }
+        if (dados.getPrioridade() != null) {
+            espera.setPrioridade(dados.getPrioridade());
+        }
+        espera.setObservacoes(dados.getObservacoes());
+
+        ListaEspera esperaSalva = listaEsperaRepository.save(espera);
+        listaEsperaIndex.adicionar(esperaSalva);
+        return new ListaEsperaDTO(esperaSalva);
+    }
+
+    public void cancelar(Long id) {
+        ListaEspera espera = listaEsperaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Pedido da lista de espera não encontrado"));
+        if (!espera.isAguardando()) {
+            throw new RuntimeException("Pedido não está mais aguardando");
+        }
+        espera.cancelar();
+        listaEsperaRepository.save(espera);
+        listaEsperaIndex.remover(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ListaEsperaDTO> listarAguardando() {
+        return listaEsperaRepository.findAguardando().stream()
+                .map(ListaEsperaDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ListaEsperaDTO> listarPorPaciente(Long pacienteId) {
+        return listaEsperaRepository.findByPacienteId(pacienteId).stream()
+                .map(ListaEsperaDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    // Agenda o paciente do pedido no horário liberado, em transação própria: se o horário
+    // já foi tomado, só esta tentativa é desfeita e o próximo candidato pode ser tentado.
+    // A consulta fica AGENDADA até o paciente confirmar.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Consulta ofertar(Long esperaId, Long dentistaId, LocalDateTime dataHora) {
+        ListaEspera espera = listaEsperaRepository.findById(esperaId)
+                .orElseThrow(() -> new RuntimeException("Pedido da lista de espera não encontrado"));
+        if (!espera.isAguardando()) {
+            listaEsperaIndex.descartar(esperaId);
+            throw new RuntimeException("Pedido não está mais aguardando");
+        }
+
+        Consulta consulta = new Consulta(espera.getPaciente(), dentistaRepository.getReferenceById(dentistaId), dataHora);
+        consulta.setDuracaoMinutos(espera.getDuracaoMinutos());
+        consulta.setObservacoes("Encaixe da lista de espera");
+        Consulta consultaSalva = consultaService.agendarConsulta(consulta);
+
+        espera.ofertar(consultaSalva);
+        listaEsperaRepository.save(espera);
+        listaEsperaIndex.remover(esperaId);
+        return consultaSalva;
+    }
+}
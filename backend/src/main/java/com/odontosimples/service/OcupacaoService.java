@@ -0,0 +1,208 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.OcupacaoDentistaDTO;
+import com.odontosimples.dto.OcupacaoMesDTO;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.repository.ConsultaRepository;
+import com.odontosimples.repository.DentistaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class OcupacaoService {
+
+    // Dentistas por tarefa antes de parar de dividir
+    private static final int LIMIAR_DENTISTAS = 4;
+
+    @Autowired
+    private DentistaRepository dentistaRepository;
+
+    @Autowired
+    private ConsultaRepository consultaRepository;
+
+    // Ocupação do mês por dentista, por dia e por hora. São só duas idas ao banco (dentistas e
+    // a agenda ocupada do mês de todos eles); o cálculo das grades é dividido entre os
+    // dentistas num fork-join e os mapas de calor parciais são somados na junção.
+    public OcupacaoMesDTO calcular(YearMonth mes, String especialidade) {
+        return calcular(mes, especialidade, LIMIAR_DENTISTAS);
+    }
+
+    // Com limiarDentistas >= número de dentistas o cálculo não se divide (sequencial)
+    OcupacaoMesDTO calcular(YearMonth mes, String especialidade, int limiarDentistas) {
+        List<Dentista> dentistas = especialidade == null || especialidade.isBlank()
+                ? dentistaRepository.findByActiveTrue()
+                : dentistaRepository.findByEspecialidadeAndActiveTrue(especialidade);
+        if (dentistas.isEmpty()) {
+            return new OcupacaoMesDTO(mes, especialidade, 0.0, List.of(), Map.of());
+        }
+
+        List<Long> dentistaIds = dentistas.stream().map(Dentista::getId).collect(Collectors.toList());
+        // um dia de folga cobre consultas que começam antes do mês e avançam nele
+        Map<Long, List<Object[]>> agenda = consultaRepository.findIntervalosDaOcupacao(dentistaIds,
+                        mes.atDay(1).minusDays(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay()).stream()
+                .collect(Collectors.groupingBy(linha -> (Long) linha[1]));
+
+        Parcial total = ForkJoinPool.commonPool().invoke(new CalculoOcupacao(dentistas, agenda, mes, limiarDentistas));
+
+        Map<DayOfWeek, Map<Integer, Double>> mapaCalor = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek diaSemana : DayOfWeek.values()) {
+            Map<Integer, Double> horas = percentuaisPorHora(total.ocupadas[diaSemana.ordinal()],
+                    total.expediente[diaSemana.ordinal()]);
+            if (!horas.isEmpty()) {
+                mapaCalor.put(diaSemana, horas);
+            }
+        }
+        return new OcupacaoMesDTO(mes, especialidade, percentual(soma(total.ocupadas), soma(total.expediente)),
+                total.dentistas, mapaCalor);
+    }
+
+    private static OcupacaoDentistaDTO ocupacaoDoDentista(Dentista dentista, List<Object[]> agenda,
+                                                          YearMonth mes, Parcial parcial) {
+        List<Object[]> consultas = agenda != null ? agenda : Collections.emptyList();
+        Map<LocalDate, Double> dias = new TreeMap<>();
+        long[] ocupadasPorHora = new long[24];
+        long[] expedientePorHora = new long[24];
+        long ocupadasMes = 0;
+        long expedienteMes = 0;
+
+        Map<LocalDate, List<Object[]>> porDia = new HashMap<>();
+        for (Object[] linha : consultas) {
+            // em cada dia que a consulta alcança; a grade do dia recorta ao expediente
+            LocalDateTime inicio = (LocalDateTime) linha[2];
+            LocalDateTime fim = inicio.plusMinutes(duracao(linha));
+            LocalDate ultimoDia = fim.isAfter(inicio) ? fim.minusNanos(1).toLocalDate() : inicio.toLocalDate();
+            for (LocalDate dia = inicio.toLocalDate(); !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+                porDia.computeIfAbsent(dia, d -> new ArrayList<>()).add(linha);
+            }
+        }
+
+        for (LocalDate dia = mes.atDay(1); !dia.isAfter(mes.atEndOfMonth()); dia = dia.plusDays(1)) {
+            GradeDia grade = GradeDia.expediente(dentista, dia);
+            if (grade == null) {
+                continue;
+            }
+            for (Object[] linha : porDia.getOrDefault(dia, Collections.emptyList())) {
+                LocalDateTime inicio = (LocalDateTime) linha[2];
+                grade.ocupar(inicio, inicio.plusMinutes(duracao(linha)));
+            }
+
+            int diaSemana = dia.getDayOfWeek().ordinal();
+            for (int unidade = 0; unidade < grade.getUnidades(); unidade++) {
+                int hora = grade.horarioDa(unidade).getHour();
+                expedientePorHora[hora]++;
+                parcial.expediente[diaSemana][hora]++;
+                if (grade.ocupada(unidade)) {
+                    ocupadasPorHora[hora]++;
+                    parcial.ocupadas[diaSemana][hora]++;
+                }
+            }
+            dias.put(dia, percentual(grade.getUnidadesOcupadas(), grade.getUnidades()));
+            ocupadasMes += grade.getUnidadesOcupadas();
+            expedienteMes += grade.getUnidades();
+        }
+
+        return new OcupacaoDentistaDTO(dentista.getId(), dentista.getNome(), percentual(ocupadasMes, expedienteMes),
+                dias, percentuaisPorHora(ocupadasPorHora, expedientePorHora));
+    }
+
+    private static int duracao(Object[] linha) {
+        return linha[3] != null ? (Integer) linha[3] : 0;
+    }
+
+    private static Map<Integer, Double> percentuaisPorHora(long[] ocupadas, long[] expediente) {
+        Map<Integer, Double> horas = new TreeMap<>();
+        for (int hora = 0; hora < 24; hora++) {
+            if (expediente[hora] > 0) {
+                horas.put(hora, percentual(ocupadas[hora], expediente[hora]));
+            }
+        }
+        return horas;
+    }
+
+    private static double percentual(long ocupadas, long total) {
+        return total == 0 ? 0.0 : Math.round(ocupadas * 1000.0 / total) / 10.0;
+    }
+
+    private static long soma(long[][] matriz) {
+        long soma = 0;
+        for (long[] linha : matriz) {
+            for (long valor : linha) {
+                soma += valor;
+            }
+        }
+        return soma;
+    }
+
+    // Resultado de um grupo de dentistas: as ocupações individuais e as unidades
+    // (ocupadas e de expediente) por dia da semana e hora
+    private static class Parcial {
+
+        private final List<OcupacaoDentistaDTO> dentistas = new ArrayList<>();
+        private final long[][] ocupadas = new long[7][24];
+        private final long[][] expediente = new long[7][24];
+
+        private Parcial somar(Parcial outra) {
+            dentistas.addAll(outra.dentistas);
+            for (int diaSemana = 0; diaSemana < 7; diaSemana++) {
+                for (int hora = 0; hora < 24; hora++) {
+                    ocupadas[diaSemana][hora] += outra.ocupadas[diaSemana][hora];
+                    expediente[diaSemana][hora] += outra.expediente[diaSemana][hora];
+                }
+            }
+            return this;
+        }
+    }
+
+    private static class CalculoOcupacao extends RecursiveTask<Parcial> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Dentista> dentistas;
+        private final Map<Long, List<Object[]>> agenda;
+        private final YearMonth mes;
+        private final int limiar;
+
+        private CalculoOcupacao(List<Dentista> dentistas, Map<Long, List<Object[]>> agenda, YearMonth mes,
+                                int limiar) {
+            this.dentistas = dentistas;
+            this.agenda = agenda;
+            this.mes = mes;
+            this.limiar = limiar;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (dentistas.size() <= limiar) {
+                Parcial parcial = new Parcial();
+                for (Dentista dentista : dentistas) {
+                    parcial.dentistas.add(ocupacaoDoDentista(dentista, agenda.get(dentista.getId()), mes, parcial));
+                }
+                return parcial;
+            }
+            int meio = dentistas.size() / 2;
+            CalculoOcupacao esquerda = new CalculoOcupacao(dentistas.subList(0, meio), agenda, mes, limiar);
+            CalculoOcupacao direita = new CalculoOcupacao(dentistas.subList(meio, dentistas.size()), agenda, mes, limiar);
+            esquerda.fork();
+            Parcial resultadoDireita = direita.compute();
+            // a esquerda vem primeiro, preservando a ordem dos dentistas
+            return esquerda.join().somar(resultadoDireita);
+        }
+    }
+}
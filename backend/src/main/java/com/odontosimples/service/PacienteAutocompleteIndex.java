@@ -0,0 +1,481 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.PacienteSugestaoDTO;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.util.TextoBusca;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Índice em memória para o autocompletar de pacientes na marcação de consultas.
+ *
+ * A base são arrays primitivos reconstruídos de tempos em tempos: os nomes normalizados
+ * em ordem alfabética e, para cada palavra de cada nome, uma entrada (posição do nome,
+ * deslocamento da palavra) ordenada pelo trecho do nome a partir dela. Um termo é buscado
+ * por busca binária nos dois arrays, sem criar strings além das sugestões devolvidas.
+ *
+ * Cadastros e alterações feitos depois da última reconstrução ficam numa camada incremental
+ * pequena, consultada junto com a base; quando ela cresce, a base é refeita numa thread
+ * própria, fora do monitor, e trocada junto com uma camada nova (só com o que mudou durante
+ * a reconstrução) numa única escrita, sem atrasar quem grava o paciente. O índice é
+ * carregado na subida da aplicação e atualizado pelo {@link PacienteService}; alterações
+ * feitas dentro de uma transação são desfeitas se ela não for confirmada.
+ */
+@Component
+public class PacienteAutocompleteIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(PacienteAutocompleteIndex.class);
+
+  public static final int MAX_SUGESTOES = 50;
+
+  // Alterações acumuladas na camada incremental antes de reconstruir a base
+  private static final int LIMITE_INCREMENTAL = 2_000;
+
+  // Partículas não viram ponto de entrada: "da" não deve sugerir toda "Maria da Silva"
+  private static final Set<String> PARTICULAS = Set.of("da", "das", "de", "do", "dos", "e");
+
+  private static final char SEPARADOR = '\0';
+
+  private static final int BLOCO_INSERCAO = 32;
+
+  // Base e camada incremental correspondente; as buscas leem o estado uma vez só
+  private volatile Estado estado = new Estado(Base.construir(Map.of()));
+
+  // id -> nome exibido, de todos os pacientes ativos
+  private final Map<Long, String> nomes = new ConcurrentHashMap<>();
+
+  private final ExecutorService reconstrucao = Executors.newSingleThreadExecutor(tarefa -> {
+    Thread thread = new Thread(tarefa, "autocompletar-reconstrucao");
+    thread.setDaemon(true);
+    return thread;
+  });
+  // Com o monitor: reconstrução pendente e pacientes alterados desde a cópia dos nomes dela
+  private boolean reconstrucaoAgendada;
+  private Set<Long> alteradosNaReconstrucao;
+  // Uma reconstrução por vez (a da carga e a agendada)
+  private final Object montagem = new Object();
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void carregar() {
+    List<Object[]> linhas = pacienteRepository.findNomesAtivos();
+
+    synchronized (this) {
+      nomes.clear();
+      for (Object[] linha : linhas) {
+        nomes.put((Long) linha[0], (String) linha[1]);
+      }
+    }
+    reconstruir();
+    log.info("Índice de autocompletar carregado: {} pacientes, {} palavras", nomes.size(),
+            estado.base.entradas.length);
+  }
+
+  @PreDestroy
+  void encerrar() {
+    reconstrucao.shutdownNow();
+  }
+
+  // Até `limite` pacientes ativos cujo nome começa pelo termo ou tem uma palavra que começa
+  // por ele; os que começam pelo termo vêm primeiro, cada grupo em ordem alfabética
+  public List<PacienteSugestaoDTO> sugerir(String termo, int limite) {
+    String normalizado = TextoBusca.texto(termo);
+    if (normalizado == null || normalizado.isEmpty()) {
+      return List.of();
+    }
+    limite = Math.max(1, Math.min(limite, MAX_SUGESTOES));
+
+    Estado atual = estado;
+    Map<Long, String> achados = new LinkedHashMap<>();
+    juntar(achados, atual.base.nomesComPrefixo(normalizado, limite, atual.ocultos, achados),
+            incrementais(atual.nomesIncrementais, normalizado, limite, achados), limite);
+    if (achados.size() < limite) {
+      juntar(achados, atual.base.palavrasComPrefixo(normalizado, limite - achados.size(), atual.ocultos, achados),
+              incrementais(atual.palavrasIncrementais, normalizado, limite - achados.size(), achados), limite);
+    }
+
+    List<PacienteSugestaoDTO> sugestoes = new ArrayList<>(achados.size());
+    achados.forEach((id, nome) -> sugestoes.add(new PacienteSugestaoDTO(id, nome)));
+    return sugestoes;
+  }
+
+  // Reflete o estado atual do paciente no índice (inclui, renomeia ou remove)
+  public void atualizar(Paciente paciente) {
+    Long id = paciente.getId();
+    String anterior = aplicar(id, paciente.isActive() ? paciente.getNome() : null);
+    desfazerSeNaoConfirmar(() -> aplicar(id, anterior));
+  }
+
+  public int tamanho() {
+    return nomes.size();
+  }
+
+  private synchronized String aplicar(Long id, String nome) {
+    String anterior = nomes.get(id);
+    if (Objects.equals(anterior, nome)) {
+      return anterior;
+    }
+
+    Estado atual = estado;
+    atual.ocultos.add(id);
+    if (anterior != null) {
+      removerIncremental(atual, id, anterior);
+    }
+    if (nome != null) {
+      nomes.put(id, nome);
+      incluirIncremental(atual, id, nome);
+    } else {
+      nomes.remove(id);
+    }
+    if (alteradosNaReconstrucao != null) {
+      alteradosNaReconstrucao.add(id);
+    }
+
+    if (!reconstrucaoAgendada && atual.nomesIncrementais.size() + atual.ocultos.size() > LIMITE_INCREMENTAL) {
+      reconstrucaoAgendada = true;
+      reconstrucao.execute(this::reconstruirAgendada);
+    }
+    return anterior;
+  }
+
+  private void reconstruirAgendada() {
+    try {
+      reconstruir();
+    } catch (RuntimeException e) {
+      log.error("Falha ao reconstruir o índice de autocompletar", e);
+      synchronized (this) {
+        alteradosNaReconstrucao = null;
+        reconstrucaoAgendada = false;
+      }
+    }
+  }
+
+  // Monta a base a partir de uma cópia dos nomes, sem o monitor; as buscas e gravações
+  // continuam no estado anterior. Na troca, o estado novo já traz na camada incremental
+  // (e ocultos na base) os pacientes alterados enquanto a base era montada.
+  private void reconstruir() {
+    synchronized (montagem) {
+      Map<Long, String> copia;
+      synchronized (this) {
+        copia = new HashMap<>(nomes);
+        alteradosNaReconstrucao = new HashSet<>();
+      }
+      Base nova = Base.construir(copia);
+      synchronized (this) {
+        Estado novo = new Estado(nova);
+        for (Long id : alteradosNaReconstrucao) {
+          novo.ocultos.add(id);
+          String nome = nomes.get(id);
+          if (nome != null) {
+            incluirIncremental(novo, id, nome);
+          }
+        }
+        estado = novo;
+        alteradosNaReconstrucao = null;
+        reconstrucaoAgendada = false;
+      }
+    }
+  }
+
+  private static void incluirIncremental(Estado estado, Long id, String nome) {
+    String normalizado = TextoBusca.texto(nome);
+    estado.nomesIncrementais.put(normalizado + SEPARADOR + id, id);
+    for (int deslocamento : palavras(normalizado)) {
+      estado.palavrasIncrementais.put(normalizado.substring(deslocamento) + SEPARADOR + id, id);
+    }
+  }
+
+  private static void removerIncremental(Estado estado, Long id, String nome) {
+    String normalizado = TextoBusca.texto(nome);
+    estado.nomesIncrementais.remove(normalizado + SEPARADOR + id);
+    for (int deslocamento : palavras(normalizado)) {
+      estado.palavrasIncrementais.remove(normalizado.substring(deslocamento) + SEPARADOR + id);
+    }
+  }
+
+  private List<Candidato> incrementais(ConcurrentSkipListMap<String, Long> camada, String termo, int limite,
+                                       Map<Long, String> achados) {
+    List<Candidato> candidatos = new ArrayList<>();
+    for (Map.Entry<String, Long> entrada : camada.tailMap(termo).entrySet()) {
+      if (candidatos.size() >= limite || !entrada.getKey().startsWith(termo)) {
+        break;
+      }
+      if (!achados.containsKey(entrada.getValue())) {
+        String chave = entrada.getKey();
+        candidatos.add(new Candidato(chave.substring(0, chave.lastIndexOf(SEPARADOR)), entrada.getValue()));
+      }
+    }
+    return candidatos;
+  }
+
+  // Intercala os candidatos da base e da camada incremental, já ordenados
+  private void juntar(Map<Long, String> achados, List<Candidato> daBase, List<Candidato> incrementais, int limite) {
+    int i = 0;
+    int j = 0;
+    while (achados.size() < limite && (i < daBase.size() || j < incrementais.size())) {
+      Candidato proximo = j >= incrementais.size()
+              || (i < daBase.size() && Candidato.ORDEM.compare(daBase.get(i), incrementais.get(j)) <= 0)
+              ? daBase.get(i++) : incrementais.get(j++);
+      String nome = nomes.get(proximo.id());
+      if (nome != null) {
+        achados.putIfAbsent(proximo.id(), nome);
+      }
+    }
+  }
+
+  private void desfazerSeNaoConfirmar(Runnable desfazer) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          desfazer.run();
+        }
+      }
+    });
+  }
+
+  // Deslocamento de cada palavra do nome normalizado, sem partículas
+  private static int[] palavras(String normalizado) {
+    int[] deslocamentos = new int[normalizado.length()];
+    int quantidade = 0;
+    int inicio = 0;
+    while (inicio < normalizado.length()) {
+      int fim = normalizado.indexOf(' ', inicio);
+      if (fim < 0) {
+        fim = normalizado.length();
+      }
+      if (!PARTICULAS.contains(normalizado.substring(inicio, fim))) {
+        deslocamentos[quantidade++] = inicio;
+      }
+      inicio = fim + 1;
+    }
+    return Arrays.copyOf(deslocamentos, quantidade);
+  }
+
+  // Compara o trecho de `a` a partir de `de` com `b`
+  private static int comparar(String a, int de, String b) {
+    int tamanho = Math.min(a.length() - de, b.length());
+    for (int i = 0; i < tamanho; i++) {
+      int diferenca = a.charAt(de + i) - b.charAt(i);
+      if (diferenca != 0) {
+        return diferenca;
+      }
+    }
+    return (a.length() - de) - b.length();
+  }
+
+  private static int comparar(String a, int deA, String b, int deB) {
+    int tamanho = Math.min(a.length() - deA, b.length() - deB);
+    for (int i = 0; i < tamanho; i++) {
+      int diferenca = a.charAt(deA + i) - b.charAt(deB + i);
+      if (diferenca != 0) {
+        return diferenca;
+      }
+    }
+    return (a.length() - deA) - (b.length() - deB);
+  }
+
+  private record Candidato(String trecho, long id) {
+
+    static final Comparator<Candidato> ORDEM = Comparator.comparing(Candidato::trecho)
+            .thenComparingLong(Candidato::id);
+  }
+
+  // Base e a camada incremental sobre ela; a chave da camada é o trecho normalizado +
+  // SEPARADOR + id, para nomes iguais não colidirem. ocultos são os pacientes cujas
+  // entradas na base não valem mais (alterados ou desativados).
+  private static final class Estado {
+
+    private final Base base;
+    private final ConcurrentSkipListMap<String, Long> nomesIncrementais = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Long> palavrasIncrementais = new ConcurrentSkipListMap<>();
+    private final Set<Long> ocultos = ConcurrentHashMap.newKeySet();
+
+    private Estado(Base base) {
+      this.base = base;
+    }
+  }
+
+  @FunctionalInterface
+  private interface OrdemLong {
+    int comparar(long a, long b);
+  }
+
+  // Ordenação estável de long[] por um comparador sem boxing: inserção em blocos pequenos,
+  // depois intercalação de baixo para cima alternando com um array auxiliar
+  private static void ordenar(long[] valores, OrdemLong ordem) {
+    int tamanho = valores.length;
+    for (int inicio = 0; inicio < tamanho; inicio += BLOCO_INSERCAO) {
+      int fim = Math.min(inicio + BLOCO_INSERCAO, tamanho);
+      for (int i = inicio + 1; i < fim; i++) {
+        long valor = valores[i];
+        int j = i - 1;
+        while (j >= inicio && ordem.comparar(valores[j], valor) > 0) {
+          valores[j + 1] = valores[j];
+          j--;
+        }
+        valores[j + 1] = valor;
+      }
+    }
+    long[] origem = valores;
+    long[] destino = new long[tamanho];
+    for (int largura = BLOCO_INSERCAO; largura < tamanho; largura *= 2) {
+      for (int inicio = 0; inicio < tamanho; inicio += 2 * largura) {
+        int meio = Math.min(inicio + largura, tamanho);
+        int fim = Math.min(inicio + 2 * largura, tamanho);
+        int i = inicio;
+        int j = meio;
+        for (int k = inicio; k < fim; k++) {
+          destino[k] = j >= fim || (i < meio && ordem.comparar(origem[i], origem[j]) <= 0) ? origem[i++] : origem[j++];
+        }
+      }
+      long[] troca = origem;
+      origem = destino;
+      destino = troca;
+    }
+    if (origem != valores) {
+      System.arraycopy(origem, 0, valores, 0, tamanho);
+    }
+  }
+
+  // Snapshot imutável: trocado inteiro a cada reconstrução
+  private static final class Base {
+
+    // Nomes normalizados em ordem alfabética (empate pelo id) e o id de cada posição
+    private final String[] nomes;
+    private final long[] ids;
+
+    // posição << 16 | deslocamento da palavra, ordenadas pelo trecho do nome a partir da palavra
+    private final long[] entradas;
+
+    private Base(String[] nomes, long[] ids, long[] entradas) {
+      this.nomes = nomes;
+      this.ids = ids;
+      this.entradas = entradas;
+    }
+
+    private static Base construir(Map<Long, String> pacientes) {
+      // Nomes e ids na ordem de chegada; a ordem alfabética sai de uma permutação de posições
+      String[] normalizados = new String[pacientes.size()];
+      long[] idsLidos = new long[pacientes.size()];
+      long[] ordem = new long[pacientes.size()];
+      int lidos = 0;
+      for (Map.Entry<Long, String> paciente : pacientes.entrySet()) {
+        normalizados[lidos] = TextoBusca.texto(paciente.getValue());
+        idsLidos[lidos] = paciente.getKey();
+        ordem[lidos] = lidos;
+        lidos++;
+      }
+      ordenar(ordem, (a, b) -> {
+        int diferenca = normalizados[(int) a].compareTo(normalizados[(int) b]);
+        return diferenca != 0 ? diferenca : Long.compare(idsLidos[(int) a], idsLidos[(int) b]);
+      });
+
+      String[] nomes = new String[lidos];
+      long[] ids = new long[lidos];
+      long[] entradas = new long[lidos * 2];
+      int quantidade = 0;
+      for (int posicao = 0; posicao < lidos; posicao++) {
+        nomes[posicao] = normalizados[(int) ordem[posicao]];
+        ids[posicao] = idsLidos[(int) ordem[posicao]];
+        for (int deslocamento : palavras(nomes[posicao])) {
+          if (quantidade == entradas.length) {
+            entradas = Arrays.copyOf(entradas, Math.max(16, entradas.length * 2));
+          }
+          // o nome tem no máximo 100 caracteres, o deslocamento cabe em 16 bits
+          entradas[quantidade++] = (long) posicao << 16 | deslocamento;
+        }
+      }
+      entradas = Arrays.copyOf(entradas, quantidade);
+      ordenar(entradas, (a, b) -> {
+        int diferenca = comparar(nomes[posicao(a)], deslocamento(a), nomes[posicao(b)], deslocamento(b));
+        return diferenca != 0 ? diferenca : Long.compare(ids[posicao(a)], ids[posicao(b)]);
+      });
+      return new Base(nomes, ids, entradas);
+    }
+
+    private List<Candidato> nomesComPrefixo(String termo, int limite, Set<Long> ocultos, Map<Long, String> achados) {
+      List<Candidato> candidatos = new ArrayList<>();
+      int baixo = 0;
+      int alto = nomes.length;
+      while (baixo < alto) {
+        int meio = (baixo + alto) >>> 1;
+        if (nomes[meio].compareTo(termo) < 0) {
+          baixo = meio + 1;
+        } else {
+          alto = meio;
+        }
+      }
+      for (int posicao = baixo; posicao < nomes.length && candidatos.size() < limite
+              && nomes[posicao].startsWith(termo); posicao++) {
+        if (!ocultos.contains(ids[posicao]) && !achados.containsKey(ids[posicao])) {
+          candidatos.add(new Candidato(nomes[posicao], ids[posicao]));
+        }
+      }
+      return candidatos;
+    }
+
+    private List<Candidato> palavrasComPrefixo(String termo, int limite, Set<Long> ocultos,
+                                               Map<Long, String> achados) {
+      List<Candidato> candidatos = new ArrayList<>();
+      int baixo = 0;
+      int alto = entradas.length;
+      while (baixo < alto) {
+        int meio = (baixo + alto) >>> 1;
+        if (comparar(nomes[posicao(entradas[meio])], deslocamento(entradas[meio]), termo) < 0) {
+          baixo = meio + 1;
+        } else {
+          alto = meio;
+        }
+      }
+      for (int i = baixo; i < entradas.length && candidatos.size() < limite; i++) {
+        String nome = nomes[posicao(entradas[i])];
+        int deslocamento = deslocamento(entradas[i]);
+        if (!nome.startsWith(termo, deslocamento)) {
+          break;
+        }
+        long id = ids[posicao(entradas[i])];
+        if (!ocultos.contains(id) && !achados.containsKey(id)) {
+          candidatos.add(new Candidato(nome.substring(deslocamento), id));
+        }
+      }
+      return candidatos;
+    }
+
+    private static int posicao(long entrada) {
+      return (int) (entrada >>> 16);
+    }
+
+    private static int deslocamento(long entrada) {
+      return (int) (entrada & 0xFFFF);
+    }
+  }
+}
@@ -0,0 +1,499 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.ErroImportacaoDTO;
+import com.odontosimples.dto.ImportacaoPacientesDTO;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.util.Cpf;
+import com.odontosimples.util.TextoBusca;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Importação de pacientes a partir do CSV exportado pelo sistema anterior da clínica.
+ *
+ * O upload é copiado para um arquivo temporário e processado em segundo plano, uma
+ * importação por vez: as linhas são lidas uma a uma, validadas contra os CPFs já
+ * cadastrados (carregados uma vez num conjunto em memória) e gravadas em lotes, cada lote
+ * numa transação curta com os INSERTs em batch. O andamento e as linhas com erro ficam
+ * disponíveis pelo id da importação enquanto a aplicação estiver no ar.
+ *
+ * A codificação é detectada: BOM (UTF-8 ou UTF-16) ou UTF-8 válido; fora isso o arquivo é
+ * lido como windows-1252, que é como o Excel em português salva CSV. Campos entre aspas
+ * podem ter quebras de linha (observações com várias linhas).
+ */
+@Service
+public class PacienteImportacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteImportacaoService.class);
+
+    // Importações aguardando a que está em andamento
+    private static final int MAX_NA_FILA = 3;
+    // Linhas com erro guardadas para consulta; as demais só entram na contagem
+    private static final int MAX_ERROS_DETALHADOS = 1_000;
+    // Importações concluídas continuam consultáveis por este tempo
+    private static final long HORAS_RETENCAO = 24;
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private static final DateTimeFormatter DATA_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Cabeçalhos aceitos (normalizados, sem espaços nem "_") -> coluna
+    private static final Map<String, String> COLUNAS = Map.ofEntries(
+            Map.entry("nome", "nome"),
+            Map.entry("nomecompleto", "nome"),
+            Map.entry("cpf", "cpf"),
+            Map.entry("datanascimento", "dataNascimento"),
+            Map.entry("datadenascimento", "dataNascimento"),
+            Map.entry("nascimento", "dataNascimento"),
+            Map.entry("telefone", "telefone"),
+            Map.entry("celular", "telefone"),
+            Map.entry("email", "email"),
+            Map.entry("e-mail", "email"),
+            Map.entry("rg", "rg"),
+            Map.entry("profissao", "profissao"),
+            Map.entry("observacoes", "observacoes"),
+            Map.entry("observacao", "observacoes"));
+
+    private static final Set<String> OBRIGATORIAS = Set.of("nome", "cpf", "dataNascimento", "telefone");
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private PacienteAutocompleteIndex pacienteAutocompleteIndex;
+
+    @Autowired
+    private FiltroUnicidade filtroUnicidade;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.importacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    private final Map<String, Importacao> importacoes = new ConcurrentHashMap<>();
+    private TransactionTemplate transacao;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_NA_FILA));
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public ImportacaoPacientesDTO importar(MultipartFile arquivo) throws IOException {
+        if (arquivo == null || arquivo.isEmpty()) {
+            throw new RuntimeException("Arquivo CSV vazio");
+        }
+        descartarAntigas();
+
+        Path temporario = Files.createTempFile("importacao-pacientes-", ".csv");
+        arquivo.transferTo(temporario);
+
+        Importacao importacao = new Importacao(UUID.randomUUID().toString(), arquivo.getOriginalFilename());
+        importacoes.put(importacao.id, importacao);
+        try {
+            executor.execute(() -> processar(importacao, temporario));
+        } catch (RejectedExecutionException e) {
+            importacoes.remove(importacao.id);
+            Files.deleteIfExists(temporario);
+            throw new RuntimeException("Há importações demais na fila, tente novamente mais tarde");
+        }
+        return importacao.situacao();
+    }
+
+    public ImportacaoPacientesDTO situacao(String id) {
+        Importacao importacao = importacoes.get(id);
+        if (importacao == null) {
+            throw new RuntimeException("Importação não encontrada");
+        }
+        return importacao.situacao();
+    }
+
+    private void processar(Importacao importacao, Path arquivo) {
+        importacao.status = "PROCESSANDO";
+        try (BufferedReader leitor = Files.newBufferedReader(arquivo, codificacao(arquivo))) {
+            String cabecalho = leitor.readLine();
+            if (cabecalho == null) {
+                throw new RuntimeException("Arquivo sem cabeçalho");
+            }
+            cabecalho = cabecalho.replace("\uFEFF", "");
+            char separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+            Map<String, Integer> colunas = colunas(dividir(cabecalho, separador));
+            LeitorCsv registros = new LeitorCsv(leitor, separador);
+
+            // Os CPFs são a única checagem contra o banco: carregados uma vez, não um existsByCpf por linha
+            Set<String> cpfsCadastrados = new HashSet<>(pacienteRepository.findTodosCpfs());
+            Set<String> cpfsDoArquivo = new HashSet<>();
+            List<Linha> lote = new ArrayList<>(tamanhoLote);
+
+            List<String> campos;
+            while ((campos = registros.proximo()) != null) {
+                if (campos.size() == 1 && campos.get(0).isBlank()) {
+                    continue;
+                }
+                // linha do arquivo onde o registro começa (o cabeçalho é a 1)
+                long numero = registros.inicio;
+                importacao.linhasLidas.incrementAndGet();
+                Linha linha;
+                try {
+                    linha = linha(numero, campos, colunas);
+                } catch (RuntimeException e) {
+                    importacao.erro(numero, null, e.getMessage());
+                    continue;
+                }
+                if (cpfsCadastrados.contains(linha.cpf())) {
+                    importacao.erro(numero, linha.cpf(), "CPF já está cadastrado");
+                    continue;
+                }
+                if (!cpfsDoArquivo.add(linha.cpf())) {
+                    importacao.erro(numero, linha.cpf(), "CPF repetido no arquivo");
+                    continue;
+                }
+
+                lote.add(linha);
+                if (lote.size() >= tamanhoLote) {
+                    gravar(importacao, lote);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                gravar(importacao, lote);
+            }
+            importacao.concluir("CONCLUIDA", null);
+        } catch (Exception e) {
+            log.error("Importação {} interrompida", importacao.id, e);
+            importacao.concluir("FALHOU", e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                log.warn("Não foi possível remover o arquivo temporário {}", arquivo, e);
+            }
+            if (importacao.importados.get() > 0) {
+                pacienteAutocompleteIndex.carregar();
+            }
+        }
+        log.info("Importação {}: {} linhas, {} importados, {} com erro", importacao.id,
+                importacao.linhasLidas.get(), importacao.importados.get(), importacao.comErro.get());
+    }
+
+    // Um lote por transação; se falhar (ex.: CPF cadastrado por outro caminho durante a
+    // importação), refaz linha a linha para apontar quais não entraram
+    private void gravar(Importacao importacao, List<Linha> lote) {
+        try {
+            transacao.executeWithoutResult(status ->
+                    pacienteRepository.saveAll(lote.stream().map(Linha::paciente).toList()));
+            importacao.importados.addAndGet(lote.size());
+            lote.forEach(linha -> filtroUnicidade.registrar(FiltroUnicidade.Campo.CPF_PACIENTE, linha.cpf()));
+        } catch (RuntimeException e) {
+            for (Linha linha : lote) {
+                try {
+                    transacao.executeWithoutResult(status -> pacienteRepository.save(linha.paciente()));
+                    importacao.importados.incrementAndGet();
+                    filtroUnicidade.registrar(FiltroUnicidade.Campo.CPF_PACIENTE, linha.cpf());
+                } catch (RuntimeException erro) {
+                    importacao.erro(linha.numero(), linha.cpf(), "Erro ao gravar: " + erro.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Map<String, Integer> colunas(List<String> cabecalho) {
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.size(); i++) {
+            String nome = TextoBusca.texto(cabecalho.get(i)).replace(" ", "").replace("_", "");
+            String coluna = COLUNAS.get(nome);
+            if (coluna != null) {
+                colunas.putIfAbsent(coluna, i);
+            }
+        }
+        for (String obrigatoria : OBRIGATORIAS) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new RuntimeException("Coluna obrigatória ausente no cabeçalho: " + obrigatoria);
+            }
+        }
+        return colunas;
+    }
+
+    private static Linha linha(long numero, List<String> campos, Map<String, Integer> colunas) {
+        String nome = campo(campos, colunas, "nome");
+        if (nome == null) {
+            throw new RuntimeException("Nome é obrigatório");
+        }
+        if (nome.length() > 100) {
+            throw new RuntimeException("Nome deve ter no máximo 100 caracteres");
+        }
+
+        String cpf = TextoBusca.digitos(campo(campos, colunas, "cpf"));
+        if (cpf != null && cpf.length() < 11 && cpf.length() >= 9) {
+            // planilhas costumam perder os zeros à esquerda
+            cpf = "0".repeat(11 - cpf.length()) + cpf;
+        }
+        if (!Cpf.valido(cpf)) {
+            throw new RuntimeException("CPF inválido");
+        }
+
+        LocalDate dataNascimento = data(campo(campos, colunas, "dataNascimento"));
+        if (dataNascimento.isAfter(LocalDate.now())) {
+            throw new RuntimeException("Data de nascimento no futuro");
+        }
+
+        String telefone = TextoBusca.digitos(campo(campos, colunas, "telefone"));
+        if (telefone == null) {
+            throw new RuntimeException("Telefone é obrigatório");
+        }
+        if (telefone.length() > 20) {
+            throw new RuntimeException("Telefone deve ter no máximo 20 dígitos");
+        }
+
+        String email = campo(campos, colunas, "email");
+        if (email != null && (email.length() > 150 || !email.contains("@"))) {
+            throw new RuntimeException("E-mail inválido");
+        }
+        String rg = campo(campos, colunas, "rg");
+        if (rg != null && rg.length() > 20) {
+            throw new RuntimeException("RG deve ter no máximo 20 caracteres");
+        }
+        String profissao = campo(campos, colunas, "profissao");
+        if (profissao != null && profissao.length() > 100) {
+            profissao = profissao.substring(0, 100);
+        }
+
+        return new Linha(numero, nome, cpf, dataNascimento, telefone, email, rg, profissao,
+                campo(campos, colunas, "observacoes"));
+    }
+
+    private static String campo(List<String> campos, Map<String, Integer> colunas, String coluna) {
+        Integer indice = colunas.get(coluna);
+        if (indice == null || indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static LocalDate data(String valor) {
+        if (valor == null) {
+            throw new RuntimeException("Data de nascimento é obrigatória");
+        }
+        try {
+            return valor.contains("/") ? LocalDate.parse(valor, DATA_BR) : LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Data de nascimento inválida: " + valor);
+        }
+    }
+
+    // BOM de UTF-8 ou UTF-16; sem BOM, UTF-8 se o arquivo inteiro decodificar, senão windows-1252
+    static Charset codificacao(Path arquivo) throws IOException {
+        try (InputStream entrada = new BufferedInputStream(Files.newInputStream(arquivo))) {
+            entrada.mark(3);
+            byte[] bom = entrada.readNBytes(3);
+            if (bom.length >= 2 && (bom[0] & 0xFF) == 0xFF && (bom[1] & 0xFF) == 0xFE) {
+                return StandardCharsets.UTF_16LE;
+            }
+            if (bom.length >= 2 && (bom[0] & 0xFF) == 0xFE && (bom[1] & 0xFF) == 0xFF) {
+                return StandardCharsets.UTF_16BE;
+            }
+            if (bom.length == 3 && (bom[0] & 0xFF) == 0xEF && (bom[1] & 0xFF) == 0xBB && (bom[2] & 0xFF) == 0xBF) {
+                return StandardCharsets.UTF_8;
+            }
+            entrada.reset();
+            Reader utf8 = new InputStreamReader(entrada, StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT));
+            char[] bloco = new char[8192];
+            try {
+                while (utf8.read(bloco) >= 0) {
+                    // só valida
+                }
+            } catch (CharacterCodingException e) {
+                return WINDOWS_1252;
+            }
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    // Campos separados por `separador`; aspas duplas delimitam campos com separador ("" é uma aspa)
+    private static List<String> dividir(String linha, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        if (dividir(linha, separador, campos, atual, false)) {
+            throw new RuntimeException("Aspas sem fechamento no cabeçalho");
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    // Continua o registro com mais uma linha física; devolve se ela terminou entre aspas
+    private static boolean dividir(String linha, char separador, List<String> campos, StringBuilder atual,
+                                   boolean entreAspas) {
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        return entreAspas;
+    }
+
+    // Registros do CSV a partir da segunda linha: um registro só termina numa quebra de linha
+    // fora de aspas, e a quebra dentro das aspas fica no campo
+    static final class LeitorCsv {
+
+        private final BufferedReader leitor;
+        private final char separador;
+        // Linha física onde começou o último registro lido, contando o cabeçalho como 1
+        long inicio;
+        private long linha = 1;
+
+        LeitorCsv(BufferedReader leitor, char separador) {
+            this.leitor = leitor;
+            this.separador = separador;
+        }
+
+        List<String> proximo() throws IOException {
+            String texto = leitor.readLine();
+            if (texto == null) {
+                return null;
+            }
+            inicio = ++linha;
+            List<String> campos = new ArrayList<>();
+            StringBuilder atual = new StringBuilder();
+            boolean entreAspas = dividir(texto, separador, campos, atual, false);
+            while (entreAspas) {
+                texto = leitor.readLine();
+                if (texto == null) {
+                    throw new RuntimeException("Aspas sem fechamento a partir da linha " + inicio);
+                }
+                linha++;
+                atual.append('\n');
+                entreAspas = dividir(texto, separador, campos, atual, true);
+            }
+            campos.add(atual.toString());
+            return campos;
+        }
+    }
+
+    private void descartarAntigas() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(HORAS_RETENCAO);
+        importacoes.values().removeIf(i -> i.concluidaEm != null && i.concluidaEm.isBefore(limite));
+    }
+
+    // Linha válida do CSV; o Paciente é montado a cada tentativa de gravação
+    private record Linha(long numero, String nome, String cpf, LocalDate dataNascimento, String telefone,
+                         String email, String rg, String profissao, String observacoes) {
+
+        Paciente paciente() {
+            Paciente paciente = new Paciente(nome, cpf, dataNascimento, telefone);
+            paciente.setEmail(email);
+            paciente.setRg(rg);
+            paciente.setProfissao(profissao);
+            paciente.setObservacoes(observacoes);
+            return paciente;
+        }
+    }
+
+    private static class Importacao {
+
+        private final String id;
+        private final String arquivo;
+        private final LocalDateTime iniciadaEm = LocalDateTime.now();
+        private final AtomicLong linhasLidas = new AtomicLong();
+        private final AtomicLong importados = new AtomicLong();
+        private final AtomicLong comErro = new AtomicLong();
+        private final List<ErroImportacaoDTO> erros = new ArrayList<>();
+        private volatile String status = "NA_FILA";
+        private volatile String mensagem;
+        private volatile LocalDateTime concluidaEm;
+
+        private Importacao(String id, String arquivo) {
+            this.id = id;
+            this.arquivo = arquivo;
+        }
+
+        private void erro(long linha, String cpf, String mensagem) {
+            comErro.incrementAndGet();
+            synchronized (erros) {
+                if (erros.size() < MAX_ERROS_DETALHADOS) {
+                    erros.add(new ErroImportacaoDTO(linha, cpf, mensagem));
+                }
+            }
+        }
+
+        private void concluir(String status, String mensagem) {
+            this.mensagem = mensagem;
+            this.concluidaEm = LocalDateTime.now();
+            this.status = status;
+        }
+
+        private ImportacaoPacientesDTO situacao() {
+            List<ErroImportacaoDTO> copia;
+            synchronized (erros) {
+                copia = new ArrayList<>(erros);
+            }
+            return new ImportacaoPacientesDTO(id, status, arquivo, iniciadaEm, concluidaEm, linhasLidas.get(),
+                    importados.get(), comErro.get(), mensagem, copia);
+        }
+    }
+}
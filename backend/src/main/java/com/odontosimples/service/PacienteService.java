@@ -1,36 +1,61 @@
 package com.odontosimples.service;
 
+import com.odontosimples.dto.PacienteSugestaoDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
 import com.odontosimples.entity.Paciente;
 import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.util.Cursor;
+import com.odontosimples.util.MesDia;
+import com.odontosimples.util.TextoBusca;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Transactional
 public class PacienteService {
 
+    // Campos aceitos em sortBy nas listagens: só os que têm índice
+    public static final Set<String> CAMPOS_ORDENACAO = Set.of("nome", "id");
+
+    public static final int MAX_DIAS_ANIVERSARIANTES = 90;
+
     @Autowired
     private PacienteRepository pacienteRepository;
 
+    @Autowired
+    private PacienteAutocompleteIndex pacienteAutocompleteIndex;
+
+    @Autowired
+    private FiltroUnicidade filtroUnicidade;
+
     public Paciente criarPaciente(Paciente paciente) {
-        if (pacienteRepository.existsByCpf(paciente.getCpf())) {
+        if (cpfExiste(paciente.getCpf())) {
             throw new RuntimeException("CPF já está cadastrado");
         }
-        return pacienteRepository.save(paciente);
+        Paciente salvo = salvar(paciente);
+        filtroUnicidade.registrar(FiltroUnicidade.Campo.CPF_PACIENTE, salvo.getCpf());
+        pacienteAutocompleteIndex.atualizar(salvo);
+        return salvo;
     }
 
     public Paciente atualizarPaciente(Long id, Paciente pacienteAtualizado) {
         Paciente paciente = buscarPorId(id);
         
         // Verifica se o CPF não está sendo usado por outro paciente
-        if (!paciente.getCpf().equals(pacienteAtualizado.getCpf()) && 
-            pacienteRepository.existsByCpf(pacienteAtualizado.getCpf())) {
+        String cpfAnterior = paciente.getCpf();
+        if (!cpfAnterior.equals(pacienteAtualizado.getCpf()) && 
+            cpfExiste(pacienteAtualizado.getCpf())) {
             throw new RuntimeException("CPF já está cadastrado");
         }
         
@@ -47,7 +72,24 @@ public class PacienteService {
         paciente.setContatoEmergencia(pacienteAtualizado.getContatoEmergencia());
         paciente.setTelefoneEmergencia(pacienteAtualizado.getTelefoneEmergencia());
         
-        return pacienteRepository.save(paciente);
+        Paciente salvo = salvar(paciente);
+        if (!cpfAnterior.equals(salvo.getCpf())) {
+            filtroUnicidade.substituir(FiltroUnicidade.Campo.CPF_PACIENTE, cpfAnterior, salvo.getCpf());
+        }
+        pacienteAutocompleteIndex.atualizar(salvo);
+        return salvo;
+    }
+
+    // Flush imediato para a restrição UNIQUE do CPF falhar aqui, e não no commit
+    private Paciente salvar(Paciente paciente) {
+        try {
+            return pacienteRepository.saveAndFlush(paciente);
+        } catch (DataIntegrityViolationException e) {
+            if (FiltroUnicidade.violou(FiltroUnicidade.Campo.CPF_PACIENTE, e)) {
+                throw new RuntimeException("CPF já está cadastrado");
+            }
+            throw e;
+        }
     }
 
     @Transactional(readOnly = true)
@@ -72,6 +114,28 @@ public class PacienteService {
         return pacienteRepository.findByActiveTrue(pageable);
     }
 
+    // Paginação por cursor em (nome, id); o total só é contado quando pedido
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<Paciente> listarPorCursor(String cursor, int tamanho, boolean decrescente,
+                                                     boolean incluirTotal) {
+        tamanho = PaginaCursorDTO.tamanhoValido(tamanho);
+        Pageable limite = PageRequest.of(0, tamanho + 1);
+
+        List<Paciente> itens;
+        if (cursor == null || cursor.isBlank()) {
+            itens = decrescente ? pacienteRepository.findPorNomeDesc(limite)
+                                : pacienteRepository.findPorNome(limite);
+        } else {
+            Cursor posicao = Cursor.decodificar(cursor, "nome", decrescente);
+            itens = decrescente ? pacienteRepository.findPorNomeDescAntes(posicao.getValor(), posicao.getId(), limite)
+                                : pacienteRepository.findPorNomeApos(posicao.getValor(), posicao.getId(), limite);
+        }
+
+        Long total = incluirTotal ? pacienteRepository.countByActiveTrue() : null;
+        return PaginaCursorDTO.de(itens, tamanho,
+                ultimo -> new Cursor("nome", decrescente, ultimo.getNome(), ultimo.getId()).codificar(), total);
+    }
+
     @Transactional(readOnly = true)
     public List<Paciente> buscarPorNome(String nome) {
         return pacienteRepository.findByNomeContainingAndActiveTrue(nome);
@@ -82,37 +146,70 @@ public class PacienteService {
         return pacienteRepository.findByNomeContainingAndActiveTrue(nome, pageable);
     }
 
+    // Sem ordenação no pageable: os resultados vêm por semelhança com o termo
     @Transactional(readOnly = true)
     public List<Paciente> buscarPorTermo(String termo) {
-        return pacienteRepository.buscarPorTermo(termo);
+        String normalizado = TextoBusca.termo(termo);
+        return pacienteRepository.buscarPorTermo(normalizado, escaparLike(normalizado));
     }
 
     @Transactional(readOnly = true)
     public Page<Paciente> buscarPorTermo(String termo, Pageable pageable) {
-        return pacienteRepository.buscarPorTermo(termo, pageable);
+        String normalizado = TextoBusca.termo(termo);
+        return pacienteRepository.buscarPorTermo(normalizado, escaparLike(normalizado),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    private static String escaparLike(String termo) {
+        return termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Autocompletar: responde do índice em memória, sem abrir transação nem ir ao banco
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<PacienteSugestaoDTO> sugerir(String termo, int limite) {
+        return pacienteAutocompleteIndex.sugerir(termo, limite);
     }
 
     @Transactional(readOnly = true)
     public List<Paciente> buscarAniversariantesDodia() {
         LocalDate hoje = LocalDate.now();
-        return pacienteRepository.findAniversariantesDodia(hoje.getMonthValue(), hoje.getDayOfMonth());
+        return buscarAniversariantes(hoje, hoje);
     }
 
     @Transactional(readOnly = true)
     public List<Paciente> buscarAniversariantesDoMes(int mes) {
-        return pacienteRepository.findAniversariantesDoMes(mes);
+        MesDia.Faixa faixa = MesDia.doMes(mes);
+        return pacienteRepository.findAniversariantesEntre(faixa.de(), faixa.ate());
+    }
+
+    // Hoje e os dias seguintes, até completar `dias`; em dezembro continua em janeiro
+    @Transactional(readOnly = true)
+    public List<Paciente> buscarProximosAniversariantes(int dias) {
+        if (dias < 1 || dias > MAX_DIAS_ANIVERSARIANTES) {
+            throw new RuntimeException("Informe de 1 a " + MAX_DIAS_ANIVERSARIANTES + " dias");
+        }
+        LocalDate hoje = LocalDate.now();
+        return buscarAniversariantes(hoje, hoje.plusDays(dias - 1));
+    }
+
+    private List<Paciente> buscarAniversariantes(LocalDate inicio, LocalDate fim) {
+        List<Paciente> aniversariantes = new ArrayList<>();
+        for (MesDia.Faixa faixa : MesDia.faixas(inicio, fim)) {
+            aniversariantes.addAll(pacienteRepository.findAniversariantesEntre(faixa.de(), faixa.ate()));
+        }
+        return aniversariantes;
     }
 
     public void ativar(Long id) {
         Paciente paciente = buscarPorId(id);
         paciente.activate();
-        pacienteRepository.save(paciente);
+        pacienteAutocompleteIndex.atualizar(pacienteRepository.save(paciente));
     }
 
     public void desativar(Long id) {
         Paciente paciente = buscarPorId(id);
         paciente.deactivate();
-        pacienteRepository.save(paciente);
+        pacienteAutocompleteIndex.atualizar(pacienteRepository.save(paciente));
     }
 
     @Transactional(readOnly = true)
@@ -122,7 +219,7 @@ public class PacienteService {
 
     @Transactional(readOnly = true)
     public boolean cpfExiste(String cpf) {
-        return pacienteRepository.existsByCpf(cpf);
+        return filtroUnicidade.existe(FiltroUnicidade.Campo.CPF_PACIENTE, cpf, pacienteRepository::existsByCpf);
     }
 }
 
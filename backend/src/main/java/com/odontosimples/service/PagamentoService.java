@@ -0,0 +1,47 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.PagamentoDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
+import com.odontosimples.repository.PagamentoRepository;
+import com.odontosimples.util.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@Transactional
+public class PagamentoService {
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    // Paginação por cursor em (dataVencimento, id); o total só é contado quando pedido
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<PagamentoDTO> listarPorCursor(String cursor, int tamanho, boolean decrescente,
+                                                         boolean incluirTotal) {
+        tamanho = PaginaCursorDTO.tamanhoValido(tamanho);
+        Pageable limite = PageRequest.of(0, tamanho + 1);
+
+        List<PagamentoDTO> itens;
+        if (cursor == null || cursor.isBlank()) {
+            itens = decrescente ? pagamentoRepository.findDTOsPorVencimentoDesc(limite)
+                                : pagamentoRepository.findDTOsPorVencimento(limite);
+        } else {
+            Cursor posicao = Cursor.decodificar(cursor, "dataVencimento", decrescente);
+            LocalDate dataVencimento = LocalDate.parse(posicao.getValor());
+            itens = decrescente
+                    ? pagamentoRepository.findDTOsPorVencimentoDescAntes(dataVencimento, posicao.getId(), limite)
+                    : pagamentoRepository.findDTOsPorVencimentoApos(dataVencimento, posicao.getId(), limite);
+        }
+
+        Long total = incluirTotal ? pagamentoRepository.countByActiveTrue() : null;
+        return PaginaCursorDTO.de(itens, tamanho,
+                ultimo -> new Cursor("dataVencimento", decrescente, ultimo.getDataVencimento(), ultimo.getId())
+                        .codificar(), total);
+    }
+}
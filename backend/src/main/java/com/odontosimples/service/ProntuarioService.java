@@ -0,0 +1,223 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.AlertaAlergiaDTO;
+import com.odontosimples.dto.PacienteSugestaoDTO;
+import com.odontosimples.dto.PaginaCursorDTO;
+import com.odontosimples.dto.ProntuarioBuscaDTO;
+import com.odontosimples.dto.ProntuarioResumoDTO;
+import com.odontosimples.dto.VerificacaoPrescricaoDTO;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.entity.Prontuario;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.repository.ProntuarioRepository;
+import com.odontosimples.util.Cursor;
+import com.odontosimples.util.Odontograma;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ProntuarioService {
+
+    // Marcadores que o ts_headline põe em volta dos termos encontrados (ver ProntuarioRepository);
+    // trocados por <mark> depois de escapar o texto do prontuário
+    private static final String INICIO_DESTAQUE = "\u0002";
+    private static final String FIM_DESTAQUE = "\u0003";
+
+    @Autowired
+    private ProntuarioRepository prontuarioRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private TermoClinicoIndex termoClinicoIndex;
+
+    @Autowired
+    private DicionarioMedicamentos dicionarioMedicamentos;
+
+    // Listagens só com o cabeçalho (ProntuarioResumoDTO); o texto fica para o detalhe
+    @Transactional(readOnly = true)
+    public List<ProntuarioResumoDTO> listarDoPaciente(Long pacienteId) {
+        return prontuarioRepository.findResumosDoPaciente(pacienteId);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProntuarioResumoDTO> listarDoDentista(Long dentistaId, Pageable pageable) {
+        return prontuarioRepository.findResumosDoDentista(dentistaId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProntuarioResumoDTO> listarTratamentosAtrasados() {
+        return prontuarioRepository.findTratamentosAtrasados(LocalDate.now());
+    }
+
+    // Busca em linguagem de site de busca: palavras, "frase exata", -exclusão, OR.
+    // Paginação por cursor em (relevância, id)
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ProntuarioBuscaDTO> buscar(String termo, String cursor, int tamanho) {
+        if (termo == null || termo.isBlank()) {
+            throw new RuntimeException("Informe o termo da busca");
+        }
+        tamanho = PaginaCursorDTO.tamanhoValido(tamanho);
+
+        List<Object[]> linhas;
+        if (cursor == null || cursor.isBlank()) {
+            linhas = prontuarioRepository.buscarPorTermo(termo, tamanho + 1);
+        } else {
+            Cursor posicao = Cursor.decodificar(cursor, "relevancia", true);
+            linhas = prontuarioRepository.buscarPorTermoApos(termo, posicao.getValor(), posicao.getId(), tamanho + 1);
+        }
+
+        List<ProntuarioBuscaDTO> itens = linhas.stream()
+                .map(linha -> new ProntuarioBuscaDTO(((Number) linha[0]).longValue(), data(linha[1]),
+                        ((Number) linha[2]).longValue(), (String) linha[3], (String) linha[4],
+                        ((Number) linha[5]).floatValue(), trecho((String) linha[6])))
+                .collect(Collectors.toList());
+        // a relevância vai no cursor como o real do banco (Float.toString volta ao mesmo valor)
+        return PaginaCursorDTO.de(itens, tamanho,
+                ultimo -> new Cursor("relevancia", true, ultimo.getRelevancia(), ultimo.getId()).codificar(), null);
+    }
+
+    // Pacientes ativos com o termo no campo; aceita nome, sinônimo, nome comercial ou classe
+    // (ALERGIA + "penicilina" traz também quem é alérgico a amoxicilina)
+    @Transactional(readOnly = true)
+    public List<PacienteSugestaoDTO> pacientesComTermo(TermoClinicoIndex.Campo campo, String termo) {
+        String normalizado = dicionarioMedicamentos.normalizar(termo);
+        if (normalizado == null) {
+            throw new RuntimeException("Termo não encontrado no dicionário de medicamentos: " + termo);
+        }
+        return sugestoes(termoClinicoIndex.pacientes(campo, normalizado));
+    }
+
+    @Transactional(readOnly = true)
+    public Odontograma odontograma(Long prontuarioId) {
+        Odontograma odontograma = prontuarioAtivo(prontuarioId).getOdontograma();
+        if (odontograma == null) {
+            throw new RuntimeException("Prontuário sem odontograma");
+        }
+        return odontograma;
+    }
+
+    public Odontograma salvarOdontograma(Long prontuarioId, Odontograma odontograma) {
+        prontuarioAtivo(prontuarioId).setOdontograma(odontograma);
+        return odontograma;
+    }
+
+    // Alterações do odontograma entre duas visitas do mesmo paciente; sem `anteriorId`, em
+    // relação ao último odontograma anterior do paciente (ou a um odontograma hígido na
+    // primeira visita). Só o grupo "odontograma" dos dois prontuários é carregado.
+    @Transactional(readOnly = true)
+    public List<Odontograma.Alteracao> alteracoesOdontograma(Long prontuarioId, Long anteriorId) {
+        Prontuario prontuario = prontuarioAtivo(prontuarioId);
+        Long pacienteId = prontuario.getPaciente().getId();
+        Odontograma anterior;
+        if (anteriorId != null) {
+            Prontuario outro = prontuarioAtivo(anteriorId);
+            if (!outro.getPaciente().getId().equals(pacienteId)) {
+                throw new RuntimeException("Os prontuários são de pacientes diferentes");
+            }
+            anterior = outro.getOdontograma();
+        } else {
+            anterior = prontuarioRepository.findOdontogramaAnterior(pacienteId, prontuario.getDataConsulta(), prontuarioId)
+                    .map(Prontuario::getOdontograma)
+                    .orElse(Odontograma.VAZIO);
+        }
+        if (anterior == null || prontuario.getOdontograma() == null) {
+            throw new RuntimeException("Prontuário sem odontograma");
+        }
+        return anterior.alteracoes(prontuario.getOdontograma());
+    }
+
+    // Pacientes ativos com a condição no dente no odontograma mais recente
+    @Transactional(readOnly = true)
+    public List<PacienteSugestaoDTO> pacientesComAchado(int dente, Odontograma.Condicao condicao) {
+        return sugestoes(prontuarioRepository.findPacientesComAchado(Odontograma.achado(dente, condicao)));
+    }
+
+    // Compara cada medicamento reconhecido na prescrição com as alergias registradas do
+    // paciente; um alerta por medicamento, pelo termo mais específico em comum
+    @Transactional(readOnly = true)
+    public VerificacaoPrescricaoDTO verificarPrescricao(Long pacienteId, String prescricao) {
+        if (!pacienteRepository.existsById(pacienteId)) {
+            throw new RuntimeException("Paciente não encontrado");
+        }
+        List<String> textos = prontuarioRepository.findAlergiasDoPaciente(pacienteId);
+        Set<String> alergias = termoClinicoIndex.isPronto()
+                ? termoClinicoIndex.alergias(pacienteId)
+                : alergiasDoTexto(textos);
+        // O que o dicionário não reconhece não pode ser checado: vai na resposta para o
+        // dentista conferir, e a prescrição não sai como "sem alertas"
+        List<String> naoReconhecidas = new ArrayList<>();
+        for (String texto : textos) {
+            naoReconhecidas.addAll(dicionarioMedicamentos.naoReconhecidos(texto));
+        }
+
+        List<String> medicamentos = new ArrayList<>();
+        List<AlertaAlergiaDTO> alertas = new ArrayList<>();
+        for (String medicamento : dicionarioMedicamentos.reconhecer(prescricao)) {
+            medicamentos.add(dicionarioMedicamentos.nome(medicamento));
+            for (String termo : dicionarioMedicamentos.expandir(medicamento)) {
+                if (alergias.contains(termo)) {
+                    alertas.add(new AlertaAlergiaDTO(dicionarioMedicamentos.nome(medicamento),
+                            dicionarioMedicamentos.nome(termo), termo.equals(medicamento)));
+                    break;
+                }
+            }
+        }
+        return new VerificacaoPrescricaoDTO(pacienteId, medicamentos, alertas, naoReconhecidas);
+    }
+
+    // Mesmo resultado do índice, extraído na hora dos prontuários do paciente
+    private Set<String> alergiasDoTexto(List<String> textos) {
+        Set<String> alergias = new HashSet<>();
+        for (String texto : textos) {
+            alergias.addAll(dicionarioMedicamentos.extrair(texto));
+        }
+        return alergias;
+    }
+
+    private Prontuario prontuarioAtivo(Long id) {
+        return prontuarioRepository.findById(id)
+                .filter(Prontuario::isActive)
+                .orElseThrow(() -> new RuntimeException("Prontuário não encontrado"));
+    }
+
+    private List<PacienteSugestaoDTO> sugestoes(Collection<Long> pacienteIds) {
+        return pacienteRepository.findAllById(pacienteIds).stream()
+                .filter(Paciente::isActive)
+                .sorted(Comparator.comparing(Paciente::getNome))
+                .map(paciente -> new PacienteSugestaoDTO(paciente.getId(), paciente.getNome()))
+                .collect(Collectors.toList());
+    }
+
+    private static String trecho(String destacado) {
+        if (destacado == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(destacado)
+                .replace(INICIO_DESTAQUE, "<mark>")
+                .replace(FIM_DESTAQUE, "</mark>");
+    }
+
+    private static LocalDate data(Object valor) {
+        if (valor instanceof Date data) {
+            return data.toLocalDate();
+        }
+        return (LocalDate) valor;
+    }
+}
@@ -0,0 +1,28 @@
+package com.odontosimples.service;
+
+import com.odontosimples.entity.Prontuario;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+// Mantém termos_clinicos a cada gravação de prontuário, venha de onde vier, na mesma
+// transação (instanciado pelo Hibernate através do contêiner de beans do Spring)
+public class ProntuarioTermosListener {
+
+    @Autowired
+    @Lazy
+    private TermoClinicoIndex termoClinicoIndex;
+
+    @PostPersist
+    @PostUpdate
+    void gravado(Prontuario prontuario) {
+        termoClinicoIndex.indexar(prontuario);
+    }
+
+    @PostRemove
+    void removido(Prontuario prontuario) {
+        termoClinicoIndex.remover(prontuario);
+    }
+}
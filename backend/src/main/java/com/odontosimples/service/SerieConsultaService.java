@@ -0,0 +1,216 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.AtualizacaoSerieDTO;
+import com.odontosimples.dto.SerieConsultaDTO;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.event.ConsultaEvento;
+import com.odontosimples.repository.ConsultaRepository;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@Transactional
+public class SerieConsultaService {
+
+    public static final int MAX_OCORRENCIAS = 60;
+
+    // Até quantos dias antes/depois da data prevista procurar um horário livre
+    private static final int MAX_DIAS_DESLOCAMENTO = 7;
+
+    @Autowired
+    private ConsultaService consultaService;
+
+    @Autowired
+    private ConsultaRepository consultaRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private DentistaRepository dentistaRepository;
+
+    @Autowired
+    private AgendaIndex agendaIndex;
+
+    @Autowired
+    private AgendaLocks agendaLocks;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    // Expande a regra, move cada ocorrência em conflito para o horário livre mais próximo
+    // e grava tudo de uma vez pelo agendamento em lote
+    public List<Consulta> criarSerie(SerieConsultaDTO serie) {
+        Paciente paciente = pacienteRepository.findById(serie.getPacienteId())
+                .orElseThrow(() -> new RuntimeException("Paciente não encontrado"));
+        Dentista dentista = dentistaRepository.findById(serie.getDentistaId())
+                .orElseThrow(() -> new RuntimeException("Dentista não encontrado"));
+
+        int duracao = serie.getDuracaoMinutos() != null ? serie.getDuracaoMinutos()
+                : dentista.getTempoConsulta() != null ? dentista.getTempoConsulta() : 30;
+        Consulta.TipoConsulta tipo = serie.getTipoConsulta() != null
+                ? Consulta.TipoConsulta.valueOf(serie.getTipoConsulta()) : Consulta.TipoConsulta.ORTODONTIA;
+        String serieId = UUID.randomUUID().toString();
+
+        agendaLocks.bloquear(dentista.getId());
+
+        List<Consulta> consultas = new ArrayList<>();
+        for (LocalDateTime prevista : expandir(serie)) {
+            LocalDateTime dataHora = horarioLivreMaisProximo(dentista, prevista, duracao, consultas);
+            if (dataHora == null) {
+                throw new RuntimeException("Sem horário livre próximo de " + prevista);
+            }
+
+            Consulta consulta = new Consulta(paciente, dentista, dataHora);
+            consulta.setDuracaoMinutos(duracao);
+            consulta.setTipoConsulta(tipo);
+            consulta.setValor(serie.getValor());
+            consulta.setObservacoes(serie.getObservacoes());
+            consulta.setSerieId(serieId);
+            consultas.add(consulta);
+        }
+
+        return consultaService.agendarLote(consultas);
+    }
+
+    // Cancela a consulta informada e as seguintes da mesma série com um único UPDATE
+    public int cancelarSeguintes(Long consultaId) {
+        Consulta consulta = consultaDaSerie(consultaId);
+        agendaLocks.bloquear(consulta.getDentista().getId());
+
+        List<Object[]> agenda = consultaRepository.findAgendaDaSerieAPartirDe(consulta.getSerieId(), consulta.getDataHora());
+        int canceladas = consultaRepository.atualizarStatusDaSerie(consulta.getSerieId(), consulta.getDataHora(),
+                Consulta.StatusConsulta.CANCELADA, LocalDateTime.now());
+        for (Object[] linha : agenda) {
+            agendaIndex.remover((Long) linha[0]);
+            eventos.publishEvent(evento(ConsultaEvento.Tipo.CANCELADA, linha, Consulta.StatusConsulta.CANCELADA));
+        }
+        return canceladas;
+    }
+
+    // Altera valor, tipo e observações da consulta informada e das seguintes com um único UPDATE;
+    // só os campos informados são alterados, os demais ficam como estão em cada consulta
+    public int atualizarSeguintes(Long consultaId, AtualizacaoSerieDTO dados) {
+        if (dados.getValor() == null && dados.getTipoConsulta() == null && dados.getObservacoes() == null) {
+            throw new RuntimeException("Informe o valor, o tipo ou as observações a alterar");
+        }
+        Consulta consulta = consultaDaSerie(consultaId);
+        Consulta.TipoConsulta tipo = dados.getTipoConsulta() != null
+                ? Consulta.TipoConsulta.valueOf(dados.getTipoConsulta()) : null;
+
+        List<Object[]> agenda = consultaRepository.findAgendaDaSerieAPartirDe(consulta.getSerieId(), consulta.getDataHora());
+        int atualizadas = consultaRepository.atualizarDadosDaSerie(consulta.getSerieId(), consulta.getDataHora(),
+                dados.getValor(), tipo, dados.getObservacoes(), LocalDateTime.now());
+        for (Object[] linha : agenda) {
+            eventos.publishEvent(evento(ConsultaEvento.Tipo.ATUALIZADA, linha, (Consulta.StatusConsulta) linha[5]));
+        }
+        return atualizadas;
+    }
+
+    // Evento a partir de uma linha de findAgendaDaSerieAPartirDe (o UPDATE em massa não passa pelas entidades)
+    private static ConsultaEvento evento(ConsultaEvento.Tipo tipo, Object[] linha, Consulta.StatusConsulta status) {
+        Long dentistaId = (Long) linha[2];
+        LocalDateTime dataHora = (LocalDateTime) linha[3];
+        return new ConsultaEvento(tipo, (Long) linha[0], (Long) linha[1], dentistaId, dataHora,
+                (Integer) linha[4], status.name(), dentistaId, dataHora);
+    }
+
+    private Consulta consultaDaSerie(Long consultaId) {
+        Consulta consulta = consultaService.buscarPorId(consultaId);
+        if (consulta.getSerieId() == null) {
+            throw new RuntimeException("Consulta não pertence a uma série");
+        }
+        return consulta;
+    }
+
+    // Datas previstas pela regra (intervalo, dia da semana, quantidade/até)
+    List<LocalDateTime> expandir(SerieConsultaDTO serie) {
+        if (serie.getOcorrencias() == null && serie.getAte() == null) {
+            throw new RuntimeException("Informe a quantidade de consultas ou a data final da série");
+        }
+        if (serie.getOcorrencias() != null && serie.getOcorrencias() > MAX_OCORRENCIAS) {
+            throw new RuntimeException("Série deve ter no máximo " + MAX_OCORRENCIAS + " consultas");
+        }
+        // só com a data final, uma data a mais que o máximo mostra que a série passaria dele
+        int limite = serie.getOcorrencias() != null ? serie.getOcorrencias() : MAX_OCORRENCIAS + 1;
+        int intervalo = serie.getIntervalo() != null ? serie.getIntervalo() : 1;
+        boolean semanal = "SEMANAL".equalsIgnoreCase(serie.getFrequencia());
+
+        List<LocalDateTime> datas = new ArrayList<>();
+        LocalDateTime inicio = serie.getDataHoraInicio();
+        for (int n = 0; datas.size() < limite; n++) {
+            // sempre a partir do início, para não acumular o ajuste de fim de mês
+            LocalDateTime data = semanal ? inicio.plusWeeks((long) n * intervalo)
+                                         : inicio.plusMonths((long) n * intervalo);
+            if (serie.getDiaSemana() != null) {
+                data = data.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(serie.getDiaSemana())));
+            }
+            if (serie.getAte() != null && data.toLocalDate().isAfter(serie.getAte())) {
+                break;
+            }
+            datas.add(data);
+        }
+        if (datas.size() > MAX_OCORRENCIAS) {
+            throw new RuntimeException("Série deve ter no máximo " + MAX_OCORRENCIAS + " consultas");
+        }
+        return datas;
+    }
+
+    // Mantém o horário previsto se estiver livre; senão procura o mais próximo no mesmo dia
+    // e depois nos dias vizinhos (+1, -1, +2, -2, ...)
+    private LocalDateTime horarioLivreMaisProximo(Dentista dentista, LocalDateTime prevista, int duracao,
+                                                  List<Consulta> jaNaSerie) {
+        LocalDateTime agora = LocalDateTime.now();
+        int tempoConsulta = dentista.getTempoConsulta() != null ? dentista.getTempoConsulta() : 30;
+
+        for (int deslocamento = 0; deslocamento <= 2 * MAX_DIAS_DESLOCAMENTO; deslocamento++) {
+            int dias = (deslocamento + 1) / 2 * (deslocamento % 2 == 0 ? -1 : 1);
+            LocalDate dia = prevista.toLocalDate().plusDays(dias);
+            GradeDia grade = GradeDia.expediente(dentista, dia);
+            if (grade == null) {
+                continue;
+            }
+
+            for (AgendaIndex.Intervalo intervalo : agendaIndex.intervalos(dentista.getId(),
+                    grade.getExpedienteInicio(), grade.getExpedienteFim())) {
+                grade.ocupar(intervalo.inicio(), intervalo.fim());
+            }
+            for (Consulta consulta : jaNaSerie) {
+                grade.ocupar(consulta.getDataHora(), consulta.getDataHoraFim());
+            }
+
+            LocalDateTime desejada = dia.atTime(prevista.toLocalTime());
+            if (dias == 0 && !desejada.isBefore(agora)
+                    && grade.livre(grade.unidadeDe(desejada), GradeDia.unidadesPara(duracao))) {
+                return desejada;
+            }
+
+            LocalDateTime melhor = null;
+            for (LocalDateTime inicio : grade.iniciosLivres(tempoConsulta, duracao, agora)) {
+                if (melhor == null || Duration.between(inicio, desejada).abs()
+                        .compareTo(Duration.between(melhor, desejada).abs()) < 0) {
+                    melhor = inicio;
+                }
+            }
+            if (melhor != null) {
+                return melhor;
+            }
+        }
+        return null;
+    }
+}
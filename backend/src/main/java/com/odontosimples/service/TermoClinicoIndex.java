@@ -0,0 +1,342 @@
+package com.odontosimples.service;
+
+import com.odontosimples.entity.Prontuario;
+import com.odontosimples.repository.TermoClinicoRepository;
+import com.odontosimples.repository.TermoClinicoRepository.Linha;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido termo -> pacientes dos campos alergias, medicamentos_uso e prescricoes.
+ *
+ * A tabela termos_clinicos guarda os termos de cada prontuário (gravada junto com ele, ver
+ * ProntuarioTermosListener); a cópia em memória guarda, por campo e termo, os pacientes e
+ * em quantos prontuários cada um tem o termo, e as alergias por paciente. Assim "quem é
+ * alérgico a X" e "este paciente é alérgico a algo desta prescrição" são consultas em mapa.
+ *
+ * A memória é alterada na hora da gravação e desfeita se a transação não confirmar, como
+ * nos demais índices. Se o dicionário mudou desde a última montagem da tabela, ela é
+ * refeita em segundo plano na subida; até a carga terminar, isPronto() é falso.
+ *
+ * Um prontuário gravado durante a carga pode ou não estar na leitura em massa, conforme
+ * a transação dele confirmou antes ou depois dela. Por isso a carga só anota o id; ao fim
+ * dela, o que a leitura contou desse prontuário (lido no mesmo snapshot) é trocado pelas
+ * linhas atuais dele em termos_clinicos, e daí em diante ele é relido a cada gravação.
+ */
+@Component
+public class TermoClinicoIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(TermoClinicoIndex.class);
+
+  private static final int TAMANHO_LOTE = 1000;
+
+  public enum Campo { ALERGIA, MEDICAMENTO, PRESCRICAO }
+
+  @Autowired
+  private TermoClinicoRepository termoClinicoRepository;
+
+  @Autowired
+  private DicionarioMedicamentos dicionario;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transacao;
+  // Leitura da carga: um snapshot só para o agrupamento e as linhas dos prontuários anotados
+  private TransactionTemplate transacaoCarga;
+
+  // campo -> termo -> paciente -> quantidade de prontuários com o termo
+  private final Map<Campo, Map<String, Map<Long, Integer>>> pacientesPorTermo = new EnumMap<>(Campo.class);
+  // paciente -> termo de alergia (com as classes) -> quantidade de prontuários
+  private final Map<Long, Map<String, Integer>> alergiasPorPaciente = new ConcurrentHashMap<>();
+
+  private volatile boolean pronto;
+  // Prontuários gravados antes de a carga terminar (null depois dela ou se ela falhar)
+  private Set<Long> tocados = new HashSet<>();
+  private boolean falhou;
+  // Prontuários gravados durante a carga -> linhas deles que a memória conta hoje
+  private final Map<Long, Set<Linha>> relidos = new HashMap<>();
+
+  @PostConstruct
+  void iniciar() {
+    transacao = new TransactionTemplate(transactionManager);
+    transacaoCarga = new TransactionTemplate(transactionManager);
+    transacaoCarga.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    transacaoCarga.setReadOnly(true);
+    for (Campo campo : Campo.values()) {
+      pacientesPorTermo.put(campo, new ConcurrentHashMap<>());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void aoIniciar() {
+    CompletableFuture.runAsync(() -> {
+      try {
+        String versao = dicionario.getVersao();
+        if (!termoClinicoRepository.findVersaoDicionario().map(versao::equals).orElse(false)) {
+          reindexar();
+          termoClinicoRepository.salvarVersaoDicionario(versao);
+        }
+        carregar();
+      } catch (RuntimeException e) {
+        log.error("Falha ao montar o índice de termos clínicos", e);
+        synchronized (this) {
+          if (tocados != null) {
+            // Sem carga não há o que reler: para de anotar
+            tocados = null;
+            falhou = true;
+          }
+        }
+      }
+    });
+  }
+
+  public boolean isPronto() {
+    return pronto;
+  }
+
+  // Chamado a cada gravação do prontuário, dentro da transação dela
+  public void indexar(Prontuario prontuario) {
+    Set<Linha> novas = prontuario.isActive()
+        ? linhas(prontuario.getId(), prontuario.getPaciente().getId(), prontuario.getAlergias(),
+            prontuario.getMedicamentosUso(), prontuario.getPrescricoes())
+        : Set.of();
+    substituir(prontuario.getId(), novas);
+  }
+
+  public void remover(Prontuario prontuario) {
+    substituir(prontuario.getId(), Set.of());
+  }
+
+  // Pacientes com o termo (já normalizado pelo dicionário) no campo
+  public Set<Long> pacientes(Campo campo, String termo) {
+    exigirPronto();
+    Map<Long, Integer> pacientes = pacientesPorTermo.get(campo).get(termo);
+    return pacientes != null ? Set.copyOf(pacientes.keySet()) : Set.of();
+  }
+
+  // Alergias registradas do paciente, com as classes
+  public Set<String> alergias(Long pacienteId) {
+    exigirPronto();
+    Map<String, Integer> alergias = alergiasPorPaciente.get(pacienteId);
+    return alergias != null ? Set.copyOf(alergias.keySet()) : Set.of();
+  }
+
+  // Termos dos três campos de um prontuário, cada termo com as suas classes
+  public Set<Linha> linhas(long prontuarioId, long pacienteId, String alergias, String medicamentos,
+                           String prescricoes) {
+    Set<Linha> linhas = new HashSet<>();
+    adicionar(linhas, prontuarioId, pacienteId, Campo.ALERGIA, alergias);
+    adicionar(linhas, prontuarioId, pacienteId, Campo.MEDICAMENTO, medicamentos);
+    adicionar(linhas, prontuarioId, pacienteId, Campo.PRESCRICAO, prescricoes);
+    return linhas;
+  }
+
+  private void adicionar(Set<Linha> linhas, long prontuarioId, long pacienteId, Campo campo, String texto) {
+    for (String termo : dicionario.extrair(texto)) {
+      linhas.add(new Linha(prontuarioId, campo.name(), termo, pacienteId));
+    }
+  }
+
+  private void substituir(Long prontuarioId, Set<Linha> novas) {
+    Set<Linha> atuais = new HashSet<>(termoClinicoRepository.findPorProntuario(prontuarioId));
+    List<Linha> removidas = atuais.stream().filter(linha -> !novas.contains(linha)).toList();
+    List<Linha> adicionadas = novas.stream().filter(linha -> !atuais.contains(linha)).toList();
+    if (removidas.isEmpty() && adicionadas.isEmpty()) {
+      return;
+    }
+    termoClinicoRepository.remover(removidas);
+    termoClinicoRepository.inserir(adicionadas);
+
+    if (relerAoConcluir(prontuarioId)) {
+      return;
+    }
+    aplicar(removidas, -1);
+    aplicar(adicionadas, 1);
+    aoDesfazer(() -> {
+      aplicar(adicionadas, -1);
+      aplicar(removidas, 1);
+    });
+  }
+
+  // Durante a carga, e depois dela para os prontuários gravados durante a carga, a memória
+  // não recebe a diferença: o prontuário é anotado ou relido quando a transação terminar
+  private synchronized boolean relerAoConcluir(Long prontuarioId) {
+    if (tocados != null) {
+      tocados.add(prontuarioId);
+    } else if (falhou) {
+      return true;
+    } else if (!relidos.containsKey(prontuarioId)) {
+      return false;
+    }
+    aoConcluir(() -> tocado(prontuarioId));
+    return true;
+  }
+
+  private synchronized void tocado(Long prontuarioId) {
+    if (tocados != null) {
+      tocados.add(prontuarioId);
+    } else if (!falhou) {
+      reler(prontuarioId);
+    }
+  }
+
+  // Troca o que a memória conta do prontuário pelas linhas confirmadas dele
+  private synchronized void reler(Long prontuarioId) {
+    Set<Linha> atuais = new HashSet<>(termoClinicoRepository.findPorProntuario(prontuarioId));
+    aplicar(relidos.getOrDefault(prontuarioId, Set.of()), -1);
+    aplicar(atuais, 1);
+    relidos.put(prontuarioId, atuais);
+  }
+
+  private synchronized void aplicar(Collection<Linha> linhas, int delta) {
+    for (Linha linha : linhas) {
+      Campo campo = Campo.valueOf(linha.campo());
+      somar(pacientesPorTermo.get(campo), linha.termo(), linha.pacienteId(), delta);
+      if (campo == Campo.ALERGIA) {
+        somar(alergiasPorPaciente, linha.pacienteId(), linha.termo(), delta);
+      }
+    }
+  }
+
+  private static <K, V> void somar(Map<K, Map<V, Integer>> mapa, K chave, V valor, int delta) {
+    Map<V, Integer> contagens = delta > 0 ? mapa.computeIfAbsent(chave, c -> new ConcurrentHashMap<>()) : mapa.get(chave);
+    if (contagens == null) {
+      return;
+    }
+    contagens.compute(valor, (v, atual) -> {
+      int soma = (atual != null ? atual : 0) + delta;
+      return soma > 0 ? soma : null;
+    });
+    if (contagens.isEmpty()) {
+      mapa.remove(chave);
+    }
+  }
+
+  private void carregar() {
+    Map<Campo, Map<String, Map<Long, Integer>>> porTermo = new EnumMap<>(Campo.class);
+    Map<Long, Map<String, Integer>> alergias = new HashMap<>();
+    List<Long> gravadosNaCarga = transacaoCarga.execute(status -> {
+      termoClinicoRepository.percorrerAgrupado(rs -> {
+        Campo campo = Campo.valueOf(rs.getString(1));
+        String termo = rs.getString(2);
+        long pacienteId = rs.getLong(3);
+        int quantidade = rs.getInt(4);
+        porTermo.computeIfAbsent(campo, c -> new HashMap<>())
+            .computeIfAbsent(termo, t -> new ConcurrentHashMap<>()).put(pacienteId, quantidade);
+        if (campo == Campo.ALERGIA) {
+          alergias.computeIfAbsent(pacienteId, p -> new ConcurrentHashMap<>()).put(termo, quantidade);
+        }
+      });
+
+      synchronized (this) {
+        for (Campo campo : Campo.values()) {
+          pacientesPorTermo.get(campo).clear();
+          pacientesPorTermo.get(campo).putAll(porTermo.getOrDefault(campo, Map.of()));
+        }
+        alergiasPorPaciente.clear();
+        alergiasPorPaciente.putAll(alergias);
+        // Linhas dos prontuários anotados no mesmo snapshot do agrupamento: exatamente o que
+        // a memória conta deles agora, trocado abaixo pelo estado atual
+        for (Long id : tocados) {
+          relidos.put(id, new HashSet<>());
+        }
+        for (Linha linha : termoClinicoRepository.findPorProntuarios(tocados)) {
+          relidos.get(linha.prontuarioId()).add(linha);
+        }
+        List<Long> anotados = List.copyOf(tocados);
+        tocados = null;
+        return anotados;
+      }
+    });
+    gravadosNaCarga.forEach(this::reler);
+    pronto = true;
+    log.info("Índice de termos clínicos carregado: {} pacientes com alergias registradas, {} prontuários "
+        + "gravados durante a carga relidos", alergias.size(), gravadosNaCarga.size());
+  }
+
+  // Refaz termos_clinicos a partir do texto dos prontuários, em lotes por id
+  private void reindexar() {
+    log.info("Dicionário de medicamentos alterado: reindexando os termos clínicos dos prontuários");
+    long ultimo = 0;
+    long total = 0;
+    while (true) {
+      long aPartirDe = ultimo;
+      List<Object[]> lote = transacao.execute(status -> {
+        List<Object[]> prontuarios = termoClinicoRepository.prontuariosApos(aPartirDe, TAMANHO_LOTE);
+        List<Long> ids = new ArrayList<>(prontuarios.size());
+        List<Linha> termos = new ArrayList<>();
+        for (Object[] p : prontuarios) {
+          ids.add((Long) p[0]);
+          if ((Boolean) p[2]) {
+            termos.addAll(linhas((Long) p[0], (Long) p[1], (String) p[3], (String) p[4], (String) p[5]));
+          }
+        }
+        termoClinicoRepository.removerDosProntuarios(ids);
+        termoClinicoRepository.inserir(termos);
+        return prontuarios;
+      });
+      if (lote == null || lote.isEmpty()) {
+        break;
+      }
+      ultimo = (Long) lote.get(lote.size() - 1)[0];
+      total += lote.size();
+    }
+    log.info("Termos clínicos reindexados: {} prontuários", total);
+  }
+
+  private void exigirPronto() {
+    if (!pronto) {
+      throw new RuntimeException("Índice de termos clínicos em carga, tente novamente em instantes");
+    }
+  }
+
+  // Sem transação a gravação já está confirmada
+  private static void aoConcluir(Runnable concluir) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      concluir.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        concluir.run();
+      }
+    });
+  }
+
+  private static void aoDesfazer(Runnable desfazer) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          desfazer.run();
+        }
+      }
+    });
+  }
+}
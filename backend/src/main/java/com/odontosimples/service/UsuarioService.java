@@ -3,6 +3,7 @@ package com.odontosimples.service;
 import com.odontosimples.entity.Usuario;
 import com.odontosimples.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,6 +24,9 @@ public class UsuarioService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private FiltroUnicidade filtroUnicidade;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -32,12 +36,14 @@ public class UsuarioService implements UserDetailsService {
     }
 
     public Usuario criarUsuario(Usuario usuario) {
-        if (usuarioRepository.existsByEmail(usuario.getEmail())) {
+        if (emailExiste(usuario.getEmail())) {
             throw new RuntimeException("Email já está em uso");
         }
         
         usuario.setSenha(passwordEncoder.encode(usuario.getSenha()));
-        return usuarioRepository.save(usuario);
+        Usuario salvo = salvar(usuario);
+        filtroUnicidade.registrar(FiltroUnicidade.Campo.EMAIL_USUARIO, salvo.getEmail());
+        return salvo;
     }
 
     public Usuario atualizarUsuario(Long id, Usuario usuarioAtualizado) {
@@ -48,13 +54,27 @@ public class UsuarioService implements UserDetailsService {
         
         // Só atualiza email se for diferente e não existir
         if (!usuario.getEmail().equals(usuarioAtualizado.getEmail())) {
-            if (usuarioRepository.existsByEmail(usuarioAtualizado.getEmail())) {
+            if (emailExiste(usuarioAtualizado.getEmail())) {
                 throw new RuntimeException("Email já está em uso");
             }
+            filtroUnicidade.substituir(FiltroUnicidade.Campo.EMAIL_USUARIO, usuario.getEmail(),
+                    usuarioAtualizado.getEmail());
             usuario.setEmail(usuarioAtualizado.getEmail());
         }
         
-        return usuarioRepository.save(usuario);
+        return salvar(usuario);
+    }
+
+    // Flush imediato para a restrição UNIQUE do e-mail falhar aqui, e não no commit
+    private Usuario salvar(Usuario usuario) {
+        try {
+            return usuarioRepository.saveAndFlush(usuario);
+        } catch (DataIntegrityViolationException e) {
+            if (FiltroUnicidade.violou(FiltroUnicidade.Campo.EMAIL_USUARIO, e)) {
+                throw new RuntimeException("Email já está em uso");
+            }
+            throw e;
+        }
     }
 
     public void alterarSenha(Long id, String senhaAtual, String novaSenha) {
@@ -106,7 +126,7 @@ public class UsuarioService implements UserDetailsService {
     }
 
     public boolean emailExiste(String email) {
-        return usuarioRepository.existsByEmail(email);
+        return filtroUnicidade.existe(FiltroUnicidade.Campo.EMAIL_USUARIO, email, usuarioRepository::existsByEmail);
     }
 
     public Usuario alterarRole(Long id, Usuario.Role novaRole) {
@@ -0,0 +1,27 @@
+package com.odontosimples.util;
+
+// Validação dos dígitos verificadores do CPF (11 dígitos, sem máscara)
+public final class Cpf {
+
+    private Cpf() {}
+
+    public static boolean valido(String cpf) {
+        if (cpf == null || !cpf.matches("\\d{11}")) {
+            return false;
+        }
+        // 000.000.000-00, 111.111.111-11... passam no cálculo mas não existem
+        if (cpf.chars().distinct().count() == 1) {
+            return false;
+        }
+        return digito(cpf, 9) == cpf.charAt(9) - '0' && digito(cpf, 10) == cpf.charAt(10) - '0';
+    }
+
+    private static int digito(String cpf, int posicao) {
+        int soma = 0;
+        for (int i = 0; i < posicao; i++) {
+            soma += (cpf.charAt(i) - '0') * (posicao + 1 - i);
+        }
+        int resto = soma * 10 % 11;
+        return resto == 10 ? 0 : resto;
+    }
+}
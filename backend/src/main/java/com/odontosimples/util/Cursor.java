@@ -0,0 +1,68 @@
+package com.odontosimples.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Posição de uma listagem paginada por chave (keyset): valor da coluna de ordenação e id
+// do último item devolvido. Para o cliente é um texto opaco; campo e direção vão junto
+// para que um cursor não seja reaproveitado com outra ordenação.
+public final class Cursor {
+
+    private static final String SEPARADOR = "|";
+
+    private final String campo;
+    private final boolean decrescente;
+    private final String valor;
+    private final Long id;
+
+    public Cursor(String campo, boolean decrescente, Object valor, Long id) {
+        this.campo = campo;
+        this.decrescente = decrescente;
+        this.valor = String.valueOf(valor);
+        this.id = id;
+    }
+
+    public String codificar() {
+        String texto = campo + SEPARADOR + (decrescente ? "desc" : "asc") + SEPARADOR + id + SEPARADOR + valor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Lança RuntimeException se o cursor for inválido ou de outra ordenação
+    public static Cursor decodificar(String cursor, String campo, boolean decrescente) {
+        String[] partes;
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // o valor é a última parte e pode conter o separador (ex.: nomes)
+            partes = texto.split("\\" + SEPARADOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+        if (partes.length != 4) {
+            throw new RuntimeException("Cursor inválido");
+        }
+        if (!partes[0].equals(campo) || !partes[1].equals(decrescente ? "desc" : "asc")) {
+            throw new RuntimeException("Cursor não corresponde à ordenação solicitada");
+        }
+        try {
+            return new Cursor(campo, decrescente, partes[3], Long.valueOf(partes[2]));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Cursor inválido");
+        }
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    public boolean isDecrescente() {
+        return decrescente;
+    }
+
+    public String getValor() {
+        return valor;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
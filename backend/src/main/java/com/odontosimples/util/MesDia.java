@@ -0,0 +1,43 @@
+package com.odontosimples.util;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Mês e dia como MMDD (15/03 -> 315), o formato da coluna pacientes.mes_dia, e as
+// faixas de mes_dia que cobrem um período de datas
+public final class MesDia {
+
+    public static final short PRIMEIRO = 101;
+    public static final short ULTIMO = 1231;
+    private static final short VINTE_E_NOVE_DE_FEVEREIRO = 229;
+
+    private MesDia() {}
+
+    public static short de(LocalDate data) {
+        return (short) (data.getMonthValue() * 100 + data.getDayOfMonth());
+    }
+
+    // Faixas inclusivas, na ordem do calendário a partir de `inicio`: uma, ou duas quando o
+    // período atravessa a virada do ano. O período deve ter menos de um ano.
+    public static List<Faixa> faixas(LocalDate inicio, LocalDate fim) {
+        short de = de(inicio);
+        short ate = de(fim);
+        // em ano não bissexto, quem nasceu em 29/02 faz aniversário em 28/02
+        if (!fim.isLeapYear() && ate == VINTE_E_NOVE_DE_FEVEREIRO - 1) {
+            ate = VINTE_E_NOVE_DE_FEVEREIRO;
+        }
+        if (de <= ate && inicio.getYear() == fim.getYear()) {
+            return List.of(new Faixa(de, ate));
+        }
+        return List.of(new Faixa(de, ULTIMO), new Faixa(PRIMEIRO, ate));
+    }
+
+    public static Faixa doMes(int mes) {
+        if (mes < 1 || mes > 12) {
+            throw new RuntimeException("Mês inválido: " + mes);
+        }
+        return new Faixa((short) (mes * 100 + 1), (short) (mes * 100 + 31));
+    }
+
+    public record Faixa(short de, short ate) {}
+}
@@ -0,0 +1,351 @@
+package com.odontosimples.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Odontograma estruturado: 32 dentes permanentes e 20 decíduos (numeração FDI), cada um
+// num int de 32 bits -- bits 0-7 com as condições do dente inteiro (uma por bit) e bits
+// 8-27 com o código da condição de cada uma das 5 faces (4 bits por face). Gravado em
+// prontuarios.odontograma (bytea) como 1 byte de versão + 52 ints big-endian; a função
+// odontograma_achados (V12) lê o mesmo formato. Imutável: as alterações devolvem cópia.
+@JsonSerialize(using = Odontograma.Serializador.class)
+@JsonDeserialize(using = Odontograma.Desserializador.class)
+public final class Odontograma {
+
+    public static final int VERSAO = 1;
+
+    // Ordem dos dentes no formato binário; não pode mudar sem nova VERSAO
+    private static final int[] DENTES = {
+            11, 12, 13, 14, 15, 16, 17, 18, 21, 22, 23, 24, 25, 26, 27, 28,
+            31, 32, 33, 34, 35, 36, 37, 38, 41, 42, 43, 44, 45, 46, 47, 48,
+            51, 52, 53, 54, 55, 61, 62, 63, 64, 65, 71, 72, 73, 74, 75, 81, 82, 83, 84, 85};
+    private static final int[] POSICAO = new int[86];
+
+    public static final int TAMANHO_BYTES = 1 + DENTES.length * Integer.BYTES;
+
+    private static final int BITS_CONDICOES_DENTE = 8;
+    private static final int BITS_FACE = 4;
+    private static final int MASCARA_FACE = (1 << BITS_FACE) - 1;
+    private static final int MASCARA_RESERVADA = ~((1 << (BITS_CONDICOES_DENTE + 5 * BITS_FACE)) - 1);
+
+    public static final Odontograma VAZIO = new Odontograma(new int[DENTES.length]);
+
+    static {
+        Arrays.fill(POSICAO, -1);
+        for (int i = 0; i < DENTES.length; i++) {
+            POSICAO[DENTES[i]] = i;
+        }
+    }
+
+    // OCLUSAL vale como incisal nos anteriores, LINGUAL como palatina nos superiores
+    public enum Face {
+        MESIAL, DISTAL, OCLUSAL, VESTIBULAR, LINGUAL
+    }
+
+    // Códigos 0-15 são condições de face (um por face); 16-23 são do dente inteiro e
+    // podem se acumular (ex.: tratamento de canal e coroa). O código entra no achado
+    // pesquisável (dente * 100 + código), então não pode mudar.
+    public enum Condicao {
+        HIGIDO(0),
+        CARIE(1),
+        RESTAURACAO(2),
+        RESTAURACAO_DEFEITUOSA(3),
+        SELANTE(4),
+        FRATURA(5),
+        LESAO_NAO_CARIOSA(6),
+        MANCHA_BRANCA(7),
+        AUSENTE(16),
+        EXTRACAO_INDICADA(17),
+        IMPLANTE(18),
+        COROA(19),
+        TRATAMENTO_CANAL(20),
+        PROTESE_FIXA(21),
+        NAO_ERUPCIONADO(22),
+        MOBILIDADE(23);
+
+        private static final Condicao[] DA_FACE = new Condicao[16];
+
+        static {
+            for (Condicao condicao : values()) {
+                if (condicao.isDaFace()) {
+                    DA_FACE[condicao.codigo] = condicao;
+                }
+            }
+        }
+
+        private final int codigo;
+
+        Condicao(int codigo) {
+            this.codigo = codigo;
+        }
+
+        public int getCodigo() {
+            return codigo;
+        }
+
+        public boolean isDaFace() {
+            return codigo < 16;
+        }
+
+        private int bit() {
+            return 1 << (codigo - 16);
+        }
+    }
+
+    // Uma diferença entre dois odontogramas; face nula para as condições do dente inteiro,
+    // que aparecem como acrescentadas (antes nulo) ou retiradas (depois nulo)
+    public record Alteracao(int dente, Face face, Condicao antes, Condicao depois) {}
+
+    private final int[] dentes;
+
+    private Odontograma(int[] dentes) {
+        this.dentes = dentes;
+    }
+
+    public static boolean isDente(int dente) {
+        return dente >= 0 && dente < POSICAO.length && POSICAO[dente] >= 0;
+    }
+
+    // Chave de busca de uma condição num dente (ver odontograma_achados em V12)
+    public static int achado(int dente, Condicao condicao) {
+        posicao(dente);
+        if (condicao == Condicao.HIGIDO) {
+            throw new RuntimeException("Face hígida não é um achado pesquisável");
+        }
+        return dente * 100 + condicao.codigo;
+    }
+
+    public Condicao getFace(int dente, Face face) {
+        int palavra = dentes[posicao(dente)];
+        return Condicao.DA_FACE[(palavra >>> deslocamento(face)) & MASCARA_FACE];
+    }
+
+    public Set<Condicao> getCondicoes(int dente) {
+        return condicoesDoDente(dentes[posicao(dente)]);
+    }
+
+    public boolean tem(int dente, Condicao condicao) {
+        int palavra = dentes[posicao(dente)];
+        if (condicao.isDaFace()) {
+            for (Face face : Face.values()) {
+                if (((palavra >>> deslocamento(face)) & MASCARA_FACE) == condicao.codigo) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return (palavra & condicao.bit()) != 0;
+    }
+
+    public boolean isVazio() {
+        return equals(VAZIO);
+    }
+
+    public Odontograma comFace(int dente, Face face, Condicao condicao) {
+        if (!condicao.isDaFace()) {
+            throw new RuntimeException(condicao + " é condição do dente, não da face");
+        }
+        int posicao = posicao(dente);
+        int[] copia = dentes.clone();
+        copia[posicao] = (copia[posicao] & ~(MASCARA_FACE << deslocamento(face)))
+                | (condicao.codigo << deslocamento(face));
+        return new Odontograma(copia);
+    }
+
+    public Odontograma comCondicao(int dente, Condicao condicao, boolean presente) {
+        if (condicao.isDaFace()) {
+            throw new RuntimeException(condicao + " é condição da face, não do dente");
+        }
+        int posicao = posicao(dente);
+        int[] copia = dentes.clone();
+        copia[posicao] = presente ? copia[posicao] | condicao.bit() : copia[posicao] & ~condicao.bit();
+        return new Odontograma(copia);
+    }
+
+    // Diferenças deste odontograma (visita anterior) para `depois`, na ordem dos dentes;
+    // dentes iguais saem com uma comparação de int
+    public List<Alteracao> alteracoes(Odontograma depois) {
+        List<Alteracao> alteracoes = new ArrayList<>();
+        for (int i = 0; i < DENTES.length; i++) {
+            int diferenca = dentes[i] ^ depois.dentes[i];
+            if (diferenca == 0) {
+                continue;
+            }
+            for (Face face : Face.values()) {
+                if (((diferenca >>> deslocamento(face)) & MASCARA_FACE) != 0) {
+                    alteracoes.add(new Alteracao(DENTES[i], face,
+                            Condicao.DA_FACE[(dentes[i] >>> deslocamento(face)) & MASCARA_FACE],
+                            Condicao.DA_FACE[(depois.dentes[i] >>> deslocamento(face)) & MASCARA_FACE]));
+                }
+            }
+            for (Condicao condicao : condicoesDoDente(diferenca)) {
+                boolean tinha = (dentes[i] & condicao.bit()) != 0;
+                alteracoes.add(new Alteracao(DENTES[i], null, tinha ? condicao : null, tinha ? null : condicao));
+            }
+        }
+        return alteracoes;
+    }
+
+    public byte[] codificar() {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BYTES);
+        buffer.put((byte) VERSAO);
+        for (int palavra : dentes) {
+            buffer.putInt(palavra);
+        }
+        return buffer.array();
+    }
+
+    // Lança RuntimeException se os bytes não forem de um odontograma desta versão
+    public static Odontograma decodificar(byte[] bytes) {
+        if (bytes.length != TAMANHO_BYTES || bytes[0] != VERSAO) {
+            throw new RuntimeException("Odontograma em formato desconhecido");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        int[] dentes = new int[DENTES.length];
+        for (int i = 0; i < dentes.length; i++) {
+            int palavra = buffer.getInt();
+            boolean valido = (palavra & MASCARA_RESERVADA) == 0;
+            for (Face face : Face.values()) {
+                valido &= Condicao.DA_FACE[(palavra >>> deslocamento(face)) & MASCARA_FACE] != null;
+            }
+            if (!valido) {
+                throw new RuntimeException("Odontograma com condição desconhecida no dente " + DENTES[i]);
+            }
+            dentes[i] = palavra;
+        }
+        return new Odontograma(dentes);
+    }
+
+    private static int posicao(int dente) {
+        if (!isDente(dente)) {
+            throw new RuntimeException("Dente inválido: " + dente);
+        }
+        return POSICAO[dente];
+    }
+
+    private static int deslocamento(Face face) {
+        return BITS_CONDICOES_DENTE + face.ordinal() * BITS_FACE;
+    }
+
+    private static Set<Condicao> condicoesDoDente(int palavra) {
+        Set<Condicao> condicoes = EnumSet.noneOf(Condicao.class);
+        for (Condicao condicao : Condicao.values()) {
+            if (!condicao.isDaFace() && (palavra & condicao.bit()) != 0) {
+                condicoes.add(condicao);
+            }
+        }
+        return condicoes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Odontograma outro && Arrays.equals(dentes, outro.dentes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(dentes);
+    }
+
+    // JSON da API: só os dentes com alguma condição, na ordem FDI
+    // {"36": {"faces": {"OCLUSAL": "CARIE"}, "condicoes": ["TRATAMENTO_CANAL"]}}
+    static class Serializador extends StdSerializer<Odontograma> {
+
+        private static final long serialVersionUID = 1L;
+
+        Serializador() {
+            super(Odontograma.class);
+        }
+
+        @Override
+        public void serialize(Odontograma odontograma, JsonGenerator gerador, SerializerProvider provider)
+                throws IOException {
+            gerador.writeStartObject();
+            for (int i = 0; i < DENTES.length; i++) {
+                int palavra = odontograma.dentes[i];
+                if (palavra == 0) {
+                    continue;
+                }
+                gerador.writeObjectFieldStart(String.valueOf(DENTES[i]));
+                gerador.writeObjectFieldStart("faces");
+                for (Face face : Face.values()) {
+                    Condicao condicao = Condicao.DA_FACE[(palavra >>> deslocamento(face)) & MASCARA_FACE];
+                    if (condicao != Condicao.HIGIDO) {
+                        gerador.writeStringField(face.name(), condicao.name());
+                    }
+                }
+                gerador.writeEndObject();
+                gerador.writeArrayFieldStart("condicoes");
+                for (Condicao condicao : condicoesDoDente(palavra)) {
+                    gerador.writeString(condicao.name());
+                }
+                gerador.writeEndArray();
+                gerador.writeEndObject();
+            }
+            gerador.writeEndObject();
+        }
+    }
+
+    static class Desserializador extends StdDeserializer<Odontograma> {
+
+        private static final long serialVersionUID = 1L;
+
+        Desserializador() {
+            super(Odontograma.class);
+        }
+
+        @Override
+        public Odontograma deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            JsonNode raiz = parser.getCodec().readTree(parser);
+            if (!raiz.isObject()) {
+                throw JsonMappingException.from(parser, "Odontograma deve ser um objeto por dente");
+            }
+            int[] dentes = new int[DENTES.length];
+            try {
+                for (Iterator<Map.Entry<String, JsonNode>> it = raiz.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> dente = it.next();
+                    int posicao = posicao(Integer.parseInt(dente.getKey()));
+                    for (Iterator<Map.Entry<String, JsonNode>> faces = dente.getValue().path("faces").fields(); faces.hasNext(); ) {
+                        Map.Entry<String, JsonNode> face = faces.next();
+                        Condicao condicao = Condicao.valueOf(face.getValue().asText());
+                        if (!condicao.isDaFace()) {
+                            throw new RuntimeException(condicao + " é condição do dente, não da face");
+                        }
+                        dentes[posicao] |= condicao.codigo << deslocamento(Face.valueOf(face.getKey()));
+                    }
+                    for (JsonNode valor : dente.getValue().path("condicoes")) {
+                        Condicao condicao = Condicao.valueOf(valor.asText());
+                        if (condicao.isDaFace()) {
+                            throw new RuntimeException(condicao + " é condição da face, não do dente");
+                        }
+                        dentes[posicao] |= condicao.bit();
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException e valueOf de enum
+                throw JsonMappingException.from(parser, "Odontograma inválido: " + e.getMessage());
+            } catch (RuntimeException e) {
+                throw JsonMappingException.from(parser, e.getMessage());
+            }
+            return new Odontograma(dentes);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.odontosimples.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Normalização usada nas colunas de busca (ex.: pacientes.busca) e nos termos buscados:
+// minúsculas sem acentos para texto, só dígitos para documentos e telefones
+public final class TextoBusca {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NAO_DIGITOS = Pattern.compile("\\D");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    // Termo com cara de CPF/telefone: dígitos e pontuação de máscara
+    private static final Pattern NUMERICO = Pattern.compile("[\\d\\s.\\-/()+]+");
+
+    private TextoBusca() {}
+
+    public static String texto(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(valor, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    public static String digitos(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String digitos = NAO_DIGITOS.matcher(valor).replaceAll("");
+        return digitos.isEmpty() ? null : digitos;
+    }
+
+    // Termo digitado pelo usuário: "123.456.789-00" vira "12345678900", "José" vira "jose"
+    public static String termo(String termo) {
+        if (termo == null) {
+            return "";
+        }
+        if (NUMERICO.matcher(termo).matches() && digitos(termo) != null) {
+            return digitos(termo);
+        }
+        return texto(termo);
+    }
+
+    public static String juntar(String... partes) {
+        return Arrays.stream(partes).filter(Objects::nonNull).filter(p -> !p.isEmpty())
+                .collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,23 @@
+-- Busca textual nos prontuários. Os LIKE '%termo%' em cinco colunas TEXT liam a tabela
+-- inteira; agora uma coluna tsvector gerada pelo banco (sempre em dia com as colunas de
+-- origem) e um índice GIN respondem às buscas com ranking por relevância.
+--
+-- Configuração: a portuguese (stemming e stopwords) com unaccent antes, para "carie"
+-- achar "cárie". Os pesos priorizam o que resume o atendimento:
+--   A: queixa principal e diagnóstico
+--   B: procedimentos realizados e plano de tratamento
+--   C: anamnese
+CREATE TEXT SEARCH CONFIGURATION portugues_sem_acento (COPY = portuguese);
+
+ALTER TEXT SEARCH CONFIGURATION portugues_sem_acento
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+ALTER TABLE prontuarios ADD COLUMN busca tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('portugues_sem_acento', coalesce(queixa_principal, '')), 'A') ||
+    setweight(to_tsvector('portugues_sem_acento', coalesce(diagnostico, '')), 'A') ||
+    setweight(to_tsvector('portugues_sem_acento', coalesce(procedimentos_realizados, '')), 'B') ||
+    setweight(to_tsvector('portugues_sem_acento', coalesce(plano_tratamento, '')), 'B') ||
+    setweight(to_tsvector('portugues_sem_acento', coalesce(anamnese, '')), 'C')
+) STORED;
+
+CREATE INDEX idx_prontuarios_busca ON prontuarios USING gin (busca) WHERE active;
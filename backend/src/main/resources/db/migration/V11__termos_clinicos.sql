@@ -0,0 +1,22 @@
+-- Índice invertido de termos clínicos: medicamentos, classes e alérgenos extraídos de
+-- alergias, medicamentos_uso e prescricoes de cada prontuário ativo, normalizados pelo
+-- dicionário da aplicação (DicionarioMedicamentos). Mantido a cada gravação do prontuário
+-- (ProntuarioTermosListener) e refeito por inteiro quando o dicionário muda.
+--
+-- As chaves estrangeiras são adiadas para o commit: as linhas são gravadas durante o flush,
+-- quando o INSERT do prontuário ainda pode estar no lote JDBC pendente.
+CREATE TABLE termos_clinicos (
+    prontuario_id  BIGINT       NOT NULL REFERENCES prontuarios (id) DEFERRABLE INITIALLY DEFERRED,
+    campo          VARCHAR(20)  NOT NULL,
+    termo          VARCHAR(100) NOT NULL,
+    paciente_id    BIGINT       NOT NULL REFERENCES pacientes (id) DEFERRABLE INITIALLY DEFERRED,
+    PRIMARY KEY (prontuario_id, campo, termo)
+);
+
+CREATE INDEX idx_termos_clinicos_termo ON termos_clinicos (campo, termo, paciente_id);
+
+-- Versão (SHA-256) do dicionário com que termos_clinicos foi montada
+CREATE TABLE termos_clinicos_dicionario (
+    id      SMALLINT    PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    versao  VARCHAR(64) NOT NULL
+);
@@ -0,0 +1,40 @@
+-- Odontograma estruturado (ver Odontograma): 1 byte de versão + 52 dentes em int de 32 bits
+-- big-endian, na ordem FDI 11-18, 21-28, 31-38, 41-48, 51-55, 61-65, 71-75, 81-85. O texto
+-- livre anterior, em formato diferente em cada clínica, fica em odontograma_texto.
+ALTER TABLE prontuarios RENAME COLUMN odontograma TO odontograma_texto;
+
+ALTER TABLE prontuarios ADD COLUMN odontograma BYTEA
+    CONSTRAINT prontuarios_odontograma_formato
+    CHECK (octet_length(odontograma) = 209 AND get_byte(odontograma, 0) = 1);
+
+-- Achados do odontograma como dente * 100 + código da condição (3601 = cárie no 36): os
+-- códigos das faces (bits 8-27, 4 por face) e um por bit de condição do dente (bits 0-7,
+-- código 16 + bit). Mesmo cálculo de Odontograma.achado.
+CREATE FUNCTION odontograma_achados(odontograma BYTEA) RETURNS INTEGER[]
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS $$
+    SELECT coalesce(array_agg(DISTINCT dente.numero * 100 + achado.codigo), '{}')
+    FROM unnest(ARRAY[11, 12, 13, 14, 15, 16, 17, 18, 21, 22, 23, 24, 25, 26, 27, 28,
+                      31, 32, 33, 34, 35, 36, 37, 38, 41, 42, 43, 44, 45, 46, 47, 48,
+                      51, 52, 53, 54, 55, 61, 62, 63, 64, 65, 71, 72, 73, 74, 75,
+                      81, 82, 83, 84, 85]) WITH ORDINALITY AS dente(numero, posicao)
+    CROSS JOIN LATERAL (
+        SELECT (get_byte(odontograma, 4 * dente.posicao::int - 3) << 24)
+             | (get_byte(odontograma, 4 * dente.posicao::int - 2) << 16)
+             | (get_byte(odontograma, 4 * dente.posicao::int - 1) << 8)
+             | get_byte(odontograma, 4 * dente.posicao::int) AS valor
+    ) palavra
+    CROSS JOIN LATERAL (
+        SELECT (palavra.valor >> (8 + 4 * face)) & 15 AS codigo
+        FROM generate_series(0, 4) AS face
+        UNION ALL
+        SELECT 16 + indice
+        FROM generate_series(0, 7) AS indice
+        WHERE (palavra.valor >> indice) & 1 = 1
+    ) achado
+    WHERE achado.codigo <> 0
+$$;
+
+-- "Pacientes com cárie no 36" vira um Bitmap Index Scan neste índice, sem ler o odontograma
+CREATE INDEX idx_prontuarios_odontograma_achados ON prontuarios
+    USING gin (odontograma_achados(odontograma)) WHERE active AND odontograma IS NOT NULL;
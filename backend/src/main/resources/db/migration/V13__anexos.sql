@@ -0,0 +1,24 @@
+-- Anexos (radiografias, fotos, documentos e comprovantes de pagamento). O conteúdo fica no
+-- armazém em disco endereçado pelo SHA-256 (ArmazemAnexos): anexos com o mesmo conteúdo
+-- apontam para o mesmo arquivo.
+CREATE TABLE anexos (
+    id             BIGINT       PRIMARY KEY,
+    sha256         CHAR(64)     NOT NULL,
+    tamanho        BIGINT       NOT NULL,
+    tipo_conteudo  VARCHAR(100) NOT NULL,
+    nome_arquivo   VARCHAR(255) NOT NULL,
+    categoria      VARCHAR(20)  NOT NULL,
+    paciente_id    BIGINT       NOT NULL REFERENCES pacientes (id),
+    prontuario_id  BIGINT       REFERENCES prontuarios (id),
+    pagamento_id   BIGINT       REFERENCES pagamentos (id),
+    created_at     TIMESTAMP(6) NOT NULL,
+    updated_at     TIMESTAMP(6),
+    active         BOOLEAN
+);
+
+CREATE SEQUENCE anexo_seq INCREMENT BY 50 OWNED BY anexos.id;
+ALTER TABLE anexos ALTER COLUMN id SET DEFAULT nextval('anexo_seq');
+
+CREATE INDEX idx_anexos_paciente ON anexos (paciente_id, created_at DESC) WHERE active;
+CREATE INDEX idx_anexos_prontuario ON anexos (prontuario_id) WHERE prontuario_id IS NOT NULL AND active;
+CREATE INDEX idx_anexos_pagamento ON anexos (pagamento_id) WHERE pagamento_id IS NOT NULL AND active;
@@ -0,0 +1,6 @@
+-- Token do feed iCalendar de cada dentista: apps de calendário assinam a URL sem JWT, então
+-- a URL leva um token aleatório. Guarda-se só o SHA-256 dele (hex); gerar um novo ou
+-- apagar a coluna revoga a URL anterior.
+ALTER TABLE dentistas ADD COLUMN token_agenda CHAR(64);
+
+CREATE UNIQUE INDEX idx_dentistas_token_agenda ON dentistas (token_agenda) WHERE token_agenda IS NOT NULL;
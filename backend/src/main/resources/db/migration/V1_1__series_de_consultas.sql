@@ -0,0 +1,3 @@
+-- Séries recorrentes: identifica as consultas geradas pela mesma série.
+-- Vem antes da V2, que indexa a coluna.
+ALTER TABLE consultas ADD COLUMN IF NOT EXISTS serie_id VARCHAR(36);
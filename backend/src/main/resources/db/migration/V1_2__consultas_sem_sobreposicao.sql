@@ -0,0 +1,46 @@
+-- Impede que duas consultas que ocupam agenda se sobreponham para o mesmo dentista.
+-- É a garantia entre nós da aplicação; dentro de um nó os agendamentos já são
+-- serializados por dentista (AgendaLocks).
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Bancos vindos do ddl-auto=update podem já ter horários sobrepostos, que impediriam a
+-- criação da restrição. Nenhuma consulta é alterada aqui: a migração para e lista as
+-- sobrepostas (cada uma começa antes do fim de uma anterior do mesmo dentista), para que
+-- sejam canceladas ou reagendadas antes de subir a aplicação de novo.
+DO $$
+DECLARE
+    sobrepostas TEXT;
+    total       BIGINT;
+BEGIN
+    WITH agenda AS (
+        SELECT id, dentista_id, data_hora, duracao_minutos,
+               max(data_hora + make_interval(mins => COALESCE(duracao_minutos, 0))) OVER (
+                   PARTITION BY dentista_id ORDER BY data_hora, id
+                   ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING) AS fim_anteriores
+        FROM consultas
+        WHERE active AND status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA')
+    ), conflitos AS (
+        SELECT id, dentista_id, data_hora
+        FROM agenda
+        WHERE COALESCE(duracao_minutos, 0) > 0 AND fim_anteriores > data_hora
+    )
+    SELECT count(*),
+           string_agg(format('consulta %s (dentista %s, %s)', id, dentista_id, data_hora), '; ')
+               FILTER (WHERE rn <= 50)
+      INTO total, sobrepostas
+      FROM (SELECT *, row_number() OVER (ORDER BY dentista_id, data_hora) AS rn FROM conflitos) c;
+
+    IF total > 0 THEN
+        RAISE EXCEPTION '% consulta(s) sobrepostas a outra do mesmo dentista; cancele ou reagende antes de migrar: %',
+            total, sobrepostas;
+    END IF;
+END $$;
+
+ALTER TABLE consultas DROP CONSTRAINT IF EXISTS consultas_sem_sobreposicao;
+
+ALTER TABLE consultas ADD CONSTRAINT consultas_sem_sobreposicao
+    EXCLUDE USING gist (
+        dentista_id WITH =,
+        tsrange(data_hora, data_hora + make_interval(mins => COALESCE(duracao_minutos, 0)), '[)') WITH &&
+    )
+    WHERE (active AND status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA'));
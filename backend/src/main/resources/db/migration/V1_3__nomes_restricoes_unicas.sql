@@ -0,0 +1,38 @@
+-- O ddl-auto=update criava as restrições UNIQUE com nomes gerados (UK_...). O código
+-- reconhece as violações de CPF e e-mail pelo nome da restrição (FiltroUnicidade.violou),
+-- então todas passam a ter o nome padrão do PostgreSQL (<tabela>_<coluna>_key).
+-- Em bancos criados pela V1 os nomes já são esses e nada muda.
+DO $$
+DECLARE
+    restricao RECORD;
+    atual     NAME;
+BEGIN
+    FOR restricao IN
+        SELECT * FROM (VALUES
+            ('usuarios',    'email',       'usuarios_email_key'),
+            ('pacientes',   'cpf',         'pacientes_cpf_key'),
+            ('dentistas',   'cro',         'dentistas_cro_key'),
+            ('dentistas',   'usuario_id',  'dentistas_usuario_id_key'),
+            ('prontuarios', 'consulta_id', 'prontuarios_consulta_id_key'),
+            ('pagamentos',  'consulta_id', 'pagamentos_consulta_id_key')
+        ) AS r (tabela, coluna, nome)
+    LOOP
+        SELECT c.conname INTO atual
+          FROM pg_constraint c
+          JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+         WHERE c.conrelid = restricao.tabela::regclass
+           AND c.contype = 'u'
+           AND array_length(c.conkey, 1) = 1
+           AND a.attname = restricao.coluna
+         ORDER BY c.conname = restricao.nome DESC
+         LIMIT 1;
+
+        IF atual IS NULL THEN
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I UNIQUE (%I)',
+                           restricao.tabela, restricao.nome, restricao.coluna);
+        ELSIF atual <> restricao.nome THEN
+            EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I',
+                           restricao.tabela, atual, restricao.nome);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,136 @@
+-- Esquema inicial, equivalente ao que o ddl-auto=update gerava a partir das entidades.
+-- Bancos já existentes entram nesta versão pelo baseline (spring.flyway.baseline-on-migrate)
+-- e não a executam: tudo que veio depois do ddl-auto=update fica nas versões seguintes.
+
+CREATE TABLE usuarios (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome        VARCHAR(100) NOT NULL,
+    email       VARCHAR(150) NOT NULL,
+    senha       VARCHAR(255) NOT NULL,
+    role        VARCHAR(255) NOT NULL,
+    telefone    VARCHAR(20),
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6),
+    active      BOOLEAN,
+    CONSTRAINT usuarios_email_key UNIQUE (email)
+);
+
+CREATE TABLE pacientes (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome                 VARCHAR(100) NOT NULL,
+    cpf                  VARCHAR(11)  NOT NULL,
+    rg                   VARCHAR(20),
+    data_nascimento      DATE         NOT NULL,
+    telefone             VARCHAR(20)  NOT NULL,
+    email                VARCHAR(150),
+    cep                  VARCHAR(8),
+    logradouro           VARCHAR(200),
+    numero               VARCHAR(10),
+    complemento          VARCHAR(100),
+    bairro               VARCHAR(100),
+    cidade               VARCHAR(100),
+    estado               VARCHAR(2),
+    observacoes          TEXT,
+    profissao            VARCHAR(100),
+    estado_civil         VARCHAR(255),
+    contato_emergencia   VARCHAR(100),
+    telefone_emergencia  VARCHAR(20),
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6),
+    active               BOOLEAN,
+    CONSTRAINT pacientes_cpf_key UNIQUE (cpf)
+);
+
+CREATE TABLE dentistas (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome            VARCHAR(100) NOT NULL,
+    cro             VARCHAR(10)  NOT NULL,
+    cro_estado      VARCHAR(2)   NOT NULL,
+    especialidades  VARCHAR(500),
+    telefone        VARCHAR(20)  NOT NULL,
+    email           VARCHAR(150),
+    horario_inicio  TIME(6),
+    horario_fim     TIME(6),
+    dias_trabalho   VARCHAR(20),
+    tempo_consulta  INTEGER,
+    observacoes     TEXT,
+    usuario_id      BIGINT REFERENCES usuarios (id),
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    active          BOOLEAN,
+    CONSTRAINT dentistas_cro_key UNIQUE (cro),
+    CONSTRAINT dentistas_usuario_id_key UNIQUE (usuario_id)
+);
+
+CREATE TABLE consultas (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    paciente_id           BIGINT       NOT NULL REFERENCES pacientes (id),
+    dentista_id           BIGINT       NOT NULL REFERENCES dentistas (id),
+    data_hora             TIMESTAMP(6) NOT NULL,
+    status                VARCHAR(255) NOT NULL,
+    observacoes           TEXT,
+    valor                 NUMERIC(10, 2),
+    duracao_minutos       INTEGER,
+    tipo_consulta         VARCHAR(255),
+    primeira_consulta     BOOLEAN,
+    data_reagendamento    TIMESTAMP(6),
+    motivo_reagendamento  VARCHAR(500),
+    created_at            TIMESTAMP(6) NOT NULL,
+    updated_at            TIMESTAMP(6),
+    active                BOOLEAN
+);
+
+CREATE TABLE prontuarios (
+    id                        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    paciente_id               BIGINT NOT NULL REFERENCES pacientes (id),
+    dentista_id               BIGINT NOT NULL REFERENCES dentistas (id),
+    consulta_id               BIGINT REFERENCES consultas (id),
+    data_consulta             DATE   NOT NULL,
+    anamnese                  TEXT,
+    exame_clinico             TEXT,
+    diagnostico               TEXT,
+    plano_tratamento          TEXT,
+    procedimentos_realizados  TEXT,
+    prescricoes               TEXT,
+    observacoes               TEXT,
+    proxima_consulta          DATE,
+    status_tratamento         VARCHAR(255),
+    queixa_principal          TEXT,
+    historia_doenca_atual     TEXT,
+    historia_medica           TEXT,
+    medicamentos_uso          TEXT,
+    alergias                  TEXT,
+    habitos                   TEXT,
+    pressao_arterial          VARCHAR(20),
+    temperatura               VARCHAR(10),
+    exame_extraoral           TEXT,
+    exame_intraoral           TEXT,
+    odontograma               TEXT,
+    created_at                TIMESTAMP(6) NOT NULL,
+    updated_at                TIMESTAMP(6),
+    active                    BOOLEAN,
+    CONSTRAINT prontuarios_consulta_id_key UNIQUE (consulta_id)
+);
+
+CREATE TABLE pagamentos (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    consulta_id       BIGINT         NOT NULL REFERENCES consultas (id),
+    valor             NUMERIC(10, 2) NOT NULL,
+    valor_desconto    NUMERIC(10, 2),
+    valor_final       NUMERIC(10, 2),
+    data_vencimento   DATE           NOT NULL,
+    data_pagamento    TIMESTAMP(6),
+    forma_pagamento   VARCHAR(255),
+    status            VARCHAR(255)   NOT NULL,
+    observacoes       TEXT,
+    numero_parcelas   INTEGER,
+    parcela_atual     INTEGER,
+    comprovante       VARCHAR(500),
+    numero_transacao  VARCHAR(100),
+    taxa_cartao       NUMERIC(5, 2),
+    valor_liquido     NUMERIC(10, 2),
+    created_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6),
+    active            BOOLEAN,
+    CONSTRAINT pagamentos_consulta_id_key UNIQUE (consulta_id)
+);
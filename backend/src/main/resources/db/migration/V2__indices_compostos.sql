@@ -0,0 +1,45 @@
+-- Índices para as consultas por período. As buscas por dia usam intervalos
+-- semiabertos (coluna >= início AND coluna < fim) em vez de DATE(coluna), então
+-- podem percorrer só a faixa do índice. Quase todas as consultas filtram active,
+-- por isso os índices são parciais.
+
+-- Agenda do dentista (dia, semana, conflitos, agendamento em lote)
+CREATE INDEX idx_consultas_dentista_data_hora
+    ON consultas (dentista_id, data_hora) WHERE active;
+
+-- Agenda do dia de toda a clínica, contadores e relatórios por período
+CREATE INDEX idx_consultas_data_hora
+    ON consultas (data_hora) WHERE active;
+
+-- Histórico do paciente, mais recentes primeiro
+CREATE INDEX idx_consultas_paciente_data_hora
+    ON consultas (paciente_id, data_hora DESC) WHERE active;
+
+-- "Esta e as seguintes" de uma série recorrente
+CREATE INDEX idx_consultas_serie_data_hora
+    ON consultas (serie_id, data_hora) WHERE serie_id IS NOT NULL;
+
+-- Vencimentos e contas em atraso (status = 'PENDENTE' AND data_vencimento < ?)
+CREATE INDEX idx_pagamentos_status_vencimento
+    ON pagamentos (status, data_vencimento) WHERE active;
+
+-- Receitas por dia/período
+CREATE INDEX idx_pagamentos_status_data_pagamento
+    ON pagamentos (status, data_pagamento) WHERE active;
+
+-- Listagem paginada ordenada por vencimento
+CREATE INDEX idx_pagamentos_vencimento
+    ON pagamentos (data_vencimento DESC) WHERE active;
+
+-- Prontuários do paciente, mais recentes primeiro
+CREATE INDEX idx_prontuarios_paciente_data_consulta
+    ON prontuarios (paciente_id, data_consulta DESC);
+
+CREATE INDEX idx_prontuarios_dentista_data_consulta
+    ON prontuarios (dentista_id, data_consulta DESC);
+
+CREATE INDEX idx_prontuarios_data_consulta
+    ON prontuarios (data_consulta) WHERE active;
+
+CREATE INDEX idx_prontuarios_proxima_consulta
+    ON prontuarios (proxima_consulta) WHERE active;
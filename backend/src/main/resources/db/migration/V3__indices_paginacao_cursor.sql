@@ -0,0 +1,15 @@
+-- Índices das listagens paginadas por cursor. A busca "após (valor, id)" vira uma
+-- varredura de faixa no índice a partir da última linha vista, na ordem do ORDER BY
+-- (a mesma árvore é lida de trás para frente nas listagens decrescentes).
+
+-- Substitui o índice só em data_hora: (data_hora, id) serve às mesmas buscas por período
+DROP INDEX IF EXISTS idx_consultas_data_hora;
+CREATE INDEX idx_consultas_data_hora_id
+    ON consultas (data_hora, id) WHERE active;
+
+CREATE INDEX idx_pacientes_nome_id
+    ON pacientes (nome, id) WHERE active;
+
+DROP INDEX IF EXISTS idx_pagamentos_vencimento;
+CREATE INDEX idx_pagamentos_vencimento_id
+    ON pagamentos (data_vencimento, id) WHERE active;
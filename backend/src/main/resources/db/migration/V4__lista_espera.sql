@@ -0,0 +1,28 @@
+CREATE TABLE lista_espera (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    paciente_id      BIGINT       NOT NULL REFERENCES pacientes (id),
+    dentista_id      BIGINT       REFERENCES dentistas (id),
+    especialidade    VARCHAR(100),
+    data_inicio      DATE         NOT NULL,
+    data_fim         DATE         NOT NULL,
+    hora_inicio      TIME(6)      NOT NULL,
+    hora_fim         TIME(6)      NOT NULL,
+    duracao_minutos  INTEGER      NOT NULL,
+    prioridade       INTEGER      NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    consulta_id      BIGINT       REFERENCES consultas (id),
+    data_oferta      TIMESTAMP(6),
+    observacoes      TEXT,
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6),
+    active           BOOLEAN,
+    CONSTRAINT lista_espera_consulta_id_key UNIQUE (consulta_id),
+    CONSTRAINT lista_espera_dentista_ou_especialidade CHECK (dentista_id IS NOT NULL OR especialidade IS NOT NULL)
+);
+
+-- Carga do motor de lista de espera na subida (só quem ainda aguarda)
+CREATE INDEX idx_lista_espera_aguardando
+    ON lista_espera (data_fim) WHERE status = 'AGUARDANDO' AND active;
+
+CREATE INDEX idx_lista_espera_paciente
+    ON lista_espera (paciente_id);
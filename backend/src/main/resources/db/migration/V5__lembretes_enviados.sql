@@ -0,0 +1,15 @@
+-- Registro dos lembretes enviados. A chave inclui o horário da consulta: um reagendamento
+-- gera um novo lembrete, mas o mesmo horário nunca é lembrado duas vezes, mesmo com
+-- vários nós ou após um reinício no meio do envio.
+CREATE TABLE lembretes_enviados (
+    consulta_id         BIGINT       NOT NULL REFERENCES consultas (id),
+    tipo                VARCHAR(30)  NOT NULL,
+    data_hora_consulta  TIMESTAMP(6) NOT NULL,
+    status              VARCHAR(20)  NOT NULL,
+    tentativas          INTEGER      NOT NULL DEFAULT 1,
+    ultimo_erro         VARCHAR(500),
+    created_at          TIMESTAMP(6) NOT NULL DEFAULT now(),
+    updated_at          TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (consulta_id, tipo, data_hora_consulta),
+    CONSTRAINT lembretes_enviados_status_check CHECK (status IN ('ENVIANDO', 'ENVIADO', 'FALHOU'))
+);
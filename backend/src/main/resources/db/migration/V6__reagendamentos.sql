@@ -0,0 +1,30 @@
+-- Histórico de reagendamentos (só inserção). paciente_id e dentista_id são copiados da
+-- consulta para que o histórico de um paciente seja lido direto pelo índice.
+CREATE TABLE reagendamentos (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    consulta_id         BIGINT       NOT NULL REFERENCES consultas (id),
+    paciente_id         BIGINT       NOT NULL REFERENCES pacientes (id),
+    dentista_id         BIGINT       NOT NULL REFERENCES dentistas (id),
+    data_hora_anterior  TIMESTAMP(6) NOT NULL,
+    nova_data_hora      TIMESTAMP(6) NOT NULL,
+    motivo              VARCHAR(500),
+    solicitado_por      VARCHAR(20),
+    usuario             VARCHAR(100),
+    created_at          TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_reagendamentos_consulta ON reagendamentos (consulta_id, created_at);
+CREATE INDEX idx_reagendamentos_paciente_data ON reagendamentos (paciente_id, data_hora_anterior DESC);
+CREATE INDEX idx_reagendamentos_created_at ON reagendamentos (created_at);
+
+-- Faltas do paciente (histórico mostrado antes de cada agendamento)
+CREATE INDEX idx_consultas_paciente_faltas ON consultas (paciente_id, data_hora DESC)
+    WHERE status = 'FALTOU' AND active = true;
+
+-- Reagendamentos anteriores a esta versão: só o último de cada consulta ficou gravado
+INSERT INTO reagendamentos (consulta_id, paciente_id, dentista_id, data_hora_anterior, nova_data_hora,
+                            motivo, created_at)
+SELECT id, paciente_id, dentista_id, data_reagendamento, data_hora, motivo_reagendamento,
+       COALESCE(updated_at, created_at)
+FROM consultas
+WHERE data_reagendamento IS NOT NULL;
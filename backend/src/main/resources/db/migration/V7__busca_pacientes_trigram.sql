@@ -0,0 +1,18 @@
+-- Busca de pacientes por trigramas. A coluna busca guarda nome e e-mail em minúsculas e
+-- sem acentos, e CPF e telefone só com dígitos; é mantida pela aplicação (Paciente,
+-- @PrePersist/@PreUpdate) com a mesma normalização aplicada ao termo buscado.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+ALTER TABLE pacientes ADD COLUMN busca TEXT;
+
+-- unaccent só para a carga inicial; daqui em diante quem preenche é a aplicação
+UPDATE pacientes SET busca = concat_ws(' ',
+        lower(unaccent(nome)),
+        lower(unaccent(email)),
+        regexp_replace(cpf, '\D', '', 'g'),
+        nullif(regexp_replace(telefone, '\D', '', 'g'), ''));
+
+ALTER TABLE pacientes ALTER COLUMN busca SET NOT NULL;
+
+CREATE INDEX idx_pacientes_busca_trgm ON pacientes USING gin (busca gin_trgm_ops) WHERE active = true;
@@ -0,0 +1,41 @@
+-- Ids das entidades de BaseEntity passam de IDENTITY para sequências com incremento 50.
+-- O Hibernate usa o otimizador pooled-lo (cada nextval reserva o bloco [valor, valor + 50)),
+-- tira os ids da memória e manda os INSERTs em batch. Os nomes são os implícitos do
+-- Hibernate 6 (<entidade>_seq). A coluna continua com default na sequência para inserções
+-- fora do Hibernate: cada uma consome um bloco, sem colidir com os reservados.
+-- reagendamentos continua IDENTITY (uma linha por reagendamento, nunca em lote).
+
+ALTER TABLE usuarios ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE usuario_seq INCREMENT BY 50 OWNED BY usuarios.id;
+SELECT setval('usuario_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM usuarios), false);
+ALTER TABLE usuarios ALTER COLUMN id SET DEFAULT nextval('usuario_seq');
+
+ALTER TABLE pacientes ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE paciente_seq INCREMENT BY 50 OWNED BY pacientes.id;
+SELECT setval('paciente_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM pacientes), false);
+ALTER TABLE pacientes ALTER COLUMN id SET DEFAULT nextval('paciente_seq');
+
+ALTER TABLE dentistas ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE dentista_seq INCREMENT BY 50 OWNED BY dentistas.id;
+SELECT setval('dentista_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM dentistas), false);
+ALTER TABLE dentistas ALTER COLUMN id SET DEFAULT nextval('dentista_seq');
+
+ALTER TABLE consultas ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE consulta_seq INCREMENT BY 50 OWNED BY consultas.id;
+SELECT setval('consulta_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM consultas), false);
+ALTER TABLE consultas ALTER COLUMN id SET DEFAULT nextval('consulta_seq');
+
+ALTER TABLE prontuarios ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE prontuario_seq INCREMENT BY 50 OWNED BY prontuarios.id;
+SELECT setval('prontuario_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM prontuarios), false);
+ALTER TABLE prontuarios ALTER COLUMN id SET DEFAULT nextval('prontuario_seq');
+
+ALTER TABLE pagamentos ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE pagamento_seq INCREMENT BY 50 OWNED BY pagamentos.id;
+SELECT setval('pagamento_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM pagamentos), false);
+ALTER TABLE pagamentos ALTER COLUMN id SET DEFAULT nextval('pagamento_seq');
+
+ALTER TABLE lista_espera ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE listaespera_seq INCREMENT BY 50 OWNED BY lista_espera.id;
+SELECT setval('listaespera_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM lista_espera), false);
+ALTER TABLE lista_espera ALTER COLUMN id SET DEFAULT nextval('listaespera_seq');
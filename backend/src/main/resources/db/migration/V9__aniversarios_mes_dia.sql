@@ -0,0 +1,25 @@
+-- Aniversariantes pelo índice: mês e dia do nascimento como MMDD (15/03 -> 315), mantido
+-- pela aplicação (Paciente, @PrePersist/@PreUpdate). As buscas do dia, do mês e dos
+-- próximos dias viram faixas em mes_dia em vez de MONTH()/DAY() sobre data_nascimento,
+-- que obrigavam a ler a tabela inteira.
+ALTER TABLE pacientes ADD COLUMN mes_dia SMALLINT;
+
+UPDATE pacientes SET mes_dia = to_char(data_nascimento, 'MMDD')::smallint;
+
+ALTER TABLE pacientes ALTER COLUMN mes_dia SET NOT NULL;
+
+CREATE INDEX idx_pacientes_mes_dia ON pacientes (mes_dia) WHERE active;
+
+-- Mensagens de aniversário enviadas: uma por paciente por ano, mesmo com vários nós ou
+-- após um reinício no meio do envio (mesma reserva por INSERT ... ON CONFLICT dos lembretes)
+CREATE TABLE mensagens_aniversario (
+    paciente_id  BIGINT       NOT NULL REFERENCES pacientes (id),
+    ano          SMALLINT     NOT NULL,
+    status       VARCHAR(20)  NOT NULL,
+    tentativas   INTEGER      NOT NULL DEFAULT 1,
+    ultimo_erro  VARCHAR(500),
+    created_at   TIMESTAMP(6) NOT NULL DEFAULT now(),
+    updated_at   TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (paciente_id, ano),
+    CONSTRAINT mensagens_aniversario_status_check CHECK (status IN ('ENVIANDO', 'ENVIADO', 'FALHOU'))
+);
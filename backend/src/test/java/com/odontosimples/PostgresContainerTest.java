@@ -0,0 +1,38 @@
+package com.odontosimples;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Base para testes que precisam do PostgreSQL real (constraints, extensões, planos).
+// O container é único por JVM e compartilhado entre as classes de teste.
+public abstract class PostgresContainerTest {
+
+	protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	// Armazém de anexos descartável, fora do diretório do usuário
+	protected static final Path ANEXOS;
+
+	static {
+		POSTGRES.start();
+		try {
+			ANEXOS = Files.createTempDirectory("anexos-teste-");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+		registry.add("spring.datasource.username", POSTGRES::getUsername);
+		registry.add("spring.datasource.password", POSTGRES::getPassword);
+		registry.add("app.anexos.diretorio", ANEXOS::toString);
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.odontosimples.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.PacienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Download de anexos: sem sendfile (MockMvc), o corpo sai por StreamingResponseBody, assíncrono
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class AnexoControllerTest extends PostgresContainerTest {
+
+	private static final byte[] PDF = "%PDF-1.4 laudo radiográfico de teste".getBytes(StandardCharsets.UTF_8);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	private Long pacienteId;
+
+	@BeforeEach
+	void cadastrarPaciente() {
+		String cpf = String.format("9%010d", System.nanoTime() % 10_000_000_000L);
+		pacienteId = pacienteRepository.save(new Paciente("Paciente Anexos", cpf, LocalDate.of(1985, 6, 7),
+				"11977770000")).getId();
+	}
+
+	@Test
+	void baixaInteiroEmFaixaComCacheEForaDaFaixa() throws Exception {
+		long id = anexar(new MockMultipartFile("arquivo", "laudo.pdf", "application/pdf", PDF));
+		String url = "/api/anexos/" + id + "/conteudo";
+
+		MvcResult inteiro = mockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(inteiro))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+				.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("inline")))
+				.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+				.andExpect(content().bytes(PDF));
+		String etag = inteiro.getResponse().getHeader(HttpHeaders.ETAG);
+
+		MvcResult faixa = mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(faixa))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + PDF.length))
+				.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+				.andExpect(content().bytes(Arrays.copyOfRange(PDF, 2, 6)));
+
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+
+		mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=" + PDF.length + "-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + PDF.length));
+	}
+
+	@Test
+	void tipoAtivoVaiComoDownloadDeOctetStream() throws Exception {
+		long id = anexar(new MockMultipartFile("arquivo", "pagina.html", "text/html",
+				"<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8)));
+
+		MvcResult resultado = mockMvc.perform(get("/api/anexos/" + id + "/conteudo"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(resultado))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+				.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")));
+	}
+
+	@Test
+	@WithMockUser(roles = "RECEPCIONISTA")
+	void recepcionistaNaoAnexaAoProntuario() throws Exception {
+		mockMvc.perform(multipart("/api/anexos")
+						.file(new MockMultipartFile("arquivo", "raio-x.png", "image/png", PDF))
+						.param("categoria", "RADIOGRAFIA")
+						.param("prontuarioId", "1"))
+				.andExpect(status().isForbidden());
+	}
+
+	private long anexar(MockMultipartFile arquivo) throws Exception {
+		MvcResult resultado = mockMvc.perform(multipart("/api/anexos")
+						.file(arquivo)
+						.param("categoria", "DOCUMENTO")
+						.param("pacienteId", pacienteId.toString()))
+				.andExpect(status().isCreated())
+				.andReturn();
+		return objectMapper.readTree(resultado.getResponse().getContentAsString()).get("id").asLong();
+	}
+}
@@ -0,0 +1,153 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.service.ConsultaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cada endpoint de listagem de consultas deve montar o ConsultaDTO no banco, sem
+// SELECTs extras para paciente/dentista a cada linha
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ConsultaControllerProjecaoTest extends PostgresContainerTest {
+
+	// mais consultas que o tamanho da página, para que a listagem paginada faça o COUNT
+	private static final int CONSULTAS = 12;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ConsultaService consultaService;
+
+	@Autowired
+	private DentistaRepository dentistaRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	private Statistics statistics;
+
+	// agendadas uma vez para a classe (o container é compartilhado)
+	private static LocalDate data;
+	private static Long dentistaId;
+	private static Long pacienteId;
+	private static Long consultaId;
+
+	@BeforeEach
+	void agendarConsultas() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		if (consultaId != null) {
+			return;
+		}
+
+		Dentista dentista = new Dentista("Dentista Projecao", "77001", "SP", "1133330000");
+		dentista.setHorarioInicio(LocalTime.of(8, 0));
+		dentista.setHorarioFim(LocalTime.of(18, 0));
+		dentistaId = dentistaRepository.save(dentista).getId();
+
+		data = LocalDate.now().plusDays(60).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+		List<Consulta> consultas = new ArrayList<>();
+		for (int i = 0; i < CONSULTAS; i++) {
+			// um paciente por consulta: com carga LAZY seriam CONSULTAS SELECTs extras
+			Paciente paciente = pacienteRepository.save(new Paciente("Paciente Projecao " + i,
+					String.format("%011d", 90000000000L + i), LocalDate.of(1990, 1, 1), "11999990000"));
+			if (i == 0) {
+				pacienteId = paciente.getId();
+			}
+			Consulta consulta = new Consulta(paciente, dentista, data.atTime(8, 0).plusMinutes(30L * i));
+			consulta.setDuracaoMinutos(30);
+			consultas.add(consulta);
+		}
+		consultaId = consultaService.agendarLote(consultas).get(0).getId();
+	}
+
+	@Test
+	void consultasPorDataUsamUmSelect() throws Exception {
+		statistics.clear();
+		mockMvc.perform(get("/api/consultas/data/{data}", data))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(CONSULTAS))
+				.andExpect(jsonPath("$[0].pacienteNome").value("Paciente Projecao 0"))
+				.andExpect(jsonPath("$[0].dentistaCro").value("CRO-SP 77001"));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void consultasPorDentistaEDataUsamDoisSelects() throws Exception {
+		statistics.clear();
+		mockMvc.perform(get("/api/consultas/dentista/{dentistaId}/data/{data}", dentistaId, data))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(CONSULTAS));
+		// existência do dentista + consultas
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void consultasPorPacienteUsamUmSelect() throws Exception {
+		statistics.clear();
+		mockMvc.perform(get("/api/consultas/paciente/{pacienteId}", pacienteId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].pacienteTelefone").value("11999990000"));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void consultaPorIdUsaUmSelect() throws Exception {
+		statistics.clear();
+		mockMvc.perform(get("/api/consultas/{id}", consultaId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.dentistaNome").value("Dentista Projecao"));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void listagemPaginadaUsaSelectECount() throws Exception {
+		statistics.clear();
+		mockMvc.perform(get("/api/consultas").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(10));
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void buscaPorTermoUsaSelectECount() throws Exception {
+		statistics.clear();
+		mockMvc.perform(get("/api/consultas/buscar").param("termo", "Projecao").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(10))
+				.andExpect(jsonPath("$.totalElements").value(CONSULTAS));
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+}
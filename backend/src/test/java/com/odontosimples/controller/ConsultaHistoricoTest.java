@@ -0,0 +1,138 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.service.ConsultaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Reagendamentos gravados em reagendamentos, faltas só de consultas passadas e o histórico que junta os dois
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+@AutoConfigureMockMvc
+@WithMockUser(username = "recepcao@odontosimples.com", roles = "ADMIN")
+class ConsultaHistoricoTest extends PostgresContainerTest {
+
+	private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ConsultaService consultaService;
+
+	@Autowired
+	private DentistaRepository dentistaRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void reagendamentoEFaltaAparecemNoHistorico() throws Exception {
+		Dentista dentista = new Dentista("Dentista Historico", String.format("5%04d", System.nanoTime() % 10_000),
+				"SP", "1133332222");
+		dentista.setHorarioInicio(LocalTime.of(8, 0));
+		dentista.setHorarioFim(LocalTime.of(18, 0));
+		dentista = dentistaRepository.save(dentista);
+		Paciente paciente = pacienteRepository.save(new Paciente("Paciente Historico",
+				String.format("9%010d", System.nanoTime() % 10_000_000_000L), LocalDate.of(1980, 3, 4), "11966660000"));
+
+		LocalDateTime futuro = LocalDate.now().plusDays(90).with(TemporalAdjusters.nextOrSame(DayOfWeek.TUESDAY))
+				.atTime(9, 0);
+		Consulta passada = agendar(paciente, dentista, LocalDate.now().minusDays(1).atTime(10, 0));
+		Consulta aReagendar = agendar(paciente, dentista, futuro);
+		Consulta aindaPorVir = agendar(paciente, dentista, futuro.plusHours(2));
+
+		LocalDateTime novoHorario = futuro.plusDays(7);
+		mockMvc.perform(put("/api/consultas/" + aReagendar.getId() + "/reagendar")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"novaDataHora\": \"" + FORMATO.format(novoHorario) + "\", "
+								+ "\"motivo\": \"Paciente pediu outro horário\", \"solicitadoPor\": \"PACIENTE\"}"))
+				.andExpect(status().isOk());
+
+		Map<String, Object> reagendamento = jdbcTemplate.queryForMap("SELECT data_hora_anterior, nova_data_hora, " +
+				"motivo, solicitado_por, usuario, paciente_id, dentista_id FROM reagendamentos WHERE consulta_id = ?",
+				aReagendar.getId());
+		assertEquals(Timestamp.valueOf(futuro), reagendamento.get("data_hora_anterior"));
+		assertEquals(Timestamp.valueOf(novoHorario), reagendamento.get("nova_data_hora"));
+		assertEquals("PACIENTE", reagendamento.get("solicitado_por"));
+		assertEquals("recepcao@odontosimples.com", reagendamento.get("usuario"));
+		assertEquals(paciente.getId(), ((Number) reagendamento.get("paciente_id")).longValue());
+		assertEquals(dentista.getId(), ((Number) reagendamento.get("dentista_id")).longValue());
+
+		// Falta: não antes do horário (nem do novo horário de uma reagendada) e não duas vezes
+		mockMvc.perform(put("/api/consultas/" + aindaPorVir.getId() + "/faltou"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string(containsString("depois do horário")));
+		mockMvc.perform(put("/api/consultas/" + aReagendar.getId() + "/faltou"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(put("/api/consultas/" + passada.getId() + "/faltou"))
+				.andExpect(status().isOk());
+		mockMvc.perform(put("/api/consultas/" + passada.getId() + "/faltou"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/api/consultas/paciente/" + paciente.getId() + "/historico"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].tipo").value("REAGENDAMENTO"))
+				.andExpect(jsonPath("$[0].consultaId").value(aReagendar.getId()))
+				.andExpect(jsonPath("$[0].motivo").value("Paciente pediu outro horário"))
+				.andExpect(jsonPath("$[0].solicitadoPor").value("PACIENTE"))
+				.andExpect(jsonPath("$[1].tipo").value("FALTA"))
+				.andExpect(jsonPath("$[1].consultaId").value(passada.getId()));
+	}
+
+	@Test
+	void faltaEmConsultaReagendadaCujoNovoHorarioJaPassou() throws Exception {
+		Dentista dentista = new Dentista("Dentista Reagendada", String.format("6%04d", System.nanoTime() % 10_000),
+				"SP", "1133332222");
+		dentista.setHorarioInicio(LocalTime.of(8, 0));
+		dentista.setHorarioFim(LocalTime.of(18, 0));
+		dentista = dentistaRepository.save(dentista);
+		Paciente paciente = pacienteRepository.save(new Paciente("Paciente Reagendada",
+				String.format("9%010d", System.nanoTime() % 10_000_000_000L), LocalDate.of(1985, 6, 7), "11966661111"));
+
+		Consulta consulta = agendar(paciente, dentista, LocalDate.now().minusDays(3).atTime(11, 0));
+		consultaService.reagendarConsulta(consulta.getId(), LocalDate.now().minusDays(2).atTime(15, 0),
+				"Paciente pediu outro horário");
+
+		mockMvc.perform(put("/api/consultas/" + consulta.getId() + "/faltou"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("FALTOU"));
+	}
+
+	private Consulta agendar(Paciente paciente, Dentista dentista, LocalDateTime dataHora) {
+		Consulta consulta = new Consulta(paciente, dentista, dataHora);
+		consulta.setDuracaoMinutos(30);
+		return consultaService.agendarConsulta(consulta);
+	}
+}
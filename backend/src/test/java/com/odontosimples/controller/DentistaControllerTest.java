@@ -0,0 +1,79 @@
+package com.odontosimples.controller;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.repository.DentistaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.net.URI;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Feed .ics por token, sem JWT: como um app de calendário assinaria
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+@AutoConfigureMockMvc
+class DentistaControllerTest extends PostgresContainerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DentistaRepository dentistaRepository;
+
+	private Long dentistaId;
+
+	@BeforeEach
+	void cadastrarDentista() {
+		String cro = String.format("6%04d", System.nanoTime() % 10_000);
+		dentistaId = dentistaRepository.save(new Dentista("Dentista Feed", cro, "SP", "1133331111")).getId();
+	}
+
+	@Test
+	void feedPorTokenSemJwtCom304ERevogacao() throws Exception {
+		String url = mockMvc.perform(post("/api/dentistas/" + dentistaId + "/agenda.ics/token")
+						.with(user("admin").roles("ADMIN")))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String caminho = URI.create(url).getPath();
+
+		MvcResult resultado = mockMvc.perform(get(caminho)).andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(resultado))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("text/calendar")))
+				.andExpect(content().string(startsWith("BEGIN:VCALENDAR\r\n")));
+		String etag = resultado.getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get(caminho).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+
+		// Outro token, ou o mesmo depois de revogado, não dá acesso
+		mockMvc.perform(get("/api/dentistas/ics/token-inexistente/agenda.ics")).andExpect(status().isNotFound());
+		mockMvc.perform(delete("/api/dentistas/" + dentistaId + "/agenda.ics/token")
+						.with(user("admin").roles("ADMIN")))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(get(caminho)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void feedPorIdContinuaExigindoAutenticacao() throws Exception {
+		mockMvc.perform(get("/api/dentistas/" + dentistaId + "/agenda.ics"))
+				.andExpect(status().is4xxClientError());
+	}
+}
@@ -0,0 +1,44 @@
+package com.odontosimples.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dobra de linhas do iCalendar (RFC 5545, 3.1): no máximo 75 octetos por linha, sem partir caracteres
+class AgendaIcsServiceTest {
+
+	@Test
+	void linhaCurtaNaoDobra() {
+		assertEquals("SUMMARY:Consulta\r\n", escrever("SUMMARY:Consulta"));
+	}
+
+	@Test
+	void linhaLongaDobraEmAte75OctetosSemPartirCaracteres() {
+		String conteudo = "SUMMARY:" + "Consulta - João Conceição Araújo Magalhães ".repeat(6) + "😀 fim";
+
+		String escrito = escrever(conteudo);
+
+		assertTrue(escrito.endsWith("\r\n"));
+		String[] linhas = escrito.substring(0, escrito.length() - 2).split("\r\n", -1);
+		assertTrue(linhas.length > 1);
+		for (int i = 0; i < linhas.length; i++) {
+			assertTrue(linhas[i].getBytes(StandardCharsets.UTF_8).length <= 75, "linha " + i + " com mais de 75 octetos");
+			if (i > 0) {
+				assertTrue(linhas[i].startsWith(" "), "continuação sem espaço inicial");
+			}
+		}
+		// Desdobrar (CRLF seguido de espaço) devolve o conteúdo original
+		assertEquals(conteudo, escrito.substring(0, escrito.length() - 2).replace("\r\n ", ""));
+	}
+
+	private static String escrever(String conteudo) {
+		StringWriter writer = new StringWriter();
+		ReflectionTestUtils.invokeMethod(AgendaIcsService.class, "linha", writer, conteudo);
+		return writer.toString();
+	}
+}
@@ -0,0 +1,135 @@
+package com.odontosimples.service;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AgendamentoConcorrenteTest extends PostgresContainerTest {
+
+	private static final int DENTISTAS = 8;
+	private static final int AGENDAMENTOS = 4000;
+	private static final int THREADS = 64;
+	private static final String RECUSA = "Horário não disponível para este dentista";
+
+	@Autowired
+	private ConsultaService consultaService;
+
+	@Autowired
+	private DentistaRepository dentistaRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void agendamentosSimultaneosNaoGeramSobreposicao() throws Exception {
+		Paciente paciente = pacienteRepository.save(
+				new Paciente("Paciente Teste", "52998224725", LocalDate.of(1990, 1, 1), "11999990000"));
+
+		List<Long> dentistaIds = new ArrayList<>();
+		for (int i = 0; i < DENTISTAS; i++) {
+			Dentista dentista = new Dentista("Dentista " + i, String.valueOf(10000 + i), "SP", "1133330000");
+			dentista.setHorarioInicio(LocalTime.of(8, 0));
+			dentista.setHorarioFim(LocalTime.of(18, 0));
+			dentistaIds.add(dentistaRepository.save(dentista).getId());
+		}
+
+		LocalDateTime inicioDia = LocalDate.now().plusDays(30).atTime(8, 0);
+		AtomicInteger sucessos = new AtomicInteger();
+		AtomicInteger recusados = new AtomicInteger();
+		Queue<Throwable> inesperados = new ConcurrentLinkedQueue<>();
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+		for (int i = 0; i < AGENDAMENTOS; i++) {
+			executor.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				Consulta consulta = new Consulta();
+				consulta.setPaciente(referenciaPaciente(paciente.getId()));
+				consulta.setDentista(referenciaDentista(dentistaIds.get(random.nextInt(DENTISTAS))));
+				// horários em passos de 10 minutos com duração de 30: a maioria se sobrepõe
+				consulta.setDataHora(inicioDia.plusMinutes(10L * random.nextInt(48)));
+				consulta.setDuracaoMinutos(30);
+				try {
+					largada.await();
+					consultaService.agendarConsulta(consulta);
+					sucessos.incrementAndGet();
+				} catch (RuntimeException e) {
+					// só a recusa por conflito é esperada; pool esgotado, deadlock ou erro de SQL falham o teste
+					if (e.getClass() == RuntimeException.class && RECUSA.equals(e.getMessage())) {
+						recusados.incrementAndGet();
+					} else {
+						inesperados.add(e);
+					}
+				} catch (InterruptedException e) {
+					inesperados.add(e);
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+
+		largada.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+
+		assertTrue(inesperados.isEmpty(), () -> inesperados.size() + " falhas inesperadas, a primeira: "
+				+ inesperados.peek());
+		assertEquals(AGENDAMENTOS, sucessos.get() + recusados.get());
+		assertTrue(sucessos.get() > 0);
+
+		Integer sobreposicoes = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM consultas a JOIN consultas b " +
+				"ON a.dentista_id = b.dentista_id AND a.id < b.id " +
+				"AND a.data_hora < b.data_hora + make_interval(mins => b.duracao_minutos) " +
+				"AND b.data_hora < a.data_hora + make_interval(mins => a.duracao_minutos) " +
+				"WHERE a.active AND b.active " +
+				"AND a.status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA') " +
+				"AND b.status IN ('AGENDADA', 'CONFIRMADA', 'REAGENDADA')",
+				Integer.class);
+		assertEquals(0, sobreposicoes);
+
+		Integer gravadas = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM consultas WHERE paciente_id = ?", Integer.class, paciente.getId());
+		assertEquals(sucessos.get(), gravadas);
+	}
+
+	private static Paciente referenciaPaciente(Long id) {
+		Paciente paciente = new Paciente();
+		paciente.setId(id);
+		return paciente;
+	}
+
+	private static Dentista referenciaDentista(Long id) {
+		Dentista dentista = new Dentista();
+		dentista.setId(id);
+		return dentista;
+	}
+
+}
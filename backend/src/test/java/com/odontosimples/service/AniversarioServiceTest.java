@@ -0,0 +1,114 @@
+package com.odontosimples.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.MensagemAniversarioRepository;
+import com.odontosimples.repository.PacienteRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Uma mensagem por paciente por ano, mesmo com o despacho repetido no mesmo dia; SMTP local (GreenMail)
+@SpringBootTest(properties = {
+		"spring.mail.host=localhost",
+		"spring.mail.port=3025",
+		"spring.mail.username=",
+		"spring.mail.properties.mail.smtp.auth=false",
+		"spring.mail.properties.mail.smtp.starttls.enable=false",
+		"app.lembretes.habilitado=false",
+		"app.aniversarios.habilitado=false"
+})
+class AniversarioServiceTest extends PostgresContainerTest {
+
+	// 2031 não é bissexto: quem nasceu em 29/02 faz aniversário em 28/02
+	private static final LocalDate DIA = LocalDate.of(2031, 2, 28);
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP)
+			.withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+	@Autowired
+	private AniversarioService aniversarioService;
+
+	@Autowired
+	private MensagemAniversarioRepository mensagemAniversarioRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void enviaUmaMensagemPorAnoMesmoDespachandoDuasVezes() {
+		Paciente bissexto = cadastrar("Ana Bissexta", LocalDate.of(1992, 2, 29));
+		Paciente doDia = cadastrar("Bruno Fevereiro", LocalDate.of(1990, 2, 28));
+		cadastrar("Carla Marco", LocalDate.of(1990, 3, 1));
+
+		aniversarioService.despachar(DIA);
+		aniversarioService.despachar(DIA);
+
+		List<MimeMessage> nossas = Arrays.stream(smtp.getReceivedMessages())
+				.filter(m -> destinatario(m).endsWith("@aniversario.test"))
+				.toList();
+		assertEquals(2, nossas.size());
+		assertEquals(Set.of("ana@aniversario.test", "bruno@aniversario.test"),
+				Set.copyOf(nossas.stream().map(AniversarioServiceTest::destinatario).toList()));
+
+		Integer enviadas = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM mensagens_aniversario WHERE ano = ? AND status = 'ENVIADO' " +
+				"AND paciente_id IN (?, ?)", Integer.class, DIA.getYear(), bissexto.getId(), doDia.getId());
+		assertEquals(2, enviadas);
+	}
+
+	@Test
+	void falhaEhRetomadaAteOLimiteDeExecucoes() {
+		Long pacienteId = cadastrar("Diego Retomada", LocalDate.of(1985, 7, 20)).getId();
+		List<Long> ids = List.of(pacienteId);
+		int ano = 2032;
+
+		assertEquals(Set.of(pacienteId), mensagemAniversarioRepository.reservar(ano, ids, 3));
+		// já reservada (ou enviada) no ano: ninguém mais envia
+		assertEquals(Set.of(), mensagemAniversarioRepository.reservar(ano, ids, 3));
+
+		mensagemAniversarioRepository.marcarFalha(ano, pacienteId, "SMTP indisponível");
+		assertEquals(Set.of(pacienteId), mensagemAniversarioRepository.reservar(ano, ids, 3));
+		mensagemAniversarioRepository.marcarFalha(ano, pacienteId, "SMTP indisponível");
+		assertEquals(Set.of(pacienteId), mensagemAniversarioRepository.reservar(ano, ids, 3));
+		// terceira falha: o limite de execuções acabou
+		mensagemAniversarioRepository.marcarFalha(ano, pacienteId, "SMTP indisponível");
+		assertEquals(Set.of(), mensagemAniversarioRepository.reservar(ano, ids, 3));
+
+		assertEquals(3, jdbcTemplate.queryForObject(
+				"SELECT tentativas FROM mensagens_aniversario WHERE paciente_id = ? AND ano = ?",
+				Integer.class, pacienteId, ano));
+	}
+
+	private Paciente cadastrar(String nome, LocalDate nascimento) {
+		Paciente paciente = new Paciente(nome, String.format("9%010d", System.nanoTime() % 10_000_000_000L),
+				nascimento, "11933330000");
+		paciente.setEmail(nome.substring(0, nome.indexOf(' ')).toLowerCase() + "@aniversario.test");
+		return pacienteRepository.save(paciente);
+	}
+
+	private static String destinatario(MimeMessage mensagem) {
+		try {
+			return mensagem.getAllRecipients()[0].toString();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.odontosimples.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArmazemAnexosTest {
+
+	@TempDir
+	Path diretorio;
+
+	private ArmazemAnexos armazem;
+
+	@BeforeEach
+	void iniciar() throws Exception {
+		armazem = new ArmazemAnexos();
+		ReflectionTestUtils.setField(armazem, "diretorio", diretorio);
+		ReflectionTestUtils.setField(armazem, "tamanhoMaximo", DataSize.ofKilobytes(200));
+		ReflectionTestUtils.invokeMethod(armazem, "iniciar");
+	}
+
+	@Test
+	void gravaPeloSha256UmaUnicaVez() throws Exception {
+		byte[] conteudo = "radiografia panorâmica".repeat(5_000).getBytes(StandardCharsets.UTF_8);
+
+		ArmazemAnexos.Gravado primeiro = armazem.gravar(new ByteArrayInputStream(conteudo));
+		ArmazemAnexos.Gravado segundo = armazem.gravar(new ByteArrayInputStream(conteudo));
+
+		assertTrue(primeiro.novo());
+		assertFalse(segundo.novo());
+		assertEquals(primeiro.sha256(), segundo.sha256());
+		assertEquals(conteudo.length, primeiro.tamanho());
+		Path caminho = armazem.caminho(primeiro.sha256());
+		assertEquals(diretorio.resolve(primeiro.sha256().substring(0, 2)), caminho.getParent().getParent());
+		assertArrayEquals(conteudo, Files.readAllBytes(caminho));
+		assertTemporariosVazios();
+	}
+
+	@Test
+	void recusaArquivoAcimaDoLimiteSemDeixarRestos() throws Exception {
+		byte[] conteudo = new byte[201 * 1024];
+
+		assertThrows(RuntimeException.class, () -> armazem.gravar(new ByteArrayInputStream(conteudo)));
+		assertThrows(RuntimeException.class, () -> armazem.caminho("../../etc/passwd"));
+		assertTemporariosVazios();
+	}
+
+	private void assertTemporariosVazios() throws Exception {
+		try (Stream<Path> temporarios = Files.list(diretorio.resolve("tmp"))) {
+			assertEquals(0, temporarios.count());
+		}
+	}
+}
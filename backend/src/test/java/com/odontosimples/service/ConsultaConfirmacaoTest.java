@@ -0,0 +1,85 @@
+package com.odontosimples.service;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Confirmação só de consultas que ainda ocupam a agenda (agendadas ou reagendadas)
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+class ConsultaConfirmacaoTest extends PostgresContainerTest {
+
+	@Autowired
+	private ConsultaService consultaService;
+
+	@Autowired
+	private DentistaRepository dentistaRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	private Dentista dentista;
+	private Paciente paciente;
+	private LocalDateTime horario;
+
+	@BeforeEach
+	void cadastrar() {
+		dentista = new Dentista("Dentista Confirmacao", String.format("5%04d", System.nanoTime() % 10_000),
+				"SP", "1133334444");
+		dentista.setHorarioInicio(LocalTime.of(8, 0));
+		dentista.setHorarioFim(LocalTime.of(18, 0));
+		dentista = dentistaRepository.save(dentista);
+		paciente = pacienteRepository.save(new Paciente("Paciente Confirmacao",
+				String.format("9%010d", System.nanoTime() % 10_000_000_000L), LocalDate.of(1975, 8, 9), "11955550000"));
+		horario = LocalDate.now().plusDays(30).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY)).atTime(9, 0);
+	}
+
+	@Test
+	void confirmaConsultaAgendada() {
+		Consulta consulta = agendar(horario);
+
+		assertEquals(Consulta.StatusConsulta.CONFIRMADA, consultaService.confirmarConsulta(consulta.getId()).getStatus());
+	}
+
+	@Test
+	void confirmaConsultaReagendada() {
+		Consulta consulta = agendar(horario);
+		consultaService.reagendarConsulta(consulta.getId(), horario.plusDays(1), "Paciente pediu outro dia");
+
+		assertEquals(Consulta.StatusConsulta.CONFIRMADA, consultaService.confirmarConsulta(consulta.getId()).getStatus());
+	}
+
+	@Test
+	void naoConfirmaConsultaCanceladaNemJaConfirmada() {
+		Consulta cancelada = agendar(horario);
+		consultaService.cancelarConsulta(cancelada.getId());
+		Consulta confirmada = agendar(horario.plusHours(1));
+		consultaService.confirmarConsulta(confirmada.getId());
+
+		RuntimeException erro = assertThrows(RuntimeException.class,
+				() -> consultaService.confirmarConsulta(cancelada.getId()));
+		assertEquals("Somente consultas agendadas ou reagendadas podem ser confirmadas", erro.getMessage());
+		assertThrows(RuntimeException.class, () -> consultaService.confirmarConsulta(confirmada.getId()));
+	}
+
+	private Consulta agendar(LocalDateTime dataHora) {
+		Consulta consulta = new Consulta(paciente, dentista, dataHora);
+		consulta.setDuracaoMinutos(30);
+		return consultaService.agendarConsulta(consulta);
+	}
+}
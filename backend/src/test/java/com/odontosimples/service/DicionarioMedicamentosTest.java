@@ -0,0 +1,57 @@
+package com.odontosimples.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dicionário real (resources/dicionario/medicamentos.txt), sem contexto Spring
+class DicionarioMedicamentosTest {
+
+	private DicionarioMedicamentos dicionario;
+
+	@BeforeEach
+	void carregar() throws Exception {
+		dicionario = new DicionarioMedicamentos();
+		ReflectionTestUtils.setField(dicionario, "arquivo", new ClassPathResource("dicionario/medicamentos.txt"));
+		ReflectionTestUtils.invokeMethod(dicionario, "carregar");
+	}
+
+	@Test
+	void reconheceSinonimosSemAcentoEPelaSequenciaMaisLonga() {
+		Set<String> termos = dicionario.reconhecer(
+				"Amoxil 500mg 8/8h; Anti-inflamatório: NOVALGINA se dor. Lidocaina com epinefrina.");
+
+		assertEquals(List.of("amoxicilina", "aine", "dipirona", "lidocaina", "epinefrina"), List.copyOf(termos));
+		assertEquals("penicilina", dicionario.normalizar("Penicilina G"));
+		assertNull(dicionario.normalizar("soro fisiológico"));
+	}
+
+	@Test
+	void extraiTermosComAsClasses() {
+		Set<String> alergias = dicionario.extrair("Alérgica a amoxicilina e a látex");
+
+		assertTrue(alergias.containsAll(Set.of("amoxicilina", "penicilina", "betalactamico", "latex")));
+		// cefalexina chega à alergia pela classe betalactâmico, do mais específico ao mais geral
+		assertEquals(List.of("cefalexina", "cefalosporina", "betalactamico"),
+				List.copyOf(dicionario.expandir("cefalexina")));
+		assertEquals("lidocaína", dicionario.nome("lidocaina"));
+	}
+
+	@Test
+	void devolveTrechosSemTermoReconhecido() {
+		assertEquals(List.of("alergia a buscopam"),
+				dicionario.naoReconhecidos("Alergia a dipirona; alergia a buscopam"));
+		assertEquals(List.of("amoxicilna"), dicionario.naoReconhecidos("Penicilina, amoxicilna e látex"));
+		assertEquals(List.of("Paciente alérgico"), dicionario.naoReconhecidos("Paciente alérgico"));
+		assertTrue(dicionario.naoReconhecidos("Nega alergias medicamentosas").isEmpty());
+		assertTrue(dicionario.naoReconhecidos("Sem alergias conhecidas.").isEmpty());
+	}
+}
@@ -0,0 +1,76 @@
+package com.odontosimples.service;
+
+import com.odontosimples.PostgresContainerTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Roda na execução "memoria-limitada" do surefire (-Xmx256m): um milhão de pacientes
+// não cabem nesse heap, então a exportação só passa se não acumular as linhas
+@Tag("memoria-limitada")
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+class ExportacaoServiceTest extends PostgresContainerTest {
+
+	private static final int PACIENTES = 1_000_000;
+	private static final long HEAP_MAXIMO = 320L * 1024 * 1024;
+
+	@Autowired
+	private ExportacaoService exportacaoService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void exportaUmMilhaoDePacientesComHeapPequeno() throws Exception {
+		assertTrue(Runtime.getRuntime().maxMemory() <= HEAP_MAXIMO,
+				"rode com heap pequeno: mvn test (execução memoria-limitada do surefire)");
+
+		// inativos: ficam fora do índice parcial de busca e a carga é rápida
+		jdbcTemplate.update("INSERT INTO pacientes (nome, cpf, data_nascimento, telefone, busca, mes_dia, created_at, active) " +
+				"SELECT 'Paciente exportado ' || i, lpad(i::text, 11, '0'), DATE '1980-01-01' + (i % 10000), " +
+				"'11999990000', 'paciente exportado ' || i, " +
+				"to_char(DATE '1980-01-01' + (i % 10000), 'MMDD')::smallint, now(), false " +
+				"FROM generate_series(1, ?) AS i", PACIENTES);
+		long cadastrados = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pacientes", Long.class);
+
+		ContadorDeLinhas csv = new ContadorDeLinhas();
+		long escritas = exportacaoService.exportarPacientes(ExportacaoService.Formato.CSV, csv);
+		assertTrue(cadastrados >= PACIENTES);
+		assertEquals(cadastrados, escritas);
+		assertEquals(cadastrados + 1, csv.linhas); // cabeçalho
+
+		ContadorDeLinhas ndjson = new ContadorDeLinhas();
+		assertEquals(cadastrados, exportacaoService.exportarPacientes(ExportacaoService.Formato.NDJSON, ndjson));
+		assertEquals(cadastrados, ndjson.linhas);
+	}
+
+	// Descarta o conteúdo, só conta as quebras de linha
+	private static class ContadorDeLinhas extends OutputStream {
+
+		private long linhas;
+
+		@Override
+		public void write(int b) {
+			if (b == '\n') {
+				linhas++;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				if (b[i] == '\n') {
+					linhas++;
+				}
+			}
+		}
+	}
+
+}
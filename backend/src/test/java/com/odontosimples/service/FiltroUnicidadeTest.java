@@ -0,0 +1,55 @@
+package com.odontosimples.service;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.entity.Usuario;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Valores gravados por fora (outro nó, janela de reconstrução) não estão no filtro: a
+// checagem diz "novo" e quem responde é a restrição UNIQUE, com a mesma mensagem
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+class FiltroUnicidadeTest extends PostgresContainerTest {
+
+	@Autowired
+	private PacienteService pacienteService;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void cpfGravadoPorOutroNoViraMensagemDeCpfCadastrado() {
+		String cpf = String.format("9%010d", System.nanoTime() % 10_000_000_000L);
+		jdbcTemplate.update("INSERT INTO pacientes (nome, cpf, data_nascimento, telefone, busca, mes_dia, " +
+				"created_at, active) VALUES ('Paciente de outro nó', ?, DATE '1990-02-03', '11999990000', " +
+				"'paciente de outro no', 203, now(), true)", cpf);
+
+		RuntimeException erro = assertThrows(RuntimeException.class, () -> pacienteService.criarPaciente(
+				new Paciente("Paciente Repetido", cpf, LocalDate.of(1991, 4, 5), "11988880000")));
+
+		assertEquals("CPF já está cadastrado", erro.getMessage());
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pacientes WHERE cpf = ?", Integer.class, cpf));
+	}
+
+	@Test
+	void emailGravadoPorOutroNoViraMensagemDeEmailEmUso() {
+		String email = "outro-no-" + System.nanoTime() + "@odontosimples.com";
+		jdbcTemplate.update("INSERT INTO usuarios (nome, email, senha, role, created_at, active) " +
+				"VALUES ('Usuário de outro nó', ?, 'x', 'RECEPCIONISTA', now(), true)", email);
+
+		RuntimeException erro = assertThrows(RuntimeException.class, () -> usuarioService.criarUsuario(
+				new Usuario("Usuário Repetido", email, "senha123", Usuario.Role.RECEPCIONISTA)));
+
+		assertEquals("Email já está em uso", erro.getMessage());
+	}
+}
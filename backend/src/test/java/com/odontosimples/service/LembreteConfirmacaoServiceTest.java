@@ -0,0 +1,165 @@
+package com.odontosimples.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.LembreteRepository;
+import com.odontosimples.repository.PacienteRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// SMTP local (GreenMail) no lugar do servidor de e-mail; o agendamento fica desligado e
+// o despacho é chamado direto
+@SpringBootTest(properties = {
+		"spring.mail.host=localhost",
+		"spring.mail.port=3025",
+		"spring.mail.username=",
+		"spring.mail.properties.mail.smtp.auth=false",
+		"spring.mail.properties.mail.smtp.starttls.enable=false",
+		"app.lembretes.habilitado=false",
+		"app.lembretes.tamanho-pagina=7"
+})
+class LembreteConfirmacaoServiceTest extends PostgresContainerTest {
+
+	// mais de uma página de lembretes
+	private static final int CONSULTAS = 20;
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP)
+			.withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+	@Autowired
+	private LembreteConfirmacaoService lembreteConfirmacaoService;
+
+	@Autowired
+	private LembreteRepository lembreteRepository;
+
+	@Autowired
+	private ConsultaService consultaService;
+
+	@Autowired
+	private DentistaRepository dentistaRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void enviaCadaLembreteUmaUnicaVez() throws Exception {
+		List<Long> ids = agendarProximas("lembrete");
+
+		lembreteConfirmacaoService.despachar();
+		lembreteConfirmacaoService.despachar();
+
+		MimeMessage[] recebidas = smtp.getReceivedMessages();
+		long nossas = Arrays.stream(recebidas)
+				.filter(m -> destinatario(m).endsWith("@lembrete.test"))
+				.count();
+		assertEquals(CONSULTAS, nossas);
+		assertTrue(Arrays.stream(recebidas).anyMatch(m -> corpo(m).contains("Paciente lembrete 0")));
+
+		Integer enviados = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM lembretes_enviados WHERE status = 'ENVIADO' AND consulta_id = ANY (?::bigint[])",
+				Integer.class, (Object) ids.toArray(new Long[0]));
+		assertEquals(CONSULTAS, enviados);
+	}
+
+	@Test
+	void consultaReagendadaRecebeLembreteDoNovoHorario() throws Exception {
+		List<Long> ids = agendarProximas("reagendamento");
+		lembreteConfirmacaoService.despachar();
+
+		LocalDateTime novoHorario = jdbcTemplate.queryForObject(
+				"SELECT MAX(data_hora) FROM consultas WHERE id = ANY (?::bigint[])",
+				LocalDateTime.class, (Object) ids.toArray(new Long[0])).plusHours(1);
+		consultaService.reagendarConsulta(ids.get(0), novoHorario, "Paciente pediu outro horário");
+		lembreteConfirmacaoService.despachar();
+
+		List<MimeMessage> nossas = Arrays.stream(smtp.getReceivedMessages())
+				.filter(m -> destinatario(m).endsWith("@reagendamento.test"))
+				.toList();
+		assertEquals(CONSULTAS + 1, nossas.size());
+		assertEquals(2, nossas.stream().filter(m -> destinatario(m).contains("paciente0@reagendamento.test")).count());
+
+		Integer enviados = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM lembretes_enviados WHERE status = 'ENVIADO' AND consulta_id = ? AND data_hora_consulta = ?",
+				Integer.class, ids.get(0), novoHorario);
+		assertEquals(1, enviados);
+	}
+
+	@Test
+	void reservaDoMesmoHorarioSoValeUmaVez() {
+		List<Long> ids = agendarProximas("reserva");
+		LocalDateTime dataHora = jdbcTemplate.queryForObject(
+				"SELECT data_hora FROM consultas WHERE id = ?", LocalDateTime.class, ids.get(0));
+
+		// como dois nós disputando o mesmo lembrete
+		assertEquals(1, lembreteRepository.reservar("TESTE", Map.of(ids.get(0), dataHora), 3).size());
+		assertEquals(0, lembreteRepository.reservar("TESTE", Map.of(ids.get(0), dataHora), 3).size());
+
+		// reagendada: o novo horário ganha o seu lembrete
+		assertEquals(1, lembreteRepository.reservar("TESTE", Map.of(ids.get(0), dataHora.plusHours(1)), 3).size());
+
+		// uma falha pode ser retomada
+		lembreteRepository.marcarFalha("TESTE", ids.get(0), dataHora, "SMTP indisponível");
+		assertEquals(1, lembreteRepository.reservar("TESTE", Map.of(ids.get(0), dataHora), 3).size());
+	}
+
+	private List<Long> agendarProximas(String prefixo) {
+		Dentista dentista = dentistaRepository.save(new Dentista("Dentista " + prefixo,
+				String.valueOf(88000 + prefixo.length()), "SP", "1133330000"));
+
+		LocalDateTime inicio = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MINUTES);
+		List<Consulta> consultas = new ArrayList<>();
+		for (int i = 0; i < CONSULTAS; i++) {
+			Paciente paciente = new Paciente("Paciente " + prefixo + " " + i,
+					String.format("%011d", 70000000000L + prefixo.length() * 1000L + i),
+					LocalDate.of(1990, 1, 1), "11999990000");
+			paciente.setEmail("paciente" + i + "@" + prefixo + ".test");
+			Consulta consulta = new Consulta(pacienteRepository.save(paciente), dentista,
+					inicio.plusMinutes(10L * i));
+			consulta.setDuracaoMinutos(10);
+			consultas.add(consulta);
+		}
+		return consultaService.agendarLote(consultas).stream().map(Consulta::getId).toList();
+	}
+
+	private static String destinatario(MimeMessage mensagem) {
+		try {
+			return mensagem.getAllRecipients()[0].toString();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String corpo(MimeMessage mensagem) {
+		try {
+			return mensagem.getContent().toString();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.odontosimples.service;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.dto.OcupacaoDentistaDTO;
+import com.odontosimples.dto.OcupacaoMesDTO;
+import com.odontosimples.entity.Consulta;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.DentistaRepository;
+import com.odontosimples.repository.PacienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Num mês que já passou a ocupação vem das consultas realizadas e das faltas; as canceladas não contam
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+class OcupacaoConsultasPassadasTest extends PostgresContainerTest {
+
+	@Autowired
+	private OcupacaoService ocupacaoService;
+
+	@Autowired
+	private ConsultaService consultaService;
+
+	@Autowired
+	private DentistaRepository dentistaRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	@Test
+	void contaRealizadasEFaltasDeUmMesPassado() {
+		String especialidade = "Ocupacao" + System.nanoTime();
+		Dentista dentista = new Dentista("Dentista Ocupacao", String.format("6%04d", System.nanoTime() % 10_000),
+				"SP", "1133335555");
+		dentista.setEspecialidades(especialidade);
+		dentista.setHorarioInicio(LocalTime.of(8, 0));
+		dentista.setHorarioFim(LocalTime.of(12, 0));
+		dentista.setDiasTrabalho("1-7");
+		dentista = dentistaRepository.save(dentista);
+		Paciente paciente = pacienteRepository.save(new Paciente("Paciente Ocupacao",
+				String.format("9%010d", System.nanoTime() % 10_000_000_000L), LocalDate.of(1990, 2, 3), "11944440000"));
+
+		YearMonth mes = YearMonth.now().minusMonths(1);
+		LocalDate dia = mes.atDay(10);
+		Consulta realizada = agendar(paciente, dentista, dia.atTime(9, 0), 60);
+		consultaService.realizarConsulta(realizada.getId());
+		Consulta falta = agendar(paciente, dentista, dia.atTime(10, 0), 30);
+		consultaService.registrarFalta(falta.getId());
+		Consulta cancelada = agendar(paciente, dentista, dia.atTime(11, 0), 30);
+		consultaService.cancelarConsulta(cancelada.getId());
+
+		OcupacaoMesDTO ocupacao = ocupacaoService.calcular(mes, especialidade);
+
+		assertEquals(1, ocupacao.getDentistas().size());
+		OcupacaoDentistaDTO doDentista = ocupacao.getDentistas().get(0);
+		// 90 dos 240 minutos do expediente
+		assertEquals(37.5, doDentista.getDias().get(dia));
+		// a hora da cancelada fica livre em todos os dias do mês
+		assertEquals(0.0, doDentista.getHoras().get(11));
+	}
+
+	private Consulta agendar(Paciente paciente, Dentista dentista, LocalDateTime dataHora, int duracao) {
+		Consulta consulta = new Consulta(paciente, dentista, dataHora);
+		consulta.setDuracaoMinutos(duracao);
+		return consultaService.agendarConsulta(consulta);
+	}
+}
@@ -0,0 +1,81 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.OcupacaoDentistaDTO;
+import com.odontosimples.dto.OcupacaoMesDTO;
+import com.odontosimples.entity.Dentista;
+import com.odontosimples.repository.ConsultaRepository;
+import com.odontosimples.repository.DentistaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+// O fork-join tem que chegar ao mesmo resultado que o cálculo sem divisão
+@ExtendWith(MockitoExtension.class)
+class OcupacaoServiceTest {
+
+	private static final int DENTISTAS = 50;
+	private static final YearMonth MES = YearMonth.of(2025, 3);
+
+	@Mock
+	private DentistaRepository dentistaRepository;
+
+	@Mock
+	private ConsultaRepository consultaRepository;
+
+	@InjectMocks
+	private OcupacaoService service;
+
+	@Test
+	void divisaoEmTarefasDaOMesmoResultadoQueOCalculoSequencial() {
+		Random random = new Random(42);
+		String[] dias = {"1-5", "1,3,5", "2 a 6", "1-6"};
+		List<Dentista> dentistas = new ArrayList<>();
+		List<Object[]> agenda = new ArrayList<>();
+		long consultaId = 1;
+		for (int i = 0; i < DENTISTAS; i++) {
+			Dentista dentista = new Dentista("Dentista " + i, String.valueOf(60000 + i), "SP", "11999990000");
+			dentista.setId(1000L + i);
+			dentista.setHorarioInicio(LocalTime.of(7 + random.nextInt(3), 0));
+			dentista.setHorarioFim(LocalTime.of(16 + random.nextInt(4), 30));
+			dentista.setDiasTrabalho(dias[i % dias.length]);
+			dentistas.add(dentista);
+
+			for (int n = random.nextInt(60); n > 0; n--) {
+				LocalDateTime inicio = MES.atDay(1 + random.nextInt(MES.lengthOfMonth()))
+						.atTime(7 + random.nextInt(12), random.nextInt(4) * 15);
+				agenda.add(new Object[]{consultaId++, dentista.getId(), inicio, 15 * (1 + random.nextInt(6))});
+			}
+		}
+		when(dentistaRepository.findByActiveTrue()).thenReturn(dentistas);
+		when(consultaRepository.findIntervalosDaOcupacao(anyCollection(), any(), any())).thenReturn(agenda);
+
+		OcupacaoMesDTO sequencial = service.calcular(MES, null, Integer.MAX_VALUE);
+		OcupacaoMesDTO paralelo = service.calcular(MES, null);
+
+		assertEquals(sequencial.getPercentual(), paralelo.getPercentual());
+		assertEquals(sequencial.getMapaCalor(), paralelo.getMapaCalor());
+		assertEquals(DENTISTAS, paralelo.getDentistas().size());
+		for (int i = 0; i < DENTISTAS; i++) {
+			OcupacaoDentistaDTO esperado = sequencial.getDentistas().get(i);
+			OcupacaoDentistaDTO obtido = paralelo.getDentistas().get(i);
+			assertEquals(esperado.getDentistaId(), obtido.getDentistaId());
+			assertEquals(esperado.getPercentual(), obtido.getPercentual());
+			assertEquals(esperado.getDias(), obtido.getDias());
+			assertEquals(esperado.getHoras(), obtido.getHoras());
+		}
+	}
+}
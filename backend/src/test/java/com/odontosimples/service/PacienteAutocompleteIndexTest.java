@@ -0,0 +1,111 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.PacienteSugestaoDTO;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.PacienteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+// Índice sem contexto Spring; fora de transação as alterações valem na hora
+@ExtendWith(MockitoExtension.class)
+class PacienteAutocompleteIndexTest {
+
+	@Mock
+	private PacienteRepository pacienteRepository;
+
+	@InjectMocks
+	private PacienteAutocompleteIndex index;
+
+	@BeforeEach
+	void carregar() {
+		List<Object[]> linhas = new ArrayList<>();
+		linhas.add(new Object[]{1L, "Maria da Silva"});
+		linhas.add(new Object[]{2L, "João Silveira"});
+		linhas.add(new Object[]{3L, "Mário Andrade"});
+		linhas.add(new Object[]{4L, "Ana Maria Souza"});
+		linhas.add(new Object[]{5L, "Maria da Silva"});
+		when(pacienteRepository.findNomesAtivos()).thenReturn(linhas);
+		index.carregar();
+	}
+
+	@AfterEach
+	void encerrar() {
+		ReflectionTestUtils.invokeMethod(index, "encerrar");
+	}
+
+	@Test
+	void sugereNomesEPalavrasPeloPrefixoSemAcento() {
+		// Nomes que começam pelo termo primeiro (empate pelo id), depois os que têm uma palavra com ele
+		assertEquals(List.of(1L, 5L, 3L, 4L), ids(index.sugerir("mar", 10)));
+		assertEquals(List.of(1L, 5L, 2L), ids(index.sugerir("Silv", 10)));
+		// Partículas não são ponto de entrada
+		assertTrue(index.sugerir("da", 10).stream().noneMatch(s -> s.getId() == 1L));
+		assertEquals(List.of(1L), ids(index.sugerir("mar", 1)));
+	}
+
+	@Test
+	void alteracoesValemAntesDaReconstrucao() {
+		index.atualizar(paciente(2L, "Marta Rocha", true));
+		index.atualizar(paciente(3L, "Mário Andrade", false));
+		index.atualizar(paciente(6L, "Beatriz Maranhão", true));
+
+		assertEquals(List.of(1L, 5L, 2L, 6L, 4L), ids(index.sugerir("mar", 10)));
+		assertTrue(index.sugerir("silveira", 10).isEmpty());
+		assertEquals(5, index.tamanho());
+	}
+
+	@Test
+	void reconstroiEmSegundoPlanoETrocaBaseECamadaJuntas() throws Exception {
+		Object antes = ReflectionTestUtils.getField(index, "estado");
+		for (long id = 100; id < 2_200; id++) {
+			index.atualizar(paciente(id, "Paciente " + id, true));
+		}
+		index.atualizar(paciente(1L, "Zuleica da Silva", true));
+		aguardarReconstrucao();
+
+		assertNotSame(antes, ReflectionTestUtils.getField(index, "estado"));
+		assertEquals(List.of(5L), ids(index.sugerir("maria da", 10)));
+		assertEquals(List.of(1L), ids(index.sugerir("zul", 10)));
+		assertEquals(List.of(2_199L), ids(index.sugerir("paciente 2199", 10)));
+		assertEquals(2_105, index.tamanho());
+
+		// Sem novas alterações, nada a reconstruir
+		Object depois = ReflectionTestUtils.getField(index, "estado");
+		aguardarReconstrucao();
+		assertSame(depois, ReflectionTestUtils.getField(index, "estado"));
+	}
+
+	private void aguardarReconstrucao() throws Exception {
+		ExecutorService reconstrucao = (ExecutorService) ReflectionTestUtils.getField(index, "reconstrucao");
+		reconstrucao.submit(() -> {}).get(30, TimeUnit.SECONDS);
+	}
+
+	private static Paciente paciente(Long id, String nome, boolean ativo) {
+		Paciente paciente = new Paciente();
+		paciente.setId(id);
+		paciente.setNome(nome);
+		paciente.setActive(ativo);
+		return paciente;
+	}
+
+	private static List<Long> ids(List<PacienteSugestaoDTO> sugestoes) {
+		return sugestoes.stream().map(PacienteSugestaoDTO::getId).toList();
+	}
+}
@@ -0,0 +1,115 @@
+package com.odontosimples.service;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.dto.ImportacaoPacientesDTO;
+import com.odontosimples.entity.Paciente;
+import com.odontosimples.repository.PacienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// CSV do Excel em português: windows-1252, observações com quebra de linha entre aspas
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+class PacienteImportacaoServiceTest extends PostgresContainerTest {
+
+	private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+	@Autowired
+	private PacienteImportacaoService pacienteImportacaoService;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	@Test
+	void detectaACodificacao() throws Exception {
+		String texto = "nome;cpf\nJoão Conceição;123\n";
+		assertEquals(StandardCharsets.UTF_8, codificacao(texto.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(WINDOWS_1252, codificacao(texto.getBytes(WINDOWS_1252)));
+		assertEquals(StandardCharsets.UTF_8, codificacao(("\uFEFF" + texto).getBytes(StandardCharsets.UTF_8)));
+		assertEquals(StandardCharsets.UTF_16LE, codificacao(("\uFEFF" + texto).getBytes(StandardCharsets.UTF_16LE)));
+	}
+
+	@Test
+	void campoEntreAspasContinuaNaLinhaSeguinte() throws Exception {
+		PacienteImportacaoService.LeitorCsv leitor = new PacienteImportacaoService.LeitorCsv(new BufferedReader(
+				new StringReader("a;\"primeira\nsegunda; com \"\"aspas\"\"\";c\n\nx;y;z\n")), ';');
+
+		assertEquals(List.of("a", "primeira\nsegunda; com \"aspas\"", "c"), leitor.proximo());
+		assertEquals(2, leitor.inicio);
+		assertEquals(List.of(""), leitor.proximo());
+		assertEquals(List.of("x", "y", "z"), leitor.proximo());
+		assertEquals(5, leitor.inicio);
+		assertNull(leitor.proximo());
+	}
+
+	@Test
+	void importaArquivoWindows1252ComObservacoesEmVariasLinhas() throws Exception {
+		String cpf = cpf(String.format("9%08d", System.nanoTime() % 100_000_000L));
+		String csv = "Nome;CPF;Data de nascimento;Telefone;Observações\r\n"
+				+ "João Conceição Araújo;" + cpf + ";03/04/1975;(11) 95555-0000;\"Alérgico a penicilina.\r\n"
+				+ "Prefere horários de manhã; \"\"sem\"\" anestesia com vasoconstritor\"\r\n"
+				+ "Maria Inválida;123;01/01/1980;11955550001;\r\n";
+
+		ImportacaoPacientesDTO importacao = pacienteImportacaoService.importar(
+				new MockMultipartFile("arquivo", "pacientes.csv", "text/csv", csv.getBytes(WINDOWS_1252)));
+		importacao = aguardar(importacao.getId());
+
+		assertEquals("CONCLUIDA", importacao.getStatus());
+		assertEquals(2, importacao.getLinhasLidas());
+		assertEquals(1, importacao.getImportados());
+		// o segundo registro começa na linha 4: o primeiro ocupa as linhas 2 e 3
+		assertEquals(4, importacao.getErros().get(0).getLinha());
+
+		Paciente paciente = pacienteRepository.findByCpf(cpf).orElseThrow();
+		assertEquals("João Conceição Araújo", paciente.getNome());
+		assertEquals("Alérgico a penicilina.\nPrefere horários de manhã; \"sem\" anestesia com vasoconstritor",
+				paciente.getObservacoes());
+	}
+
+	private ImportacaoPacientesDTO aguardar(String id) throws InterruptedException {
+		for (int i = 0; i < 600; i++) {
+			ImportacaoPacientesDTO situacao = pacienteImportacaoService.situacao(id);
+			if (situacao.getConcluidaEm() != null) {
+				return situacao;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("Importação não terminou");
+	}
+
+	private static Charset codificacao(byte[] conteudo) throws Exception {
+		Path arquivo = Files.createTempFile("codificacao-", ".csv");
+		try {
+			Files.write(arquivo, conteudo);
+			return PacienteImportacaoService.codificacao(arquivo);
+		} finally {
+			Files.deleteIfExists(arquivo);
+		}
+	}
+
+	// Nove dígitos + os dois verificadores
+	private static String cpf(String base) {
+		String cpf = base;
+		for (int posicao = 9; posicao <= 10; posicao++) {
+			int soma = 0;
+			for (int i = 0; i < posicao; i++) {
+				soma += (cpf.charAt(i) - '0') * (posicao + 1 - i);
+			}
+			int resto = soma * 10 % 11;
+			cpf += resto == 10 ? 0 : resto;
+		}
+		return cpf;
+	}
+}
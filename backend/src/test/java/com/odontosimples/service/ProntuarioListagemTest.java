@@ -0,0 +1,146 @@
+package com.odontosimples.service;
+
+import com.odontosimples.PostgresContainerTest;
+import com.odontosimples.dto.ProntuarioResumoDTO;
+import com.odontosimples.entity.Prontuario;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.repository.ProntuarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Listagem de prontuários: cabeçalho (projeção) x linha inteira, em bytes lidos do banco
+// e em heap alocado por página, e os textos longos fora da carga da entidade
+@SpringBootTest(properties = "app.lembretes.habilitado=false")
+class ProntuarioListagemTest extends PostgresContainerTest {
+
+	private static final int PRONTUARIOS = 50;
+	// ~4 KB em cada uma das 13 colunas de texto do grupo "detalhe"
+	private static final int TAMANHO_TEXTO = 4000;
+
+	// Aproximação do "antes": a linha inteira por SQL nativo, não a consulta de entidades que as
+	// listagens faziam (essa hoje já deixa os textos lazy de fora e também carregava paciente e
+	// dentista). Mede o custo das colunas que a projeção deixa de trazer, não o da consulta antiga
+	private static final String PAGINA_COMPLETA = "SELECT p.* FROM prontuarios p " +
+			"WHERE p.paciente_id = ? AND p.active ORDER BY p.data_consulta DESC, p.id DESC";
+	private static final String PAGINA_CABECALHO = "SELECT p.id, p.data_consulta, p.proxima_consulta, " +
+			"p.status_tratamento, pa.id, pa.nome, d.id, d.nome FROM prontuarios p " +
+			"JOIN pacientes pa ON pa.id = p.paciente_id JOIN dentistas d ON d.id = p.dentista_id " +
+			"WHERE p.paciente_id = ? AND p.active ORDER BY p.data_consulta DESC, p.id DESC";
+
+	@Autowired
+	private ProntuarioService prontuarioService;
+
+	@Autowired
+	private ProntuarioRepository prontuarioRepository;
+
+	@Autowired
+	private PacienteRepository pacienteRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private Long pacienteId;
+
+	@BeforeEach
+	void cadastrar() {
+		long numero = System.nanoTime() % 100_000_000L;
+		pacienteId = jdbcTemplate.queryForObject("INSERT INTO pacientes (nome, cpf, data_nascimento, telefone, busca, " +
+				"mes_dia, created_at, active) VALUES ('Paciente Listagem', ?, DATE '1985-05-10', '11999990000', " +
+				"'paciente listagem', 510, now(), true) RETURNING id", Long.class, String.format("%011d", numero));
+		Long dentistaId = jdbcTemplate.queryForObject("INSERT INTO dentistas (nome, cro, cro_estado, telefone, " +
+				"created_at, active) VALUES ('Dentista Listagem', ?, 'SP', '1133330000', now(), true) RETURNING id",
+				Long.class, "L" + (numero % 1_000_000_000L));
+
+		jdbcTemplate.update("INSERT INTO prontuarios (paciente_id, dentista_id, data_consulta, proxima_consulta, " +
+				"status_tratamento, alergias, anamnese, exame_clinico, diagnostico, plano_tratamento, " +
+				"procedimentos_realizados, observacoes, queixa_principal, historia_doenca_atual, historia_medica, " +
+				"habitos, exame_extraoral, exame_intraoral, odontograma_texto, created_at, active) " +
+				"SELECT ?, ?, DATE '2024-01-01' + i, DATE '2024-07-01' + i, 'EM_ANDAMENTO', 'Alergia a dipirona', " +
+				"t, t, t, t, t, t, t, t, t, t, t, t, t, now(), true " +
+				"FROM generate_series(1, ?) AS i, repeat('texto clínico ', ?) AS t",
+				pacienteId, dentistaId, PRONTUARIOS, TAMANHO_TEXTO / "texto clínico ".length());
+	}
+
+	@Test
+	void listagemTrazSoOCabecalho() {
+		long bytesCompleta = bytesDaPagina(PAGINA_COMPLETA);
+		long bytesCabecalho = bytesDaPagina(PAGINA_CABECALHO);
+
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		long heapCompleta = heapAlocado(() -> transacao.execute(status -> entityManager
+				.createNativeQuery(PAGINA_COMPLETA.replace("?", ":pacienteId"))
+				.setParameter("pacienteId", pacienteId).getResultList()));
+		long heapCabecalho = heapAlocado(() -> prontuarioService.listarDoPaciente(pacienteId));
+
+		assertTrue(bytesCabecalho * 20 < bytesCompleta,
+				() -> "bytes do banco: " + bytesCabecalho + " (cabeçalho) x " + bytesCompleta + " (linha inteira)");
+		assertTrue(heapCabecalho * 10 < heapCompleta,
+				() -> "bytes de heap: " + heapCabecalho + " (cabeçalho) x " + heapCompleta + " (linha inteira)");
+
+		List<ProntuarioResumoDTO> pagina = prontuarioService.listarDoPaciente(pacienteId);
+		assertEquals(PRONTUARIOS, pagina.size());
+		assertEquals("Dentista Listagem", pagina.get(0).getDentistaNome());
+		assertTrue(pagina.get(0).getDataConsulta().isAfter(pagina.get(1).getDataConsulta()));
+	}
+
+	@Test
+	void entidadeCarregaOsTextosSoNoPrimeiroAcesso() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			List<Prontuario> prontuarios = prontuarioRepository.findByPacienteAndActiveTrue(
+					pacienteRepository.getReferenceById(pacienteId));
+			Prontuario prontuario = prontuarios.get(0);
+
+			assertTrue(Hibernate.isPropertyInitialized(prontuario, "alergias"));
+			assertFalse(Hibernate.isPropertyInitialized(prontuario, "anamnese"));
+			assertFalse(Hibernate.isPropertyInitialized(prontuario, "odontogramaTexto"));
+
+			assertNotNull(prontuario.getDiagnostico());
+			// o grupo "detalhe" vem inteiro no primeiro acesso
+			assertTrue(Hibernate.isPropertyInitialized(prontuario, "anamnese"));
+			assertFalse(Hibernate.isPropertyInitialized(prontuarios.get(1), "anamnese"));
+		});
+	}
+
+	// Tamanho das linhas da página como saem do banco, já descomprimidas (o TOAST comprime o
+	// texto repetido no disco, mas ele trafega inteiro)
+	private long bytesDaPagina(String sql) {
+		return jdbcTemplate.queryForObject("SELECT sum(octet_length(t::text)) FROM (" + sql + ") t",
+				Long.class, pacienteId);
+	}
+
+	// Bytes alocados pela thread na melhor de algumas execuções (a primeira aquece o caminho)
+	private static long heapAlocado(Supplier<?> pagina) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		long menor = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			long antes = threads.getThreadAllocatedBytes(id);
+			assertNotNull(pagina.get());
+			menor = Math.min(menor, threads.getThreadAllocatedBytes(id) - antes);
+		}
+		return menor;
+	}
+}
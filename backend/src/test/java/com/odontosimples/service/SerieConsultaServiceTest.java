@@ -0,0 +1,43 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.SerieConsultaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Expansão da regra de recorrência no limite de consultas por série
+class SerieConsultaServiceTest {
+
+	private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+	private final SerieConsultaService service = new SerieConsultaService();
+
+	@Test
+	void dataFinalComExatamenteOMaximoDeConsultasEhAceita() {
+		assertEquals(SerieConsultaService.MAX_OCORRENCIAS,
+				service.expandir(semanal(INICIO.toLocalDate().plusWeeks(SerieConsultaService.MAX_OCORRENCIAS - 1))).size());
+	}
+
+	@Test
+	void dataFinalOuQuantidadeAcimaDoMaximoSaoRecusadas() {
+		SerieConsultaDTO ate = semanal(INICIO.toLocalDate().plusWeeks(SerieConsultaService.MAX_OCORRENCIAS));
+		assertThrows(RuntimeException.class, () -> service.expandir(ate));
+
+		SerieConsultaDTO quantidade = semanal(null);
+		quantidade.setOcorrencias(SerieConsultaService.MAX_OCORRENCIAS + 1);
+		RuntimeException erro = assertThrows(RuntimeException.class, () -> service.expandir(quantidade));
+		assertEquals("Série deve ter no máximo " + SerieConsultaService.MAX_OCORRENCIAS + " consultas", erro.getMessage());
+	}
+
+	private static SerieConsultaDTO semanal(LocalDate ate) {
+		SerieConsultaDTO serie = new SerieConsultaDTO();
+		serie.setDataHoraInicio(INICIO);
+		serie.setFrequencia("SEMANAL");
+		serie.setAte(ate);
+		return serie;
+	}
+}
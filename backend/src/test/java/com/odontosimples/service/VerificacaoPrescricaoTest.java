@@ -0,0 +1,90 @@
+package com.odontosimples.service;
+
+import com.odontosimples.dto.VerificacaoPrescricaoDTO;
+import com.odontosimples.repository.PacienteRepository;
+import com.odontosimples.repository.ProntuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// ProntuarioService.verificarPrescricao com o dicionário real e repositórios/índice simulados
+@ExtendWith(MockitoExtension.class)
+class VerificacaoPrescricaoTest {
+
+	private static final Long PACIENTE = 1L;
+
+	@Mock
+	private ProntuarioRepository prontuarioRepository;
+
+	@Mock
+	private PacienteRepository pacienteRepository;
+
+	@Mock
+	private TermoClinicoIndex termoClinicoIndex;
+
+	@InjectMocks
+	private ProntuarioService prontuarioService;
+
+	@BeforeEach
+	void preparar() {
+		DicionarioMedicamentos dicionario = new DicionarioMedicamentos();
+		ReflectionTestUtils.setField(dicionario, "arquivo", new ClassPathResource("dicionario/medicamentos.txt"));
+		ReflectionTestUtils.invokeMethod(dicionario, "carregar");
+		ReflectionTestUtils.setField(prontuarioService, "dicionarioMedicamentos", dicionario);
+		when(pacienteRepository.existsById(PACIENTE)).thenReturn(true);
+	}
+
+	@Test
+	void antesDoIndiceProntoExtraiDosProntuarios() {
+		when(termoClinicoIndex.isPronto()).thenReturn(false);
+		when(prontuarioRepository.findAlergiasDoPaciente(PACIENTE)).thenReturn(List.of("Alérgica a penicilina"));
+
+		VerificacaoPrescricaoDTO resultado = prontuarioService.verificarPrescricao(PACIENTE, "Amoxicilina 500mg 8/8h");
+
+		assertEquals(1, resultado.getAlertas().size());
+		assertTrue(resultado.getAlergiasNaoReconhecidas().isEmpty());
+		assertFalse(resultado.isSemAlertas());
+		verify(termoClinicoIndex, never()).alergias(anyLong());
+	}
+
+	@Test
+	void alergiaNaoReconhecidaNaoDeixaPassarComoSemAlertas() {
+		when(termoClinicoIndex.isPronto()).thenReturn(true);
+		when(termoClinicoIndex.alergias(PACIENTE)).thenReturn(Set.of("dipirona", "pirazolona"));
+		when(prontuarioRepository.findAlergiasDoPaciente(PACIENTE))
+				.thenReturn(List.of("Alergia a dipirona; alergia a buscopam"));
+
+		VerificacaoPrescricaoDTO resultado = prontuarioService.verificarPrescricao(PACIENTE, "Paracetamol 750mg");
+
+		assertTrue(resultado.getAlertas().isEmpty());
+		assertEquals(List.of("alergia a buscopam"), resultado.getAlergiasNaoReconhecidas());
+		assertFalse(resultado.isSemAlertas());
+	}
+
+	@Test
+	void negacaoDeAlergiaContinuaSemAlertas() {
+		when(termoClinicoIndex.isPronto()).thenReturn(true);
+		when(termoClinicoIndex.alergias(PACIENTE)).thenReturn(Set.of());
+		when(prontuarioRepository.findAlergiasDoPaciente(PACIENTE)).thenReturn(List.of("Nega alergias"));
+
+		VerificacaoPrescricaoDTO resultado = prontuarioService.verificarPrescricao(PACIENTE, "Paracetamol 750mg");
+
+		assertTrue(resultado.isSemAlertas());
+	}
+}
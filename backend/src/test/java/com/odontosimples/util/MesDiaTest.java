@@ -0,0 +1,50 @@
+package com.odontosimples.util;
+
+import com.odontosimples.util.MesDia.Faixa;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MesDiaTest {
+
+	@Test
+	void codificaMesEDia() {
+		assertEquals(315, MesDia.de(LocalDate.of(1990, 3, 15)));
+		assertEquals(MesDia.PRIMEIRO, MesDia.de(LocalDate.of(2000, 1, 1)));
+		assertEquals(MesDia.ULTIMO, MesDia.de(LocalDate.of(2000, 12, 31)));
+	}
+
+	@Test
+	void periodoDentroDoAnoEhUmaFaixa() {
+		assertEquals(List.of(new Faixa((short) 310, (short) 320)),
+				MesDia.faixas(LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 20)));
+	}
+
+	@Test
+	void viradaDoAnoDivideEmDuasFaixas() {
+		assertEquals(List.of(new Faixa((short) 1231, MesDia.ULTIMO), new Faixa(MesDia.PRIMEIRO, (short) 106)),
+				MesDia.faixas(LocalDate.of(2024, 12, 31), LocalDate.of(2025, 1, 6)));
+	}
+
+	@Test
+	void vinteENoveDeFevereiroEntraNoDia28SoEmAnoNaoBissexto() {
+		assertEquals(List.of(new Faixa((short) 228, (short) 229)),
+				MesDia.faixas(LocalDate.of(2025, 2, 28), LocalDate.of(2025, 2, 28)));
+		assertEquals(List.of(new Faixa((short) 228, (short) 228)),
+				MesDia.faixas(LocalDate.of(2024, 2, 28), LocalDate.of(2024, 2, 28)));
+		assertEquals(List.of(new Faixa((short) 229, (short) 229)),
+				MesDia.faixas(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 2, 29)));
+	}
+
+	@Test
+	void mesVaiDoDia1Ao31EMesInvalidoEhRecusado() {
+		assertEquals(new Faixa((short) 101, (short) 131), MesDia.doMes(1));
+		assertEquals(new Faixa((short) 1201, (short) 1231), MesDia.doMes(12));
+		assertThrows(RuntimeException.class, () -> MesDia.doMes(0));
+		assertThrows(RuntimeException.class, () -> MesDia.doMes(13));
+	}
+}
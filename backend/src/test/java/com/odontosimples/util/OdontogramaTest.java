@@ -0,0 +1,59 @@
+package com.odontosimples.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontosimples.util.Odontograma.Alteracao;
+import com.odontosimples.util.Odontograma.Condicao;
+import com.odontosimples.util.Odontograma.Face;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OdontogramaTest {
+
+	private static final Odontograma ANTERIOR = Odontograma.VAZIO
+			.comFace(36, Face.OCLUSAL, Condicao.CARIE)
+			.comFace(36, Face.MESIAL, Condicao.RESTAURACAO)
+			.comCondicao(46, Condicao.TRATAMENTO_CANAL, true)
+			.comCondicao(85, Condicao.AUSENTE, true);
+
+	@Test
+	void codificaEmTamanhoFixoEVoltaIgual() throws Exception {
+		byte[] bytes = ANTERIOR.codificar();
+
+		assertEquals(Odontograma.TAMANHO_BYTES, bytes.length);
+		assertEquals(ANTERIOR, Odontograma.decodificar(bytes));
+		assertEquals(Set.of(Condicao.TRATAMENTO_CANAL), Odontograma.decodificar(bytes).getCondicoes(46));
+		assertEquals(3601, Odontograma.achado(36, Condicao.CARIE));
+
+		ObjectMapper mapper = new ObjectMapper();
+		String json = mapper.writeValueAsString(ANTERIOR);
+		assertEquals("{\"36\":{\"faces\":{\"MESIAL\":\"RESTAURACAO\",\"OCLUSAL\":\"CARIE\"},\"condicoes\":[]},"
+				+ "\"46\":{\"faces\":{},\"condicoes\":[\"TRATAMENTO_CANAL\"]},"
+				+ "\"85\":{\"faces\":{},\"condicoes\":[\"AUSENTE\"]}}", json);
+		assertEquals(ANTERIOR, mapper.readValue(json, Odontograma.class));
+
+		bytes[0] = 2;
+		assertThrows(RuntimeException.class, () -> Odontograma.decodificar(bytes));
+		assertThrows(RuntimeException.class, () -> ANTERIOR.comFace(19, Face.MESIAL, Condicao.CARIE));
+		assertThrows(RuntimeException.class, () -> ANTERIOR.comFace(36, Face.MESIAL, Condicao.COROA));
+	}
+
+	@Test
+	void alteracoesEntreVisitas() {
+		Odontograma atual = ANTERIOR
+				.comFace(36, Face.OCLUSAL, Condicao.RESTAURACAO)
+				.comCondicao(46, Condicao.TRATAMENTO_CANAL, false)
+				.comCondicao(46, Condicao.COROA, true);
+
+		assertEquals(List.of(
+				new Alteracao(36, Face.OCLUSAL, Condicao.CARIE, Condicao.RESTAURACAO),
+				new Alteracao(46, null, null, Condicao.COROA),
+				new Alteracao(46, null, Condicao.TRATAMENTO_CANAL, null)), ANTERIOR.alteracoes(atual));
+		assertTrue(atual.alteracoes(atual).isEmpty());
+	}
+}
@@ -0,0 +1,57 @@
+-- Benchmark dos aniversariantes (MONTH()/DAY() sobre data_nascimento x faixa em mes_dia).
+--
+-- Uso, num banco descartável já migrado pelo Flyway (até a V9):
+--   psql -d odonto_bench -f aniversariantes_mes_dia.sql
+--
+-- Gera 400.000 pacientes com nascimentos espalhados por ~70 anos e imprime o
+-- EXPLAIN (ANALYZE, BUFFERS) das buscas antigas e das novas. O esperado:
+--   * antiga (MONTH(...) = ? AND DAY(...) = ?) -> Seq Scan nos 400k
+--   * nova (mes_dia BETWEEN ? AND ?)            -> Index Scan / Bitmap Index Scan em
+--     idx_pacientes_mes_dia, lendo só ~1/365 das linhas
+--   * próximos 7 dias a partir de 28/12         -> duas faixas (1228..1231 e 101..103),
+--     cada uma pelo índice
+
+\timing on
+SET client_min_messages = warning;
+
+BEGIN;
+
+INSERT INTO pacientes (nome, cpf, data_nascimento, telefone, busca, mes_dia, created_at, active)
+SELECT 'Paciente ' || g, lpad(g::text, 11, '0'), date '1950-01-01' + (g % 25000), '11999990000',
+       'paciente ' || g, to_char(date '1950-01-01' + (g % 25000), 'MMDD')::smallint, now(), true
+FROM generate_series(1, 400000) g;
+
+ANALYZE pacientes;
+
+\echo '== aniversariantes de 15/03: antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE EXTRACT(MONTH FROM data_nascimento) = 3 AND EXTRACT(DAY FROM data_nascimento) = 15 AND active = true;
+
+\echo '== aniversariantes de 15/03: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE mes_dia BETWEEN 315 AND 315 AND active = true
+ORDER BY mes_dia, nome, id;
+
+\echo '== aniversariantes de março: antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes WHERE EXTRACT(MONTH FROM data_nascimento) = 3 AND active = true;
+
+\echo '== aniversariantes de março: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE mes_dia BETWEEN 301 AND 331 AND active = true
+ORDER BY mes_dia, nome, id;
+
+\echo '== próximos 7 dias a partir de 28/12: depois (duas faixas)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE mes_dia BETWEEN 1228 AND 1231 AND active = true
+ORDER BY mes_dia, nome, id;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE mes_dia BETWEEN 101 AND 103 AND active = true
+ORDER BY mes_dia, nome, id;
+
+ROLLBACK;
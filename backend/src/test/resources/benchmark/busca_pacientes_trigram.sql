@@ -0,0 +1,92 @@
+-- Benchmark da busca de pacientes (LIKE %termo% em quatro colunas x trigramas em busca).
+--
+-- Uso, num banco descartável já migrado pelo Flyway (até a V7):
+--   psql -d odonto_bench -f busca_pacientes_trigram.sql
+--
+-- Gera 400.000 pacientes com nomes brasileiros acentuados, CPF, telefone e e-mail, e
+-- imprime o EXPLAIN (ANALYZE, BUFFERS) da busca antiga e da nova para alguns termos.
+-- O esperado:
+--   * antiga (4 x LIKE '%termo%', sensível a caixa e acento) -> Seq Scan nos 400k, em segundos,
+--     e "jose" não encontra "José"
+--   * nova (busca LIKE ... OR termo <% busca)                -> Bitmap Index Scan em
+--     idx_pacientes_busca_trgm, dezenas de ms, com "jose" encontrando "José" e
+--     "joao silvia" tolerando o erro de digitação
+
+\timing on
+SET client_min_messages = warning;
+
+BEGIN;
+
+-- A coluna busca é preenchida aqui com unaccent, como na V7 (na aplicação é o Paciente)
+WITH nomes AS (
+    SELECT ARRAY['José', 'João', 'Maria', 'Ana', 'Antônio', 'Francisco', 'Luíza', 'Márcia', 'Sebastião',
+                 'Conceição', 'Lúcia', 'André', 'Cecília', 'Patrícia', 'Vitória', 'Inês'] AS primeiro,
+           ARRAY['Silva', 'Souza', 'Conceição', 'Araújo', 'Gonçalves', 'Simões', 'Magalhães', 'Ribeiro',
+                 'Guimarães', 'Damião', 'Assunção', 'Falcão', 'Brandão', 'Peçanha'] AS sobrenome
+),
+gerados AS (
+    SELECT g,
+           n.primeiro[1 + g % 16] || ' ' || n.sobrenome[1 + (g / 16) % 14] || ' ' ||
+           n.sobrenome[1 + (g / 224) % 14] AS nome,
+           lpad((g * 7919 % 100000000000)::text, 11, '0') AS cpf,
+           '(11) 9' || lpad((g % 100000000)::text, 8, '0') AS telefone,
+           'paciente' || g || '@exemplo.com.br' AS email
+    FROM generate_series(1, 400000) g, nomes n
+)
+INSERT INTO pacientes (nome, cpf, data_nascimento, telefone, email, busca, created_at, active)
+SELECT nome, cpf, date '1950-01-01' + (g % 25000), telefone, email,
+       concat_ws(' ', lower(unaccent(nome)), lower(email), cpf, regexp_replace(telefone, '\D', '', 'g')),
+       now(), true
+FROM gerados;
+
+ANALYZE pacientes;
+
+-- Nome ----------------------------------------------------------------------------
+
+\echo '== buscarPorTermo("José Simões"): antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE (nome LIKE '%José Simões%' OR cpf LIKE '%José Simões%' OR telefone LIKE '%José Simões%'
+       OR email LIKE '%José Simões%') AND active = true
+ORDER BY nome LIMIT 10;
+
+\echo '== buscarPorTermo("jose simoes"): antes (sem acento não encontra)'
+SELECT count(*) FROM pacientes
+WHERE (nome LIKE '%jose simoes%' OR cpf LIKE '%jose simoes%' OR telefone LIKE '%jose simoes%'
+       OR email LIKE '%jose simoes%') AND active = true;
+
+\echo '== buscarPorTermo("jose simoes"): depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE active = true AND (busca LIKE '%jose simoes%' OR 'jose simoes' <% busca)
+ORDER BY word_similarity('jose simoes', busca) DESC, nome, id LIMIT 10;
+
+\echo '== buscarPorTermo("joao silvia") com erro de digitação: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE active = true AND (busca LIKE '%joao silvia%' OR 'joao silvia' <% busca)
+ORDER BY word_similarity('joao silvia', busca) DESC, nome, id LIMIT 10;
+
+-- CPF e telefone ------------------------------------------------------------------
+
+\echo '== buscarPorTermo("000791"): antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE (nome LIKE '%000791%' OR cpf LIKE '%000791%' OR telefone LIKE '%000791%' OR email LIKE '%000791%')
+  AND active = true
+ORDER BY nome LIMIT 10;
+
+\echo '== buscarPorTermo("99 0012-345") normalizado para 990012345: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pacientes
+WHERE active = true AND (busca LIKE '%990012345%' OR '990012345' <% busca)
+ORDER BY word_similarity('990012345', busca) DESC, nome, id LIMIT 10;
+
+-- Contagem da página (countQuery) -------------------------------------------------
+
+\echo '== count da busca "conceicao": depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM pacientes
+WHERE active = true AND (busca LIKE '%conceicao%' OR 'conceicao' <% busca);
+
+ROLLBACK;
@@ -0,0 +1,68 @@
+-- Benchmark da busca em prontuários (LIKE '%termo%' em cinco colunas x tsvector + GIN).
+--
+-- Uso, num banco descartável já migrado pelo Flyway (até a V10):
+--   psql -d odonto_bench -f busca_prontuarios_tsvector.sql
+--
+-- Gera 2.000.000 de prontuários com textos clínicos combinados e imprime o
+-- EXPLAIN (ANALYZE, BUFFERS) da busca antiga e da nova. O esperado:
+--   * antiga (cinco LIKE '%pulpite%')         -> Seq Scan nos 2M, lendo todo o TEXT
+--   * nova (busca @@ websearch_to_tsquery)    -> Bitmap Index Scan em idx_prontuarios_busca,
+--     ordenação só das linhas encontradas e ts_headline só nas 21 da página
+
+\timing on
+SET client_min_messages = warning;
+
+BEGIN;
+
+INSERT INTO pacientes (nome, cpf, data_nascimento, telefone, busca, mes_dia, created_at, active)
+SELECT 'Paciente ' || g, lpad(g::text, 11, '0'), date '1970-01-01' + g, '11999990000',
+       'paciente ' || g, to_char(date '1970-01-01' + g, 'MMDD')::smallint, now(), true
+FROM generate_series(1, 20000) g;
+
+INSERT INTO dentistas (nome, cro, cro_estado, telefone, created_at, active)
+SELECT 'Dentista ' || g, 'B' || g, 'SP', '1133330000', now(), true
+FROM generate_series(1, 20) g;
+
+INSERT INTO prontuarios (paciente_id, dentista_id, data_consulta, queixa_principal, diagnostico,
+                         procedimentos_realizados, plano_tratamento, anamnese, created_at, active)
+SELECT (SELECT min(id) FROM pacientes) + g % 20000,
+       (SELECT min(id) FROM dentistas) + g % 20,
+       date '2015-01-01' + g % 3650,
+       (ARRAY['Dor ao mastigar', 'Sensibilidade ao frio', 'Sangramento gengival', 'Dente escurecido',
+              'Revisão de rotina'])[1 + g % 5],
+       (ARRAY['Cárie oclusal', 'Gengivite', 'Periodontite crônica', 'Pulpite irreversível',
+              'Fratura de restauração', 'Sem alterações'])[1 + g % 6],
+       (ARRAY['Restauração em resina', 'Raspagem supragengival', 'Profilaxia e aplicação de flúor',
+              'Acesso endodôntico', 'Exodontia simples'])[1 + g % 5],
+       (ARRAY['Acompanhamento em seis meses', 'Tratamento de canal em três sessões',
+              'Clareamento após restaurações', 'Encaminhar para periodontista'])[1 + g % 4],
+       'Paciente relata ' || (ARRAY['hipertensão controlada', 'diabetes tipo 2', 'nenhuma doença sistêmica',
+                                    'alergia a penicilina', 'uso de anticoagulante'])[1 + g % 5]
+           || '. Registro ' || g,
+       now(), true
+FROM generate_series(1, 2000000) g;
+
+ANALYZE prontuarios;
+
+\echo '== pulpite: antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM prontuarios p
+WHERE (p.anamnese LIKE '%pulpite%' OR p.diagnostico LIKE '%pulpite%' OR p.plano_tratamento LIKE '%pulpite%'
+       OR p.procedimentos_realizados LIKE '%pulpite%' OR p.queixa_principal LIKE '%pulpite%')
+  AND p.active = true;
+
+\echo '== pulpite: depois (primeira página)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id, ts_rank_cd(p.busca, q) AS relevancia
+FROM prontuarios p, websearch_to_tsquery('portugues_sem_acento', 'pulpite') q
+WHERE p.busca @@ q AND p.active
+ORDER BY relevancia DESC, p.id DESC LIMIT 21;
+
+\echo '== "tratamento de canal" -anticoagulante: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.id, ts_rank_cd(p.busca, q) AS relevancia
+FROM prontuarios p, websearch_to_tsquery('portugues_sem_acento', '"tratamento de canal" -anticoagulante') q
+WHERE p.busca @@ q AND p.active
+ORDER BY relevancia DESC, p.id DESC LIMIT 21;
+
+ROLLBACK;
@@ -0,0 +1,139 @@
+-- Benchmark dos predicados por data (DATE(coluna) x intervalo semiaberto).
+--
+-- Uso, num banco descartável já migrado pelo Flyway (V1 e V2):
+--   psql -d odonto_bench -f planos_predicados_data.sql
+--
+-- Popula 1.000.000 de consultas, 1.000.000 de pagamentos e 1.000.000 de prontuários
+-- distribuídos em ~14 meses, e imprime o EXPLAIN (ANALYZE, BUFFERS) das consultas
+-- antigas e das reescritas. O esperado:
+--   * DATE(data_hora) = ?          -> Seq Scan em consultas inteira (o índice não serve
+--                                     para a expressão DATE(...))
+--   * data_hora >= ? AND < ?       -> Index Scan / Bitmap Index Scan em
+--                                     idx_consultas_data_hora_id (V3), lendo só as linhas do dia
+--   * dentista + dia               -> Index Scan em idx_consultas_dentista_data_hora
+--   * pagamentos pendentes vencidos-> Index Scan em idx_pagamentos_status_vencimento
+--   * prontuários do paciente      -> Index Scan em idx_prontuarios_paciente_data_consulta,
+--                                     já na ordem do ORDER BY (sem Sort)
+
+\timing on
+SET client_min_messages = warning;
+
+BEGIN;
+
+-- Dados de base -------------------------------------------------------------------
+
+INSERT INTO usuarios (nome, email, senha, role, created_at, active)
+SELECT 'Usuário ' || g, 'bench' || g || '@odonto.local', 'x', 'DENTISTA', now(), true
+FROM generate_series(1, 50) g;
+
+INSERT INTO dentistas (nome, cro, cro_estado, telefone, horario_inicio, horario_fim,
+                       dias_trabalho, tempo_consulta, created_at, active)
+SELECT 'Dentista ' || g, 'B' || g, 'SP', '1100000000', '08:00', '18:00', '1 a 5', 30, now(), true
+FROM generate_series(1, 50) g;
+
+INSERT INTO pacientes (nome, cpf, data_nascimento, telefone, created_at, active)
+SELECT 'Paciente ' || g, lpad(g::text, 11, '0'),
+       date '1950-01-01' + (g % 25000), '1190000' || lpad((g % 10000)::text, 4, '0'), now(), true
+FROM generate_series(1, 100000) g;
+
+-- 1M consultas: cada dentista com horários de 30 minutos sem sobreposição
+-- (respeita consultas_sem_sobreposicao), ~14 meses de agenda
+INSERT INTO consultas (paciente_id, dentista_id, data_hora, status, duracao_minutos,
+                       tipo_consulta, primeira_consulta, created_at, active)
+SELECT (SELECT min(id) FROM pacientes) + (g % 100000),
+       (SELECT min(id) FROM dentistas) + (g % 50),
+       timestamp '2023-01-02 08:00' + ((g / 50) * interval '30 minutes'),
+       (ARRAY['AGENDADA', 'CONFIRMADA', 'REALIZADA', 'CANCELADA', 'FALTOU'])[1 + g % 5],
+       30, 'CONSULTA', false, now(), (g % 20) <> 0
+FROM generate_series(0, 999999) g;
+
+INSERT INTO pagamentos (consulta_id, valor, valor_final, data_vencimento, data_pagamento,
+                        forma_pagamento, status, created_at, active)
+SELECT c.id, 150, 150, c.data_hora::date + 30,
+       CASE WHEN c.id % 3 = 0 THEN NULL ELSE c.data_hora + interval '2 days' END,
+       'PIX', CASE WHEN c.id % 3 = 0 THEN 'PENDENTE' ELSE 'PAGO' END, now(), true
+FROM consultas c;
+
+INSERT INTO prontuarios (paciente_id, dentista_id, consulta_id, data_consulta, status_tratamento,
+                         created_at, active)
+SELECT c.paciente_id, c.dentista_id, c.id, c.data_hora::date, 'EM_ANDAMENTO', now(), true
+FROM consultas c;
+
+COMMIT;
+
+ANALYZE consultas;
+ANALYZE pagamentos;
+ANALYZE prontuarios;
+
+-- Consultas do dia ----------------------------------------------------------------
+
+\echo '== ConsultaRepository.findByData: antes (DATE)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM consultas WHERE DATE(data_hora) = date '2023-06-13' AND active ORDER BY data_hora;
+
+\echo '== ConsultaRepository.findByData: depois (intervalo semiaberto)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM consultas
+WHERE data_hora >= timestamp '2023-06-13' AND data_hora < timestamp '2023-06-14' AND active
+ORDER BY data_hora;
+
+\echo '== ConsultaRepository.countByData: antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM consultas WHERE DATE(data_hora) = date '2023-06-13' AND active;
+
+\echo '== ConsultaRepository.countByData: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM consultas
+WHERE data_hora >= timestamp '2023-06-13' AND data_hora < timestamp '2023-06-14' AND active;
+
+-- Agenda do dentista no dia -------------------------------------------------------
+
+\echo '== ConsultaRepository.findByDentistaAndData: antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM consultas
+WHERE dentista_id = (SELECT min(id) FROM dentistas) AND DATE(data_hora) = date '2023-06-13' AND active
+ORDER BY data_hora;
+
+\echo '== ConsultaRepository.findByDentistaAndData: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM consultas
+WHERE dentista_id = (SELECT min(id) FROM dentistas)
+  AND data_hora >= timestamp '2023-06-13' AND data_hora < timestamp '2023-06-14' AND active
+ORDER BY data_hora;
+
+-- Pagamentos ----------------------------------------------------------------------
+
+\echo '== PagamentoRepository.findByDataPagamento: antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pagamentos WHERE DATE(data_pagamento) = date '2023-06-15' AND active;
+
+\echo '== PagamentoRepository.findByDataPagamento: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pagamentos
+WHERE data_pagamento >= timestamp '2023-06-15' AND data_pagamento < timestamp '2023-06-16' AND active;
+
+\echo '== PagamentoRepository.somarReceitasPeriodo: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT sum(valor_final) FROM pagamentos
+WHERE status = 'PAGO' AND data_pagamento >= timestamp '2023-06-01' AND data_pagamento < timestamp '2023-07-01'
+  AND active;
+
+\echo '== PagamentoRepository.findVencidos (status, data_vencimento)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM pagamentos WHERE data_vencimento < date '2023-03-01' AND status = 'PENDENTE' AND active;
+
+-- Prontuários ---------------------------------------------------------------------
+
+\echo '== ProntuarioRepository.findByDataConsulta: antes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM prontuarios WHERE DATE(data_consulta) = date '2023-06-13' AND active;
+
+\echo '== ProntuarioRepository.findByDataConsulta: depois'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM prontuarios WHERE data_consulta = date '2023-06-13' AND active;
+
+\echo '== ProntuarioRepository.findByPacienteOrderByDataConsultaDesc'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM prontuarios
+WHERE paciente_id = (SELECT min(id) + 42 FROM pacientes) AND active
+ORDER BY data_consulta DESC;